@@ -0,0 +1,83 @@
+package org.walletservice.wallet_service.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+
+import java.util.Map;
+
+/**
+ * Moves the id sequences past the ids already in use.
+ *
+ * Rows written while ids came from AUTO_INCREMENT columns would otherwise collide with
+ * the first blocks handed out by the pooled-lo allocator. Runs once the schema is up to
+ * date and before the web server accepts requests. Sequences only ever move forward, so
+ * restarting a node never hands out an id twice.
+ */
+@Component
+public class IdSequenceInitializer implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "wallets", WalletEntity.ID_SEQUENCE,
+            "transactions", TransactionEntity.ID_SEQUENCE
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        alignSequences();
+    }
+
+    public void alignSequences() {
+        SEQUENCES.forEach((table, sequence) -> {
+            try {
+                alignSequence(table, sequence);
+            } catch (DataAccessException e) {
+                // Running on would let the pooled allocator hand out ids that are already taken
+                log.error("❌ Could not align id sequence {} with table {}: {}", sequence, table, e.getMessage());
+                throw new IllegalStateException("Id sequence " + sequence + " could not be moved past the ids of "
+                        + table, e);
+            }
+        });
+    }
+
+    private void alignSequence(String table, String sequence) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        if (maxId == null || maxId == 0) {
+            return;
+        }
+
+        if (dialect.getSequenceSupport().supportsSequences()) {
+            Long next = jdbcTemplate.queryForObject(
+                    dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+            if (next != null && next <= maxId) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + 1));
+                log.info("🔢 Restarted sequence {} at {}", sequence, maxId + 1);
+            }
+        } else {
+            // MySQL: Hibernate emulates the sequence with a one-row table holding next_val
+            int updated = jdbcTemplate.update(
+                    "UPDATE " + sequence + " SET next_val = ? WHERE next_val <= ?", maxId + 1, maxId);
+            if (updated > 0) {
+                log.info("🔢 Moved sequence table {} to {}", sequence, maxId + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.walletservice.wallet_service.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.walletservice.wallet_service.entity.money.Money;
+
+import java.util.List;
+
+/**
+ * Schema changes that {@code ddl-auto: update} does not make on an existing MySQL database.
+ *
+ * Hibernate adds missing tables and columns but never alters a column it already finds, so
+ * relaxed constraints and changed column types are applied here. Each migration checks the
+ * current schema first and is skipped once applied. Runs once the schema is up to date and
+ * before the web server accepts requests; other databases are created from the entities.
+ */
+@Component
+public class SchemaMigrations implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrations.class);
+
+    private record ColumnChange(String table, String column, String pendingCheck, String ddl) {}
+
+    private record MoneyColumn(String table, String column) {}
+
+    private static final List<ColumnChange> CHANGES = List.of(
+            // Journal legs of transfers store neither a transaction id nor a description
+            new ColumnChange("transactions", "transaction_id", "IS_NULLABLE = 'NO'",
+                    "ALTER TABLE transactions MODIFY transaction_id VARCHAR(255) NULL"),
+            new ColumnChange("transactions", "description", "IS_NULLABLE = 'NO'",
+                    "ALTER TABLE transactions MODIFY description VARCHAR(255) NULL")
+    );
+
+    // Money used to be stored as DOUBLE rupees; it is now BIGINT paise
+    private static final List<MoneyColumn> MONEY_COLUMNS = List.of(
+            new MoneyColumn("wallets", "balance"),
+            new MoneyColumn("wallets", "daily_spent"),
+            new MoneyColumn("wallet_balance_slots", "balance"),
+            new MoneyColumn("transactions", "amount"),
+            new MoneyColumn("transfer_commands", "amount")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public SchemaMigrations(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!(dialect instanceof MySQLDialect)) {
+            return;
+        }
+        for (ColumnChange change : CHANGES) {
+            try {
+                apply(change);
+            } catch (DataAccessException e) {
+                log.warn("⚠️ Could not migrate column {}.{}: {}", change.table(), change.column(), e.getMessage());
+            }
+        }
+        for (MoneyColumn money : MONEY_COLUMNS) {
+            // Unlike the changes above this one is not optional: the entities read the column as paise
+            try {
+                convertToPaise(money);
+            } catch (DataAccessException e) {
+                log.error("❌ Could not migrate column {}.{} to paise: {}", money.table(), money.column(), e.getMessage());
+                throw new IllegalStateException("Money column " + money.table() + "." + money.column()
+                        + " is still in rupees and could not be converted", e);
+            }
+        }
+    }
+
+    private void apply(ColumnChange change) {
+        if (columnMatches(change.table(), change.column(), change.pendingCheck())) {
+            jdbcTemplate.execute(change.ddl());
+            log.info("🛠️ Migrated column {}.{}", change.table(), change.column());
+        }
+    }
+
+    /**
+     * Rewrites a DOUBLE rupee column as BIGINT paise. The paise are computed into a side column
+     * first and swapped in with a single ALTER, so a crash at any step leaves either the original
+     * column or the converted one, and the next start picks up where this one stopped. Instances
+     * still running the old code must be stopped first: they would keep writing rupees.
+     */
+    private void convertToPaise(MoneyColumn money) {
+        String table = money.table();
+        String column = money.column();
+        if (!columnMatches(table, column, "DATA_TYPE = 'double'")) {
+            return;
+        }
+        String minor = column + "_minor";
+        if (!columnMatches(table, minor, "1 = 1")) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN " + minor + " BIGINT NULL");
+        }
+        int rows = jdbcTemplate.update("UPDATE " + table + " SET " + minor
+                + " = ROUND(COALESCE(" + column + ", 0) * " + Money.SCALE + ")");
+        jdbcTemplate.execute("ALTER TABLE " + table + " DROP COLUMN " + column
+                + ", CHANGE COLUMN " + minor + " " + column + " BIGINT NOT NULL");
+        log.info("🛠️ Migrated column {}.{} to paise ({} rows)", table, column, rows);
+    }
+
+    private boolean columnMatches(String table, String column, String condition) {
+        Integer matches = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM information_schema.COLUMNS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ? AND\s""" + condition,
+                Integer.class, table, column);
+        return matches != null && matches > 0;
+    }
+}
@@ -11,12 +11,16 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.walletservice.wallet_service.dto.request.UserIdRequestDTO;
+import org.walletservice.wallet_service.dto.response.TransactionSliceResponseDTO;
+import org.walletservice.wallet_service.dto.response.WalletLimitsResponseDTO;
 import org.walletservice.wallet_service.dto.response.WalletResponseDTO;
+import org.walletservice.wallet_service.dto.response.WalletStripingResponseDTO;
 import org.walletservice.wallet_service.dto.response.WalletTransactionResponseDTO;
 import org.walletservice.wallet_service.entity.wallet.WalletEntity;
 import org.walletservice.wallet_service.exception.UnauthorizedAccessException;
 import org.walletservice.wallet_service.security.AuthContext;
 import org.walletservice.wallet_service.service.wallet.WalletFreezeService;
+import org.walletservice.wallet_service.service.wallet.WalletStripingService;
 import org.walletservice.wallet_service.service.wallet.WalletTransactionService;
 import org.walletservice.wallet_service.validation.validator.AuthValidator;
 import org.walletservice.wallet_service.service.wallet.WalletService;
@@ -34,13 +38,15 @@ public class AdminWalletController {
     private final AuthValidator authValidator;
     private final WalletFreezeService walletFreezeService;
     private final WalletTransactionService walletTransactionService;
+    private final WalletStripingService walletStripingService;
 
 
-    public AdminWalletController(WalletService walletService, AuthValidator authValidator, WalletFreezeService walletFreezeService, WalletTransactionService walletTransactionService) {
+    public AdminWalletController(WalletService walletService, AuthValidator authValidator, WalletFreezeService walletFreezeService, WalletTransactionService walletTransactionService, WalletStripingService walletStripingService) {
         this.walletService = walletService;
         this.authValidator = authValidator;
         this.walletFreezeService = walletFreezeService;
         this.walletTransactionService = walletTransactionService;
+        this.walletStripingService = walletStripingService;
     }
 
     @Operation(summary = "Get all wallets for a user", description = "Fetches all wallets associated with a given user ID. Admin only.")
@@ -110,6 +116,120 @@ public class AdminWalletController {
         return ResponseEntity.ok("Wallet " + walletId + " unfrozen successfully");
     }
 
+    @Operation(summary = "Get all transactions", description = "Fetches the transactions of all wallets, newest first. Pass the returned nextCursor to get the next page. Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transactions retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size"),
+            @ApiResponse(responseCode = "403", description = "Unauthorized access")
+    })
+    @GetMapping("/transactions")
+    public ResponseEntity<TransactionSliceResponseDTO> getAllTransactions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            HttpServletRequest httpRequest) {
+
+        AuthContext auth = authValidator.getAuthContext(httpRequest);
+        if (!auth.isAdmin()) {
+            throw new UnauthorizedAccessException("You are not authorized to perform this action");
+        }
+
+        log.info("Admin fetching all transactions, size={}", size);
+        return ResponseEntity.ok(walletTransactionService.getAllTransactions(cursor, size));
+    }
+
+    @Operation(summary = "Enable balance striping", description = "Splits a hot wallet's balance into the given number of slots so concurrent credits update different rows. Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Striping enabled"),
+            @ApiResponse(responseCode = "409", description = "Wallet is already striped"),
+            @ApiResponse(responseCode = "403", description = "Unauthorized access")
+    })
+    @PostMapping("/wallets/{walletId}/striping")
+    public ResponseEntity<WalletStripingResponseDTO> enableStriping(
+            @PathVariable Long walletId,
+            @RequestParam(defaultValue = "8") int stripes,
+            HttpServletRequest httpRequest) {
+
+        AuthContext auth = authValidator.getAuthContext(httpRequest);
+        if (!auth.isAdmin()) {
+            throw new UnauthorizedAccessException("You are not authorized to perform this action");
+        }
+
+        log.info("Admin enabling striping for walletId={} with {} slots", walletId, stripes);
+        return ResponseEntity.ok(walletStripingService.enable(walletId, stripes));
+    }
+
+    @Operation(summary = "Disable balance striping", description = "Moves the balance of all slots back to the wallet row. Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Striping disabled"),
+            @ApiResponse(responseCode = "409", description = "Wallet is not striped"),
+            @ApiResponse(responseCode = "403", description = "Unauthorized access")
+    })
+    @DeleteMapping("/wallets/{walletId}/striping")
+    public ResponseEntity<WalletStripingResponseDTO> disableStriping(@PathVariable Long walletId, HttpServletRequest httpRequest) {
+        AuthContext auth = authValidator.getAuthContext(httpRequest);
+        if (!auth.isAdmin()) {
+            throw new UnauthorizedAccessException("You are not authorized to perform this action");
+        }
+
+        log.info("Admin disabling striping for walletId={}", walletId);
+        return ResponseEntity.ok(walletStripingService.disable(walletId));
+    }
+
+    @Operation(summary = "Rebalance striped wallet", description = "Spreads a striped wallet's balance evenly across its slots. Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Slots rebalanced"),
+            @ApiResponse(responseCode = "409", description = "Wallet is not striped"),
+            @ApiResponse(responseCode = "403", description = "Unauthorized access")
+    })
+    @PostMapping("/wallets/{walletId}/striping/rebalance")
+    public ResponseEntity<WalletStripingResponseDTO> rebalanceStriping(@PathVariable Long walletId, HttpServletRequest httpRequest) {
+        AuthContext auth = authValidator.getAuthContext(httpRequest);
+        if (!auth.isAdmin()) {
+            throw new UnauthorizedAccessException("You are not authorized to perform this action");
+        }
+
+        log.info("Admin rebalancing striped walletId={}", walletId);
+        return ResponseEntity.ok(walletStripingService.rebalance(walletId));
+    }
+
+    @Operation(summary = "Get spending limits", description = "Shows a wallet's limit tier and how much of each limit window it has used. Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Limits retrieved"),
+            @ApiResponse(responseCode = "404", description = "Wallet not found"),
+            @ApiResponse(responseCode = "403", description = "Unauthorized access")
+    })
+    @GetMapping("/wallets/{walletId}/limits")
+    public ResponseEntity<WalletLimitsResponseDTO> getLimits(@PathVariable Long walletId, HttpServletRequest httpRequest) {
+        AuthContext auth = authValidator.getAuthContext(httpRequest);
+        if (!auth.isAdmin()) {
+            throw new UnauthorizedAccessException("You are not authorized to perform this action");
+        }
+
+        return ResponseEntity.ok(walletService.getLimits(walletId));
+    }
+
+    @Operation(summary = "Change limit tier", description = "Moves a wallet to another configured spending limit tier. Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tier changed"),
+            @ApiResponse(responseCode = "400", description = "Unknown tier"),
+            @ApiResponse(responseCode = "404", description = "Wallet not found"),
+            @ApiResponse(responseCode = "403", description = "Unauthorized access")
+    })
+    @PutMapping("/wallets/{walletId}/limits/tier")
+    public ResponseEntity<WalletLimitsResponseDTO> updateTier(
+            @PathVariable Long walletId,
+            @RequestParam String tier,
+            HttpServletRequest httpRequest) {
+
+        AuthContext auth = authValidator.getAuthContext(httpRequest);
+        if (!auth.isAdmin()) {
+            throw new UnauthorizedAccessException("You are not authorized to perform this action");
+        }
+
+        log.info("Admin moving walletId={} to limit tier {}", walletId, tier);
+        return ResponseEntity.ok(walletService.updateTier(walletId, tier));
+    }
+
     @Operation(summary = "Get wallet transactions", description = "Retrieve all transactions for a specific wallet. Admin only.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Transactions retrieved successfully"),
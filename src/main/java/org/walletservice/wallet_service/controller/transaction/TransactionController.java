@@ -1,5 +1,6 @@
 package org.walletservice.wallet_service.controller.transaction;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -8,22 +9,39 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.walletservice.wallet_service.exception.UnauthorizedAccessException;
 import org.walletservice.wallet_service.security.AuthContext;
 import org.walletservice.wallet_service.validation.validator.AuthValidator;
+import org.walletservice.wallet_service.dto.request.HoldCaptureRequestDTO;
+import org.walletservice.wallet_service.dto.request.HoldRequestDTO;
+import org.walletservice.wallet_service.dto.request.ScheduledTransferRequestDTO;
+import org.walletservice.wallet_service.dto.request.WalletBatchTransactionRequestDTO;
 import org.walletservice.wallet_service.dto.request.WalletTransactionRequestDTO;
 import org.walletservice.wallet_service.dto.request.WalletTransferRequestDTO;
+import org.walletservice.wallet_service.dto.response.BatchTransactionResultDTO;
+import org.walletservice.wallet_service.dto.response.HoldResponseDTO;
+import org.walletservice.wallet_service.dto.response.ScheduledTransferResponseDTO;
+import org.walletservice.wallet_service.dto.response.TransactionSliceResponseDTO;
+import org.walletservice.wallet_service.dto.response.TransferStatusResponseDTO;
 import org.walletservice.wallet_service.dto.response.WalletTransactionResponseDTO;
 import org.walletservice.wallet_service.entity.transaction.TransactionType;
+import org.walletservice.wallet_service.service.export.ExportFormat;
+import org.walletservice.wallet_service.service.export.TransactionExportService;
+import org.walletservice.wallet_service.service.hold.HoldService;
+import org.walletservice.wallet_service.service.idempotency.IdempotencyService;
 import org.walletservice.wallet_service.service.transaction.TransactionService;
+import org.walletservice.wallet_service.service.transfer.AsyncTransferService;
+import org.walletservice.wallet_service.service.transfer.ScheduledTransferService;
 import org.walletservice.wallet_service.service.wallet.WalletTransactionService;
 
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -35,25 +53,49 @@ public class TransactionController {
     private static final Logger log = LoggerFactory.getLogger(TransactionController.class);
     private final WalletTransactionService walletTransactionService;
     private final TransactionService transactionService;
+    private final AsyncTransferService asyncTransferService;
+    private final ScheduledTransferService scheduledTransferService;
+    private final HoldService holdService;
+    private final TransactionExportService transactionExportService;
+    private final IdempotencyService idempotencyService;
     private final AuthValidator authValidator;
 
+    private static final TypeReference<WalletTransactionResponseDTO> TRANSACTION_RESPONSE = new TypeReference<>() {};
+    private static final TypeReference<TransferStatusResponseDTO> TRANSFER_STATUS_RESPONSE = new TypeReference<>() {};
+    private static final TypeReference<ScheduledTransferResponseDTO> SCHEDULED_TRANSFER_RESPONSE = new TypeReference<>() {};
+    private static final TypeReference<HoldResponseDTO> HOLD_RESPONSE = new TypeReference<>() {};
+    private static final TypeReference<List<BatchTransactionResultDTO>> BATCH_RESPONSE = new TypeReference<>() {};
+
     public TransactionController(WalletTransactionService walletTransactionService,
                                  TransactionService transactionService,
+                                 AsyncTransferService asyncTransferService,
+                                 ScheduledTransferService scheduledTransferService,
+                                 HoldService holdService,
+                                 TransactionExportService transactionExportService,
+                                 IdempotencyService idempotencyService,
                                  AuthValidator authValidator) {
         this.walletTransactionService = walletTransactionService;
         this.transactionService = transactionService;
+        this.asyncTransferService = asyncTransferService;
+        this.scheduledTransferService = scheduledTransferService;
+        this.holdService = holdService;
+        this.transactionExportService = transactionExportService;
+        this.idempotencyService = idempotencyService;
         this.authValidator = authValidator;
     }
 
     @Operation(summary = "Process a CREDIT or DEBIT transaction", description = "Processes a single transaction (CREDIT or DEBIT) for a specific wallet.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Transaction processed successfully"),
-            @ApiResponse(responseCode = "403", description = "Unauthorized access")
+            @ApiResponse(responseCode = "403", description = "Unauthorized access"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is in progress"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key was used for a different request")
     })
     @PostMapping("/{walletId}")
     public ResponseEntity<WalletTransactionResponseDTO> processTransaction(
             @PathVariable Long walletId,
             @Valid @RequestBody WalletTransactionRequestDTO request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             HttpServletRequest servletRequest) {
 
         AuthContext auth = authValidator.getAuthContext(servletRequest);
@@ -61,19 +103,25 @@ public class TransactionController {
             throw new UnauthorizedAccessException("You are not allowed to access this wallet.");
         }
 
-        log.info("Processing {} transaction for walletId={} amount={}", request.type(), walletId, request.amount());
-        WalletTransactionResponseDTO response = walletTransactionService.processTransaction(walletId, request);
-        return ResponseEntity.status(201).body(response);
+        return idempotencyService.execute(auth.getUserId(), idempotencyKey, "POST /transactions/" + walletId,
+                request, TRANSACTION_RESPONSE, () -> {
+                    log.info("Processing {} transaction for walletId={} amount={}", request.type(), walletId, request.amount());
+                    WalletTransactionResponseDTO response = walletTransactionService.processTransaction(walletId, request);
+                    return ResponseEntity.status(201).body(response);
+                });
     }
 
     @Operation(summary = "Transfer money between wallets", description = "Transfers money from one wallet to another.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Transfer completed successfully"),
-            @ApiResponse(responseCode = "403", description = "Unauthorized access")
+            @ApiResponse(responseCode = "403", description = "Unauthorized access"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is in progress"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key was used for a different request")
     })
     @PostMapping("/transfer")
     public ResponseEntity<WalletTransactionResponseDTO> transferMoney(
             @Valid @RequestBody WalletTransferRequestDTO request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             HttpServletRequest servletRequest) {
 
         AuthContext auth = authValidator.getAuthContext(servletRequest);
@@ -81,11 +129,216 @@ public class TransactionController {
             throw new UnauthorizedAccessException("You are not allowed to access this wallet.");
         }
 
-        log.info("Initiating transfer: {} → {} | amount={}",
-                request.fromWalletId(), request.toWalletId(), request.amount());
-        WalletTransactionResponseDTO response = walletTransactionService.transferMoney(
-                request.fromWalletId(), request.toWalletId(), request.amount());
-        return ResponseEntity.status(201).body(response);
+        return idempotencyService.execute(auth.getUserId(), idempotencyKey, "POST /transactions/transfer",
+                request, TRANSACTION_RESPONSE, () -> {
+                    log.info("Initiating transfer: {} → {} | amount={}",
+                            request.fromWalletId(), request.toWalletId(), request.amount());
+                    WalletTransactionResponseDTO response = walletTransactionService.transferMoney(
+                            request.fromWalletId(), request.toWalletId(), request.amount());
+                    return ResponseEntity.status(201).body(response);
+                });
+    }
+
+    @Operation(summary = "Submit a transfer for asynchronous processing", description = "Durably enqueues a transfer and returns immediately with a transfer id to poll.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Transfer accepted"),
+            @ApiResponse(responseCode = "403", description = "Unauthorized access"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is in progress"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key was used for a different request")
+    })
+    @PostMapping("/transfer/async")
+    public ResponseEntity<TransferStatusResponseDTO> submitTransfer(
+            @Valid @RequestBody WalletTransferRequestDTO request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest servletRequest) {
+
+        AuthContext auth = authValidator.getAuthContext(servletRequest);
+        if (!authValidator.isAuthorizedForWallet(auth, request.fromWalletId())) {
+            throw new UnauthorizedAccessException("You are not allowed to access this wallet.");
+        }
+
+        return idempotencyService.execute(auth.getUserId(), idempotencyKey, "POST /transactions/transfer/async",
+                request, TRANSFER_STATUS_RESPONSE, () -> {
+                    log.info("Queueing transfer: {} → {} | amount={}",
+                            request.fromWalletId(), request.toWalletId(), request.amount());
+                    TransferStatusResponseDTO response = asyncTransferService.submit(
+                            request.fromWalletId(), request.toWalletId(), request.amount());
+                    return ResponseEntity.accepted()
+                            .location(URI.create("/transactions/transfer/" + response.transferId()))
+                            .body(response);
+                });
+    }
+
+    @Operation(summary = "Get the status of an asynchronous transfer", description = "Returns the current status of a transfer submitted to /transactions/transfer/async.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transfer status fetched successfully"),
+            @ApiResponse(responseCode = "404", description = "Transfer not found")
+    })
+    @GetMapping("/transfer/{transferId}")
+    public ResponseEntity<TransferStatusResponseDTO> getTransferStatus(
+            @PathVariable String transferId,
+            HttpServletRequest servletRequest) {
+
+        AuthContext auth = authValidator.getAuthContext(servletRequest);
+        return ResponseEntity.ok(asyncTransferService.getStatus(transferId, auth.getUserId(), auth.isAdmin()));
+    }
+
+    @Operation(summary = "Schedule a one-off or recurring transfer", description = "Stores a standing order; each run is applied as an asynchronous transfer.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Transfer scheduled"),
+            @ApiResponse(responseCode = "400", description = "Invalid schedule"),
+            @ApiResponse(responseCode = "403", description = "Unauthorized access"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is in progress"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key was used for a different request")
+    })
+    @PostMapping("/transfer/scheduled")
+    public ResponseEntity<ScheduledTransferResponseDTO> scheduleTransfer(
+            @Valid @RequestBody ScheduledTransferRequestDTO request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest servletRequest) {
+
+        AuthContext auth = authValidator.getAuthContext(servletRequest);
+        if (!authValidator.isAuthorizedForWallet(auth, request.fromWalletId())) {
+            throw new UnauthorizedAccessException("You are not allowed to access this wallet.");
+        }
+
+        return idempotencyService.execute(auth.getUserId(), idempotencyKey, "POST /transactions/transfer/scheduled",
+                request, SCHEDULED_TRANSFER_RESPONSE, () -> {
+                    log.info("Scheduling {} transfer: {} → {} | amount={}",
+                            request.recurrence(), request.fromWalletId(), request.toWalletId(), request.amount());
+                    return ResponseEntity.status(201).body(scheduledTransferService.schedule(request));
+                });
+    }
+
+    @Operation(summary = "List scheduled transfers", description = "Lists the scheduled transfers of the current user, newest first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Scheduled transfers fetched successfully")
+    })
+    @GetMapping("/transfer/scheduled")
+    public ResponseEntity<List<ScheduledTransferResponseDTO>> listScheduledTransfers(HttpServletRequest servletRequest) {
+        AuthContext auth = authValidator.getAuthContext(servletRequest);
+        return ResponseEntity.ok(scheduledTransferService.listSchedules(auth.getUserId()));
+    }
+
+    @Operation(summary = "Cancel a scheduled transfer", description = "Stops further runs of a scheduled transfer. A run already enqueued is still applied.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Scheduled transfer cancelled"),
+            @ApiResponse(responseCode = "404", description = "Scheduled transfer not found"),
+            @ApiResponse(responseCode = "409", description = "Scheduled transfer is no longer active")
+    })
+    @DeleteMapping("/transfer/scheduled/{scheduleId}")
+    public ResponseEntity<ScheduledTransferResponseDTO> cancelScheduledTransfer(
+            @PathVariable String scheduleId,
+            HttpServletRequest servletRequest) {
+
+        AuthContext auth = authValidator.getAuthContext(servletRequest);
+        log.info("Cancelling scheduled transfer {}", scheduleId);
+        return ResponseEntity.ok(scheduledTransferService.cancel(scheduleId, auth.getUserId(), auth.isAdmin()));
+    }
+
+    @Operation(summary = "Authorize a hold", description = "Reserves funds of a wallet for a later capture. Held funds cannot be debited otherwise until the hold is captured, voided or expires.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Hold authorized"),
+            @ApiResponse(responseCode = "400", description = "Insufficient available balance or invalid expiry"),
+            @ApiResponse(responseCode = "403", description = "Unauthorized access"),
+            @ApiResponse(responseCode = "409", description = "Spending limit exceeded, or the wallet cannot hold funds"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key was used for a different request"),
+            @ApiResponse(responseCode = "423", description = "Wallet is frozen")
+    })
+    @PostMapping("/{walletId}/holds")
+    public ResponseEntity<HoldResponseDTO> authorizeHold(
+            @PathVariable Long walletId,
+            @Valid @RequestBody HoldRequestDTO request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest servletRequest) {
+
+        AuthContext auth = authValidator.getAuthContext(servletRequest);
+        if (!authValidator.isAuthorizedForWallet(auth, walletId)) {
+            throw new UnauthorizedAccessException("You are not allowed to access this wallet.");
+        }
+
+        return idempotencyService.execute(auth.getUserId(), idempotencyKey, "POST /transactions/" + walletId + "/holds",
+                request, HOLD_RESPONSE, () -> {
+                    log.info("Authorizing hold on walletId={} amount={}", walletId, request.amount());
+                    return ResponseEntity.status(201).body(holdService.authorize(walletId, request, auth.getUserId()));
+                });
+    }
+
+    @Operation(summary = "Capture a hold", description = "Debits all or part of an authorized hold; the rest is released.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hold captured"),
+            @ApiResponse(responseCode = "400", description = "Capture amount is larger than the hold"),
+            @ApiResponse(responseCode = "404", description = "Hold not found"),
+            @ApiResponse(responseCode = "409", description = "Hold is no longer authorized or has expired")
+    })
+    @PostMapping("/holds/{holdId}/capture")
+    public ResponseEntity<HoldResponseDTO> captureHold(
+            @PathVariable String holdId,
+            @Valid @RequestBody(required = false) HoldCaptureRequestDTO request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest servletRequest) {
+
+        AuthContext auth = authValidator.getAuthContext(servletRequest);
+        Double amount = request != null ? request.amount() : null;
+
+        return idempotencyService.execute(auth.getUserId(), idempotencyKey, "POST /transactions/holds/" + holdId + "/capture",
+                request, HOLD_RESPONSE, () -> {
+                    log.info("Capturing hold {} amount={}", holdId, amount);
+                    return ResponseEntity.ok(holdService.capture(holdId, amount, auth.getUserId(), auth.isAdmin()));
+                });
+    }
+
+    @Operation(summary = "Void a hold", description = "Releases an authorized hold without debiting anything.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hold voided"),
+            @ApiResponse(responseCode = "404", description = "Hold not found"),
+            @ApiResponse(responseCode = "409", description = "Hold is no longer authorized")
+    })
+    @PostMapping("/holds/{holdId}/void")
+    public ResponseEntity<HoldResponseDTO> voidHold(
+            @PathVariable String holdId,
+            HttpServletRequest servletRequest) {
+
+        AuthContext auth = authValidator.getAuthContext(servletRequest);
+        log.info("Voiding hold {}", holdId);
+        return ResponseEntity.ok(holdService.voidHold(holdId, auth.getUserId(), auth.isAdmin()));
+    }
+
+    @Operation(summary = "Get a hold", description = "Returns the current state of a hold.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hold fetched successfully"),
+            @ApiResponse(responseCode = "404", description = "Hold not found")
+    })
+    @GetMapping("/holds/{holdId}")
+    public ResponseEntity<HoldResponseDTO> getHold(
+            @PathVariable String holdId,
+            HttpServletRequest servletRequest) {
+
+        AuthContext auth = authValidator.getAuthContext(servletRequest);
+        return ResponseEntity.ok(holdService.getHold(holdId, auth.getUserId(), auth.isAdmin()));
+    }
+
+    @Operation(summary = "Process a batch of CREDIT/DEBIT transactions", description = "Applies many transactions, possibly across wallets, in one call. Each item reports its own outcome.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see per-item status"),
+            @ApiResponse(responseCode = "400", description = "Invalid batch request"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is in progress"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key was used for a different request")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchTransactionResultDTO>> processBatch(
+            @Valid @RequestBody WalletBatchTransactionRequestDTO request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest servletRequest) {
+
+        AuthContext auth = authValidator.getAuthContext(servletRequest);
+
+        return idempotencyService.execute(auth.getUserId(), idempotencyKey, "POST /transactions/batch",
+                request, BATCH_RESPONSE, () -> {
+                    log.info("Processing batch of {} transactions for userId={}", request.items().size(), auth.getUserId());
+                    List<BatchTransactionResultDTO> results = walletTransactionService.processBatch(request.items());
+                    return ResponseEntity.ok(results);
+                });
     }
 
     @Operation(summary = "List all transactions of a wallet", description = "Retrieves all transactions for a given wallet.")
@@ -108,20 +361,21 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
 
-    @Operation(summary = "Get paginated and filtered transaction history", description = "Fetch transaction history for a wallet with optional filters and pagination.")
+    @Operation(summary = "Get paginated and filtered transaction history", description = "Fetch transaction history for a wallet, newest first, with optional filters. Pass the returned nextCursor to get the next page.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Transaction history retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size"),
             @ApiResponse(responseCode = "403", description = "Unauthorized access")
     })
     @GetMapping("/history")
-    public ResponseEntity<Page<WalletTransactionResponseDTO>> getTransactionHistory(
+    public ResponseEntity<TransactionSliceResponseDTO> getTransactionHistory(
             @RequestParam Long walletId,
             @RequestParam(required = false) TransactionType type,
             @RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size,
             HttpServletRequest servletRequest) {
 
@@ -131,24 +385,69 @@ public class TransactionController {
         }
 
         log.info("Fetching filtered transaction history for walletId={}", walletId);
-        Pageable pageable = PageRequest.of(page, size);
-        Page<WalletTransactionResponseDTO> transactions = walletTransactionService.getFilteredTransactions(
-                walletId, type, startDate, endDate, pageable);
+        TransactionSliceResponseDTO transactions = walletTransactionService.getFilteredTransactions(
+                walletId, type, startDate, endDate, cursor, size);
 
         return ResponseEntity.ok(transactions);
     }
 
-    @Operation(summary = "Get all transactions for the current user", description = "Fetches all wallet transactions for the logged-in user with pagination.")
+    @Operation(summary = "Get all transactions for the current user", description = "Fetches the transactions of all wallets of the logged-in user, newest first. Pass the returned nextCursor to get the next page.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "User transactions retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "User transactions retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
     })
     @GetMapping("/all")
-    public ResponseEntity<Page<WalletTransactionResponseDTO>> getAllUserTransactions(
-            Pageable pageable,
+    public ResponseEntity<TransactionSliceResponseDTO> getAllUserTransactions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
             HttpServletRequest request
     ) {
         String token = authValidator.extractToken(request);
         Long userId = authValidator.extractUserId(token);
-        return ResponseEntity.ok(walletTransactionService.getAllUserTransactions(userId, pageable));
+        return ResponseEntity.ok(walletTransactionService.getAllUserTransactions(userId, cursor, size));
+    }
+
+    @Operation(summary = "Export transactions", description = "Streams transactions in date order as NDJSON or CSV, optionally gzipped. Users export their own wallets; admins may export any wallet or user, or everything.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range"),
+            @ApiResponse(responseCode = "403", description = "Unauthorized access")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(required = false) Long walletId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest servletRequest) {
+
+        AuthContext auth = authValidator.getAuthContext(servletRequest);
+        if (walletId != null && !authValidator.isAuthorizedForWallet(auth, walletId)) {
+            throw new UnauthorizedAccessException("You are not allowed to access this wallet.");
+        }
+        if (!auth.isAdmin()) {
+            if (userId != null && !userId.equals(auth.getUserId())) {
+                throw new UnauthorizedAccessException("You are not allowed to export another user's transactions.");
+            }
+            userId = auth.getUserId();
+        }
+        if (startDate != null && endDate != null && endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("endDate must not be before startDate.");
+        }
+
+        TransactionExportService.ExportFilter filter =
+                new TransactionExportService.ExportFilter(walletId, userId, startDate, endDate);
+        log.info("Exporting transactions as {} for walletId={} userId={}", format, walletId, userId);
+
+        StreamingResponseBody body = out -> transactionExportService.export(filter, format, gzip, out);
+        String filename = "transactions." + format.extension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
     }
 }
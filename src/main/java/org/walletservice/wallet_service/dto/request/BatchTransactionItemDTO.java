@@ -0,0 +1,18 @@
+package org.walletservice.wallet_service.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+@Schema(name = "BatchTransactionItemDTO", description = "One CREDIT or DEBIT of a batch, addressed to a wallet")
+public record BatchTransactionItemDTO(
+
+        @Schema(description = "Wallet the transaction applies to", example = "101", required = true)
+        @NotNull(message = "walletId is required")
+        Long walletId,
+
+        @Schema(description = "Transaction to apply", required = true)
+        @NotNull(message = "transaction is required")
+        @Valid
+        WalletTransactionRequestDTO transaction
+) {}
@@ -0,0 +1,12 @@
+package org.walletservice.wallet_service.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Positive;
+
+@Schema(name = "HoldCaptureRequestDTO", description = "DTO for capturing an authorized hold")
+public record HoldCaptureRequestDTO(
+
+        @Schema(description = "Amount to capture, at most the amount held; the whole hold when omitted. The rest is released.", example = "200.0")
+        @Positive(message = "Amount must be positive")
+        Double amount
+) {}
@@ -0,0 +1,22 @@
+package org.walletservice.wallet_service.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.walletservice.wallet_service.validation.annotation.ValidTransactionAmount;
+
+@Schema(name = "HoldRequestDTO", description = "DTO for reserving funds of a wallet for a later capture")
+public record HoldRequestDTO(
+
+        @Schema(description = "Amount to reserve", example = "250.0", required = true)
+        @NotNull(message = "Amount is required")
+        @ValidTransactionAmount
+        Double amount,
+
+        @Schema(description = "Seconds until the hold is released unless captured; the configured default when omitted", example = "3600")
+        @Positive(message = "expiresInSeconds must be positive")
+        Long expiresInSeconds,
+
+        @Schema(description = "Description of the capture transaction", example = "Hotel booking")
+        String description
+) {}
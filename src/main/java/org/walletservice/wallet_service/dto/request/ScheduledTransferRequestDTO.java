@@ -0,0 +1,36 @@
+package org.walletservice.wallet_service.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import org.walletservice.wallet_service.entity.transfer.TransferRecurrence;
+import org.walletservice.wallet_service.validation.annotation.ValidTransactionAmount;
+
+import java.time.LocalDateTime;
+
+@Schema(name = "ScheduledTransferRequestDTO", description = "DTO for scheduling a one-off or recurring transfer")
+public record ScheduledTransferRequestDTO(
+
+        @Schema(description = "Wallet ID from which the money will be debited", example = "101", required = true)
+        @NotNull(message = "fromWalletId is required")
+        Long fromWalletId,
+
+        @Schema(description = "Wallet ID to which the money will be credited", example = "102", required = true)
+        @NotNull(message = "toWalletId is required")
+        Long toWalletId,
+
+        @Schema(description = "Amount to transfer on each run", example = "250.0", required = true)
+        @NotNull(message = "Amount is required")
+        @ValidTransactionAmount
+        Double amount,
+
+        @Schema(description = "ONCE, HOURLY, DAILY, WEEKLY or MONTHLY", example = "MONTHLY", required = true)
+        @NotNull(message = "recurrence is required")
+        TransferRecurrence recurrence,
+
+        @Schema(description = "Time of the first run", example = "2025-01-01T09:00:00", required = true)
+        @NotNull(message = "startsAt is required")
+        LocalDateTime startsAt,
+
+        @Schema(description = "No run is made after this time; runs forever when omitted", example = "2025-12-31T23:59:59")
+        LocalDateTime endsAt
+) {}
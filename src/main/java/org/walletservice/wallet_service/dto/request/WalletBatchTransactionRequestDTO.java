@@ -0,0 +1,17 @@
+package org.walletservice.wallet_service.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(name = "WalletBatchTransactionRequestDTO", description = "DTO for processing many wallet transactions in one call")
+public record WalletBatchTransactionRequestDTO(
+
+        @Schema(description = "Transactions to apply, possibly across many wallets", required = true)
+        @NotEmpty(message = "At least one transaction is required")
+        @Size(max = 500, message = "A batch can contain at most 500 transactions")
+        List<@Valid BatchTransactionItemDTO> items
+) {}
@@ -0,0 +1,42 @@
+package org.walletservice.wallet_service.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Per-item outcome of a batch transaction request.
+ */
+@Schema(name = "BatchTransactionResultDTO", description = "Outcome of one item of a transaction batch")
+public record BatchTransactionResultDTO(
+        @Schema(description = "Position of the item in the request", example = "0")
+        int index,
+
+        @Schema(description = "Wallet the item was addressed to", example = "101")
+        Long walletId,
+
+        @Schema(description = "Transaction identifier of the item", example = "txn_12345")
+        String transactionId,
+
+        @Schema(description = "APPLIED, DUPLICATE (already processed earlier), REJECTED (business rule) or FAILED (not applied, safe to retry)", example = "APPLIED")
+        String status,
+
+        @Schema(description = "Resulting transaction for APPLIED and DUPLICATE items")
+        WalletTransactionResponseDTO transaction,
+
+        @Schema(description = "Reason for REJECTED and FAILED items", example = "Insufficient balance.")
+        String error
+) {
+    public static final String APPLIED = "APPLIED";
+    public static final String DUPLICATE = "DUPLICATE";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    public static BatchTransactionResultDTO success(int index, Long walletId, String status,
+                                                    WalletTransactionResponseDTO transaction) {
+        return new BatchTransactionResultDTO(index, walletId, transaction.transactionId(), status, transaction, null);
+    }
+
+    public static BatchTransactionResultDTO error(int index, Long walletId, String transactionId,
+                                                  String status, String error) {
+        return new BatchTransactionResultDTO(index, walletId, transactionId, status, null, error);
+    }
+}
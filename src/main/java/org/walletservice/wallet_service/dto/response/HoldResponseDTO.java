@@ -0,0 +1,38 @@
+package org.walletservice.wallet_service.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of a hold on a wallet's funds.
+ */
+@Schema(name = "HoldResponseDTO", description = "State of a hold")
+public record HoldResponseDTO(
+        @Schema(description = "Identifier of the hold", example = "5a0d3c2e-7b1f-4e6a-8c9d-0e1f2a3b4c5d")
+        String holdId,
+
+        @Schema(description = "Wallet whose funds are held", example = "101")
+        Long walletId,
+
+        @Schema(description = "Amount held", example = "250.0")
+        Double amount,
+
+        @Schema(description = "Amount captured", example = "200.0")
+        Double capturedAmount,
+
+        @Schema(description = "AUTHORIZED, CAPTURED, VOIDED or EXPIRED", example = "AUTHORIZED")
+        String status,
+
+        @Schema(description = "Description of the capture transaction", example = "Hotel booking")
+        String description,
+
+        @Schema(description = "Debit transaction of the capture", example = "5a0d3c2e-7b1f-4e6a-8c9d-0e1f2a3b4c5d")
+        String transactionId,
+
+        @Schema(description = "When the hold is released unless captured")
+        LocalDateTime expiresAt,
+
+        @Schema(description = "When the hold was authorized")
+        LocalDateTime createdAt
+) {}
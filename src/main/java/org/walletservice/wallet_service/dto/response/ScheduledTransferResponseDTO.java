@@ -0,0 +1,44 @@
+package org.walletservice.wallet_service.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of a scheduled transfer. Each run is applied as an asynchronous transfer.
+ */
+@Schema(name = "ScheduledTransferResponseDTO", description = "State of a scheduled transfer")
+public record ScheduledTransferResponseDTO(
+        @Schema(description = "Identifier of the schedule", example = "8b1e0c7a-2f4d-4e8a-9c3b-5d6f7a8b9c0d")
+        String scheduleId,
+
+        @Schema(description = "Wallet debited on each run", example = "101")
+        Long fromWalletId,
+
+        @Schema(description = "Wallet credited on each run", example = "102")
+        Long toWalletId,
+
+        @Schema(description = "Amount transferred on each run", example = "250.0")
+        Double amount,
+
+        @Schema(description = "ONCE, HOURLY, DAILY, WEEKLY or MONTHLY", example = "MONTHLY")
+        String recurrence,
+
+        @Schema(description = "ACTIVE, COMPLETED or CANCELLED", example = "ACTIVE")
+        String status,
+
+        @Schema(description = "Time of the next run, null once the schedule is no longer active")
+        LocalDateTime nextRunAt,
+
+        @Schema(description = "No run is made after this time")
+        LocalDateTime endsAt,
+
+        @Schema(description = "Number of runs made so far", example = "3")
+        int runs,
+
+        @Schema(description = "Asynchronous transfer created by the last run, see GET /transactions/transfer/{transferId}")
+        String lastTransferId,
+
+        @Schema(description = "When the transfer was scheduled")
+        LocalDateTime createdAt
+) {}
@@ -0,0 +1,23 @@
+package org.walletservice.wallet_service.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * One page of a transaction history, newest first, and the cursor of the next one.
+ */
+@Schema(name = "TransactionSliceResponseDTO", description = "A page of transactions with a continuation cursor")
+public record TransactionSliceResponseDTO(
+        @Schema(description = "Transactions of this page, newest first")
+        List<WalletTransactionResponseDTO> content,
+
+        @Schema(description = "Requested page size", example = "10")
+        int size,
+
+        @Schema(description = "Whether older transactions follow", example = "true")
+        boolean hasNext,
+
+        @Schema(description = "Pass as cursor to get the next page; null on the last page", example = "MjAyNS0wMS0wMVQxMDowMH4xMjM")
+        String nextCursor
+) {}
@@ -0,0 +1,38 @@
+package org.walletservice.wallet_service.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of a transfer submitted for asynchronous processing.
+ */
+@Schema(name = "TransferStatusResponseDTO", description = "Status of an asynchronous transfer")
+public record TransferStatusResponseDTO(
+        @Schema(description = "Identifier returned when the transfer was accepted", example = "3f2c9a4e-8d1b-4c55-9f0e-2a7d1e6b5c11")
+        String transferId,
+
+        @Schema(description = "Wallet debited by the transfer", example = "101")
+        Long fromWalletId,
+
+        @Schema(description = "Wallet credited by the transfer", example = "102")
+        Long toWalletId,
+
+        @Schema(description = "Amount to transfer", example = "250.0")
+        Double amount,
+
+        @Schema(description = "PENDING, PROCESSING, COMPLETED or FAILED", example = "PENDING")
+        String status,
+
+        @Schema(description = "Debit transaction id once the transfer completed", example = "3f2c9a4e-...-D")
+        String transactionId,
+
+        @Schema(description = "Reason the transfer failed", example = "Insufficient balance.")
+        String error,
+
+        @Schema(description = "When the transfer was accepted")
+        LocalDateTime createdAt,
+
+        @Schema(description = "When the status last changed")
+        LocalDateTime updatedAt
+) {}
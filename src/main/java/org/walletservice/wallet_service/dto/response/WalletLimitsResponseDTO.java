@@ -0,0 +1,36 @@
+package org.walletservice.wallet_service.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Spending limits of a wallet's tier and how much of each window is used.
+ */
+@Schema(name = "WalletLimitsResponseDTO", description = "Spending limit tier of a wallet and its usage per window")
+public record WalletLimitsResponseDTO(
+        @Schema(description = "Wallet ID", example = "101")
+        Long walletId,
+
+        @Schema(description = "Spending limit tier", example = "standard")
+        String tier,
+
+        @Schema(description = "Usage of each limit window")
+        List<Window> windows
+) {
+
+    @Schema(name = "WalletLimitWindow", description = "One sliding limit window")
+    public record Window(
+            @Schema(description = "Window name", example = "DAILY")
+            String window,
+
+            @Schema(description = "Limit of the window, null when it is not limited", example = "50000.0")
+            Double limit,
+
+            @Schema(description = "Amount debited within the window", example = "1250.0")
+            double spent,
+
+            @Schema(description = "Amount that can still be debited, null when not limited", example = "48750.0")
+            Double available
+    ) {}
+}
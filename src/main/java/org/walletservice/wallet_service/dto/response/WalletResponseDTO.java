@@ -14,6 +14,9 @@ public class WalletResponseDTO {
     @Schema(description = "Balance in the wallet", example = "2500.75")
     private Double balance;
 
+    @Schema(description = "Part of the balance not reserved by authorized holds", example = "2000.75")
+    private Double availableBalance;
+
     public WalletResponseDTO() {}
 
     public WalletResponseDTO(Long walletId, Long userId, Double balance) {
@@ -46,12 +49,21 @@ public class WalletResponseDTO {
         this.balance = balance;
     }
 
+    public Double getAvailableBalance() {
+        return availableBalance;
+    }
+
+    public void setAvailableBalance(Double availableBalance) {
+        this.availableBalance = availableBalance;
+    }
+
     @Override
     public String toString() {
         return "WalletResponseDTO{" +
                 "walletId=" + walletId +
                 ", userId=" + userId +
                 ", balance=" + balance +
+                ", availableBalance=" + availableBalance +
                 '}';
     }
 }
@@ -0,0 +1,23 @@
+package org.walletservice.wallet_service.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Balance layout of a wallet after a striping change.
+ */
+@Schema(name = "WalletStripingResponseDTO", description = "How a wallet's balance is split across slots")
+public record WalletStripingResponseDTO(
+        @Schema(description = "Wallet ID", example = "101")
+        Long walletId,
+
+        @Schema(description = "Number of balance slots, 0 when striping is disabled", example = "8")
+        int stripeCount,
+
+        @Schema(description = "Total balance of the wallet", example = "125000.0")
+        double balance,
+
+        @Schema(description = "Balance held by each slot, in slot order")
+        List<Double> slotBalances
+) {}
@@ -0,0 +1,109 @@
+package org.walletservice.wallet_service.entity.hold;
+
+import jakarta.persistence.*;
+import org.walletservice.wallet_service.entity.money.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Funds of a wallet reserved for a later capture. While a hold is AUTHORIZED its amount is part
+ * of the wallet's {@code held} column; capturing, voiding or expiring it takes the amount back out.
+ */
+@Entity
+@Table(
+        name = "holds",
+        indexes = {
+                @Index(name = "idx_hold_status_expires", columnList = "status, expires_at"),
+                @Index(name = "idx_hold_wallet_id", columnList = "wallet_id")
+        }
+)
+public class HoldEntity {
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(name = "requested_by", nullable = false)
+    private Long requestedBy;
+
+    // Paise (see Money)
+    @Column(name = "amount", nullable = false)
+    private long amount;
+
+    @Column(name = "captured_amount", nullable = false)
+    private long capturedAmount = 0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private HoldStatus status = HoldStatus.AUTHORIZED;
+
+    @Column(name = "description")
+    private String description;
+
+    // Time the amount was counted towards the spending limits, in epoch millis (see SpendingLimitEngine)
+    @Column(name = "limit_reserved_at", nullable = false)
+    private long limitReservedAt;
+
+    // Debit transaction of the capture
+    @Column(name = "transaction_id")
+    private String transactionId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // --- Constructors ---
+    protected HoldEntity() {}
+
+    public HoldEntity(String id, Long walletId, Long requestedBy, long amount, String description,
+                      long limitReservedAt, LocalDateTime expiresAt) {
+        this.id = id;
+        this.walletId = walletId;
+        this.requestedBy = requestedBy;
+        this.amount = amount;
+        this.description = description;
+        this.limitReservedAt = limitReservedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    // --- State changes ---
+    public boolean isAuthorized() {
+        return status == HoldStatus.AUTHORIZED;
+    }
+
+    public void capture(long capturedAmount, String transactionId) {
+        this.status = HoldStatus.CAPTURED;
+        this.capturedAmount = capturedAmount;
+        this.transactionId = transactionId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void release(HoldStatus status) {
+        this.status = status;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // --- Getters ---
+    public String getId() { return id; }
+    public Long getWalletId() { return walletId; }
+    public Long getRequestedBy() { return requestedBy; }
+    public long getAmountMinor() { return amount; }
+    public double getAmount() { return Money.toMajor(amount); }
+    public long getCapturedAmountMinor() { return capturedAmount; }
+    public double getCapturedAmount() { return Money.toMajor(capturedAmount); }
+    public HoldStatus getStatus() { return status; }
+    public String getDescription() { return description; }
+    public long getLimitReservedAt() { return limitReservedAt; }
+    public String getTransactionId() { return transactionId; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
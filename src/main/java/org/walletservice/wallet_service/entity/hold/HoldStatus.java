@@ -0,0 +1,8 @@
+package org.walletservice.wallet_service.entity.hold;
+
+public enum HoldStatus {
+    AUTHORIZED,
+    CAPTURED,
+    VOIDED,
+    EXPIRED
+}
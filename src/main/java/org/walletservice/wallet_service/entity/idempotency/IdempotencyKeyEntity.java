@@ -0,0 +1,120 @@
+package org.walletservice.wallet_service.entity.idempotency;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A client-supplied Idempotency-Key and what it was used for. While the first request runs the key is
+ * IN_PROGRESS and owned by a claim token; once it succeeds the response is stored for replay until
+ * the key expires.
+ */
+@Entity
+@Table(
+        name = "idempotency_keys",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_idempotency_user_key", columnNames = {"user_id", "idempotency_key"})
+        },
+        indexes = {
+                @Index(name = "idx_idempotency_expires_at", columnList = "expires_at")
+        }
+)
+public class IdempotencyKeyEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_key_id_seq")
+    @SequenceGenerator(name = "idempotency_key_id_seq", sequenceName = "idempotency_keys_seq", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "idempotency_key", nullable = false, length = 255)
+    private String idempotencyKey;
+
+    // Method and path of the request, e.g. "POST /transactions/transfer"
+    @Column(name = "endpoint", nullable = false, length = 255)
+    private String endpoint;
+
+    // SHA-256 of endpoint and request body; a key may only be replayed for the same request
+    @Column(name = "fingerprint", nullable = false, length = 64)
+    private String fingerprint;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private IdempotencyKeyStatus status = IdempotencyKeyStatus.IN_PROGRESS;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(name = "locked_at")
+    private LocalDateTime lockedAt;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Lob
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "response_location", length = 255)
+    private String responseLocation;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // --- Constructors ---
+    public IdempotencyKeyEntity() {}
+
+    public IdempotencyKeyEntity(Long userId, String idempotencyKey) {
+        this.userId = userId;
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    // --- State changes ---
+
+    /** Starts (or restarts, for an expired or abandoned key) a request under this key. */
+    public void lock(String endpoint, String fingerprint, String token, LocalDateTime now, LocalDateTime expiresAt) {
+        this.endpoint = endpoint;
+        this.fingerprint = fingerprint;
+        this.status = IdempotencyKeyStatus.IN_PROGRESS;
+        this.claimToken = token;
+        this.lockedAt = now;
+        this.responseStatus = null;
+        this.responseBody = null;
+        this.responseLocation = null;
+        this.createdAt = now;
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isLockedBy(String token) {
+        return status == IdempotencyKeyStatus.IN_PROGRESS && token.equals(claimToken);
+    }
+
+    public void complete(int responseStatus, String responseBody, String responseLocation) {
+        this.status = IdempotencyKeyStatus.COMPLETED;
+        this.claimToken = null;
+        this.responseStatus = responseStatus;
+        this.responseBody = responseBody;
+        this.responseLocation = responseLocation;
+    }
+
+    // --- Getters ---
+    public Long getId() { return id; }
+    public Long getUserId() { return userId; }
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public String getEndpoint() { return endpoint; }
+    public String getFingerprint() { return fingerprint; }
+    public IdempotencyKeyStatus getStatus() { return status; }
+    public String getClaimToken() { return claimToken; }
+    public LocalDateTime getLockedAt() { return lockedAt; }
+    public Integer getResponseStatus() { return responseStatus; }
+    public String getResponseBody() { return responseBody; }
+    public String getResponseLocation() { return responseLocation; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+}
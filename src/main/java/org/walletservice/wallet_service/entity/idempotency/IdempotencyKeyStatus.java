@@ -0,0 +1,6 @@
+package org.walletservice.wallet_service.entity.idempotency;
+
+public enum IdempotencyKeyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
@@ -0,0 +1,74 @@
+package org.walletservice.wallet_service.entity.journal;
+
+import jakarta.persistence.*;
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Header of one business operation that moves money between wallets, e.g. a transfer.
+ *
+ * The per-wallet legs are rows of {@code transactions} pointing here through {@code journal_id};
+ * they only carry wallet, direction and amount, while the reference clients see and the
+ * description are stored once on the header.
+ */
+@Entity
+@Table(
+        name = "journal_entries",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_journal_reference", columnNames = "reference")
+        }
+)
+public class JournalEntryEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "journal_entry_id_seq")
+    @SequenceGenerator(name = "journal_entry_id_seq", sequenceName = "journal_entries_seq", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    // Identifier returned to clients in place of the legs' transaction ids
+    @Column(name = "reference", nullable = false, length = 36)
+    private String reference;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 20)
+    private TransactionType type;
+
+    @Column(name = "description", nullable = false, length = 255)
+    private String description;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // --- Constructors ---
+    protected JournalEntryEntity() {}
+
+    public JournalEntryEntity(TransactionType type, String description) {
+        this.reference = UUID.randomUUID().toString();
+        this.type = type;
+        this.description = description;
+    }
+
+    // --- Getters ---
+    public Long getId() {
+        return id;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
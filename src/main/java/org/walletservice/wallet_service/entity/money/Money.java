@@ -0,0 +1,53 @@
+package org.walletservice.wallet_service.entity.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money as a primitive {@code long} of minor units (paise).
+ *
+ * Balances, spent totals and amounts are stored and computed as exact paise counts; only the API
+ * speaks rupees. Amounts coming in are rounded to the nearest paisa once, at the boundary, and
+ * converted back for responses. Everything here works on primitives, so the arithmetic in the
+ * debit and transfer paths neither boxes nor accumulates floating-point error.
+ */
+public final class Money {
+
+    /** Minor units per rupee. */
+    public static final long SCALE = 100;
+
+    // Decimal places of a rupee amount, matching SCALE
+    private static final int DECIMALS = 2;
+
+    // Largest rupee amount whose paise count is exactly representable as a double
+    private static final double MAX_MAJOR = (double) (1L << 53) / SCALE;
+
+    private Money() {}
+
+    /**
+     * Converts a rupee amount to paise, rounding to the nearest paisa with halves away from zero.
+     * The amount is rounded as written in decimal (its shortest {@code Double.toString} form), so
+     * 1.005 becomes 101 paise even though the nearest double is just below 1.005.
+     *
+     * @throws IllegalArgumentException if the amount is not finite or too large
+     */
+    public static long ofMajor(double rupees) {
+        if (!Double.isFinite(rupees) || Math.abs(rupees) > MAX_MAJOR) {
+            throw new IllegalArgumentException("Invalid amount: " + rupees);
+        }
+        return BigDecimal.valueOf(rupees).setScale(DECIMALS, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /** Converts paise to rupees for API responses and logs. */
+    public static double toMajor(long paise) {
+        return (double) paise / SCALE;
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+}
@@ -0,0 +1,57 @@
+package org.walletservice.wallet_service.entity.outbox;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A wallet event written in the same transaction as the change it describes, and deleted once
+ * the outbox relay has delivered it.
+ *
+ * The id is an auto-increment column rather than a pooled sequence like the other tables: it is
+ * drawn when the row is inserted, after the wallet row was locked, so the events of one wallet
+ * are numbered in commit order even with several instances.
+ *
+ * Striped wallets are the exception: a credit to one locks only the slot it lands on, so two
+ * concurrent credits can commit in the opposite order of their ids, and the events of a striped
+ * wallet are not guaranteed to be delivered in commit order.
+ */
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEventEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 20)
+    private OutboxEventType eventType;
+
+    // JSON object
+    @Column(name = "payload", nullable = false, length = 1000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // --- Constructors ---
+    protected OutboxEventEntity() {}
+
+    public OutboxEventEntity(Long walletId, OutboxEventType eventType, String payload) {
+        this.walletId = walletId;
+        this.eventType = eventType;
+        this.payload = payload;
+    }
+
+    // --- Getters ---
+    public Long getId() { return id; }
+    public Long getWalletId() { return walletId; }
+    public OutboxEventType getEventType() { return eventType; }
+    public String getPayload() { return payload; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
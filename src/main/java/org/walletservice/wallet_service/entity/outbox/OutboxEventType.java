@@ -0,0 +1,10 @@
+package org.walletservice.wallet_service.entity.outbox;
+
+public enum OutboxEventType {
+    CREDITED,
+    DEBITED,
+    FROZEN,
+    UNFROZEN,
+    BLACKLISTED,
+    UNBLACKLISTED
+}
@@ -1,48 +1,72 @@
 package org.walletservice.wallet_service.entity.transaction;
 
 import jakarta.persistence.*;
+import org.walletservice.wallet_service.entity.journal.JournalEntryEntity;
+import org.walletservice.wallet_service.entity.money.Money;
 
 import java.time.LocalDateTime;
 
+/**
+ * One line of a wallet's ledger. A standalone credit or debit carries its own transaction id and
+ * description; a leg of a journal entry (e.g. one side of a transfer) leaves both empty and takes
+ * them from its journal header.
+ */
 @Entity
 @Table(
         name = "transactions",
         indexes = {
                 @Index(name = "idx_transaction_date", columnList = "transaction_date"),
-                @Index(name = "idx_wallet_date", columnList = "wallet_id, transaction_date")
+                @Index(name = "idx_wallet_date", columnList = "wallet_id, transaction_date"),
+                @Index(name = "idx_user_date", columnList = "user_id, transaction_date, id")
         }
 )
 
 public class TransactionEntity {
 
+    /** Sequence the ids come from; emulated by a table on MySQL. */
+    public static final String ID_SEQUENCE = "transactions_seq";
+
+    // Ids are reserved in blocks (pooled-lo) so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_id_seq")
+    @SequenceGenerator(name = "transaction_id_seq", sequenceName = ID_SEQUENCE, allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
     @Column(name = "wallet_id", nullable = false)
     private Long walletId;
 
+    // Owner of the wallet, copied at write time so a user's history is one range of idx_user_date.
+    // Null on rows written before the column existed until TransactionUserBackfill reaches them
+    @Column(name = "user_id")
+    private Long userId;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "type", nullable = false, columnDefinition = "enum('CREDIT','DEBIT','TRANSFER')")
     private TransactionType type;
 
+    // Paise (see Money)
     @Column(name = "amount", nullable = false)
-    private Double amount;
+    private long amount;
 
-    @Column(name = "description", nullable = false, length = 255)
+    @Column(name = "description", length = 255)
     private String description;
 
     @Column(name = "transaction_date", nullable = false)
     private LocalDateTime transactionDate = LocalDateTime.now();
 
-    @Column(name = "transaction_id", nullable = false, unique = true, length = 255)
+    // Null for journal legs, which are looked up through their header's reference instead
+    @Column(name = "transaction_id", unique = true, length = 255)
     private String transactionId;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "journal_id")
+    private JournalEntryEntity journal;
+
     // --- Constructors ---
     public TransactionEntity() {}
 
-    public TransactionEntity(Long walletId, TransactionType type, Double amount, String description) {
+    public TransactionEntity(Long walletId, TransactionType type, double amount, String description) {
         this.walletId = walletId;
         this.type = type;
         setAmount(amount);
@@ -50,6 +74,19 @@ public class TransactionEntity {
         this.transactionDate = LocalDateTime.now();
     }
 
+    /**
+     * Leg of a journal entry: only the wallet, the direction and the amount are stored on the row.
+     */
+    public static TransactionEntity leg(JournalEntryEntity journal, Long walletId, TransactionType type, long amountMinor) {
+        TransactionEntity leg = new TransactionEntity();
+        leg.walletId = walletId;
+        leg.type = type;
+        leg.setAmountMinor(amountMinor);
+        leg.journal = journal;
+        leg.transactionDate = journal.getCreatedAt();
+        return leg;
+    }
+
     // --- Getters and Setters ---
     public Long getId() {
         return id;
@@ -63,6 +100,14 @@ public class TransactionEntity {
         this.walletId = walletId;
     }
 
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
     public TransactionType getType() {
         return type;
     }
@@ -71,19 +116,27 @@ public class TransactionEntity {
         this.type = type;
     }
 
-    public Double getAmount() {
+    public long getAmountMinor() {
         return amount;
     }
 
-    public void setAmount(Double amount) {
-        if (amount == null || amount <= 0) {
+    public void setAmountMinor(long amount) {
+        if (amount <= 0) {
             throw new IllegalArgumentException("Transaction amount must be greater than zero");
         }
         this.amount = amount;
     }
 
+    public double getAmount() {
+        return Money.toMajor(amount);
+    }
+
+    public void setAmount(double amount) {
+        setAmountMinor(Money.ofMajor(amount));
+    }
+
     public String getDescription() {
-        return description;
+        return description == null && journal != null ? journal.getDescription() : description;
     }
 
     public void setDescription(String description) {
@@ -98,6 +151,17 @@ public class TransactionEntity {
         this.transactionId = transactionId;
     }
 
+    /**
+     * Id shown to clients: the transaction id, or the journal reference for a journal leg.
+     */
+    public String getReference() {
+        return transactionId == null && journal != null ? journal.getReference() : transactionId;
+    }
+
+    public JournalEntryEntity getJournal() {
+        return journal;
+    }
+
     public LocalDateTime getTransactionDate() {
         return transactionDate;
     }
@@ -0,0 +1,150 @@
+package org.walletservice.wallet_service.entity.transfer;
+
+import jakarta.persistence.*;
+import org.walletservice.wallet_service.entity.money.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * A standing order. When its next run is due it is turned into a {@link TransferCommandEntity}
+ * and moved on to the following run in the same transaction, so every run is enqueued once.
+ */
+@Entity
+@Table(
+        name = "scheduled_transfers",
+        indexes = {
+                @Index(name = "idx_scheduled_status_next_run", columnList = "status, next_run_at"),
+                @Index(name = "idx_scheduled_requested_by", columnList = "requested_by")
+        }
+)
+public class ScheduledTransferEntity {
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Column(name = "from_wallet_id", nullable = false)
+    private Long fromWalletId;
+
+    @Column(name = "to_wallet_id", nullable = false)
+    private Long toWalletId;
+
+    // Paise (see Money)
+    @Column(name = "amount", nullable = false)
+    private long amount;
+
+    @Column(name = "requested_by", nullable = false)
+    private Long requestedBy;
+
+    @Column(name = "requester_role", nullable = false, length = 50)
+    private String requesterRole;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "recurrence", nullable = false, length = 20)
+    private TransferRecurrence recurrence;
+
+    @Column(name = "starts_at", nullable = false)
+    private LocalDateTime startsAt;
+
+    @Column(name = "ends_at")
+    private LocalDateTime endsAt;
+
+    // Null once the schedule is no longer active
+    @Column(name = "next_run_at")
+    private LocalDateTime nextRunAt;
+
+    // Number of nextRunAt counted from startsAt (see TransferRecurrence#occurrence)
+    @Column(name = "occurrence", nullable = false)
+    private long occurrence = 0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private ScheduledTransferStatus status = ScheduledTransferStatus.ACTIVE;
+
+    @Column(name = "runs", nullable = false)
+    private int runs = 0;
+
+    @Column(name = "last_run_at")
+    private LocalDateTime lastRunAt;
+
+    // Async transfer created by the last run
+    @Column(name = "last_transfer_id", length = 36)
+    private String lastTransferId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // --- Constructors ---
+    public ScheduledTransferEntity() {}
+
+    public ScheduledTransferEntity(String id, Long fromWalletId, Long toWalletId, double amount,
+                                   Long requestedBy, String requesterRole, TransferRecurrence recurrence,
+                                   LocalDateTime startsAt, LocalDateTime endsAt) {
+        this.id = id;
+        this.fromWalletId = fromWalletId;
+        this.toWalletId = toWalletId;
+        this.amount = Money.ofMajor(amount);
+        this.requestedBy = requestedBy;
+        this.requesterRole = requesterRole;
+        this.recurrence = recurrence;
+        this.startsAt = startsAt;
+        this.endsAt = endsAt;
+        this.nextRunAt = startsAt;
+    }
+
+    // --- State changes ---
+
+    /**
+     * Records the run that enqueued {@code transferId} and moves on to the first run after
+     * {@code now}. Runs missed while no scheduler was running are skipped rather than enqueued
+     * in a burst; the schedule completes when no run is left before {@code endsAt}.
+     */
+    public void advance(String transferId, LocalDateTime now) {
+        this.runs++;
+        this.lastRunAt = now;
+        this.lastTransferId = transferId;
+        this.updatedAt = now;
+
+        LocalDateTime next;
+        do {
+            occurrence++;
+            next = recurrence.occurrence(startsAt, occurrence);
+        } while (next != null && !next.isAfter(now));
+
+        if (next == null || (endsAt != null && next.isAfter(endsAt))) {
+            this.status = ScheduledTransferStatus.COMPLETED;
+            this.nextRunAt = null;
+        } else {
+            this.nextRunAt = next;
+        }
+    }
+
+    public void cancel() {
+        this.status = ScheduledTransferStatus.CANCELLED;
+        this.nextRunAt = null;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // --- Getters ---
+    public String getId() { return id; }
+    public Long getFromWalletId() { return fromWalletId; }
+    public Long getToWalletId() { return toWalletId; }
+    public long getAmountMinor() { return amount; }
+    public double getAmount() { return Money.toMajor(amount); }
+    public Long getRequestedBy() { return requestedBy; }
+    public String getRequesterRole() { return requesterRole; }
+    public TransferRecurrence getRecurrence() { return recurrence; }
+    public LocalDateTime getStartsAt() { return startsAt; }
+    public LocalDateTime getEndsAt() { return endsAt; }
+    public LocalDateTime getNextRunAt() { return nextRunAt; }
+    public long getOccurrence() { return occurrence; }
+    public ScheduledTransferStatus getStatus() { return status; }
+    public int getRuns() { return runs; }
+    public LocalDateTime getLastRunAt() { return lastRunAt; }
+    public String getLastTransferId() { return lastTransferId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,7 @@
+package org.walletservice.wallet_service.entity.transfer;
+
+public enum ScheduledTransferStatus {
+    ACTIVE,
+    COMPLETED,
+    CANCELLED
+}
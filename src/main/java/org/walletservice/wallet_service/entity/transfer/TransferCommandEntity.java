@@ -0,0 +1,120 @@
+package org.walletservice.wallet_service.entity.transfer;
+
+import jakarta.persistence.*;
+import org.walletservice.wallet_service.entity.money.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * A transfer accepted for asynchronous processing. Rows are claimed by the transfer
+ * workers in creation order; the claim token tells a worker whether it still owns a row.
+ */
+@Entity
+@Table(
+        name = "transfer_commands",
+        indexes = {
+                @Index(name = "idx_transfer_status_created", columnList = "status, created_at")
+        }
+)
+public class TransferCommandEntity {
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Column(name = "from_wallet_id", nullable = false)
+    private Long fromWalletId;
+
+    @Column(name = "to_wallet_id", nullable = false)
+    private Long toWalletId;
+
+    // Paise (see Money)
+    @Column(name = "amount", nullable = false)
+    private long amount;
+
+    @Column(name = "requested_by", nullable = false)
+    private Long requestedBy;
+
+    @Column(name = "requester_role", nullable = false, length = 50)
+    private String requesterRole;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private TransferStatus status = TransferStatus.PENDING;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "transaction_id")
+    private String transactionId;
+
+    @Column(name = "error", length = 500)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // --- Constructors ---
+    public TransferCommandEntity() {}
+
+    public TransferCommandEntity(String id, Long fromWalletId, Long toWalletId, double amount,
+                                 Long requestedBy, String requesterRole) {
+        this.id = id;
+        this.fromWalletId = fromWalletId;
+        this.toWalletId = toWalletId;
+        this.amount = Money.ofMajor(amount);
+        this.requestedBy = requestedBy;
+        this.requesterRole = requesterRole;
+    }
+
+    // --- State changes ---
+    public void claim(String token, LocalDateTime now) {
+        this.status = TransferStatus.PROCESSING;
+        this.claimToken = token;
+        this.claimedAt = now;
+        this.attempts++;
+        this.updatedAt = now;
+    }
+
+    public boolean isClaimedBy(String token) {
+        return status == TransferStatus.PROCESSING && token.equals(claimToken);
+    }
+
+    public void complete(String transactionId) {
+        this.status = TransferStatus.COMPLETED;
+        this.transactionId = transactionId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void fail(String error) {
+        this.status = TransferStatus.FAILED;
+        this.error = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // --- Getters ---
+    public String getId() { return id; }
+    public Long getFromWalletId() { return fromWalletId; }
+    public Long getToWalletId() { return toWalletId; }
+    public long getAmountMinor() { return amount; }
+    public double getAmount() { return Money.toMajor(amount); }
+    public Long getRequestedBy() { return requestedBy; }
+    public String getRequesterRole() { return requesterRole; }
+    public TransferStatus getStatus() { return status; }
+    public String getClaimToken() { return claimToken; }
+    public LocalDateTime getClaimedAt() { return claimedAt; }
+    public int getAttempts() { return attempts; }
+    public String getTransactionId() { return transactionId; }
+    public String getError() { return error; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
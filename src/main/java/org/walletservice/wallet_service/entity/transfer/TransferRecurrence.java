@@ -0,0 +1,30 @@
+package org.walletservice.wallet_service.entity.transfer;
+
+import java.time.LocalDateTime;
+
+/**
+ * How often a scheduled transfer runs. Runs are counted from the first one rather than from the
+ * previous run, so a monthly transfer starting on the 31st runs on the last day of shorter months
+ * and on the 31st again afterwards.
+ */
+public enum TransferRecurrence {
+    ONCE,
+    HOURLY,
+    DAILY,
+    WEEKLY,
+    MONTHLY;
+
+    /**
+     * @return the time of run {@code n} (0 is the first) of a schedule starting at {@code start},
+     *         or null when there is no such run
+     */
+    public LocalDateTime occurrence(LocalDateTime start, long n) {
+        return switch (this) {
+            case ONCE -> n == 0 ? start : null;
+            case HOURLY -> start.plusHours(n);
+            case DAILY -> start.plusDays(n);
+            case WEEKLY -> start.plusWeeks(n);
+            case MONTHLY -> start.plusMonths(n);
+        };
+    }
+}
@@ -0,0 +1,8 @@
+package org.walletservice.wallet_service.entity.transfer;
+
+public enum TransferStatus {
+    PENDING,
+    PROCESSING,
+    COMPLETED,
+    FAILED
+}
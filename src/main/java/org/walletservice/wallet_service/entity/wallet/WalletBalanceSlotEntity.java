@@ -0,0 +1,58 @@
+package org.walletservice.wallet_service.entity.wallet;
+
+import jakarta.persistence.*;
+import org.walletservice.wallet_service.entity.money.Money;
+
+/**
+ * One sub-balance of a striped wallet. Credits land on a random slot so that
+ * concurrent credits to a hot wallet update different rows.
+ */
+@Entity
+@Table(
+        name = "wallet_balance_slots",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_wallet_slot", columnNames = {"wallet_id", "slot_index"})
+        }
+)
+public class WalletBalanceSlotEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_slot_id_seq")
+    @SequenceGenerator(name = "wallet_slot_id_seq", sequenceName = "wallet_balance_slots_seq", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(name = "slot_index", nullable = false)
+    private int slotIndex;
+
+    // Paise
+    @Column(name = "balance", nullable = false)
+    private long balance;
+
+    // --- Constructors ---
+    public WalletBalanceSlotEntity() {}
+
+    public WalletBalanceSlotEntity(Long walletId, int slotIndex, long balance) {
+        this.walletId = walletId;
+        this.slotIndex = slotIndex;
+        this.balance = balance;
+    }
+
+    // --- Getters & Setters ---
+    public Long getId() { return id; }
+
+    public Long getWalletId() { return walletId; }
+
+    public int getSlotIndex() { return slotIndex; }
+
+    public long getBalanceMinor() { return balance; }
+    public void setBalanceMinor(long balance) {
+        if (balance < 0) throw new IllegalArgumentException("Balance cannot be negative");
+        this.balance = balance;
+    }
+
+    public double getBalance() { return Money.toMajor(balance); }
+}
@@ -1,6 +1,8 @@
 package org.walletservice.wallet_service.entity.wallet;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.walletservice.wallet_service.entity.money.Money;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -9,28 +11,44 @@ import java.time.LocalDateTime;
 @Table(
         name = "wallets",
         indexes = {
-                @Index(name = "idx_user_id", columnList = "user_id")
+                @Index(name = "idx_user_id", columnList = "user_id"),
+                // Only frozen wallets have a frozen_at, so expired freezes are a short range scan
+                @Index(name = "idx_frozen_at", columnList = "frozen_at")
         }
 )
 public class WalletEntity {
 
+    /** Length of the spending window tracked by dailySpent (here: 2 minutes for testing). */
+    public static final Duration DAILY_WINDOW = Duration.ofMinutes(2);
+
+    /** Id sequence, allocated in blocks of 50 like the transaction ids. */
+    public static final String ID_SEQUENCE = "wallets_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_id_seq")
+    @SequenceGenerator(name = "wallet_id_seq", sequenceName = ID_SEQUENCE, allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
     @Column(name = "user_id", nullable = false)
     private Long userId;
 
+    // Amounts are paise (see Money); the rupee accessors are for the API and tests
     @Column(name = "balance", nullable = false)
-    private Double balance = 0.0;
+    private long balance;
+
+    // Part of the balance reserved by authorized holds; only this much less can be debited
+    // Default given as @ColumnDefault: a columnDefinition would end up in the casts of arithmetic on the column
+    @ColumnDefault("0")
+    @Column(name = "held", nullable = false)
+    private long held;
 
     @Version
     @Column(name = "version", nullable = false)
     private Long version = 0L;
 
     @Column(name = "daily_spent", nullable = false)
-    private Double dailySpent = 0.0;
+    private long dailySpent;
 
     @Column(name = "last_transaction_date")
     private LocalDateTime lastTransactionDate = LocalDateTime.now();
@@ -52,6 +70,14 @@ public class WalletEntity {
         this.active = active;
     }
 
+    // Number of balance slots when striping is enabled (0 = balance kept on this row only)
+    @Column(name = "stripe_count", nullable = false, columnDefinition = "int default 0")
+    private int stripeCount = 0;
+
+    // Spending limit tier (wallet-service.limits.tiers); null = the default tier
+    @Column(name = "tier", length = 32)
+    private String tier;
+
     // Wallet creation date
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -61,28 +87,12 @@ public class WalletEntity {
 
     public WalletEntity(Long userId, Double balance) {
         this.userId = userId;
-        this.balance = (balance != null && balance >= 0) ? balance : 0.0;
-        this.dailySpent = 0.0;
+        this.balance = (balance != null && balance >= 0) ? Money.ofMajor(balance) : 0L;
+        this.dailySpent = 0L;
         this.frozen = false;
         this.lastTransactionDate = LocalDateTime.now();
     }
 
-    // --- Helper Methods ---
-
-    /** Reset daily spent and frozen status if it's a new day (here: every 2 minutes for testing). */
-    public void resetDailyIfNewDay() {
-        if (lastTransactionDate == null) {
-            lastTransactionDate = LocalDateTime.now();
-            return;
-        }
-
-        Duration duration = Duration.between(lastTransactionDate, LocalDateTime.now());
-        if (duration.toMinutes() >= 2) {
-            this.dailySpent = 0.0;
-            this.lastTransactionDate = LocalDateTime.now();
-        }
-    }
-
     // --- Getters & Setters ---
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -90,17 +100,31 @@ public class WalletEntity {
     public Long getUserId() { return userId; }
     public void setUserId(Long userId) { this.userId = userId; }
 
-    public Double getBalance() { return balance; }
-    public void setBalance(Double balance) {
+    public long getBalanceMinor() { return balance; }
+    public void setBalanceMinor(long balance) {
         if (balance < 0) throw new IllegalArgumentException("Balance cannot be negative");
         this.balance = balance;
     }
 
+    public double getBalance() { return Money.toMajor(balance); }
+    public void setBalance(double balance) { setBalanceMinor(Money.ofMajor(balance)); }
+
+    public long getHeldMinor() { return held; }
+    public void setHeldMinor(long held) { this.held = held; }
+
+    public double getHeld() { return Money.toMajor(held); }
+
+    /** Balance that is not reserved by holds, in paise. */
+    public long getAvailableMinor() { return balance - held; }
+
     public Long getVersion() { return version; }
     public void setVersion(Long version) { this.version = version; }
 
-    public Double getDailySpent() { return dailySpent; }
-    public void setDailySpent(Double dailySpent) { this.dailySpent = dailySpent; }
+    public long getDailySpentMinor() { return dailySpent; }
+    public void setDailySpentMinor(long dailySpent) { this.dailySpent = dailySpent; }
+
+    public double getDailySpent() { return Money.toMajor(dailySpent); }
+    public void setDailySpent(double dailySpent) { this.dailySpent = Money.ofMajor(dailySpent); }
 
     public LocalDateTime getLastTransactionDate() { return lastTransactionDate; }
     public void setLastTransactionDate(LocalDateTime lastTransactionDate) { this.lastTransactionDate = lastTransactionDate; }
@@ -113,4 +137,13 @@ public class WalletEntity {
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public int getStripeCount() { return stripeCount; }
+    public void setStripeCount(int stripeCount) { this.stripeCount = stripeCount; }
+
+    public String getTier() { return tier; }
+    public void setTier(String tier) { this.tier = tier; }
+
+    /** Striped wallets hold their balance in {@code wallet_balance_slots}; {@code balance} keeps only a residual. */
+    public boolean isStriped() { return stripeCount > 0; }
 }
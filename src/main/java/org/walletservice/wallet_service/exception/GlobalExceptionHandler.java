@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.exc.MismatchedInputException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -104,6 +105,56 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    // Async transfer not found
+    @ExceptionHandler(TransferNotFoundException.class)
+    public ResponseEntity<ErrorResponseDTO> handleTransferNotFound(TransferNotFoundException ex) {
+        log.warn("Transfer not found: {}", ex.getMessage());
+        ErrorResponseDTO error = ErrorResponseDTO.of(
+                HttpStatus.NOT_FOUND.value(),
+                "Transfer Not Found",
+                ex.getMessage()
+        );
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
+    // Hold not found
+    @ExceptionHandler(HoldNotFoundException.class)
+    public ResponseEntity<ErrorResponseDTO> handleHoldNotFound(HoldNotFoundException ex) {
+        log.warn("Hold not found: {}", ex.getMessage());
+        ErrorResponseDTO error = ErrorResponseDTO.of(
+                HttpStatus.NOT_FOUND.value(),
+                "Hold Not Found",
+                ex.getMessage()
+        );
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
+    // Idempotency-Key reused for a different request
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    public ResponseEntity<ErrorResponseDTO> handleIdempotencyKeyReuse(IdempotencyKeyReuseException ex) {
+        log.warn("Idempotency key reused: {}", ex.getMessage());
+        ErrorResponseDTO error = ErrorResponseDTO.of(
+                HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                "Idempotency Key Reused",
+                ex.getMessage()
+        );
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(error);
+    }
+
+    // Wallet rejected by its retry circuit breaker
+    @ExceptionHandler(WalletContentionException.class)
+    public ResponseEntity<ErrorResponseDTO> handleWalletContention(WalletContentionException ex) {
+        log.warn("Wallet contention: {}", ex.getMessage());
+        ErrorResponseDTO error = ErrorResponseDTO.of(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Wallet Busy",
+                ex.getMessage()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
     // Correct: single handler for HttpMessageNotReadableException
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<ErrorResponseDTO> handleMalformedJson(HttpMessageNotReadableException ex) {
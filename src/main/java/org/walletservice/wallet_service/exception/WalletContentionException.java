@@ -0,0 +1,14 @@
+package org.walletservice.wallet_service.exception;
+
+public class WalletContentionException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public WalletContentionException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -13,7 +13,7 @@ public interface WalletTransactionMapper {
     @Mapping(target = "transactionDate", ignore = true)
     TransactionEntity toEntity(WalletTransactionRequestDTO dto);
 
-    @Mapping(source = "entity.transactionId", target = "transactionId")
+    @Mapping(source = "entity.reference", target = "transactionId")
     @Mapping(source = "entity.amount", target = "amount")
     @Mapping(source = "entity.type", target = "type")
     @Mapping(source = "entity.transactionDate", target = "timestamp")
@@ -0,0 +1,43 @@
+package org.walletservice.wallet_service.repository.hold;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.walletservice.wallet_service.entity.hold.HoldEntity;
+import org.walletservice.wallet_service.entity.hold.HoldStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface HoldRepository extends JpaRepository<HoldEntity, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM HoldEntity h WHERE h.id = :id")
+    Optional<HoldEntity> findByIdForUpdate(@Param("id") String id);
+
+    // Authorized holds past their expiry, oldest first.
+    // Lock timeout -2 renders FOR UPDATE SKIP LOCKED: holds being captured or voided are left to that request.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT h FROM HoldEntity h " +
+            "WHERE h.status = :authorized AND h.expiresAt <= :now " +
+            "ORDER BY h.expiresAt")
+    List<HoldEntity> findExpired(@Param("authorized") HoldStatus authorized,
+                                 @Param("now") LocalDateTime now,
+                                 Pageable pageable);
+
+    /** Moves the given holds to {@code status} with one statement. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE HoldEntity h SET h.status = :status, h.updatedAt = :now WHERE h.id IN :ids")
+    int updateStatus(@Param("ids") Collection<String> ids,
+                     @Param("status") HoldStatus status,
+                     @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,23 @@
+package org.walletservice.wallet_service.repository.idempotency;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.walletservice.wallet_service.entity.idempotency.IdempotencyKeyEntity;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT k FROM IdempotencyKeyEntity k WHERE k.userId = :userId AND k.idempotencyKey = :key")
+    Optional<IdempotencyKeyEntity> findForUpdate(@Param("userId") Long userId, @Param("key") String key);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKeyEntity k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
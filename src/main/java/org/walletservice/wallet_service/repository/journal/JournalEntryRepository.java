@@ -0,0 +1,11 @@
+package org.walletservice.wallet_service.repository.journal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.walletservice.wallet_service.entity.journal.JournalEntryEntity;
+
+import java.util.Optional;
+
+public interface JournalEntryRepository extends JpaRepository<JournalEntryEntity, Long> {
+
+    Optional<JournalEntryEntity> findByReference(String reference);
+}
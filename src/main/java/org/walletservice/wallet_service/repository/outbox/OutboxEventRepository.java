@@ -0,0 +1,19 @@
+package org.walletservice.wallet_service.repository.outbox;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventEntity;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, Long> {
+
+    // Oldest events first. Unlike the transfer command claim this waits for locked rows instead of
+    // skipping them, so a second relay cannot deliver a wallet's later events before its earlier ones.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM OutboxEventEntity e ORDER BY e.id")
+    List<OutboxEventEntity> findOldestForUpdate(Pageable pageable);
+}
@@ -0,0 +1,21 @@
+package org.walletservice.wallet_service.repository.transaction;
+
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One exported transaction, read as a projection so that streamed rows are never managed by the
+ * persistence context. Reference and description of a journal leg come from its header.
+ *
+ * @param amount amount in paise
+ */
+public record TransactionExportRow(
+        Long id,
+        Long walletId,
+        TransactionType type,
+        long amount,
+        String reference,
+        String description,
+        LocalDateTime transactionDate
+) {}
@@ -1,43 +1,115 @@
 package org.walletservice.wallet_service.repository.transaction;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
 import java.util.List;
 import org.springframework.data.jpa.repository.Query;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.repository.query.Param;
 
 import org.springframework.data.domain.Pageable;
 import org.walletservice.wallet_service.entity.transaction.TransactionType;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<TransactionEntity, Long> {
 
-    // Find transactions by wallet
+    // Find transactions by wallet; history reads fetch the journal header of transfer legs in the same query
+    @EntityGraph(attributePaths = "journal")
     List<TransactionEntity> findByWalletId(Long walletId);
 
-    // Custom JPQL query example: find all transactions above a certain amount
+    // Custom JPQL query example: find all transactions above a certain amount (in paise)
     @Query("SELECT t FROM TransactionEntity t WHERE t.amount > :amount")
-    List<TransactionEntity> findTransactionsGreaterThan(Double amount);
+    List<TransactionEntity> findTransactionsGreaterThan(long amount);
 
     // Find transactions by type (CREDIT or DEBIT)
     List<TransactionEntity> findByType(TransactionType type);
 
-    // Find transactions with amount between two values
-    List<TransactionEntity> findByAmountBetween(Double min, Double max);
+    // Find transactions with amount between two values (in paise)
+    List<TransactionEntity> findByAmountBetween(long min, long max);
 
     // Find transactions after a certain date
     List<TransactionEntity> findByTransactionDateAfter(java.time.LocalDateTime date);
 
     Optional<TransactionEntity> findByTransactionId(String transactionId);
 
-    Page<TransactionEntity> findByWalletIdAndType(Long walletId, TransactionType type, Pageable pageable);
+    List<TransactionEntity> findByTransactionIdIn(Collection<String> transactionIds);
+
+    // Ids only, streamed for the idempotency filter warm-up; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.transactionId FROM TransactionEntity t WHERE t.transactionDate >= :since AND t.transactionId IS NOT NULL")
+    Stream<String> streamTransactionIdsSince(@Param("since") LocalDateTime since);
+
+    // Wallet id, amount and date of every debit since then, streamed to rebuild the spending limits
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.walletId, t.amount, t.transactionDate FROM TransactionEntity t " +
+            "WHERE t.type = org.walletservice.wallet_service.entity.transaction.TransactionType.DEBIT " +
+            "AND t.transactionDate >= :since")
+    Stream<Object[]> streamDebitsSince(@Param("since") LocalDateTime since);
+
+    /*
+     * Transactions to export in date order, streamed through a forward-only cursor; must be consumed
+     * inside a transaction. Filtered by wallet on idx_wallet_date and unfiltered on idx_transaction_date,
+     * so neither needs a sort. On MySQL the fetch size only bounds memory with useCursorFetch=true.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+    SELECT new org.walletservice.wallet_service.repository.transaction.TransactionExportRow(
+        t.id, t.walletId, t.type, t.amount, COALESCE(t.transactionId, j.reference),
+        COALESCE(t.description, j.description), t.transactionDate)
+    FROM TransactionEntity t LEFT JOIN t.journal j
+    WHERE (:walletId IS NULL OR t.walletId = :walletId)
+      AND (:userId IS NULL OR t.walletId IN (SELECT w.id FROM WalletEntity w WHERE w.userId = :userId))
+      AND (:start IS NULL OR t.transactionDate >= :start)
+      AND (:end IS NULL OR t.transactionDate <= :end)
+    ORDER BY t.transactionDate, t.id
+    """)
+    Stream<TransactionExportRow> streamForExport(
+            @Param("walletId") Long walletId,
+            @Param("userId") Long userId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    // A user's transactions to export in date order, read in index order from the user's range of
+    // idx_user_date, so no wallet lookup and no sort. Rows not backfilled with their user yet are missing (see TransactionUserBackfill)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+    SELECT new org.walletservice.wallet_service.repository.transaction.TransactionExportRow(
+        t.id, t.walletId, t.type, t.amount, COALESCE(t.transactionId, j.reference),
+        COALESCE(t.description, j.description), t.transactionDate)
+    FROM TransactionEntity t LEFT JOIN t.journal j
+    WHERE t.userId = :userId
+      AND (:start IS NULL OR t.transactionDate >= :start)
+      AND (:end IS NULL OR t.transactionDate <= :end)
+    ORDER BY t.transactionDate, t.id
+    """)
+    Stream<TransactionExportRow> streamForUserExport(
+            @Param("userId") Long userId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
 
-    Page<TransactionEntity> findByWalletIdIn(List<Long> walletIds, Pageable pageable);
+    @EntityGraph(attributePaths = "journal")
+    Page<TransactionEntity> findByWalletIdAndType(Long walletId, TransactionType type, Pageable pageable);
 
+    @EntityGraph(attributePaths = "journal")
     Page<TransactionEntity> findByWalletIdAndTypeAndTransactionDateBetween(
             Long walletId,
             TransactionType type,
@@ -45,18 +117,74 @@ public interface TransactionRepository extends JpaRepository<TransactionEntity,
             LocalDateTime endDate,
             Pageable pageable);
 
+    /*
+     * Keyset pages of a wallet's history, newest first: the transactions before (beforeDate, beforeId).
+     * The range on transaction_date is a seek on idx_wallet_date, whose entries end in the primary
+     * key, so rows come in index order and nothing before the page is read. A Slice fetches one row
+     * more than the page instead of counting.
+     */
+    @EntityGraph(attributePaths = "journal")
     @Query("""
     SELECT t FROM TransactionEntity t
     WHERE t.walletId = :walletId
       AND (:type IS NULL OR t.type = :type)
       AND (:start IS NULL OR t.transactionDate >= :start)
       AND (:end IS NULL OR t.transactionDate <= :end)
+      AND t.transactionDate <= :beforeDate
+      AND (t.transactionDate < :beforeDate OR t.id < :beforeId)
+    ORDER BY t.transactionDate DESC, t.id DESC
     """)
-    Page<TransactionEntity> findFilteredTransactions(
+    Slice<TransactionEntity> findFilteredTransactions(
             @Param("walletId") Long walletId,
             @Param("type") TransactionType type,
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end,
+            @Param("beforeDate") LocalDateTime beforeDate,
+            @Param("beforeId") long beforeId,
             Pageable pageable
     );
+
+    // A keyset page of a user's history, newest first, as one range of idx_user_date. Rows not
+    // backfilled with their user yet are missing (see TransactionUserBackfill)
+    @EntityGraph(attributePaths = "journal")
+    @Query("""
+    SELECT t FROM TransactionEntity t
+    WHERE t.userId = :userId
+      AND t.transactionDate <= :beforeDate
+      AND (t.transactionDate < :beforeDate OR t.id < :beforeId)
+    ORDER BY t.transactionDate DESC, t.id DESC
+    """)
+    Slice<TransactionEntity> findByUserIdBefore(
+            @Param("userId") Long userId,
+            @Param("beforeDate") LocalDateTime beforeDate,
+            @Param("beforeId") long beforeId,
+            Pageable pageable
+    );
+
+    // Rows still without a user, in id order from after the given id. Rows of wallets that no longer
+    // exist are left out: they have no user to take and are in no user's history
+    @Query("SELECT t.id FROM TransactionEntity t WHERE t.id > :afterId AND t.userId IS NULL " +
+            "AND EXISTS (SELECT w.id FROM WalletEntity w WHERE w.id = t.walletId) ORDER BY t.id")
+    List<Long> findIdsWithoutUser(@Param("afterId") long afterId, Pageable pageable);
+
+    // Copies the owner of each row's wallet into the row; rows saved in this transaction are flushed first
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE TransactionEntity t SET t.userId = " +
+            "(SELECT w.userId FROM WalletEntity w WHERE w.id = t.walletId) WHERE t.id IN :ids")
+    int assignUserIds(@Param("ids") Collection<Long> ids);
+
+    // A keyset page of all transactions, newest first, read backwards along idx_transaction_date
+    @EntityGraph(attributePaths = "journal")
+    @Query("""
+    SELECT t FROM TransactionEntity t
+    WHERE t.transactionDate <= :beforeDate
+      AND (t.transactionDate < :beforeDate OR t.id < :beforeId)
+    ORDER BY t.transactionDate DESC, t.id DESC
+    """)
+    Slice<TransactionEntity> findAllBefore(
+            @Param("beforeDate") LocalDateTime beforeDate,
+            @Param("beforeId") long beforeId,
+            Pageable pageable
+    );
+
 }
@@ -0,0 +1,36 @@
+package org.walletservice.wallet_service.repository.transfer;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.walletservice.wallet_service.entity.transfer.ScheduledTransferEntity;
+import org.walletservice.wallet_service.entity.transfer.ScheduledTransferStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ScheduledTransferRepository extends JpaRepository<ScheduledTransferEntity, String> {
+
+    // Schedules whose next run is due, earliest first.
+    // Lock timeout -2 renders FOR UPDATE SKIP LOCKED, so concurrent schedulers claim disjoint rows.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT s FROM ScheduledTransferEntity s " +
+            "WHERE s.status = :active AND s.nextRunAt <= :now " +
+            "ORDER BY s.nextRunAt")
+    List<ScheduledTransferEntity> findDue(@Param("active") ScheduledTransferStatus active,
+                                          @Param("now") LocalDateTime now,
+                                          Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ScheduledTransferEntity s WHERE s.id = :id")
+    Optional<ScheduledTransferEntity> findByIdForUpdate(@Param("id") String id);
+
+    List<ScheduledTransferEntity> findByRequestedByOrderByCreatedAtDesc(Long requestedBy);
+}
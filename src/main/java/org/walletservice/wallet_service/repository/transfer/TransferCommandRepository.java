@@ -0,0 +1,37 @@
+package org.walletservice.wallet_service.repository.transfer;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.walletservice.wallet_service.entity.transfer.TransferCommandEntity;
+import org.walletservice.wallet_service.entity.transfer.TransferStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface TransferCommandRepository extends JpaRepository<TransferCommandEntity, String> {
+
+    // Oldest pending commands plus commands whose worker lease ran out.
+    // Lock timeout -2 renders FOR UPDATE SKIP LOCKED, so concurrent workers claim disjoint rows.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT c FROM TransferCommandEntity c " +
+            "WHERE c.status = :pending OR (c.status = :processing AND c.claimedAt < :staleBefore) " +
+            "ORDER BY c.createdAt")
+    List<TransferCommandEntity> findClaimable(@Param("pending") TransferStatus pending,
+                                              @Param("processing") TransferStatus processing,
+                                              @Param("staleBefore") LocalDateTime staleBefore,
+                                              Pageable pageable);
+
+    long countByStatus(TransferStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM TransferCommandEntity c WHERE c.id = :id")
+    Optional<TransferCommandEntity> findByIdForUpdate(@Param("id") String id);
+}
@@ -0,0 +1,39 @@
+package org.walletservice.wallet_service.repository.wallet;
+
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+
+/**
+ * Outcome of a conditional debit issued through {@link WalletRepository#debit}.
+ * Anything other than {@link #APPLIED} names the rule that rejected the debit.
+ */
+public enum DebitResult {
+    APPLIED,
+    WALLET_NOT_FOUND,
+    WALLET_INACTIVE,
+    WALLET_FROZEN,
+    INSUFFICIENT_BALANCE,
+    CONCURRENT_UPDATE;
+
+    /**
+     * Works out which rule a debit broke, from the row as it is after the rejected UPDATE.
+     * Rules are checked in the same order the service validates them.
+     */
+    static DebitResult diagnose(WalletEntity wallet, long amount, boolean striped) {
+        if (!Boolean.TRUE.equals(wallet.getActive())) {
+            return WALLET_INACTIVE;
+        }
+        if (Boolean.TRUE.equals(wallet.getFrozen())) {
+            return WALLET_FROZEN;
+        }
+        if (wallet.isStriped() != striped) {
+            // Striping was enabled or disabled since the caller read the wallet
+            return CONCURRENT_UPDATE;
+        }
+        if (!striped && wallet.getAvailableMinor() < amount) {
+            return INSUFFICIENT_BALANCE;
+        }
+
+        // Row changed between the UPDATE and this read; the debit can be retried
+        return CONCURRENT_UPDATE;
+    }
+}
@@ -0,0 +1,52 @@
+package org.walletservice.wallet_service.repository.wallet;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.walletservice.wallet_service.entity.wallet.WalletBalanceSlotEntity;
+
+import java.util.Collection;
+import java.util.List;
+
+// Balances and amounts are paise
+public interface WalletBalanceSlotRepository extends JpaRepository<WalletBalanceSlotEntity, Long> {
+
+    List<WalletBalanceSlotEntity> findByWalletIdOrderBySlotIndex(Long walletId);
+
+    // Slots are always locked in slot order so sweeps and rebalances cannot deadlock each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM WalletBalanceSlotEntity s WHERE s.walletId = :walletId ORDER BY s.slotIndex")
+    List<WalletBalanceSlotEntity> findByWalletIdForUpdate(@Param("walletId") Long walletId);
+
+    @Query("SELECT COALESCE(SUM(s.balance), 0) FROM WalletBalanceSlotEntity s WHERE s.walletId = :walletId")
+    long sumBalance(@Param("walletId") Long walletId);
+
+    @Query("SELECT s.walletId, SUM(s.balance) FROM WalletBalanceSlotEntity s " +
+            "WHERE s.walletId IN :walletIds GROUP BY s.walletId")
+    List<Object[]> sumBalanceByWalletIds(@Param("walletIds") Collection<Long> walletIds);
+
+    /**
+     * @return number of rows updated (0 = slot does not exist)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE WalletBalanceSlotEntity s SET s.balance = s.balance + :amount " +
+            "WHERE s.walletId = :walletId AND s.slotIndex = :slot")
+    int credit(@Param("walletId") Long walletId, @Param("slot") int slot, @Param("amount") long amount);
+
+    /**
+     * Debits a single slot only if it holds enough on its own.
+     *
+     * @return number of rows updated (0 = slot too small or missing)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE WalletBalanceSlotEntity s SET s.balance = s.balance - :amount " +
+            "WHERE s.walletId = :walletId AND s.slotIndex = :slot AND s.balance >= :amount")
+    int debitIfCovered(@Param("walletId") Long walletId, @Param("slot") int slot, @Param("amount") long amount);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM WalletBalanceSlotEntity s WHERE s.walletId IN :walletIds")
+    int deleteByWalletIds(@Param("walletIds") Collection<Long> walletIds);
+}
@@ -5,9 +5,12 @@ import org.walletservice.wallet_service.entity.wallet.WalletEntity;
 
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,4 +29,185 @@ public interface WalletRepository extends JpaRepository<WalletEntity, Long> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT w FROM WalletEntity w WHERE w.id = :id")
     Optional<WalletEntity> findByIdForUpdate(@Param("id") Long id);
+
+    // Balance column as it stands now, including blind updates made earlier in this transaction
+    @Query("SELECT w.balance FROM WalletEntity w WHERE w.id = :id")
+    long findBalanceById(@Param("id") Long id);
+
+    // --- Atomic balance mutations (one statement per leg, no read-modify-write) ---
+    // Amounts are paise, like the balance column. Spending limits are checked in memory
+    // (SpendingLimitEngine) before the debit is issued.
+
+    /**
+     * Debits the wallet only if it is active, not frozen and has enough balance outside of its
+     * holds. With {@code freeze = true} the same statement freezes the wallet, because the debit
+     * used up its daily limit.
+     *
+     * With {@code striped = true} the balance is not touched here: it lives in the wallet's slots
+     * and is debited separately. The row only matches when its striping state equals
+     * {@code striped}, so a caller working from a stale snapshot gets 0 rows instead of a wrong debit.
+     *
+     * @return number of rows updated (1 = debited, 0 = rejected or not found)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+    UPDATE WalletEntity w
+    SET w.frozen = CASE WHEN :freeze = true THEN true ELSE w.frozen END,
+        w.frozenAt = CASE WHEN :freeze = true THEN :now ELSE w.frozenAt END,
+        w.balance = w.balance - CASE WHEN w.stripeCount > 0 THEN 0 ELSE :amount END,
+        w.version = w.version + 1
+    WHERE w.id = :id
+      AND w.active = true
+      AND w.frozen = false
+      AND ((:striped = true AND w.stripeCount > 0)
+           OR (:striped = false AND w.stripeCount = 0 AND w.balance - w.held >= :amount))
+    """)
+    int debitIfAllowed(@Param("id") Long id,
+                       @Param("amount") long amount,
+                       @Param("striped") boolean striped,
+                       @Param("freeze") boolean freeze,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Reserves {@code amount} of an unstriped wallet's available balance for a hold, under the
+     * same rules as {@link #debitIfAllowed}, freezing the wallet as well with {@code freeze = true}.
+     *
+     * @return number of rows updated (1 = held, 0 = rejected or not found)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+    UPDATE WalletEntity w
+    SET w.frozen = CASE WHEN :freeze = true THEN true ELSE w.frozen END,
+        w.frozenAt = CASE WHEN :freeze = true THEN :now ELSE w.frozenAt END,
+        w.held = w.held + :amount,
+        w.version = w.version + 1
+    WHERE w.id = :id
+      AND w.active = true
+      AND w.frozen = false
+      AND w.stripeCount = 0
+      AND w.balance - w.held >= :amount
+    """)
+    int holdIfAllowed(@Param("id") Long id,
+                      @Param("amount") long amount,
+                      @Param("freeze") boolean freeze,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * Settles a hold: takes {@code held} off the reserved amount and {@code captured}, at most
+     * {@code held}, off the balance.
+     *
+     * @return number of rows updated (0 = wallet not found or not holding that much)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+    UPDATE WalletEntity w
+    SET w.balance = w.balance - :captured, w.held = w.held - :held, w.version = w.version + 1
+    WHERE w.id = :id AND w.held >= :held
+    """)
+    int captureHeld(@Param("id") Long id, @Param("held") long held, @Param("captured") long captured);
+
+    /**
+     * Returns {@code amount} reserved by holds to the available balance.
+     *
+     * @return number of rows updated (0 = wallet not found or not holding that much)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WalletEntity w SET w.held = w.held - :amount, w.version = w.version + 1 WHERE w.id = :id AND w.held >= :amount")
+    int releaseHeld(@Param("id") Long id, @Param("amount") long amount);
+
+    /**
+     * Copies a wallet's spend in the current daily window, as counted in memory, to the row.
+     * The version is left alone: this snapshot must not make concurrent writers of the wallet fail.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WalletEntity w SET w.dailySpent = :spent, w.lastTransactionDate = :at WHERE w.id = :id")
+    int recordDailySpent(@Param("id") Long id, @Param("spent") long spent, @Param("at") LocalDateTime at);
+
+    /** Freezes the wallet as of {@code now}, without reading the row first. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WalletEntity w SET w.frozen = true, w.frozenAt = :now, w.version = w.version + 1 WHERE w.id = :id")
+    int freeze(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /** Lifts the wallet's freeze and clears its daily spend snapshot. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+    UPDATE WalletEntity w
+    SET w.frozen = false, w.frozenAt = NULL, w.dailySpent = 0, w.version = w.version + 1
+    WHERE w.id = :id
+    """)
+    int unfreeze(@Param("id") Long id);
+
+    /**
+     * Lifts the freezes of the given wallets that started at or before {@code frozenBefore}.
+     * A wallet unfrozen or frozen again in the meantime is left alone.
+     *
+     * @return number of wallets unfrozen
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+    UPDATE WalletEntity w
+    SET w.frozen = false, w.frozenAt = NULL, w.dailySpent = 0, w.version = w.version + 1
+    WHERE w.id IN :ids
+      AND w.frozen = true
+      AND w.frozenAt <= :frozenBefore
+    """)
+    int unfreezeExpired(@Param("ids") Collection<Long> ids, @Param("frozenBefore") LocalDateTime frozenBefore);
+
+    /** Id and freeze time of every frozen wallet; an index range scan on frozen_at. */
+    @Query("SELECT w.id, w.frozenAt FROM WalletEntity w WHERE w.frozenAt IS NOT NULL AND w.frozen = true")
+    List<Object[]> findFreezes();
+
+    @Query("SELECT w.id FROM WalletEntity w WHERE w.frozenAt <= :frozenBefore AND w.frozen = true")
+    List<Long> findExpiredFreezes(@Param("frozenBefore") LocalDateTime frozenBefore);
+
+    @Query("SELECT w.id FROM WalletEntity w WHERE w.id IN :ids AND w.frozenAt <= :frozenBefore AND w.frozen = true")
+    List<Long> findExpiredFreezes(@Param("ids") Collection<Long> ids, @Param("frozenBefore") LocalDateTime frozenBefore);
+
+    /**
+     * Blind credit: increments the balance without reading the row first.
+     *
+     * @return number of rows updated (0 = wallet not found)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WalletEntity w SET w.balance = w.balance + :amount, w.version = w.version + 1 WHERE w.id = :id")
+    int credit(@Param("id") Long id, @Param("amount") long amount);
+
+    /**
+     * Adds a signed amount without any balance check, e.g. the net change of a wallet's entries
+     * already acknowledged by the write-behind ledger.
+     *
+     * @return number of rows updated (0 = wallet not found)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WalletEntity w SET w.balance = w.balance + :delta, w.version = w.version + 1 WHERE w.id = :id")
+    int adjustBalance(@Param("id") Long id, @Param("delta") long delta);
+
+    /**
+     * Conditional debit that reports which rule rejected it. The row is only read
+     * when the UPDATE does not apply, so the success path is a single statement.
+     */
+    default DebitResult debit(Long id, long amount) {
+        return debit(id, amount, false, false);
+    }
+
+    /** Like {@link #debit}, for {@link #holdIfAllowed}. */
+    default DebitResult hold(Long id, long amount, boolean freeze) {
+        if (holdIfAllowed(id, amount, freeze, LocalDateTime.now()) == 1) {
+            return DebitResult.APPLIED;
+        }
+
+        return findById(id)
+                .map(wallet -> DebitResult.diagnose(wallet, amount, false))
+                .orElse(DebitResult.WALLET_NOT_FOUND);
+    }
+
+    default DebitResult debit(Long id, long amount, boolean striped, boolean freeze) {
+        if (debitIfAllowed(id, amount, striped, freeze, LocalDateTime.now()) == 1) {
+            return DebitResult.APPLIED;
+        }
+
+        return findById(id)
+                .map(wallet -> DebitResult.diagnose(wallet, amount, striped))
+                .orElse(DebitResult.WALLET_NOT_FOUND);
+    }
 }
@@ -0,0 +1,217 @@
+package org.walletservice.wallet_service.service.engine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PessimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.walletservice.wallet_service.exception.WalletContentionException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Retries wallet mutations that lost a race, and only those.
+ *
+ * A failure is retried when it is a concurrency or transient data access failure (version conflict,
+ * lock timeout, deadlock); business rejections such as insufficient balance propagate at once.
+ * Retries back off exponentially with full jitter. Each wallet has a retry budget that is topped up by
+ * a fraction of a token per call, so a wallet can never generate more than that fraction of extra load
+ * in retries. When calls to a wallet keep giving up, its circuit breaker opens and further calls are
+ * rejected with {@link WalletContentionException} until a trial call succeeds.
+ */
+@Component
+public class RetryExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(RetryExecutor.class);
+
+    private static final int MAX_TRACKED_WALLETS = 10_000;
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final double budgetRatio;
+    private final double budgetMax;
+    private final int breakerThreshold;
+    private final long breakerOpenNanos;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, WalletState> wallets = new ConcurrentHashMap<>();
+
+    public RetryExecutor(MeterRegistry meterRegistry,
+                         @Value("${wallet-service.retry.max-attempts:4}") int maxAttempts,
+                         @Value("${wallet-service.retry.base-delay-ms:5}") long baseDelayMs,
+                         @Value("${wallet-service.retry.max-delay-ms:200}") long maxDelayMs,
+                         @Value("${wallet-service.retry.budget-ratio:0.2}") double budgetRatio,
+                         @Value("${wallet-service.retry.budget-max:20}") double budgetMax,
+                         @Value("${wallet-service.retry.breaker-threshold:10}") int breakerThreshold,
+                         @Value("${wallet-service.retry.breaker-open-ms:1000}") long breakerOpenMs) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Retry max attempts must be at least 1");
+        }
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.budgetRatio = budgetRatio;
+        this.budgetMax = budgetMax;
+        this.breakerThreshold = breakerThreshold;
+        this.breakerOpenNanos = TimeUnit.MILLISECONDS.toNanos(breakerOpenMs);
+
+        Gauge.builder("wallet.retry.breakers.open", wallets,
+                        states -> states.values().stream().filter(WalletState::isOpen).count())
+                .description("Wallets whose retry circuit breaker is open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action} for the wallet, retrying it while it fails with a retryable exception.
+     *
+     * @param operation name used to tag the metrics, e.g. "transaction" or "transfer"
+     * @throws WalletContentionException if the wallet's circuit breaker is open
+     */
+    public <T> T execute(String operation, Long walletId, Supplier<T> action) {
+        WalletState state = stateOf(walletId);
+        if (!state.tryAcquire(System.nanoTime())) {
+            meterRegistry.counter("wallet.retry.rejected", "operation", operation).increment();
+            throw new WalletContentionException("Wallet " + walletId + " is under heavy contention, please retry later",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(breakerOpenNanos)));
+        }
+        state.deposit(budgetRatio, budgetMax);
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = action.get();
+                state.recordSuccess();
+                return result;
+            } catch (RuntimeException ex) {
+                if (!isRetryable(ex)) {
+                    // The call got through to a decision; contention did not stop it
+                    state.recordSuccess();
+                    throw ex;
+                }
+                String reason = attempt >= maxAttempts ? "attempts" : !state.withdraw() ? "budget" : null;
+                if (reason != null) {
+                    meterRegistry.counter("wallet.retry.exhausted", "operation", operation, "reason", reason).increment();
+                    if (state.recordFailure(System.nanoTime(), breakerThreshold, breakerOpenNanos)) {
+                        log.warn("🔌 Retry breaker opened for wallet {} after repeated contention", walletId);
+                    }
+                    throw ex;
+                }
+                meterRegistry.counter("wallet.retry.attempts", "operation", operation).increment();
+                log.debug("🔁 Retrying {} on wallet {} (attempt {}): {}", operation, walletId, attempt + 1, ex.getMessage());
+                backoff(attempt);
+            }
+        }
+    }
+
+    /** Version conflicts, lock timeouts, deadlocks and other transient data access failures. */
+    public static boolean isRetryable(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof ConcurrencyFailureException
+                    || t instanceof TransientDataAccessException
+                    || t instanceof OptimisticLockException
+                    || t instanceof PessimisticLockException
+                    || t instanceof LockTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Full jitter: sleep a random time up to the exponential bound
+    private void backoff(int attempt) {
+        long bound = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying");
+        }
+    }
+
+    private WalletState stateOf(Long walletId) {
+        if (wallets.size() >= MAX_TRACKED_WALLETS) {
+            // Forget wallets with nothing to remember: breaker closed and no recent failures
+            wallets.values().removeIf(WalletState::isIdle);
+        }
+        return wallets.computeIfAbsent(walletId, id -> new WalletState(budgetMax));
+    }
+
+    /** Retry budget and circuit breaker of one wallet. */
+    static final class WalletState {
+
+        private double tokens;
+        private int consecutiveFailures;
+        private long openUntil;
+        private boolean open;
+        private boolean trialInFlight;
+
+        WalletState(double tokens) {
+            this.tokens = tokens;
+        }
+
+        // Closed: always. Open: rejected until the open period ends, then one trial call is let through.
+        synchronized boolean tryAcquire(long now) {
+            if (!open) {
+                return true;
+            }
+            if (now - openUntil < 0 || trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+            return true;
+        }
+
+        synchronized void deposit(double amount, double max) {
+            tokens = Math.min(max, tokens + amount);
+        }
+
+        synchronized boolean withdraw() {
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized void recordSuccess() {
+            consecutiveFailures = 0;
+            open = false;
+            trialInFlight = false;
+        }
+
+        /** @return true if this failure opened the breaker */
+        synchronized boolean recordFailure(long now, int threshold, long openNanos) {
+            consecutiveFailures++;
+            if (trialInFlight || (!open && consecutiveFailures >= threshold)) {
+                boolean opened = !open;
+                open = true;
+                trialInFlight = false;
+                openUntil = now + openNanos;
+                return opened;
+            }
+            return false;
+        }
+
+        synchronized boolean isOpen() {
+            return open;
+        }
+
+        synchronized boolean isIdle() {
+            return !open && consecutiveFailures == 0;
+        }
+    }
+}
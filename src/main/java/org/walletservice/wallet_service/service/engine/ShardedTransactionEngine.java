@@ -0,0 +1,272 @@
+package org.walletservice.wallet_service.service.engine;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Single-writer transaction engine.
+ *
+ * Every wallet id hashes to one of N shards. Each shard owns one thread that applies
+ * the commands queued for its wallets in arrival order, so two mutations of the same
+ * wallet never race on the {@code @Version} column. Commands waiting in a shard queue
+ * are drained in micro-batches and applied inside one DB transaction; if any command
+ * of a batch fails, the batch is rolled back and its commands are replayed one by one
+ * so a single bad command cannot fail its neighbours.
+ *
+ * The engine is opt-in: with {@code wallet-service.engine.mode=retry} (default) no shard
+ * threads are started and callers keep using the optimistic retry path.
+ */
+@Service
+public class ShardedTransactionEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedTransactionEngine.class);
+
+    public static final String MODE_SHARDED = "sharded";
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long submitTimeoutMs;
+    private final TransactionTemplate transactionTemplate;
+    private final Shard[] shards;
+
+    public ShardedTransactionEngine(PlatformTransactionManager transactionManager,
+                                    @Value("${wallet-service.engine.mode:retry}") String mode,
+                                    @Value("${wallet-service.engine.shards:8}") int shardCount,
+                                    @Value("${wallet-service.engine.batch-size:32}") int batchSize,
+                                    @Value("${wallet-service.engine.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${wallet-service.engine.submit-timeout-ms:5000}") long submitTimeoutMs) {
+        if (shardCount < 1 || batchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Engine shards, batch size and queue capacity must be positive");
+        }
+        this.enabled = MODE_SHARDED.equalsIgnoreCase(mode);
+        this.batchSize = batchSize;
+        this.submitTimeoutMs = submitTimeoutMs;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = new Shard[enabled ? shardCount : 0];
+
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+            shards[i].start();
+        }
+
+        if (enabled) {
+            log.info("Sharded transaction engine started with {} shards, batch size {}", shardCount, batchSize);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs the command on the shard owning the wallet and waits for its result.
+     * The caller's security context is propagated to the shard thread.
+     *
+     * A command still queued when the submit timeout runs out is withdrawn and never applied. One
+     * the shard has already started is waited for, so the caller never sees a failure for a
+     * command that committed.
+     *
+     * @throws IllegalStateException if the engine is disabled, the shard queue is full
+     *                               or the command is not started within the submit timeout
+     */
+    public <T> T execute(Long walletId, Callable<T> command) {
+        if (!enabled) {
+            throw new IllegalStateException("Sharded transaction engine is disabled");
+        }
+
+        Command<T> queued = new Command<>(new DelegatingSecurityContextCallable<>(command));
+        Shard shard = shardFor(walletId);
+
+        if (!shard.queue.offer(queued)) {
+            log.warn("Shard {} queue is full, rejecting command for wallet {}", shard.index, walletId);
+            throw new IllegalStateException("Transaction engine is overloaded. Please retry later.");
+        }
+
+        try {
+            try {
+                return queued.future.get(submitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (queued.withdraw()) {
+                    throw new IllegalStateException("Timed out waiting for wallet " + walletId + " to be processed");
+                }
+                // The shard is applying it already; its outcome is the answer
+                return queued.future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException("Transaction failed: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for wallet " + walletId);
+        }
+    }
+
+    int shardIndex(Long walletId) {
+        return Math.floorMod(Long.hashCode(walletId), shards.length);
+    }
+
+    private Shard shardFor(Long walletId) {
+        return shards[shardIndex(walletId)];
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Shard shard : shards) {
+            shard.running = false;
+            shard.thread.interrupt();
+        }
+    }
+
+    // Applies one micro-batch: all commands in one transaction, or one transaction each on failure.
+    // Commands withdrawn by a caller that timed out are left out
+    private void applyBatch(List<Command<?>> queued) {
+        List<Command<?>> batch = new ArrayList<>(queued.size());
+        for (Command<?> command : queued) {
+            if (command.claim()) {
+                batch.add(command);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (batch.size() > 1 && tryApplyTogether(batch)) {
+            return;
+        }
+        for (Command<?> command : batch) {
+            applyAlone(command);
+        }
+    }
+
+    private boolean tryApplyTogether(List<Command<?>> batch) {
+        List<Object> results = new ArrayList<>(batch.size());
+        try {
+            Boolean committed = transactionTemplate.execute(status -> {
+                for (Command<?> command : batch) {
+                    try {
+                        results.add(command.callable.call());
+                    } catch (Exception e) {
+                        status.setRollbackOnly();
+                        return false;
+                    }
+                }
+                return true;
+            });
+            if (!Boolean.TRUE.equals(committed)) {
+                return false;
+            }
+        } catch (RuntimeException e) {
+            log.debug("Batch of {} commands failed to commit, replaying individually: {}", batch.size(), e.getMessage());
+            return false;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(results.get(i));
+        }
+        return true;
+    }
+
+    private void applyAlone(Command<?> command) {
+        try {
+            Object result = transactionTemplate.execute(status -> {
+                try {
+                    return command.callable.call();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            });
+            command.complete(result);
+        } catch (Throwable t) {
+            command.future.completeExceptionally(t);
+        }
+    }
+
+    private static final class Command<T> {
+        private final Callable<T> callable;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        // Taken either by the shard before applying the command or by a caller withdrawing it
+        private final AtomicBoolean taken = new AtomicBoolean();
+
+        private Command(Callable<T> callable) {
+            this.callable = callable;
+        }
+
+        /** @return true if the shard may apply the command: not withdrawn, nor completed otherwise */
+        private boolean claim() {
+            return taken.compareAndSet(false, true) && !future.isDone();
+        }
+
+        /** @return true if the command was withdrawn before the shard started it */
+        private boolean withdraw() {
+            return taken.compareAndSet(false, true) && future.cancel(false);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void complete(Object result) {
+            future.complete((T) result);
+        }
+    }
+
+    private final class Shard implements Runnable {
+        private final int index;
+        private final BlockingQueue<Command<?>> queue;
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private Shard(int index, int queueCapacity) {
+            this.index = index;
+            this.queue = new LinkedBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this, "wallet-shard-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void start() {
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            List<Command<?>> batch = new ArrayList<>(batchSize);
+            while (running) {
+                try {
+                    batch.add(queue.take());
+                    queue.drainTo(batch, batchSize - 1);
+                    applyBatch(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Throwable t) {
+                    log.error("Shard {} failed to apply batch: {}", index, t.getMessage(), t);
+                    batch.forEach(command -> command.future.completeExceptionally(t));
+                } finally {
+                    batch.clear();
+                }
+            }
+
+            Command<?> pending;
+            while ((pending = queue.poll()) != null) {
+                pending.future.completeExceptionally(new IllegalStateException("Transaction engine is shutting down"));
+            }
+        }
+    }
+}
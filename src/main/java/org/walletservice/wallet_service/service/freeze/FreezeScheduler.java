@@ -0,0 +1,249 @@
+package org.walletservice.wallet_service.service.freeze;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventType;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.limit.LimitWindow;
+import org.walletservice.wallet_service.service.limit.SpendingLimitEngine;
+import org.walletservice.wallet_service.service.outbox.OutboxService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * Lifts wallet freezes once they have lasted the freeze duration.
+ *
+ * Every freeze is scheduled on a {@link TimerWheel}; a background thread advances it each tick
+ * and unfreezes the wallets that came due with one set-based UPDATE, guarded by their
+ * {@code frozen_at} so a wallet frozen again meanwhile is left alone. The request path only reads
+ * the frozen flag. The wheel is rebuilt from the frozen wallets on startup, and every sweep
+ * interval the expired freezes are also looked up in the database, which picks up wallets frozen
+ * by another instance that stopped before lifting them.
+ */
+@Component
+public class FreezeScheduler implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(FreezeScheduler.class);
+
+    private static final int WHEEL_LEVELS = 3;
+
+    private final WalletRepository walletRepository;
+    private final SpendingLimitEngine spendingLimits;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration freezeDuration;
+    private final long tickMs;
+    private final long sweepIntervalMs;
+    private final LongSupplier clock;
+
+    private final TimerWheel wheel;
+    private long lastSweep;
+
+    private volatile boolean running;
+    private Thread ticker;
+
+    @Autowired
+    public FreezeScheduler(WalletRepository walletRepository,
+                           SpendingLimitEngine spendingLimits,
+                           OutboxService outboxService,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${wallet-service.freeze.duration-ms:120000}") long durationMs,
+                           @Value("${wallet-service.freeze.tick-ms:100}") long tickMs,
+                           @Value("${wallet-service.freeze.sweep-interval-ms:30000}") long sweepIntervalMs) {
+        this(walletRepository, spendingLimits, outboxService, transactionManager, meterRegistry,
+                durationMs, tickMs, sweepIntervalMs, System::currentTimeMillis);
+    }
+
+    FreezeScheduler(WalletRepository walletRepository,
+                    SpendingLimitEngine spendingLimits,
+                    OutboxService outboxService,
+                    PlatformTransactionManager transactionManager,
+                    MeterRegistry meterRegistry,
+                    long durationMs,
+                    long tickMs,
+                    long sweepIntervalMs,
+                    LongSupplier clock) {
+        if (durationMs < 1 || tickMs < 1 || sweepIntervalMs < 1) {
+            throw new IllegalArgumentException("Freeze duration, tick and sweep interval must be positive");
+        }
+        this.walletRepository = walletRepository;
+        this.spendingLimits = spendingLimits;
+        this.outboxService = outboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.freezeDuration = Duration.ofMillis(durationMs);
+        this.tickMs = tickMs;
+        this.sweepIntervalMs = sweepIntervalMs;
+        this.clock = clock;
+        this.wheel = new TimerWheel(tickMs, WHEEL_LEVELS, clock.getAsLong());
+        this.lastSweep = clock.getAsLong();
+
+        Gauge.builder("wallet.freeze.scheduled", this, FreezeScheduler::scheduled)
+                .description("Frozen wallets waiting for their freeze to expire")
+                .register(meterRegistry);
+    }
+
+    public Duration freezeDuration() {
+        return freezeDuration;
+    }
+
+    /** Schedules the end of a freeze that started at {@code frozenAt}, replacing any earlier one. */
+    public void schedule(Long walletId, LocalDateTime frozenAt) {
+        long deadline = toMillis(frozenAt) + freezeDuration.toMillis();
+        synchronized (wheel) {
+            wheel.schedule(walletId, deadline);
+        }
+    }
+
+    public void cancel(Long walletId) {
+        synchronized (wheel) {
+            wheel.cancel(walletId);
+        }
+    }
+
+    /** @return seconds until the wallet's freeze expires, at least 1 while it is still frozen */
+    public long secondsLeft(WalletEntity wallet) {
+        if (wallet.getFrozenAt() == null) {
+            return freezeDuration.toSeconds();
+        }
+        long elapsed = clock.getAsLong() - toMillis(wallet.getFrozenAt());
+        return Math.max(1, (freezeDuration.toMillis() - elapsed + 999) / 1000);
+    }
+
+    /**
+     * Unfreezes the wallets whose freeze expired by now, plus any found by a sweep when one is due.
+     *
+     * @return the number of wallets unfrozen
+     */
+    public int tick() {
+        long now = clock.getAsLong();
+        Set<Long> due;
+        synchronized (wheel) {
+            due = new LinkedHashSet<>(wheel.advance(now));
+        }
+        LocalDateTime frozenBefore = toDateTime(now - freezeDuration.toMillis());
+        if (now - lastSweep >= sweepIntervalMs) {
+            lastSweep = now;
+            List<Long> expired = readOnlyTemplate.execute(status -> walletRepository.findExpiredFreezes(frozenBefore));
+            if (expired != null) {
+                due.addAll(expired);
+            }
+        }
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        Integer unfrozen;
+        try {
+            unfrozen = transactionTemplate.execute(status -> {
+                // Read in the same transaction, so the events name the wallets the UPDATE lifts
+                List<Long> expired = walletRepository.findExpiredFreezes(due, frozenBefore);
+                int count = walletRepository.unfreezeExpired(due, frozenBefore);
+                outboxService.recordStatus(expired, OutboxEventType.UNFROZEN);
+                return count;
+            });
+        } catch (RuntimeException ex) {
+            // Try again on the next tick
+            synchronized (wheel) {
+                due.forEach(walletId -> wheel.schedule(walletId, now));
+            }
+            throw ex;
+        }
+        // A wallet skipped here was unfrozen by hand or frozen again, and has its own timer then
+        due.forEach(walletId -> spendingLimits.reset(walletId, LimitWindow.DAILY));
+
+        int count = unfrozen == null ? 0 : unfrozen;
+        meterRegistry.counter("wallet.freeze.unfrozen").increment(count);
+        log.info("🧊 {} wallets automatically unfrozen after {} seconds", count, freezeDuration.toSeconds());
+        return count;
+    }
+
+    /**
+     * Schedules every frozen wallet from the database; freezes that already expired are lifted on
+     * the next tick.
+     *
+     * @return the number of wallets scheduled
+     */
+    public int rebuild() {
+        List<Object[]> freezes = readOnlyTemplate.execute(status -> walletRepository.findFreezes());
+        if (freezes == null) {
+            return 0;
+        }
+        for (Object[] freeze : freezes) {
+            schedule((Long) freeze[0], (LocalDateTime) freeze[1]);
+        }
+        log.info("🧊 Freeze scheduler rebuilt with {} frozen wallets", freezes.size());
+        return freezes.size();
+    }
+
+    @Override
+    public void start() {
+        rebuild();
+        running = true;
+        ticker = new Thread(this::runTicker, "freeze-scheduler");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (ticker != null) {
+            ticker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runTicker() {
+        while (running) {
+            try {
+                Thread.sleep(tickMs);
+                tick();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("⚠️ Freeze scheduler tick failed, will retry: {}", e.getMessage());
+            }
+        }
+    }
+
+    private int scheduled() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,116 @@
+package org.walletservice.wallet_service.service.freeze;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timer wheel of wallet ids. Level 0 has one slot per tick; each level above has
+ * slots {@value #SLOTS} times as wide, and its slots are cascaded into the levels below when the
+ * wheel reaches them. Scheduling and cancelling are O(1); advancing costs one slot per tick plus
+ * the timers that fire or cascade. Deadlines beyond the top level are parked in its last slot and
+ * re-placed when it cascades.
+ *
+ * Rescheduling a wallet replaces its deadline; the old entry stays in its slot and is skipped
+ * when reached. Not thread-safe.
+ */
+final class TimerWheel {
+
+    private static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private record Timer(long walletId, long tick) {}
+
+    private final long tickMillis;
+    private final int levels;
+    private final List<Timer>[][] wheels;
+    private final Map<Long, Long> deadlines = new HashMap<>();
+    private final List<Long> due = new ArrayList<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long tickMillis, int levels, long startMillis) {
+        if (tickMillis < 1 || levels < 1 || levels * SLOT_BITS >= Long.SIZE - 1) {
+            throw new IllegalArgumentException("Timer wheel tick and levels out of range");
+        }
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.wheels = new List[levels][SLOTS];
+        for (List<Timer>[] wheel : wheels) {
+            for (int i = 0; i < SLOTS; i++) {
+                wheel[i] = new ArrayList<>();
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /** Fires the wallet at the first tick at or after {@code deadlineMillis}, replacing any earlier deadline. */
+    void schedule(long walletId, long deadlineMillis) {
+        long tick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        deadlines.put(walletId, tick);
+        place(new Timer(walletId, tick));
+    }
+
+    void cancel(long walletId) {
+        deadlines.remove(walletId);
+    }
+
+    /** @return the wallets whose deadline passed up to {@code nowMillis}, in the order they fell due */
+    List<Long> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            // Cascade from the top, so a timer moves down as far as it can in one step
+            for (int level = levels - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                    reinsert(wheels[level][slot]);
+                }
+            }
+            reinsert(wheels[0][(int) (currentTick & SLOT_MASK)]);
+        }
+        List<Long> fired = new ArrayList<>(due);
+        due.clear();
+        return fired;
+    }
+
+    /** Number of wallets with a pending deadline. */
+    int size() {
+        return deadlines.size();
+    }
+
+    private void reinsert(List<Timer> slot) {
+        if (slot.isEmpty()) {
+            return;
+        }
+        List<Timer> timers = new ArrayList<>(slot);
+        slot.clear();
+        timers.forEach(this::place);
+    }
+
+    private void place(Timer timer) {
+        Long deadline = deadlines.get(timer.walletId());
+        if (deadline == null || deadline != timer.tick()) {
+            return; // cancelled or rescheduled
+        }
+        long delta = timer.tick() - currentTick;
+        if (delta <= 0) {
+            deadlines.remove(timer.walletId());
+            due.add(timer.walletId());
+            return;
+        }
+        for (int level = 0; level < levels; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                int slot = (int) ((timer.tick() >>> (SLOT_BITS * level)) & SLOT_MASK);
+                wheels[level][slot].add(timer);
+                return;
+            }
+        }
+        // Beyond the top level: park in the slot the top level cascades last
+        int top = levels - 1;
+        long parked = currentTick + (1L << (SLOT_BITS * levels)) - 1;
+        wheels[top][(int) ((parked >>> (SLOT_BITS * top)) & SLOT_MASK)].add(timer);
+    }
+}
@@ -0,0 +1,95 @@
+package org.walletservice.wallet_service.service.hold;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Thread releasing holds that expired without being captured, a batch at a time. It keeps
+ * going while batches come back full and sleeps for the interval otherwise.
+ */
+@Component
+public class HoldReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldReaper.class);
+
+    private final HoldService holdService;
+    private final int batchSize;
+    private final long intervalMs;
+    private final Counter expired;
+    private volatile boolean running;
+    private Thread reaper;
+
+    public HoldReaper(HoldService holdService,
+                      MeterRegistry meterRegistry,
+                      @Value("${wallet-service.holds.reaper-batch-size:500}") int batchSize,
+                      @Value("${wallet-service.holds.reaper-interval-ms:1000}") long intervalMs) {
+        if (batchSize < 1 || intervalMs < 1) {
+            throw new IllegalArgumentException("Hold reaper batch size and interval must be positive");
+        }
+        this.holdService = holdService;
+        this.batchSize = batchSize;
+        this.intervalMs = intervalMs;
+        this.expired = Counter.builder("wallet.holds.expired")
+                .description("Holds released because they expired without a capture")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        reaper = new Thread(this::reap, "hold-reaper");
+        reaper.setDaemon(true);
+        reaper.start();
+        log.info("Started hold reaper, batch size {}", batchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (reaper != null) {
+            reaper.interrupt();
+        }
+    }
+
+    /**
+     * Releases one batch of expired holds on the calling thread.
+     *
+     * @return the number of holds released
+     */
+    public int reapOnce() {
+        int released = holdService.releaseExpired(batchSize);
+        expired.increment(released);
+        return released;
+    }
+
+    private void reap() {
+        while (running) {
+            try {
+                if (reapOnce() < batchSize) {
+                    Thread.sleep(intervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Hold reaper failed to release expired holds: {}", e.getMessage(), e);
+                try {
+                    Thread.sleep(intervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
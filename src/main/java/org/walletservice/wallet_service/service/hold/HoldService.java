@@ -0,0 +1,240 @@
+package org.walletservice.wallet_service.service.hold;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.walletservice.wallet_service.dto.request.HoldRequestDTO;
+import org.walletservice.wallet_service.dto.response.HoldResponseDTO;
+import org.walletservice.wallet_service.entity.hold.HoldEntity;
+import org.walletservice.wallet_service.entity.hold.HoldStatus;
+import org.walletservice.wallet_service.entity.money.Money;
+import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.exception.HoldNotFoundException;
+import org.walletservice.wallet_service.repository.hold.HoldRepository;
+import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.ledger.WriteBehindLedger;
+import org.walletservice.wallet_service.service.limit.SpendingLimitEngine;
+import org.walletservice.wallet_service.service.outbox.OutboxService;
+import org.walletservice.wallet_service.service.transaction.TransactionService;
+import org.walletservice.wallet_service.service.wallet.WalletService;
+import org.walletservice.wallet_service.service.wallet.WalletValidationService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Two-phase debits: funds are authorized into a hold, then captured or voided.
+ *
+ * A hold moves its amount into the wallet's {@code held} column with one conditional UPDATE, the
+ * last statement of its transaction, so the wallet row stays locked for no longer than that
+ * statement. Capture and void lock the hold row and change the wallet with one UPDATE each.
+ * The amount counts towards the spending limits from authorization; whatever is not captured
+ * stops counting once it is released. Holds past their expiry are released by the
+ * {@link HoldReaper}.
+ */
+@Service
+public class HoldService {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldService.class);
+
+    private final HoldRepository holdRepository;
+    private final WalletRepository walletRepository;
+    private final WalletService walletService;
+    private final WalletValidationService walletValidationService;
+    private final SpendingLimitEngine spendingLimits;
+    private final TransactionService transactionService;
+    private final OutboxService outboxService;
+    private final WriteBehindLedger writeBehindLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+
+    public HoldService(HoldRepository holdRepository,
+                       WalletRepository walletRepository,
+                       WalletService walletService,
+                       WalletValidationService walletValidationService,
+                       SpendingLimitEngine spendingLimits,
+                       TransactionService transactionService,
+                       OutboxService outboxService,
+                       WriteBehindLedger writeBehindLedger,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${wallet-service.holds.default-ttl-ms:604800000}") long defaultTtlMs,
+                       @Value("${wallet-service.holds.max-ttl-ms:2592000000}") long maxTtlMs) {
+        if (defaultTtlMs < 1 || maxTtlMs < defaultTtlMs) {
+            throw new IllegalArgumentException("Hold default-ttl-ms must be positive and at most max-ttl-ms");
+        }
+        this.holdRepository = holdRepository;
+        this.walletRepository = walletRepository;
+        this.walletService = walletService;
+        this.walletValidationService = walletValidationService;
+        this.spendingLimits = spendingLimits;
+        this.transactionService = transactionService;
+        this.outboxService = outboxService;
+        this.writeBehindLedger = writeBehindLedger;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultTtl = Duration.ofMillis(defaultTtlMs);
+        this.maxTtl = Duration.ofMillis(maxTtlMs);
+    }
+
+    /**
+     * Reserves funds of the wallet for the requesting user.
+     *
+     * @throws IllegalArgumentException if the available balance is insufficient
+     * @throws IllegalStateException    if a spending limit would be exceeded, or the wallet cannot hold funds
+     */
+    public HoldResponseDTO authorize(Long walletId, HoldRequestDTO request, Long userId) {
+        WalletEntity wallet = walletService.getWalletById(walletId);
+        if (writeBehindLedger.handles(wallet)) {
+            throw new IllegalStateException("Holds are not supported for wallets in journal durability mode.");
+        }
+        walletValidationService.validateWalletState(wallet);
+
+        long amount = Money.ofMajor(request.amount());
+        walletValidationService.validateBalance(wallet, amount);
+
+        Duration ttl = request.expiresInSeconds() == null ? defaultTtl : Duration.ofSeconds(request.expiresInSeconds());
+        if (ttl.compareTo(maxTtl) > 0) {
+            throw new IllegalArgumentException("A hold expires after at most " + maxTtl.toSeconds() + " seconds.");
+        }
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+
+        HoldEntity hold = transactionTemplate.execute(status ->
+                walletValidationService.hold(wallet, amount, reservation -> holdRepository.save(new HoldEntity(
+                        UUID.randomUUID().toString(), walletId, userId, amount, request.description(),
+                        reservation.reservedAt(), expiresAt))));
+
+        log.info("🔒 Hold {} authorized on wallet {} | amount={} | expires {}", hold.getId(), walletId,
+                request.amount(), expiresAt);
+        return toDTO(hold);
+    }
+
+    /**
+     * Debits the captured amount, the whole hold when {@code amount} is null, and releases the rest.
+     * The debit transaction has the hold's id as transaction id.
+     */
+    public HoldResponseDTO capture(String holdId, Double amount, Long userId, boolean admin) {
+        return transactionTemplate.execute(status -> {
+            HoldEntity hold = lockAuthorized(holdId, userId, admin);
+            if (!hold.getExpiresAt().isAfter(LocalDateTime.now())) {
+                throw new IllegalStateException("Hold " + holdId + " has expired.");
+            }
+            long held = hold.getAmountMinor();
+            long captured = amount == null ? held : Money.ofMajor(amount);
+            if (captured <= 0 || captured > held) {
+                throw new IllegalArgumentException("Capture amount must be positive and at most the amount held.");
+            }
+
+            TransactionEntity txn = new TransactionEntity(hold.getWalletId(), TransactionType.DEBIT,
+                    Money.toMajor(captured),
+                    hold.getDescription() != null ? hold.getDescription() : "Capture of hold " + holdId);
+            txn.setTransactionId(hold.getId());
+            // The hold may have been captured by an admin, so the owner comes from the wallet
+            txn.setUserId(walletService.getWalletById(hold.getWalletId()).getUserId());
+            transactionService.save(txn);
+            hold.capture(captured, txn.getTransactionId());
+
+            if (walletRepository.captureHeld(hold.getWalletId(), held, captured) == 0) {
+                throw new IllegalStateException("Wallet " + hold.getWalletId() + " does not hold the funds of hold " + holdId);
+            }
+            outboxService.recordTransaction(hold.getWalletId(), TransactionType.DEBIT, txn.getTransactionId(), captured, null);
+            releaseLimits(hold, held - captured);
+
+            log.info("💳 Hold {} captured ₹{} of ₹{}", holdId, Money.toMajor(captured), Money.toMajor(held));
+            return toDTO(hold);
+        });
+    }
+
+    /** Releases the whole hold without debiting anything. */
+    public HoldResponseDTO voidHold(String holdId, Long userId, boolean admin) {
+        return transactionTemplate.execute(status -> {
+            HoldEntity hold = lockAuthorized(holdId, userId, admin);
+            hold.release(HoldStatus.VOIDED);
+            if (walletRepository.releaseHeld(hold.getWalletId(), hold.getAmountMinor()) == 0) {
+                throw new IllegalStateException("Wallet " + hold.getWalletId() + " does not hold the funds of hold " + holdId);
+            }
+            releaseLimits(hold, hold.getAmountMinor());
+
+            log.info("🔓 Hold {} voided", holdId);
+            return toDTO(hold);
+        });
+    }
+
+    public HoldResponseDTO getHold(String holdId, Long userId, boolean admin) {
+        return toDTO(holdRepository.findById(holdId)
+                .filter(h -> admin || h.getRequestedBy().equals(userId))
+                .orElseThrow(() -> new HoldNotFoundException("Hold not found with id: " + holdId)));
+    }
+
+    /**
+     * Releases up to {@code batchSize} expired holds in one transaction: one statement marks them
+     * EXPIRED and one per wallet returns their amounts. Holds locked by a capture or void in
+     * progress are skipped.
+     *
+     * @return the number of holds released
+     */
+    public int releaseExpired(int batchSize) {
+        Integer released = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<HoldEntity> expired = holdRepository.findExpired(HoldStatus.AUTHORIZED, now, PageRequest.of(0, batchSize));
+            if (expired.isEmpty()) {
+                return 0;
+            }
+
+            // Wallet rows are locked in id order, like the two wallets of a transfer
+            Map<Long, Long> heldByWallet = new TreeMap<>();
+            expired.forEach(hold -> heldByWallet.merge(hold.getWalletId(), hold.getAmountMinor(), Long::sum));
+
+            holdRepository.updateStatus(expired.stream().map(HoldEntity::getId).toList(), HoldStatus.EXPIRED, now);
+            heldByWallet.forEach((walletId, amount) -> {
+                if (walletRepository.releaseHeld(walletId, amount) == 0) {
+                    log.warn("⚠️ Wallet {} held less than its expired holds of ₹{}", walletId, Money.toMajor(amount));
+                }
+            });
+            expired.forEach(hold -> releaseLimits(hold, hold.getAmountMinor()));
+            return expired.size();
+        });
+        return released == null ? 0 : released;
+    }
+
+    private HoldEntity lockAuthorized(String holdId, Long userId, boolean admin) {
+        HoldEntity hold = holdRepository.findByIdForUpdate(holdId)
+                .filter(h -> admin || h.getRequestedBy().equals(userId))
+                .orElseThrow(() -> new HoldNotFoundException("Hold not found with id: " + holdId));
+        if (!hold.isAuthorized()) {
+            throw new IllegalStateException("Hold " + holdId + " is already " + hold.getStatus() + ".");
+        }
+        return hold;
+    }
+
+    // The part of a hold that is never debited stops counting towards the spending limits
+    private void releaseLimits(HoldEntity hold, long amount) {
+        if (amount > 0) {
+            spendingLimits.releaseOnCommit(new SpendingLimitEngine.Reservation(
+                    hold.getWalletId(), amount, hold.getLimitReservedAt(), false));
+        }
+    }
+
+    private HoldResponseDTO toDTO(HoldEntity hold) {
+        return new HoldResponseDTO(
+                hold.getId(),
+                hold.getWalletId(),
+                hold.getAmount(),
+                hold.getCapturedAmount(),
+                hold.getStatus().name(),
+                hold.getDescription(),
+                hold.getTransactionId(),
+                hold.getExpiresAt(),
+                hold.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,265 @@
+package org.walletservice.wallet_service.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.walletservice.wallet_service.entity.idempotency.IdempotencyKeyEntity;
+import org.walletservice.wallet_service.entity.idempotency.IdempotencyKeyStatus;
+import org.walletservice.wallet_service.exception.IdempotencyKeyReuseException;
+import org.walletservice.wallet_service.repository.idempotency.IdempotencyKeyRepository;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs mutating requests at most once per {@code Idempotency-Key}.
+ *
+ * Keys are scoped to the calling user and bound to a fingerprint of the request (endpoint and body);
+ * reusing a key for a different request is rejected. The first request under a key runs, and its
+ * response is stored in {@code idempotency_keys} and replayed for every later request with the same
+ * key until the key expires. Duplicates that arrive while the first is still running on this instance
+ * wait for its outcome instead of running again; duplicates hitting another instance get a 409 until
+ * the first completes. A failed request releases its key so that the client can retry it.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int PURGE_EVERY = 1000;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final Duration lease;
+    private final long waitTimeoutMs;
+
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong completed = new AtomicLong();
+
+    private record InFlight(String fingerprint, CompletableFuture<StoredResponse> result) {}
+
+    private record StoredResponse(int status, String body, String location) {}
+
+    public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${wallet-service.idempotency-key.retention-hours:24}") long retentionHours,
+                              @Value("${wallet-service.idempotency-key.lease-ms:60000}") long leaseMs,
+                              @Value("${wallet-service.idempotency-key.wait-timeout-ms:30000}") long waitTimeoutMs) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        // Key bookkeeping commits on its own, whatever the caller is doing
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retention = Duration.ofHours(retentionHours);
+        this.lease = Duration.ofMillis(leaseMs);
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    /**
+     * Runs {@code action} once for the given key, or replays the response it produced.
+     *
+     * @param userId       caller the key belongs to
+     * @param key          value of the Idempotency-Key header; without one the action simply runs
+     * @param endpoint     method and path, part of the request fingerprint
+     * @param request      request body, part of the request fingerprint
+     * @param responseType type the stored response body is read back as
+     */
+    public <T> ResponseEntity<T> execute(Long userId, String key, String endpoint, Object request,
+                                         TypeReference<T> responseType, Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String fingerprint = fingerprint(endpoint, request);
+        String scopedKey = userId + ":" + key;
+
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(scopedKey, mine);
+        if (running != null) {
+            return awaitInFlight(key, fingerprint, running, responseType);
+        }
+
+        try {
+            String token = UUID.randomUUID().toString();
+            Optional<StoredResponse> stored = lock(userId, key, endpoint, fingerprint, token);
+            if (stored.isPresent()) {
+                mine.result.complete(stored.get());
+                log.info("🔁 Replaying stored response for Idempotency-Key {}", key);
+                return replay(stored.get(), responseType);
+            }
+
+            ResponseEntity<T> response;
+            try {
+                response = action.get();
+            } catch (RuntimeException ex) {
+                release(userId, key, token);
+                throw ex;
+            }
+
+            StoredResponse result = new StoredResponse(response.getStatusCode().value(),
+                    serialize(response.getBody()),
+                    response.getHeaders().getLocation() != null ? response.getHeaders().getLocation().toString() : null);
+            mine.result.complete(result);
+            try {
+                store(userId, key, token, result);
+            } catch (RuntimeException ex) {
+                // The request itself succeeded; the key stays locked until its lease runs out
+                log.error("Could not store response for Idempotency-Key {}: {}", key, ex.getMessage());
+            }
+            return response;
+        } catch (RuntimeException ex) {
+            // Waiters get the same outcome as this request
+            mine.result.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(scopedKey, mine);
+        }
+    }
+
+    // Locks the key for this request, or returns the response stored for it
+    private Optional<StoredResponse> lock(Long userId, String key, String endpoint, String fingerprint, String token) {
+        try {
+            return transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                IdempotencyKeyEntity row = idempotencyKeyRepository.findForUpdate(userId, key).orElse(null);
+
+                if (row == null || row.getExpiresAt().isBefore(now)) {
+                    if (row == null) {
+                        row = new IdempotencyKeyEntity(userId, key);
+                    }
+                    row.lock(endpoint, fingerprint, token, now, now.plus(retention));
+                    idempotencyKeyRepository.saveAndFlush(row);
+                    return Optional.empty();
+                }
+                if (!row.getFingerprint().equals(fingerprint)) {
+                    throw new IdempotencyKeyReuseException(
+                            "Idempotency-Key " + key + " was already used for a different request");
+                }
+                if (row.getStatus() == IdempotencyKeyStatus.COMPLETED) {
+                    return Optional.of(new StoredResponse(row.getResponseStatus(), row.getResponseBody(),
+                            row.getResponseLocation()));
+                }
+                if (row.getLockedAt().isBefore(now.minus(lease))) {
+                    log.warn("⚠️ Taking over Idempotency-Key {} abandoned since {}", key, row.getLockedAt());
+                    row.lock(endpoint, fingerprint, token, now, now.plus(retention));
+                    return Optional.empty();
+                }
+                throw new IllegalStateException("A request with Idempotency-Key " + key + " is already being processed");
+            });
+        } catch (DataIntegrityViolationException ex) {
+            // Another instance inserted the key first
+            throw new IllegalStateException("A request with Idempotency-Key " + key + " is already being processed");
+        }
+    }
+
+    private void store(Long userId, String key, String token, StoredResponse response) {
+        transactionTemplate.executeWithoutResult(status ->
+                idempotencyKeyRepository.findForUpdate(userId, key)
+                        .filter(row -> row.isLockedBy(token))
+                        .ifPresent(row -> row.complete(response.status(), response.body(), response.location())));
+
+        if (completed.incrementAndGet() % PURGE_EVERY == 0) {
+            Integer purged = transactionTemplate.execute(status ->
+                    idempotencyKeyRepository.deleteExpired(LocalDateTime.now()));
+            log.info("🧹 Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private void release(Long userId, String key, String token) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    idempotencyKeyRepository.findForUpdate(userId, key)
+                            .filter(row -> row.isLockedBy(token))
+                            .ifPresent(idempotencyKeyRepository::delete));
+        } catch (RuntimeException ex) {
+            // The key stays locked until its lease runs out
+            log.error("Could not release Idempotency-Key {}: {}", key, ex.getMessage());
+        }
+    }
+
+    private <T> ResponseEntity<T> awaitInFlight(String key, String fingerprint, InFlight running,
+                                                TypeReference<T> responseType) {
+        if (!running.fingerprint.equals(fingerprint)) {
+            throw new IdempotencyKeyReuseException("Idempotency-Key " + key + " was already used for a different request");
+        }
+
+        log.info("⏳ Waiting for in-flight request with Idempotency-Key {}", key);
+        try {
+            return replay(running.result.get(waitTimeoutMs, TimeUnit.MILLISECONDS), responseType);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException("Request with Idempotency-Key " + key + " failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("A request with Idempotency-Key " + key + " is already being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Idempotency-Key " + key);
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, TypeReference<T> responseType) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status()).header(REPLAYED_HEADER, "true");
+        if (stored.location() != null) {
+            builder.location(URI.create(stored.location()));
+        }
+        try {
+            return builder.body(stored.body() != null ? objectMapper.readValue(stored.body(), responseType) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for idempotency key is unreadable", e);
+        }
+    }
+
+    private String serialize(Object body) {
+        try {
+            return body != null ? objectMapper.writeValueAsString(body) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response cannot be stored for replay", e);
+        }
+    }
+
+    private String fingerprint(String endpoint, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(endpoint.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.walletservice.wallet_service.service.ledger;
+
+import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * One wallet mutation as written to the journal: a CREDIT or DEBIT of {@code amount} paise.
+ *
+ * @param sequence  position in the journal, starting at 1 and without gaps
+ * @param createdAt epoch milliseconds at which the mutation was applied in memory
+ */
+public record LedgerEntry(long sequence,
+                          long walletId,
+                          TransactionType type,
+                          long amount,
+                          String transactionId,
+                          String description,
+                          long createdAt) {
+
+    /** @return the change to the wallet's balance, in paise */
+    public long delta() {
+        return type == TransactionType.DEBIT ? -amount : amount;
+    }
+
+    /** @return the {@code transactions} row this entry is written behind as */
+    public TransactionEntity toTransaction() {
+        TransactionEntity txn = new TransactionEntity();
+        txn.setWalletId(walletId);
+        txn.setType(type);
+        txn.setAmountMinor(amount);
+        txn.setDescription(description);
+        txn.setTransactionId(transactionId);
+        txn.setTransactionDate(LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAt), ZoneId.systemDefault()));
+        return txn;
+    }
+
+    LedgerEntry withSequence(long sequence) {
+        return new LedgerEntry(sequence, walletId, type, amount, transactionId, description, createdAt);
+    }
+}
@@ -0,0 +1,445 @@
+package org.walletservice.wallet_service.service.ledger;
+
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only write-ahead journal of {@link LedgerEntry ledger entries}, in memory-mapped segment
+ * files of a fixed size.
+ *
+ * Each record is {@code [payload length][CRC32C of payload][payload]}. Appending only copies the
+ * record into the mapping; {@link #sync(long)} makes it durable. Syncs are batched: the first caller
+ * forces the mapping for every record appended so far while later callers wait, and whoever still
+ * needs more when that force returns starts the next one. A zero length ends the written part of a
+ * segment and {@code -1} marks a segment that was rolled over.
+ *
+ * On opening, every segment is read up to its first record that is incomplete or fails its checksum;
+ * that tail was never acknowledged and is zeroed before appending resumes. The {@code checkpoint}
+ * file holds the sequence up to which entries were written to the database; segments entirely
+ * below it are deleted.
+ *
+ * Locks are {@link ReentrantLock}s rather than monitors: a virtual thread waiting for a sync, or
+ * appending across a segment roll, then releases its carrier thread instead of pinning it.
+ */
+final class LedgerJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "ledger-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int END_OF_SEGMENT = -1;
+    // sequence, wallet id, type, amount, created at, and the two text lengths
+    private static final int FIXED_PAYLOAD_BYTES = 8 + 8 + 1 + 8 + 8 + 2 + 2;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final Path directory;
+    private final int segmentBytes;
+
+    // Guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private final List<LedgerEntry> recovered = new ArrayList<>();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int writeOffset;
+    private long lastSequence;
+    private long checkpoint;
+    private long lastScanned;
+
+    // Guarded by syncLock
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = syncLock.newCondition();
+    private long durableSequence;
+    private boolean syncing;
+
+    LedgerJournal(Path directory, int segmentBytes) throws IOException {
+        if (segmentBytes < 4096) {
+            throw new IllegalArgumentException("Journal segments must be at least 4096 bytes");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+
+        checkpoint = readCheckpoint();
+        lastSequence = checkpoint;
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(LedgerJournal::isSegment).forEach(path -> segments.put(firstSequenceOf(path), path));
+        }
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            boolean last = segment.getKey().equals(segments.lastKey());
+            recover(segment.getValue(), last);
+        }
+        if (channel == null) {
+            openSegment(lastSequence + 1);
+        }
+        durableSequence = lastSequence;
+    }
+
+    /** Entries after the checkpoint found when the journal was opened, in sequence order. */
+    List<LedgerEntry> recovered() {
+        lock.lock();
+        try {
+            return List.copyOf(recovered);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long checkpoint() {
+        lock.lock();
+        try {
+            return checkpoint;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long durableSequence() {
+        syncLock.lock();
+        try {
+            return durableSequence;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Copies the entry into the journal under the next sequence number. It is not durable until
+     * {@link #sync(long)} returns for that sequence.
+     *
+     * @return the entry with its sequence number
+     */
+    LedgerEntry append(LedgerEntry entry) throws IOException {
+        lock.lock();
+        try {
+            return appendLocked(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private LedgerEntry appendLocked(LedgerEntry entry) throws IOException {
+        LedgerEntry numbered = entry.withSequence(lastSequence + 1);
+        byte[] payload = encode(numbered);
+        int recordBytes = RECORD_HEADER_BYTES + payload.length;
+        if (recordBytes > segmentBytes - 4) {
+            throw new IllegalArgumentException("Ledger entry of " + recordBytes + " bytes does not fit a journal segment");
+        }
+        if (writeOffset + recordBytes > segmentBytes - 4) {
+            rollSegment(numbered.sequence());
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        // Payload first, length last: a record only becomes visible once it is complete in memory
+        buffer.putInt(writeOffset + 4, (int) crc.getValue());
+        buffer.put(writeOffset + RECORD_HEADER_BYTES, payload);
+        buffer.putInt(writeOffset, payload.length);
+        writeOffset += recordBytes;
+        lastSequence = numbered.sequence();
+        return numbered;
+    }
+
+    /** Blocks until every entry up to {@code sequence} is on disk. */
+    void sync(long sequence) throws IOException {
+        while (true) {
+            syncLock.lock();
+            try {
+                while (syncing && durableSequence < sequence) {
+                    try {
+                        synced.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while waiting for the ledger journal to sync", e);
+                    }
+                }
+                if (durableSequence >= sequence) {
+                    return;
+                }
+                syncing = true;
+            } finally {
+                syncLock.unlock();
+            }
+
+            MappedByteBuffer target;
+            long upTo;
+            lock.lock();
+            try {
+                target = buffer;
+                upTo = lastSequence;
+            } finally {
+                lock.unlock();
+            }
+            boolean forced = false;
+            try {
+                // A segment rolled over since was forced when it was closed
+                target.force();
+                forced = true;
+            } finally {
+                syncLock.lock();
+                try {
+                    syncing = false;
+                    if (forced) {
+                        durableSequence = Math.max(durableSequence, upTo);
+                    }
+                    synced.signalAll();
+                } finally {
+                    syncLock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Records that every entry up to {@code sequence} is in the database, and deletes the
+     * segments holding nothing newer.
+     */
+    void checkpoint(long sequence) throws IOException {
+        lock.lock();
+        try {
+            if (sequence <= checkpoint) {
+                return;
+            }
+            Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                out.write(ByteBuffer.allocate(8).putLong(0, sequence));
+                out.force(true);
+            }
+            Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            checkpoint = sequence;
+
+            // A segment is done once the next one starts at or before the checkpoint
+            while (segments.size() > 1) {
+                Map.Entry<Long, Path> oldest = segments.firstEntry();
+                Long next = segments.higherKey(oldest.getKey());
+                if (next > sequence + 1) {
+                    break;
+                }
+                Files.deleteIfExists(oldest.getValue());
+                segments.remove(oldest.getKey());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Number of segment files, the current one included. */
+    int segmentCount() {
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (channel != null) {
+                buffer.force();
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recover(Path path, boolean last) throws IOException {
+        FileChannel segmentChannel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer mapped = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        int offset = 0;
+        boolean clean = false;
+        while (offset + RECORD_HEADER_BYTES <= segmentBytes) {
+            int length = mapped.getInt(offset);
+            if (length == 0 || length == END_OF_SEGMENT) {
+                clean = true;
+                break;
+            }
+            LedgerEntry entry = decodeAt(mapped, offset, length);
+            if (entry == null || (lastScanned != 0 && entry.sequence() != lastScanned + 1)) {
+                break;
+            }
+            if (entry.sequence() > checkpoint) {
+                recovered.add(entry);
+            }
+            lastScanned = entry.sequence();
+            lastSequence = Math.max(lastSequence, entry.sequence());
+            offset += RECORD_HEADER_BYTES + length;
+        }
+
+        if (!last) {
+            segmentChannel.close();
+            return;
+        }
+        if (!clean) {
+            // Torn tail: nothing from here on was acknowledged
+            byte[] zeros = new byte[4096];
+            for (int i = offset; i < segmentBytes; i += zeros.length) {
+                mapped.put(i, zeros, 0, Math.min(zeros.length, segmentBytes - i));
+            }
+            mapped.force();
+        }
+        channel = segmentChannel;
+        buffer = mapped;
+        writeOffset = offset;
+    }
+
+    private void rollSegment(long nextSequence) throws IOException {
+        buffer.putInt(writeOffset, END_OF_SEGMENT);
+        buffer.force();
+        channel.close();
+        syncLock.lock();
+        try {
+            durableSequence = Math.max(durableSequence, lastSequence);
+        } finally {
+            syncLock.unlock();
+        }
+        openSegment(nextSequence);
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        writeOffset = 0;
+        segments.put(firstSequence, path);
+        // Make the new file itself durable, not only its contents
+        channel.force(true);
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length != 8) {
+            throw new IOException("Ledger checkpoint " + path + " is corrupt");
+        }
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+
+    private LedgerEntry decodeAt(MappedByteBuffer mapped, int offset, int length) {
+        if (length < FIXED_PAYLOAD_BYTES || offset + RECORD_HEADER_BYTES + length > segmentBytes) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        mapped.get(offset + RECORD_HEADER_BYTES, payload);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        if ((int) crc.getValue() != mapped.getInt(offset + 4)) {
+            return null;
+        }
+        try {
+            return decode(ByteBuffer.wrap(payload));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static byte[] encode(LedgerEntry entry) {
+        byte[] transactionId = textBytes(entry.transactionId());
+        byte[] description = textBytes(entry.description());
+        ByteBuffer out = ByteBuffer.allocate(FIXED_PAYLOAD_BYTES + length(transactionId) + length(description));
+        out.putLong(entry.sequence())
+                .putLong(entry.walletId())
+                .put((byte) entry.type().ordinal())
+                .putLong(entry.amount())
+                .putLong(entry.createdAt());
+        putText(out, transactionId);
+        putText(out, description);
+        return out.array();
+    }
+
+    private static LedgerEntry decode(ByteBuffer in) {
+        long sequence = in.getLong();
+        long walletId = in.getLong();
+        TransactionType type = TYPES[in.get()];
+        long amount = in.getLong();
+        long createdAt = in.getLong();
+        String transactionId = getText(in);
+        String description = getText(in);
+        return new LedgerEntry(sequence, walletId, type, amount, transactionId, description, createdAt);
+    }
+
+    private static byte[] textBytes(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Ledger entry text is too long");
+        }
+        return bytes;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void putText(ByteBuffer out, byte[] bytes) {
+        if (bytes == null) {
+            out.putShort((short) -1);
+        } else {
+            out.putShort((short) bytes.length).put(bytes);
+        }
+    }
+
+    private static String getText(ByteBuffer in) {
+        short length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long firstSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    static UncheckedIOException unchecked(String message, IOException cause) {
+        return new UncheckedIOException(message + ": " + cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,520 @@
+package org.walletservice.wallet_service.service.ledger;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.walletservice.wallet_service.entity.money.Money;
+import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.limit.SpendingLimitEngine;
+import org.walletservice.wallet_service.service.outbox.OutboxService;
+import org.walletservice.wallet_service.service.transaction.TransactionService;
+import org.walletservice.wallet_service.service.wallet.WalletFreezeService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Optional durability mode in which CREDIT and DEBIT transactions of selected wallets are applied
+ * to balances held in memory instead of the wallet row.
+ *
+ * A transaction is acknowledged once its {@link LedgerEntry} is synced to the {@link LedgerJournal};
+ * concurrent transactions share one sync. A background thread then writes the synced entries to
+ * {@code transactions} and their net change per wallet to {@code wallets}, one batch per database
+ * transaction, and moves the journal checkpoint past them. On startup the entries after the
+ * checkpoint are written before the service takes traffic; entries whose transaction id is already
+ * stored were committed just before a crash and are skipped, so a batch is never applied twice.
+ *
+ * Only single-wallet transactions go through the ledger. Transfers debiting a ledger wallet are
+ * rejected, since their debit could not see the in-memory balance; credits from transfers into a
+ * ledger wallet land on its row and are picked up by its next flush. The wallet row's balance lags
+ * the acknowledged balance by up to one flush interval.
+ *
+ * Balances live in the memory of the instance that applied the transactions, and nothing
+ * coordinates instances: two of them serving the same journal-mode wallet would each debit against
+ * their own balance and could overspend it. Journal mode therefore needs every transaction of a
+ * journal-mode wallet routed to a single instance, e.g. by running the ledger's users on one node.
+ */
+@Component
+public class WriteBehindLedger implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindLedger.class);
+
+    public static final String MODE_JOURNAL = "journal";
+
+    private final WalletRepository walletRepository;
+    private final TransactionService transactionService;
+    private final SpendingLimitEngine spendingLimits;
+    private final WalletFreezeService walletFreezeService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Set<Long> userIds;
+    private final Path directory;
+    private final int segmentBytes;
+    private final long flushIntervalMs;
+    private final int flushBatchSize;
+    private final LongSupplier clock;
+
+    private final Map<Long, Account> accounts = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, LedgerEntry> unflushed = new ConcurrentSkipListMap<>();
+    private final Map<String, LedgerEntry> byTransactionId = new ConcurrentHashMap<>();
+    // Not a monitor: batches are written to the database while it is held
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private volatile LedgerJournal journal;
+    // Guarded by flushLock: every entry up to here is in the database
+    private long flushedSequence;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    /** Outcome of {@link #apply}: the entry, and the wallet's balance right after it in paise. */
+    public record Applied(LedgerEntry entry, long balance, boolean duplicate) {}
+
+    // In-memory balance of one wallet; guarded by its lock, which is held across journal appends
+    private static final class Account {
+        final ReentrantLock lock = new ReentrantLock();
+        long balance;
+        // Net change of the entries not yet written to the wallet row
+        long pending;
+        // Version of the wallet row the balance was last based on
+        long version;
+
+        Account(long balance, long version) {
+            this.balance = balance;
+            this.version = version;
+        }
+    }
+
+    @Autowired
+    public WriteBehindLedger(WalletRepository walletRepository,
+                             TransactionService transactionService,
+                             SpendingLimitEngine spendingLimits,
+                             WalletFreezeService walletFreezeService,
+                             OutboxService outboxService,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${wallet-service.durability.mode:database}") String mode,
+                             @Value("${wallet-service.durability.user-ids:}") String userIds,
+                             @Value("${wallet-service.durability.directory:./data/ledger}") String directory,
+                             @Value("${wallet-service.durability.segment-bytes:67108864}") int segmentBytes,
+                             @Value("${wallet-service.durability.flush-interval-ms:200}") long flushIntervalMs,
+                             @Value("${wallet-service.durability.flush-batch-size:500}") int flushBatchSize) {
+        this(walletRepository, transactionService, spendingLimits, walletFreezeService, outboxService, transactionManager,
+                meterRegistry, MODE_JOURNAL.equalsIgnoreCase(mode), parseIds(userIds), Path.of(directory),
+                segmentBytes, flushIntervalMs, flushBatchSize, System::currentTimeMillis);
+    }
+
+    WriteBehindLedger(WalletRepository walletRepository,
+                      TransactionService transactionService,
+                      SpendingLimitEngine spendingLimits,
+                      WalletFreezeService walletFreezeService,
+                      OutboxService outboxService,
+                      PlatformTransactionManager transactionManager,
+                      MeterRegistry meterRegistry,
+                      boolean enabled,
+                      Set<Long> userIds,
+                      Path directory,
+                      int segmentBytes,
+                      long flushIntervalMs,
+                      int flushBatchSize,
+                      LongSupplier clock) {
+        if (flushIntervalMs < 1 || flushBatchSize < 1) {
+            throw new IllegalArgumentException("Ledger flush interval and batch size must be positive");
+        }
+        this.walletRepository = walletRepository;
+        this.transactionService = transactionService;
+        this.spendingLimits = spendingLimits;
+        this.walletFreezeService = walletFreezeService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.userIds = Set.copyOf(userIds);
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.flushIntervalMs = flushIntervalMs;
+        this.flushBatchSize = flushBatchSize;
+        this.clock = clock;
+
+        Gauge.builder("wallet.ledger.unflushed", unflushed, Map::size)
+                .description("Acknowledged ledger entries not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** @return true if the wallet's transactions are applied in memory and journaled */
+    public boolean handles(WalletEntity wallet) {
+        return enabled && !wallet.isStriped() && (userIds.isEmpty() || userIds.contains(wallet.getUserId()));
+    }
+
+    /** An acknowledged entry that is not in {@code transactions} yet. */
+    public Optional<LedgerEntry> findPending(String transactionId) {
+        return transactionId == null ? Optional.empty() : Optional.ofNullable(byTransactionId.get(transactionId));
+    }
+
+    /**
+     * Applies a CREDIT or DEBIT to the wallet's in-memory balance and returns once it is durable in
+     * the journal. A debit must fit the balance and the wallet's spending limits; a debit reaching
+     * the daily limit freezes the wallet.
+     *
+     * @param wallet a snapshot of the wallet that passed the state checks
+     * @param amount amount in paise
+     * @throws IllegalArgumentException if the amount is not positive or a debit exceeds the balance
+     * @throws UncheckedIOException     if the journal could not be written or synced
+     */
+    public Applied apply(WalletEntity wallet, TransactionType type, long amount, String transactionId, String description) {
+        if (type != TransactionType.CREDIT && type != TransactionType.DEBIT) {
+            throw new IllegalArgumentException("Transaction type must be CREDIT or DEBIT.");
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive.");
+        }
+        LedgerJournal current = journal;
+        if (current == null) {
+            throw new IllegalStateException("Ledger is not running");
+        }
+        String txnId = transactionId != null ? transactionId : UUID.randomUUID().toString();
+
+        Account account = accounts.computeIfAbsent(wallet.getId(),
+                id -> new Account(wallet.getBalanceMinor(), wallet.getVersion()));
+        LedgerEntry entry;
+        long balance;
+        SpendingLimitEngine.Reservation reservation = null;
+        account.lock.lock();
+        try {
+            if (account.pending == 0 && wallet.getVersion() > account.version) {
+                // Nothing in flight, so the row is the truth, e.g. after a transfer credited it
+                account.balance = wallet.getBalanceMinor();
+                account.version = wallet.getVersion();
+            }
+
+            LedgerEntry claimed = new LedgerEntry(0, wallet.getId(), type, amount, txnId, description,
+                    clock.getAsLong());
+            LedgerEntry existing = byTransactionId.putIfAbsent(txnId, claimed);
+            if (existing != null) {
+                return new Applied(existing, account.balance, true);
+            }
+
+            try {
+                if (type == TransactionType.DEBIT) {
+                    if (account.balance < amount) {
+                        log.warn("❌ Wallet {} insufficient balance: required {}, available {}",
+                                wallet.getId(), Money.toMajor(amount), Money.toMajor(account.balance));
+                        throw new IllegalArgumentException("Insufficient balance.");
+                    }
+                    reservation = spendingLimits.reserve(wallet, amount);
+                }
+                entry = current.append(claimed);
+            } catch (IOException ex) {
+                release(txnId, reservation);
+                throw LedgerJournal.unchecked("Could not append to the ledger journal", ex);
+            } catch (RuntimeException ex) {
+                release(txnId, reservation);
+                throw ex;
+            }
+
+            account.balance += entry.delta();
+            account.pending += entry.delta();
+            balance = account.balance;
+            unflushed.put(entry.sequence(), entry);
+            byTransactionId.put(txnId, entry);
+        } finally {
+            account.lock.unlock();
+        }
+
+        try {
+            current.sync(entry.sequence());
+        } catch (IOException ex) {
+            // Applied but maybe not durable: the caller gets an error, a retry finds the entry
+            throw LedgerJournal.unchecked("Could not sync the ledger journal", ex);
+        }
+
+        if (reservation != null && reservation.dailyLimitReached()) {
+            walletFreezeService.freezeWallet(wallet);
+        }
+        return new Applied(entry, balance, false);
+    }
+
+    private void release(String transactionId, SpendingLimitEngine.Reservation reservation) {
+        byTransactionId.remove(transactionId);
+        if (reservation != null) {
+            spendingLimits.release(reservation);
+        }
+    }
+
+    /**
+     * Writes the next batch of synced entries to the database and checkpoints the journal past it.
+     *
+     * @return the number of entries written
+     */
+    public int flush() {
+        LedgerJournal current = journal;
+        if (current == null) {
+            return 0;
+        }
+        flushLock.lock();
+        try {
+            long durable = current.durableSequence();
+            List<LedgerEntry> batch = new ArrayList<>();
+            long next = flushedSequence + 1;
+            // Stops at a gap: an entry may be numbered before it is visible here
+            for (LedgerEntry entry : unflushed.headMap(durable, true).values()) {
+                if (entry.sequence() != next || batch.size() == flushBatchSize) {
+                    break;
+                }
+                batch.add(entry);
+                next++;
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            write(batch);
+            long last = batch.get(batch.size() - 1).sequence();
+            try {
+                current.checkpoint(last);
+            } catch (IOException ex) {
+                // Harmless: the batch is found in the database if it is replayed
+                log.warn("⚠️ Could not checkpoint the ledger journal at {}: {}", last, ex.getMessage());
+            }
+            flushedSequence = last;
+
+            for (LedgerEntry entry : batch) {
+                unflushed.remove(entry.sequence());
+                if (entry.transactionId() != null) {
+                    byTransactionId.remove(entry.transactionId(), entry);
+                }
+            }
+            Map<Long, Long> flushed = new TreeMap<>();
+            batch.forEach(entry -> flushed.merge(entry.walletId(), entry.delta(), Long::sum));
+            rebase(flushed);
+            meterRegistry.counter("wallet.ledger.flushed").increment(batch.size());
+            return batch.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // One transaction per batch: the rows of entries not stored yet, then each wallet's net change
+    private void write(List<LedgerEntry> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Asks the database itself: the idempotency filter has not seen old ids or those of other instances
+            Set<String> stored = transactionService.findStoredByTransactionIds(batch.stream()
+                            .map(LedgerEntry::transactionId).toList())
+                    .stream()
+                    .map(TransactionEntity::getTransactionId)
+                    .collect(Collectors.toCollection(HashSet::new));
+
+            List<TransactionEntity> txns = new ArrayList<>(batch.size());
+            // Sorted, so that concurrent flushes lock wallet rows in the same order
+            Map<Long, Long> deltas = new TreeMap<>();
+            for (LedgerEntry entry : batch) {
+                if (stored.contains(entry.transactionId())) {
+                    continue;
+                }
+                txns.add(entry.toTransaction());
+                deltas.merge(entry.walletId(), entry.delta(), Long::sum);
+            }
+
+            if (!txns.isEmpty()) {
+                // Entries only know their wallet; the owners are read once for the batch
+                Map<Long, Long> owners = new HashMap<>();
+                walletRepository.findAllById(deltas.keySet())
+                        .forEach(wallet -> owners.put(wallet.getId(), wallet.getUserId()));
+                txns.forEach(txn -> txn.setUserId(owners.get(txn.getWalletId())));
+                transactionService.saveAll(txns);
+            }
+            deltas.forEach((walletId, delta) -> {
+                if (delta != 0) {
+                    walletRepository.adjustBalance(walletId, delta);
+                }
+            });
+            // After the wallet rows are locked, like every other event; balances are not known here
+            txns.forEach(txn -> outboxService.recordTransaction(txn.getWalletId(), txn.getType(),
+                    txn.getTransactionId(), txn.getAmountMinor(), null));
+        });
+    }
+
+    // The rows now hold the flushed entries, skipped ones included; credits from transfers since are picked up as well
+    private void rebase(Map<Long, Long> flushed) {
+        for (Map.Entry<Long, Long> change : flushed.entrySet()) {
+            Account account = accounts.get(change.getKey());
+            if (account != null) {
+                account.lock.lock();
+                try {
+                    account.pending -= change.getValue();
+                } finally {
+                    account.lock.unlock();
+                }
+            }
+        }
+        List<WalletEntity> rows = readOnlyTemplate.execute(status -> walletRepository.findAllById(flushed.keySet()));
+        if (rows == null) {
+            return;
+        }
+        for (WalletEntity row : rows) {
+            Account account = accounts.get(row.getId());
+            if (account == null) {
+                continue;
+            }
+            account.lock.lock();
+            try {
+                if (row.getVersion() >= account.version) {
+                    account.balance = row.getBalanceMinor() + account.pending;
+                    account.version = row.getVersion();
+                }
+            } finally {
+                account.lock.unlock();
+            }
+        }
+    }
+
+    /** Writes every synced entry to the database. */
+    public int flushAll() {
+        int total = 0;
+        int flushed;
+        while ((flushed = flush()) > 0) {
+            total += flushed;
+        }
+        return total;
+    }
+
+    /**
+     * Opens the journal and writes the entries it still holds after its checkpoint, before any new
+     * transaction is accepted.
+     *
+     * @return the number of entries replayed
+     */
+    int recover() throws IOException {
+        LedgerJournal opened = new LedgerJournal(directory, segmentBytes);
+        List<LedgerEntry> recovered = opened.recovered();
+        flushLock.lock();
+        try {
+            flushedSequence = opened.checkpoint();
+        } finally {
+            flushLock.unlock();
+        }
+        for (LedgerEntry entry : recovered) {
+            unflushed.put(entry.sequence(), entry);
+        }
+        journal = opened;
+        int replayed = flushAll();
+        log.info("📒 Ledger journal opened in {}: {} entries replayed up to sequence {}",
+                directory, replayed, opened.lastSequence());
+        return replayed;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            recover();
+        } catch (IOException ex) {
+            throw LedgerJournal.unchecked("Could not open the ledger journal in " + directory, ex);
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, "ledger-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(flushIntervalMs * 10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        LedgerJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.sync(current.lastSequence());
+            flushAll();
+        } catch (IOException | RuntimeException ex) {
+            // The journal still holds what was not written; it is replayed on the next start
+            log.error("⚠️ Final ledger flush failed: {}", ex.getMessage());
+        } finally {
+            journal = null;
+            try {
+                current.close();
+            } catch (IOException ex) {
+                log.error("⚠️ Could not close the ledger journal: {}", ex.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Before the spending limits, so that they are recovered from the replayed debits as well
+    @Override
+    public int getPhase() {
+        return -1;
+    }
+
+    private void runFlusher() {
+        while (running) {
+            try {
+                Thread.sleep(flushIntervalMs);
+                flushAll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("⚠️ Ledger flush failed, will retry: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static Set<Long> parseIds(String ids) {
+        return Arrays.stream(ids.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .map(Long::valueOf)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,53 @@
+package org.walletservice.wallet_service.service.limit;
+
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+
+import java.time.Duration;
+
+/**
+ * Sliding windows over which a wallet's debits are limited. Each window is kept as a ring of
+ * buckets, so a debit stops counting within one bucket of leaving the window.
+ */
+public enum LimitWindow {
+
+    PER_MINUTE("Per-minute", Duration.ofMinutes(1), 60),
+    DAILY("Daily", WalletEntity.DAILY_WINDOW, 24),
+    MONTHLY("Monthly", Duration.ofDays(30), 30);
+
+    private final String label;
+    private final long lengthMillis;
+    private final int buckets;
+
+    LimitWindow(String label, Duration length, int buckets) {
+        this.label = label;
+        this.lengthMillis = length.toMillis();
+        this.buckets = buckets;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public long lengthMillis() {
+        return lengthMillis;
+    }
+
+    int buckets() {
+        return buckets;
+    }
+
+    long bucketMillis() {
+        return lengthMillis / buckets;
+    }
+
+    /** The longest window; history older than this no longer affects any limit. */
+    static LimitWindow longest() {
+        LimitWindow longest = PER_MINUTE;
+        for (LimitWindow window : values()) {
+            if (window.lengthMillis > longest.lengthMillis) {
+                longest = window;
+            }
+        }
+        return longest;
+    }
+}
@@ -0,0 +1,83 @@
+package org.walletservice.wallet_service.service.limit;
+
+import java.util.Arrays;
+
+/**
+ * One wallet's debits, bucketed per {@link LimitWindow}. Not thread-safe: the engine only touches
+ * it while holding the lock stripe of its wallet.
+ */
+final class SpendCounters {
+
+    private static final LimitWindow[] WINDOWS = LimitWindow.values();
+
+    // Per window: the amount of each bucket, and which bucket number the slot currently holds
+    private final long[][] sums = new long[WINDOWS.length][];
+    private final long[][] bucketNumbers = new long[WINDOWS.length][];
+
+    SpendCounters() {
+        for (LimitWindow window : WINDOWS) {
+            sums[window.ordinal()] = new long[window.buckets()];
+            long[] numbers = new long[window.buckets()];
+            Arrays.fill(numbers, Long.MIN_VALUE);
+            bucketNumbers[window.ordinal()] = numbers;
+        }
+    }
+
+    /** Sum of the debits that fall in the window ending at {@code now}. */
+    long total(LimitWindow window, long now) {
+        long current = now / window.bucketMillis();
+        long oldest = current - window.buckets() + 1;
+        long[] numbers = bucketNumbers[window.ordinal()];
+        long[] amounts = sums[window.ordinal()];
+        long total = 0;
+        for (int i = 0; i < numbers.length; i++) {
+            if (numbers[i] >= oldest && numbers[i] <= current) {
+                total += amounts[i];
+            }
+        }
+        return total;
+    }
+
+    void add(long at, long amount) {
+        for (LimitWindow window : WINDOWS) {
+            long bucket = at / window.bucketMillis();
+            int slot = (int) Math.floorMod(bucket, (long) window.buckets());
+            long[] numbers = bucketNumbers[window.ordinal()];
+            if (numbers[slot] > bucket) {
+                // The slot already holds a later bucket, so this one has left the window
+                continue;
+            }
+            if (numbers[slot] < bucket) {
+                numbers[slot] = bucket;
+                sums[window.ordinal()][slot] = 0;
+            }
+            sums[window.ordinal()][slot] += amount;
+        }
+    }
+
+    /** Takes back an amount added at {@code at}, from the windows that still hold its bucket. */
+    void remove(long at, long amount) {
+        for (LimitWindow window : WINDOWS) {
+            long bucket = at / window.bucketMillis();
+            int slot = (int) Math.floorMod(bucket, (long) window.buckets());
+            if (bucketNumbers[window.ordinal()][slot] == bucket) {
+                long[] amounts = sums[window.ordinal()];
+                amounts[slot] = Math.max(0, amounts[slot] - amount);
+            }
+        }
+    }
+
+    void clear(LimitWindow window) {
+        Arrays.fill(sums[window.ordinal()], 0);
+    }
+
+    /** True once no debit counts towards any window any more. */
+    boolean isIdle(long now) {
+        for (LimitWindow window : WINDOWS) {
+            if (total(window, now) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,392 @@
+package org.walletservice.wallet_service.service.limit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.walletservice.wallet_service.entity.money.Money;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.repository.transaction.TransactionRepository;
+import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Per-wallet spending limits over sliding per-minute, daily and monthly windows, kept in memory.
+ *
+ * A debit reserves its amount against all windows of the wallet's tier at once, or is rejected
+ * without touching any of them. The check and the reservation must be atomic per wallet; instead
+ * of one lock per wallet or one for all of them, wallets hash onto a fixed set of lock stripes.
+ * A reservation whose debit fails or rolls back is released again.
+ *
+ * The counters are recovered from the committed debits in {@code transactions} before the web
+ * server starts. {@code wallets.daily_spent} is no longer written by every debit: a background
+ * thread copies the daily total of the wallets that changed to it every flush interval, and once
+ * more on shutdown. With several instances each one enforces the limits on the debits it applied
+ * itself, plus those it recovered at startup.
+ */
+@Component
+public class SpendingLimitEngine implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(SpendingLimitEngine.class);
+
+    /** Used when the default tier is not configured: the daily limit the service always had. */
+    static final TierLimits FALLBACK_LIMITS = new TierLimits(null, 50000.0, null);
+
+    private static final LimitWindow[] WINDOWS = LimitWindow.values();
+
+    /** A debit counted against a wallet's limits, to be released if the debit does not happen. */
+    public record Reservation(Long walletId, long amount, long reservedAt, boolean dailyLimitReached) {}
+
+    private final TransactionRepository transactionRepository;
+    private final WalletRepository walletRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TierLimits> tiers;
+    private final String defaultTier;
+    private final long flushIntervalMs;
+    private final LongSupplier clock;
+
+    private final Map<Long, SpendCounters> counters = new ConcurrentHashMap<>();
+    private final Object[] stripes;
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    @Autowired
+    public SpendingLimitEngine(TransactionRepository transactionRepository,
+                               WalletRepository walletRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               Environment environment,
+                               @Value("${wallet-service.limits.default-tier:standard}") String defaultTier,
+                               @Value("${wallet-service.limits.stripes:64}") int stripes,
+                               @Value("${wallet-service.limits.flush-interval-ms:1000}") long flushIntervalMs) {
+        this(transactionRepository, walletRepository, transactionManager, meterRegistry,
+                Binder.get(environment)
+                        .bind("wallet-service.limits.tiers", Bindable.mapOf(String.class, TierLimits.class))
+                        .orElse(Map.of()),
+                defaultTier, stripes, flushIntervalMs, System::currentTimeMillis);
+    }
+
+    SpendingLimitEngine(TransactionRepository transactionRepository,
+                        WalletRepository walletRepository,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        Map<String, TierLimits> tiers,
+                        String defaultTier,
+                        int stripes,
+                        long flushIntervalMs,
+                        LongSupplier clock) {
+        if (stripes < 1 || flushIntervalMs < 1) {
+            throw new IllegalArgumentException("Limit stripes and flush interval must be positive");
+        }
+        this.transactionRepository = transactionRepository;
+        this.walletRepository = walletRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.tiers = new HashMap<>();
+        tiers.forEach((name, limits) -> this.tiers.put(normalize(name), limits));
+        this.defaultTier = normalize(defaultTier);
+        this.tiers.putIfAbsent(this.defaultTier, FALLBACK_LIMITS);
+        this.flushIntervalMs = flushIntervalMs;
+        this.clock = clock;
+
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.stripes = new Object[size];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Object();
+        }
+
+        Gauge.builder("wallet.limits.wallets", counters, Map::size)
+                .description("Wallets with debits inside a limit window")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts a debit against every window of the wallet's tier.
+     *
+     * @param amount amount in paise
+     * @throws IllegalStateException if any window would go over its limit; nothing is counted then
+     */
+    public Reservation reserve(WalletEntity wallet, long amount) {
+        TierLimits limits = limitsOf(wallet);
+        Long walletId = wallet.getId();
+        long now = clock.getAsLong();
+
+        boolean dailyLimitReached;
+        synchronized (stripe(walletId)) {
+            SpendCounters spent = counters.computeIfAbsent(walletId, id -> new SpendCounters());
+            for (LimitWindow window : WINDOWS) {
+                long limit = limits.limitMinor(window);
+                long total = spent.total(window, now);
+                if (amount > limit - total) {
+                    throw limitExceeded(walletId, window, Math.max(0, limit - total));
+                }
+            }
+            spent.add(now, amount);
+            dailyLimitReached = spent.total(LimitWindow.DAILY, now) >= limits.limitMinor(LimitWindow.DAILY);
+        }
+        dirty.add(walletId);
+        return new Reservation(walletId, amount, now, dailyLimitReached);
+    }
+
+    /** Takes a reservation back, e.g. because the debit it was made for was rejected. */
+    public void release(Reservation reservation) {
+        synchronized (stripe(reservation.walletId())) {
+            SpendCounters spent = counters.get(reservation.walletId());
+            if (spent != null) {
+                spent.remove(reservation.reservedAt(), reservation.amount());
+            }
+        }
+        dirty.add(reservation.walletId());
+    }
+
+    /** Releases the reservation if the surrounding transaction rolls back. */
+    public void releaseOnRollback(Reservation reservation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    release(reservation);
+                }
+            }
+        });
+    }
+
+    /** Releases the reservation once the surrounding transaction commits, or right away outside of one. */
+    public void releaseOnCommit(Reservation reservation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(reservation);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(reservation);
+            }
+        });
+    }
+
+    /** @return what the wallet may still spend in the window in paise, {@link Long#MAX_VALUE} if it is not limited */
+    public long remaining(WalletEntity wallet, LimitWindow window) {
+        long limit = limitsOf(wallet).limitMinor(window);
+        if (limit == Long.MAX_VALUE) {
+            return limit;
+        }
+        return Math.max(0, limit - spent(wallet.getId(), window));
+    }
+
+    /** @return what the wallet spent in the window, in paise */
+    public long spent(Long walletId, LimitWindow window) {
+        synchronized (stripe(walletId)) {
+            SpendCounters spent = counters.get(walletId);
+            return spent == null ? 0 : spent.total(window, clock.getAsLong());
+        }
+    }
+
+    /** Forgets the wallet's debits in one window, e.g. when a freeze for reaching the daily limit is lifted. */
+    public void reset(Long walletId, LimitWindow window) {
+        synchronized (stripe(walletId)) {
+            SpendCounters spent = counters.get(walletId);
+            if (spent != null) {
+                spent.clear(window);
+            }
+        }
+        dirty.add(walletId);
+    }
+
+    public TierLimits limitsOf(WalletEntity wallet) {
+        return tiers.getOrDefault(tierOf(wallet), tiers.get(defaultTier));
+    }
+
+    public String tierOf(WalletEntity wallet) {
+        return wallet.getTier() == null ? defaultTier : normalize(wallet.getTier());
+    }
+
+    public boolean hasTier(String tier) {
+        return tier != null && tiers.containsKey(normalize(tier));
+    }
+
+    /**
+     * Rebuilds the counters from the debits of the longest window.
+     *
+     * @return the number of debits loaded
+     */
+    public long recover() {
+        long started = System.nanoTime();
+        long since = clock.getAsLong() - LimitWindow.longest().lengthMillis();
+        counters.clear();
+        Long loaded = readOnlyTemplate.execute(status -> {
+            try (Stream<Object[]> debits = transactionRepository.streamDebitsSince(toDateTime(since))) {
+                AtomicLong count = new AtomicLong();
+                debits.forEach(row -> {
+                    Long walletId = (Long) row[0];
+                    long at = toMillis((LocalDateTime) row[2]);
+                    synchronized (stripe(walletId)) {
+                        counters.computeIfAbsent(walletId, id -> new SpendCounters())
+                                .add(at, ((Number) row[1]).longValue());
+                    }
+                    count.incrementAndGet();
+                });
+                return count.get();
+            }
+        });
+        log.info("📊 Spending limits recovered from {} debits of {} wallets in {} ms",
+                loaded, counters.size(), (System.nanoTime() - started) / 1_000_000);
+        return loaded == null ? 0 : loaded;
+    }
+
+    /**
+     * Writes the daily total of every wallet whose counters changed since the last flush.
+     *
+     * @return the number of wallets written
+     */
+    public int flush() {
+        List<Long> walletIds = new ArrayList<>();
+        for (Long walletId : dirty) {
+            if (dirty.remove(walletId)) {
+                walletIds.add(walletId);
+            }
+        }
+        if (walletIds.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = toDateTime(clock.getAsLong());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Long walletId : walletIds) {
+                    walletRepository.recordDailySpent(walletId, spent(walletId, LimitWindow.DAILY), now);
+                }
+            });
+        } catch (RuntimeException ex) {
+            dirty.addAll(walletIds);
+            throw ex;
+        }
+        meterRegistry.counter("wallet.limits.flushed").increment(walletIds.size());
+        return walletIds.size();
+    }
+
+    @Override
+    public void start() {
+        recover();
+        running = true;
+        flusher = new Thread(this::runFlusher, "spending-limit-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(flushIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.warn("⚠️ Final flush of spending limits failed: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Recover before the web server starts taking debits, stop after it
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void runFlusher() {
+        while (running) {
+            try {
+                Thread.sleep(flushIntervalMs);
+                flush();
+                evictIdle();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("⚠️ Spending limit flush failed, will retry: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Drops wallets with nothing left in any window, so memory follows recently active wallets
+    void evictIdle() {
+        long now = clock.getAsLong();
+        for (Long walletId : counters.keySet()) {
+            synchronized (stripe(walletId)) {
+                SpendCounters spent = counters.get(walletId);
+                if (spent != null && spent.isIdle(now)) {
+                    counters.remove(walletId);
+                }
+            }
+        }
+    }
+
+    private IllegalStateException limitExceeded(Long walletId, LimitWindow window, long available) {
+        meterRegistry.counter("wallet.limits.rejected", "window", window.name().toLowerCase(Locale.ROOT)).increment();
+        log.warn("🚫 Wallet {} {} limit exceeded. Available amount ₹{}",
+                walletId, window.label().toLowerCase(Locale.ROOT), Money.toMajor(available));
+        return new IllegalStateException(window.label() + " limit exceeded. Available ₹" + Money.toMajor(available));
+    }
+
+    private Object stripe(Long walletId) {
+        int hash = Long.hashCode(walletId);
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static String normalize(String tier) {
+        return tier.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
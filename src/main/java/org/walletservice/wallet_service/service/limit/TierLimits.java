@@ -0,0 +1,20 @@
+package org.walletservice.wallet_service.service.limit;
+
+import org.walletservice.wallet_service.entity.money.Money;
+
+/**
+ * Spending limits of one wallet tier, in rupees as configured under
+ * {@code wallet-service.limits.tiers.<tier>}. A window left out is not limited.
+ */
+public record TierLimits(Double perMinute, Double daily, Double monthly) {
+
+    /** @return the limit of the window in paise, {@link Long#MAX_VALUE} when it is not limited */
+    public long limitMinor(LimitWindow window) {
+        Double rupees = switch (window) {
+            case PER_MINUTE -> perMinute;
+            case DAILY -> daily;
+            case MONTHLY -> monthly;
+        };
+        return rupees == null ? Long.MAX_VALUE : Money.ofMajor(rupees);
+    }
+}
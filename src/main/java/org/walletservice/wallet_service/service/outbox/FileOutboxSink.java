@@ -0,0 +1,65 @@
+package org.walletservice.wallet_service.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventEntity;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appends each event as one line of JSON to a local file and forces it to disk before the batch
+ * counts as delivered.
+ */
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    // Not a monitor: the file is written and forced while it is held
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public FileOutboxSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void publish(List<OutboxEventEntity> events) throws IOException {
+        lock.lock();
+        try {
+            StringBuilder lines = new StringBuilder();
+            for (OutboxEventEntity event : events) {
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("id", event.getId());
+                line.put("walletId", event.getWalletId());
+                line.put("type", event.getEventType().name());
+                line.put("createdAt", event.getCreatedAt().toString());
+                line.put("payload", objectMapper.readTree(event.getPayload()));
+                lines.append(objectMapper.writeValueAsString(line)).append('\n');
+            }
+
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
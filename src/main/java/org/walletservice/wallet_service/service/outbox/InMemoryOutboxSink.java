@@ -0,0 +1,26 @@
+package org.walletservice.wallet_service.service.outbox;
+
+import org.walletservice.wallet_service.entity.outbox.OutboxEventEntity;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/** Keeps the delivered events in memory; for tests and local runs. */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEventEntity> events = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(List<OutboxEventEntity> batch) {
+        events.addAll(batch);
+    }
+
+    /** Every event delivered so far, in delivery order. */
+    public List<OutboxEventEntity> events() {
+        return List.copyOf(events);
+    }
+
+    public void clear() {
+        events.clear();
+    }
+}
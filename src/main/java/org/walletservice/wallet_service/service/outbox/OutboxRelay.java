@@ -0,0 +1,189 @@
+package org.walletservice.wallet_service.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventEntity;
+import org.walletservice.wallet_service.repository.outbox.OutboxEventRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains {@code outbox_events} to the {@link OutboxSink} in batches, oldest first.
+ *
+ * A batch is locked, delivered and deleted in one transaction: a batch whose delivery fails or
+ * whose transaction does not commit stays in the outbox and is delivered again, so every event
+ * arrives at least once. Relays of other instances wait for the lock rather than skipping the
+ * locked rows, which keeps the events of each wallet in order across instances. Striped wallets
+ * are excluded from that order (see {@link OutboxEventEntity}).
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    public static final String SINK_FILE = "file";
+    public static final String SINK_MEMORY = "memory";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final Timer publishTimer;
+    private final AtomicLong lagMs = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread relay;
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       ObjectProvider<OutboxSink> customSink,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${wallet-service.outbox.enabled:true}") boolean enabled,
+                       @Value("${wallet-service.outbox.sink:file}") String sink,
+                       @Value("${wallet-service.outbox.file:./data/outbox/events.jsonl}") String file,
+                       @Value("${wallet-service.outbox.batch-size:200}") int batchSize,
+                       @Value("${wallet-service.outbox.poll-interval-ms:100}") long pollIntervalMs) {
+        this(outboxEventRepository,
+                customSink.getIfAvailable(() -> configuredSink(sink, file, objectMapper)),
+                transactionManager, meterRegistry, enabled, batchSize, pollIntervalMs);
+    }
+
+    OutboxRelay(OutboxEventRepository outboxEventRepository,
+                OutboxSink sink,
+                PlatformTransactionManager transactionManager,
+                MeterRegistry meterRegistry,
+                boolean enabled,
+                int batchSize,
+                long pollIntervalMs) {
+        if (batchSize < 1 || pollIntervalMs < 1) {
+            throw new IllegalArgumentException("Outbox batch size and poll interval must be positive");
+        }
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.publishTimer = Timer.builder("wallet.outbox.publish")
+                .description("Time to deliver one outbox batch to the sink")
+                .register(meterRegistry);
+
+        Gauge.builder("wallet.outbox.lag", lagMs, AtomicLong::get)
+                .description("Age in milliseconds of the newest event of the last delivered batch")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    private static OutboxSink configuredSink(String sink, String file, ObjectMapper objectMapper) {
+        if (SINK_MEMORY.equalsIgnoreCase(sink)) {
+            return new InMemoryOutboxSink();
+        }
+        if (SINK_FILE.equalsIgnoreCase(sink)) {
+            return new FileOutboxSink(Path.of(file), objectMapper);
+        }
+        throw new IllegalArgumentException("Unknown outbox sink: " + sink);
+    }
+
+    public OutboxSink sink() {
+        return sink;
+    }
+
+    /**
+     * Delivers and deletes the oldest batch on the calling thread.
+     *
+     * @return the number of events delivered
+     */
+    public int relayOnce() {
+        Integer delivered = transactionTemplate.execute(status -> {
+            List<OutboxEventEntity> batch = outboxEventRepository.findOldestForUpdate(PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                sink.publish(batch);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Outbox sink rejected a batch of " + batch.size() + " events", e);
+            } finally {
+                sample.stop(publishTimer);
+            }
+            outboxEventRepository.deleteAllInBatch(batch);
+
+            LocalDateTime newest = batch.get(batch.size() - 1).getCreatedAt();
+            lagMs.set(Math.max(0, Duration.between(newest, LocalDateTime.now()).toMillis()));
+            return batch.size();
+        });
+        int count = delivered == null ? 0 : delivered;
+        meterRegistry.counter("wallet.outbox.published").increment(count);
+        return count;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        relay = new Thread(this::drain, "outbox-relay");
+        relay.setDaemon(true);
+        relay.start();
+        log.info("📤 Outbox relay started, batch size {}", batchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (relay != null) {
+            relay.interrupt();
+        }
+    }
+
+    private void drain() {
+        while (running) {
+            try {
+                // A full batch suggests more are waiting
+                if (relayOnce() < batchSize) {
+                    Thread.sleep(pollIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                meterRegistry.counter("wallet.outbox.failures").increment();
+                log.error("⚠️ Outbox relay failed to deliver a batch, will retry: {}", e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
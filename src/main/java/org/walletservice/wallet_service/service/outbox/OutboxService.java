@@ -0,0 +1,121 @@
+package org.walletservice.wallet_service.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.walletservice.wallet_service.entity.money.Money;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventEntity;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventType;
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+import org.walletservice.wallet_service.repository.outbox.OutboxEventRepository;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes wallet events to the outbox. Every method joins the caller's transaction and refuses to
+ * run without one, so an event commits or rolls back with the change it describes. Callers record
+ * an event after the statement that locks the wallet row, which keeps a wallet's events in commit
+ * order (see {@link OutboxEventEntity}); credits to striped wallets lock a slot instead and are not
+ * ordered.
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository,
+                         ObjectMapper objectMapper,
+                         @Value("${wallet-service.outbox.enabled:true}") boolean enabled) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Records a CREDIT or DEBIT of the wallet.
+     *
+     * @param amount  amount in paise
+     * @param balance the wallet's balance after it in paise, or null where it is not known
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransaction(Long walletId, TransactionType type, String transactionId, long amount, Long balance) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("transactionId", transactionId);
+        payload.put("amount", Money.toMajor(amount));
+        if (balance != null) {
+            payload.put("balance", Money.toMajor(balance));
+        }
+        outboxEventRepository.save(event(walletId, eventTypeOf(type), payload));
+    }
+
+    /**
+     * Records both legs of a transfer, each as an event of its own wallet.
+     *
+     * @param amount      amount in paise
+     * @param fromBalance the debited wallet's balance after the transfer in paise
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransfer(Long fromWalletId, Long toWalletId, String reference, long amount, long fromBalance) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Object> debit = new LinkedHashMap<>();
+        debit.put("reference", reference);
+        debit.put("amount", Money.toMajor(amount));
+        debit.put("balance", Money.toMajor(fromBalance));
+        debit.put("toWalletId", toWalletId);
+
+        Map<String, Object> credit = new LinkedHashMap<>();
+        credit.put("reference", reference);
+        credit.put("amount", Money.toMajor(amount));
+        credit.put("fromWalletId", fromWalletId);
+
+        outboxEventRepository.saveAll(List.of(
+                event(fromWalletId, OutboxEventType.DEBITED, debit),
+                event(toWalletId, OutboxEventType.CREDITED, credit)));
+    }
+
+    /** Records a change of the wallet's status, e.g. {@link OutboxEventType#FROZEN}. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatus(Long walletId, OutboxEventType type) {
+        recordStatus(List.of(walletId), type);
+    }
+
+    /** Records the same change of status for several wallets, with one batched insert. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatus(Collection<Long> walletIds, OutboxEventType type) {
+        if (!enabled || walletIds.isEmpty()) {
+            return;
+        }
+        outboxEventRepository.saveAll(walletIds.stream()
+                .map(walletId -> event(walletId, type, Map.of()))
+                .toList());
+    }
+
+    private OutboxEventEntity event(Long walletId, OutboxEventType type, Map<String, Object> payload) {
+        try {
+            return new OutboxEventEntity(walletId, type, objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Outbox event cannot be serialized", e);
+        }
+    }
+
+    private static OutboxEventType eventTypeOf(TransactionType type) {
+        return switch (type) {
+            case CREDIT -> OutboxEventType.CREDITED;
+            case DEBIT -> OutboxEventType.DEBITED;
+            default -> throw new IllegalArgumentException("Not a single-wallet transaction type: " + type);
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package org.walletservice.wallet_service.service.outbox;
+
+import org.walletservice.wallet_service.entity.outbox.OutboxEventEntity;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of the events drained from the outbox. Define a bean of this type to replace the
+ * sink configured under {@code wallet-service.outbox.sink}.
+ */
+public interface OutboxSink {
+
+    /**
+     * Delivers a batch, oldest event first, and returns once the destination has accepted all of
+     * it. If it throws, the whole batch is delivered again later, so consumers must tolerate
+     * duplicates and can drop them by event id.
+     */
+    void publish(List<OutboxEventEntity> events) throws IOException;
+}
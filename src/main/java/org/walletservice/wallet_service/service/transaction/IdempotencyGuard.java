@@ -0,0 +1,283 @@
+package org.walletservice.wallet_service.service.transaction;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
+import org.walletservice.wallet_service.repository.transaction.TransactionRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * In-memory front for the transactionId lookups made before every transaction is applied.
+ *
+ * A scalable Bloom filter holds the ids of all transactions committed since startup plus those of the
+ * last {@code wallet-service.idempotency.warmup-hours}, loaded on startup. An id the filter has never
+ * seen is new and needs no database probe. A bounded LRU keeps the most recent transactions so that
+ * client retries are answered from memory; anything else falls through to the database.
+ *
+ * A false positive from the filter only costs the database query it would have saved. Ids older than
+ * the warm-up window, or written by another instance, are missing from it; the unique index on
+ * transaction_id still rejects such a duplicate, and callers then look it up with {@link #findStored(String)}.
+ */
+@Component
+public class IdempotencyGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyGuard.class);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate readOnlyTemplate;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final int cacheSize;
+    private final Duration warmupWindow;
+
+    private final Map<String, TransactionEntity> recent;
+    private volatile ScalableBloomFilter filter;
+    // Until the warm-up has loaded the filter, a miss does not prove an id is new
+    private volatile boolean ready;
+
+    private final Counter cacheHits;
+    private final Counter filterNegatives;
+    private final Counter databaseHits;
+    private final Counter databaseMisses;
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong answeredInMemory = new AtomicLong();
+
+    public IdempotencyGuard(TransactionRepository transactionRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${wallet-service.idempotency.enabled:true}") boolean enabled,
+                            @Value("${wallet-service.idempotency.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${wallet-service.idempotency.false-positive-rate:0.01}") double falsePositiveRate,
+                            @Value("${wallet-service.idempotency.cache-size:10000}") int cacheSize,
+                            @Value("${wallet-service.idempotency.warmup-hours:24}") long warmupHours) {
+        this.transactionRepository = transactionRepository;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.cacheSize = cacheSize;
+        this.warmupWindow = Duration.ofHours(warmupHours);
+        this.filter = new ScalableBloomFilter(expectedInsertions, falsePositiveRate);
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TransactionEntity> eldest) {
+                return size() > IdempotencyGuard.this.cacheSize;
+            }
+        };
+
+        String lookupsMetric = "wallet.idempotency.lookups";
+        this.cacheHits = meterRegistry.counter(lookupsMetric, "result", "cache_hit");
+        this.filterNegatives = meterRegistry.counter(lookupsMetric, "result", "filter_negative");
+        this.databaseHits = meterRegistry.counter(lookupsMetric, "result", "db_hit");
+        this.databaseMisses = meterRegistry.counter(lookupsMetric, "result", "db_miss");
+        Gauge.builder("wallet.idempotency.memory.hit.ratio", this, IdempotencyGuard::memoryHitRatio)
+                .description("Share of lookups answered without a database query")
+                .register(meterRegistry);
+        Gauge.builder("wallet.idempotency.filter.size", this, g -> g.filter.approximateSize())
+                .register(meterRegistry);
+        Gauge.builder("wallet.idempotency.filter.bytes", this, g -> g.filter.sizeInBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("wallet.idempotency.cache.size", this, IdempotencyGuard::cachedCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Looks up a transaction by id, from memory when possible.
+     */
+    public Optional<TransactionEntity> find(String transactionId) {
+        if (transactionId == null) {
+            return Optional.empty();
+        }
+        if (!enabled) {
+            return transactionRepository.findByTransactionId(transactionId);
+        }
+
+        lookups.incrementAndGet();
+        TransactionEntity cached = cached(transactionId);
+        if (cached != null) {
+            countInMemory(cacheHits);
+            return Optional.of(cached);
+        }
+        if (ready && !filter.mightContain(transactionId)) {
+            countInMemory(filterNegatives);
+            return Optional.empty();
+        }
+
+        Optional<TransactionEntity> stored = transactionRepository.findByTransactionId(transactionId);
+        if (stored.isPresent()) {
+            databaseHits.increment();
+            remember(stored.get());
+        } else {
+            databaseMisses.increment();
+        }
+        return stored;
+    }
+
+    /**
+     * Looks up many transactions by id; only ids that may exist and are not cached are queried.
+     */
+    public List<TransactionEntity> findAll(Collection<String> transactionIds) {
+        if (!enabled) {
+            return transactionIds.isEmpty() ? List.of() : transactionRepository.findByTransactionIdIn(transactionIds);
+        }
+
+        List<TransactionEntity> found = new ArrayList<>();
+        List<String> toQuery = new ArrayList<>();
+        for (String id : transactionIds) {
+            lookups.incrementAndGet();
+            TransactionEntity cached = cached(id);
+            if (cached != null) {
+                countInMemory(cacheHits);
+                found.add(cached);
+            } else if (ready && !filter.mightContain(id)) {
+                countInMemory(filterNegatives);
+            } else {
+                toQuery.add(id);
+            }
+        }
+
+        if (!toQuery.isEmpty()) {
+            List<TransactionEntity> stored = transactionRepository.findByTransactionIdIn(toQuery);
+            databaseHits.increment(stored.size());
+            databaseMisses.increment(toQuery.size() - stored.size());
+            stored.forEach(this::remember);
+            found.addAll(stored);
+        }
+        return found;
+    }
+
+    /**
+     * Looks the id up in the database regardless of what the filter says, e.g. after an insert
+     * was rejected by the unique index.
+     */
+    public Optional<TransactionEntity> findStored(String transactionId) {
+        Optional<TransactionEntity> stored = transactionRepository.findByTransactionId(transactionId);
+        stored.ifPresent(this::remember);
+        return stored;
+    }
+
+    /** Like {@link #findStored(String)}, for many ids in one query. */
+    public List<TransactionEntity> findAllStored(Collection<String> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return List.of();
+        }
+        List<TransactionEntity> stored = transactionRepository.findByTransactionIdIn(transactionIds);
+        stored.forEach(this::remember);
+        return stored;
+    }
+
+    /**
+     * Records newly saved transactions once the surrounding transaction commits, or right away
+     * when there is none. Rolled-back transactions are never recorded.
+     */
+    public void recordAfterCommit(Collection<TransactionEntity> transactions) {
+        if (!enabled || transactions.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactions.forEach(this::remember);
+            return;
+        }
+        List<TransactionEntity> saved = List.copyOf(transactions);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                saved.forEach(IdempotencyGuard.this::remember);
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the filter from the transactions of the warm-up window. Lookups query the database
+     * until it is loaded; ids committed meanwhile go straight into the new filter.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        ready = false;
+        ScalableBloomFilter rebuilt = new ScalableBloomFilter(expectedInsertions, falsePositiveRate);
+        filter = rebuilt;
+        try {
+            LocalDateTime since = LocalDateTime.now().minus(warmupWindow);
+            long loaded = readOnlyTemplate.execute(status -> {
+                try (Stream<String> ids = transactionRepository.streamTransactionIdsSince(since)) {
+                    AtomicLong count = new AtomicLong();
+                    ids.forEach(id -> {
+                        rebuilt.put(id);
+                        count.incrementAndGet();
+                    });
+                    return count.get();
+                }
+            });
+            ready = true;
+            log.info("🧮 Idempotency filter loaded with {} transaction ids from the last {}h in {} ms",
+                    loaded, warmupWindow.toHours(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException ex) {
+            log.error("⚠️ Idempotency filter warm-up failed, every lookup will query the database", ex);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    double memoryHitRatio() {
+        long total = lookups.get();
+        return total == 0 ? 0.0 : (double) answeredInMemory.get() / total;
+    }
+
+    private void countInMemory(Counter counter) {
+        counter.increment();
+        answeredInMemory.incrementAndGet();
+    }
+
+    private TransactionEntity cached(String transactionId) {
+        synchronized (recent) {
+            return recent.get(transactionId);
+        }
+    }
+
+    private int cachedCount() {
+        synchronized (recent) {
+            return recent.size();
+        }
+    }
+
+    private void remember(TransactionEntity txn) {
+        if (txn.getTransactionId() == null) {
+            // Journal legs are not looked up by transaction id
+            return;
+        }
+        filter.put(txn.getTransactionId());
+        synchronized (recent) {
+            recent.put(txn.getTransactionId(), txn);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.walletservice.wallet_service.service.transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over strings that grows as keys are added.
+ *
+ * Keys go into the newest of a chain of fixed-size filters. When it reaches its capacity a new one
+ * is started with twice the capacity and half the false-positive rate, so the chain as a whole stays
+ * under the configured rate however many keys are added. A key is reported as possibly present if
+ * any filter in the chain has all of its bits set. Safe for concurrent use without locking on reads.
+ */
+public class ScalableBloomFilter {
+
+    private static final int GROWTH_FACTOR = 2;
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+    private volatile Stage current;
+
+    /**
+     * @param initialCapacity   keys the first filter holds before a larger one is started
+     * @param falsePositiveRate upper bound for the false-positive rate of the whole chain
+     */
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("Bloom filter capacity must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Bloom filter false-positive rate must be between 0 and 1");
+        }
+        // The per-stage rates form a geometric series p0 * r^i, which sums to at most p0 / (1 - r)
+        current = new Stage(initialCapacity, falsePositiveRate * (1 - TIGHTENING_RATIO));
+        stages.add(current);
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void put(String key) {
+        long hash = hash(key);
+        Stage stage = current;
+        if (stage.isFull()) {
+            stage = grow(stage);
+        }
+        stage.put(hash);
+    }
+
+    /** Approximate number of distinct keys added. */
+    public long approximateSize() {
+        return stages.stream().mapToLong(s -> s.count.get()).sum();
+    }
+
+    public int stageCount() {
+        return stages.size();
+    }
+
+    /** Memory held by the bit arrays, in bytes. */
+    public long sizeInBytes() {
+        return stages.stream().mapToLong(s -> s.bits.length() * (long) Long.BYTES).sum();
+    }
+
+    private synchronized Stage grow(Stage full) {
+        if (current == full) {
+            current = new Stage(full.capacity * GROWTH_FACTOR, full.falsePositiveRate * TIGHTENING_RATIO);
+            stages.add(current);
+        }
+        return current;
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes, finished with the murmur3 avalanche step
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Stage {
+
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLongArray bits;
+        private final AtomicLong count = new AtomicLong();
+
+        private Stage(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            double ln2 = Math.log(2);
+            long words = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2) / Long.SIZE);
+            if (words > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Bloom filter stage too large: " + capacity + " keys");
+            }
+            this.bits = new AtomicLongArray((int) Math.max(1, words));
+            this.bitCount = (long) bits.length() * Long.SIZE;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * ln2));
+        }
+
+        boolean isFull() {
+            return count.get() >= capacity;
+        }
+
+        // Double hashing: the i-th probe is h1 + i * h2, taken from the two halves of the hash
+        boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            boolean changed = false;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                long mask = 1L << bit;
+                long previous = bits.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+                changed |= (previous & mask) == 0;
+            }
+            if (changed) {
+                count.incrementAndGet();
+            }
+        }
+    }
+}
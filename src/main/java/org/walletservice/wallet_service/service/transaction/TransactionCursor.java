@@ -0,0 +1,47 @@
+package org.walletservice.wallet_service.service.transaction;
+
+import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a history read newest first: the next page holds the transactions before
+ * {@code (transactionDate, id)}. Clients get it as an opaque token and pass it back unchanged.
+ */
+public record TransactionCursor(LocalDateTime transactionDate, long id) {
+
+    // Before every stored transaction; a date every database can store
+    public static final TransactionCursor START =
+            new TransactionCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final String SEPARATOR = "~";
+
+    public static TransactionCursor after(TransactionEntity last) {
+        return new TransactionCursor(last.getTransactionDate(), last.getId());
+    }
+
+    /**
+     * @return the position the token stands for, {@link #START} when there is none
+     * @throws IllegalArgumentException if the token was not issued by {@link #encode()}
+     */
+    public static TransactionCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            return new TransactionCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((transactionDate + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,13 +1,14 @@
 package org.walletservice.wallet_service.service.transaction;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
 import org.walletservice.wallet_service.entity.transaction.TransactionType;
 import org.walletservice.wallet_service.repository.transaction.TransactionRepository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,19 +16,48 @@ import java.util.Optional;
 public class TransactionService {
 
     private final TransactionRepository transactionRepository;
+    private final IdempotencyGuard idempotencyGuard;
 
-    public TransactionService(TransactionRepository transactionRepository) {
+    public TransactionService(TransactionRepository transactionRepository, IdempotencyGuard idempotencyGuard) {
         this.transactionRepository = transactionRepository;
+        this.idempotencyGuard = idempotencyGuard;
     }
 
     // Save transaction
     public TransactionEntity save(TransactionEntity entity) {
-        return transactionRepository.save(entity);
+        TransactionEntity saved = transactionRepository.save(entity);
+        idempotencyGuard.recordAfterCommit(List.of(saved));
+        return saved;
     }
 
-    // Find by transaction ID
+    // Save many transactions in one flush
+    public List<TransactionEntity> saveAll(List<TransactionEntity> entities) {
+        List<TransactionEntity> saved = transactionRepository.saveAll(entities);
+        idempotencyGuard.recordAfterCommit(saved);
+        return saved;
+    }
+
+    // Find by transaction ID; ids never seen by the idempotency guard skip the database
     public Optional<TransactionEntity> findByTransactionId(String txnId) {
-        return transactionRepository.findByTransactionId(txnId);
+        return idempotencyGuard.find(txnId);
+    }
+
+    // Find by transaction ID in the database, e.g. after an insert hit the unique index
+    public Optional<TransactionEntity> findStoredByTransactionId(String txnId) {
+        return idempotencyGuard.findStored(txnId);
+    }
+
+    // Find already processed transactions among the given IDs
+    public List<TransactionEntity> findByTransactionIds(Collection<String> txnIds) {
+        if (txnIds.isEmpty()) {
+            return List.of();
+        }
+        return idempotencyGuard.findAll(txnIds);
+    }
+
+    // Find stored transactions among the given IDs in the database, e.g. after an insert hit the unique index
+    public List<TransactionEntity> findStoredByTransactionIds(Collection<String> txnIds) {
+        return idempotencyGuard.findAllStored(txnIds);
     }
 
     // Find all transactions for a wallet
@@ -35,19 +65,33 @@ public class TransactionService {
         return transactionRepository.findByWalletId(walletId);
     }
 
-    // Find transactions for multiple wallets with pagination
-    public Page<TransactionEntity> findByWalletIdIn(List<Long> walletIds, Pageable pageable) {
-        return transactionRepository.findByWalletIdIn(walletIds, pageable);
+    // A keyset page of a user's history, newest first, as one range of idx_user_date
+    public Slice<TransactionEntity> findByUserIdBefore(Long userId, TransactionCursor cursor, int size) {
+        return transactionRepository.findByUserIdBefore(userId, cursor.transactionDate(), cursor.id(),
+                PageRequest.of(0, size));
+    }
+
+    // A keyset page of all transactions, newest first
+    public Slice<TransactionEntity> findAllBefore(TransactionCursor cursor, int size) {
+        return transactionRepository.findAllBefore(cursor.transactionDate(), cursor.id(), PageRequest.of(0, size));
     }
 
-    // Filtered transactions
-    public Page<TransactionEntity> findFilteredTransactions(
+    // A keyset page of a wallet's filtered history, newest first
+    public Slice<TransactionEntity> findFilteredTransactions(
             Long walletId,
             TransactionType type,
             LocalDateTime startDate,
             LocalDateTime endDate,
-            Pageable pageable
+            TransactionCursor cursor,
+            int size
     ) {
-        return transactionRepository.findFilteredTransactions(walletId, type, startDate, endDate, pageable);
+        return transactionRepository.findFilteredTransactions(walletId, type, startDate, endDate,
+                cursor.transactionDate(), cursor.id(), PageRequest.of(0, size));
+    }
+
+    // A keyset page over several wallets, newest first, merged from each wallet's own history range
+    public Slice<TransactionEntity> findByWalletIdsBefore(Collection<Long> walletIds, TransactionCursor cursor, int size) {
+        return WalletTimelineMerger.page(walletIds, cursor, size, (walletId, before, limit) ->
+                findFilteredTransactions(walletId, null, null, null, before, limit));
     }
 }
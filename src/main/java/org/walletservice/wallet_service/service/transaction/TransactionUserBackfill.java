@@ -0,0 +1,153 @@
+package org.walletservice.wallet_service.service.transaction;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.walletservice.wallet_service.repository.transaction.TransactionRepository;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread copying the wallet owner into {@code transactions.user_id} on rows written without it, a
+ * batch at a time in id order. New rows get it at write time.
+ *
+ * Completion is not a flag of this instance but the state of the table: no row left with a null
+ * user_id, which idx_user_date answers with one index probe. Until a sweep from the lowest id has
+ * found none, a user's history cannot be read from idx_user_date alone; {@link #isComplete()}
+ * tells when it can. Instances still running older code keep writing rows without a user during a
+ * rolling deploy, and pooled ids put some of them behind the sweep, so the thread never stops: once
+ * complete it probes the table again every recheck interval, and rows found there turn completion
+ * off until they are backfilled.
+ */
+@Component
+public class TransactionUserBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionUserBackfill.class);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long intervalMs;
+    private final long recheckIntervalMs;
+    private final Counter backfilled;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long lastId;
+    private volatile boolean complete;
+    private volatile boolean running;
+    private Thread backfill;
+
+    public TransactionUserBackfill(TransactionRepository transactionRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${wallet-service.transactions.user-backfill.enabled:true}") boolean enabled,
+                                   @Value("${wallet-service.transactions.user-backfill.batch-size:1000}") int batchSize,
+                                   @Value("${wallet-service.transactions.user-backfill.interval-ms:50}") long intervalMs,
+                                   @Value("${wallet-service.transactions.user-backfill.recheck-interval-ms:1000}") long recheckIntervalMs) {
+        if (batchSize < 1 || intervalMs < 0 || recheckIntervalMs < 1) {
+            throw new IllegalArgumentException("User backfill batch size and recheck interval must be positive and interval not negative");
+        }
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.intervalMs = intervalMs;
+        this.recheckIntervalMs = recheckIntervalMs;
+        this.backfilled = Counter.builder("wallet.transactions.user_backfilled")
+                .description("Transactions given the user id of their wallet's owner by the backfill")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        backfill = new Thread(this::run, "transaction-user-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+        log.info("Started transaction user backfill, batch size {}", batchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (backfill != null) {
+            backfill.interrupt();
+        }
+    }
+
+    /** @return true while the last sweep found every transaction carrying the user id of its wallet's owner */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Backfills the next batch of rows on the calling thread. A sweep that runs out of rows starts
+     * over from the lowest id, and the backfill is complete once a sweep from there finds none.
+     *
+     * @return the number of rows looked at
+     */
+    public int backfillOnce() {
+        lock.lock();
+        try {
+            long from = lastId;
+            List<Long> ids = transactionTemplate.execute(status -> {
+                List<Long> found = transactionRepository.findIdsWithoutUser(from, PageRequest.of(0, batchSize));
+                if (!found.isEmpty()) {
+                    backfilled.increment(transactionRepository.assignUserIds(found));
+                }
+                return found;
+            });
+            if (ids == null || ids.isEmpty()) {
+                if (from == 0 && !complete) {
+                    log.info("🧾 Transaction user backfill complete, history by user reads idx_user_date");
+                    complete = true;
+                }
+                // Rows written meanwhile may sit behind the sweep
+                lastId = 0;
+                return 0;
+            }
+            if (complete) {
+                log.warn("⚠️ {} transactions without a user appeared after the backfill completed, "
+                        + "history by user reads wallets again until they are filled in", ids.size());
+                complete = false;
+            }
+            lastId = ids.get(ids.size() - 1);
+            return ids.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                backfillOnce();
+                Thread.sleep(complete ? recheckIntervalMs : intervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Transaction user backfill failed: {}", e.getMessage(), e);
+                try {
+                    Thread.sleep(Math.max(intervalMs, 1000));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.walletservice.wallet_service.service.transaction;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Newest-first page over the histories of several wallets, k-way merged from one keyset range per
+ * wallet.
+ *
+ * Each wallet's range is read on its own along idx_wallet_date, which returns it already in page
+ * order, and a heap keyed on each range's newest unread row picks the next row of the page. A
+ * single IN-list query over all the wallets cannot use the index order and sorts every matching
+ * row instead, which grows with the user's whole history.
+ *
+ * Ranges are read in chunks, the first one sized for an even share of the page, and each refill of
+ * a range twice the one before, up to the page size. A page thus reads about {@code size + k} rows
+ * with k short index range reads, however long the histories are.
+ */
+final class WalletTimelineMerger {
+
+    /** Reads up to {@code limit} rows of a wallet's history older than the cursor, newest first. */
+    @FunctionalInterface
+    interface RangeReader {
+        Slice<TransactionEntity> read(Long walletId, TransactionCursor before, int limit);
+    }
+
+    // Page order: newest first, ties on the date broken by the higher id
+    private static final Comparator<TransactionEntity> NEWEST_FIRST = Comparator
+            .comparing(TransactionEntity::getTransactionDate, Comparator.reverseOrder())
+            .thenComparing(TransactionEntity::getId, Comparator.reverseOrder());
+
+    private WalletTimelineMerger() {
+    }
+
+    static Slice<TransactionEntity> page(Collection<Long> walletIds, TransactionCursor cursor, int size,
+                                         RangeReader reader) {
+        // One row past the page tells whether there is a next one
+        int maxChunk = size + 1;
+        int firstChunk = walletIds.isEmpty() ? maxChunk
+                : Math.min(maxChunk, Math.max(2, (maxChunk + walletIds.size() - 1) / walletIds.size()));
+
+        PriorityQueue<Range> heads = new PriorityQueue<>(Math.max(1, walletIds.size()),
+                Comparator.comparing(Range::head, NEWEST_FIRST));
+        for (Long walletId : walletIds) {
+            Range range = new Range(walletId, cursor, firstChunk, maxChunk, reader);
+            if (range.fill()) {
+                heads.add(range);
+            }
+        }
+
+        List<TransactionEntity> content = new ArrayList<>(size);
+        while (content.size() < size && !heads.isEmpty()) {
+            Range newest = heads.poll();
+            content.add(newest.head());
+            if (newest.advance()) {
+                heads.add(newest);
+            }
+        }
+        return new SliceImpl<>(content, PageRequest.of(0, size), !heads.isEmpty());
+    }
+
+    private static final class Range {
+
+        private final Long walletId;
+        private final int maxChunk;
+        private final RangeReader reader;
+        private TransactionCursor before;
+        private int chunk;
+        private List<TransactionEntity> rows = List.of();
+        private int next;
+        private boolean more = true;
+
+        Range(Long walletId, TransactionCursor before, int chunk, int maxChunk, RangeReader reader) {
+            this.walletId = walletId;
+            this.before = before;
+            this.chunk = chunk;
+            this.maxChunk = maxChunk;
+            this.reader = reader;
+        }
+
+        TransactionEntity head() {
+            return rows.get(next);
+        }
+
+        /** Moves past the head, reading the next chunk when this one is used up. */
+        boolean advance() {
+            next++;
+            if (next < rows.size()) {
+                return true;
+            }
+            chunk = Math.min(maxChunk, chunk * 2);
+            return fill();
+        }
+
+        /** Reads the next chunk of the range; false once the range has no rows left. */
+        boolean fill() {
+            if (!more) {
+                return false;
+            }
+            Slice<TransactionEntity> slice = reader.read(walletId, before, chunk);
+            rows = slice.getContent();
+            next = 0;
+            more = slice.hasNext();
+            if (rows.isEmpty()) {
+                return false;
+            }
+            before = TransactionCursor.after(rows.get(rows.size() - 1));
+            return true;
+        }
+    }
+}
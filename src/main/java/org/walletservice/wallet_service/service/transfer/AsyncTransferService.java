@@ -0,0 +1,154 @@
+package org.walletservice.wallet_service.service.transfer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.walletservice.wallet_service.dto.response.TransferStatusResponseDTO;
+import org.walletservice.wallet_service.entity.transfer.TransferCommandEntity;
+import org.walletservice.wallet_service.entity.transfer.TransferStatus;
+import org.walletservice.wallet_service.exception.TransferNotFoundException;
+import org.walletservice.wallet_service.repository.transfer.TransferCommandRepository;
+import org.walletservice.wallet_service.service.wallet.WalletTransactionService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Accepts transfers for asynchronous processing and applies them from the
+ * {@code transfer_commands} table.
+ *
+ * A transfer and the COMPLETED status of its command commit in the same transaction,
+ * and only the worker holding the current claim token may complete a command. A command
+ * whose worker died is therefore reclaimed once its lease expires and applied exactly once.
+ */
+@Service
+public class AsyncTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncTransferService.class);
+
+    private final TransferCommandRepository transferCommandRepository;
+    private final WalletTransactionService walletTransactionService;
+    private final TransactionTemplate transactionTemplate;
+    private final long leaseMs;
+
+    public AsyncTransferService(TransferCommandRepository transferCommandRepository,
+                                WalletTransactionService walletTransactionService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${wallet-service.async-transfer.lease-ms:60000}") long leaseMs) {
+        this.transferCommandRepository = transferCommandRepository;
+        this.walletTransactionService = walletTransactionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaseMs = leaseMs;
+    }
+
+    /**
+     * Durably enqueues a transfer for the authenticated user. Balance and limits are
+     * checked when the transfer is applied.
+     */
+    public TransferStatusResponseDTO submit(Long fromWalletId, Long toWalletId, Double amount) {
+        if (Objects.equals(fromWalletId, toWalletId))
+            throw new IllegalArgumentException("Cannot transfer to same wallet.");
+        if (amount == null || amount <= 0)
+            throw new IllegalArgumentException("Amount must be positive.");
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        TransferCommandEntity command = transferCommandRepository.save(new TransferCommandEntity(
+                UUID.randomUUID().toString(), fromWalletId, toWalletId, amount, (Long) auth.getPrincipal(), roleOf(auth)));
+
+        log.info("📥 Accepted async transfer {}: {} → {} | amount={}", command.getId(), fromWalletId, toWalletId, amount);
+        return toDTO(command);
+    }
+
+    // Role the requester's transfers are applied with
+    static String roleOf(Authentication auth) {
+        return auth.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .findFirst()
+                .orElse("ROLE_USER");
+    }
+
+    public TransferStatusResponseDTO getStatus(String transferId, Long userId, boolean admin) {
+        TransferCommandEntity command = transferCommandRepository.findById(transferId)
+                .filter(c -> admin || c.getRequestedBy().equals(userId))
+                .orElseThrow(() -> new TransferNotFoundException("Transfer not found with id: " + transferId));
+        return toDTO(command);
+    }
+
+    /**
+     * Claims up to {@code batchSize} commands under a fresh claim token. Rows locked by
+     * other workers are skipped.
+     */
+    public List<TransferCommandEntity> claimBatch(int batchSize) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<TransferCommandEntity> batch = transferCommandRepository.findClaimable(
+                    TransferStatus.PENDING, TransferStatus.PROCESSING, now.minusNanos(leaseMs * 1_000_000L),
+                    PageRequest.of(0, batchSize));
+
+            String token = UUID.randomUUID().toString();
+            batch.forEach(command -> command.claim(token, now));
+            return batch;
+        });
+    }
+
+    /**
+     * Applies a claimed command with the requester's authority and records the outcome.
+     */
+    public void process(TransferCommandEntity command) {
+        String token = command.getClaimToken();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                command.getRequestedBy(), null, List.of(new SimpleGrantedAuthority(command.getRequesterRole()))));
+        try {
+            walletTransactionService.transferMoney(command.getFromWalletId(), command.getToWalletId(),
+                    command.getAmount(), result -> markCompleted(command.getId(), token, result.transactionId()));
+            log.info("✅ Async transfer {} completed", command.getId());
+        } catch (RuntimeException e) {
+            log.warn("❌ Async transfer {} failed: {}", command.getId(), e.getMessage());
+            markFailed(command.getId(), token, e.getMessage());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // Runs inside the transfer's transaction
+    private void markCompleted(String transferId, String token, String transactionId) {
+        TransferCommandEntity command = transferCommandRepository.findByIdForUpdate(transferId)
+                .orElseThrow(() -> new TransferNotFoundException("Transfer not found with id: " + transferId));
+        if (!command.isClaimedBy(token)) {
+            throw new IllegalStateException("Transfer " + transferId + " was reclaimed by another worker");
+        }
+        command.complete(transactionId);
+    }
+
+    private void markFailed(String transferId, String token, String error) {
+        transactionTemplate.executeWithoutResult(status ->
+                transferCommandRepository.findByIdForUpdate(transferId)
+                        .filter(command -> command.isClaimedBy(token))
+                        .ifPresent(command -> command.fail(error)));
+    }
+
+    private TransferStatusResponseDTO toDTO(TransferCommandEntity command) {
+        return new TransferStatusResponseDTO(
+                command.getId(),
+                command.getFromWalletId(),
+                command.getToWalletId(),
+                command.getAmount(),
+                command.getStatus().name(),
+                command.getTransactionId(),
+                command.getError(),
+                command.getCreatedAt(),
+                command.getUpdatedAt()
+        );
+    }
+}
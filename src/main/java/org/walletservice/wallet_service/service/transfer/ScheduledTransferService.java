@@ -0,0 +1,150 @@
+package org.walletservice.wallet_service.service.transfer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.walletservice.wallet_service.dto.request.ScheduledTransferRequestDTO;
+import org.walletservice.wallet_service.dto.response.ScheduledTransferResponseDTO;
+import org.walletservice.wallet_service.entity.transfer.ScheduledTransferEntity;
+import org.walletservice.wallet_service.entity.transfer.ScheduledTransferStatus;
+import org.walletservice.wallet_service.entity.transfer.TransferCommandEntity;
+import org.walletservice.wallet_service.entity.transfer.TransferStatus;
+import org.walletservice.wallet_service.exception.TransferNotFoundException;
+import org.walletservice.wallet_service.repository.transfer.ScheduledTransferRepository;
+import org.walletservice.wallet_service.repository.transfer.TransferCommandRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Keeps standing orders in {@code scheduled_transfers} and turns their due runs into
+ * asynchronous transfers.
+ *
+ * A run is enqueued as a {@link TransferCommandEntity} and applied by the transfer workers like
+ * any other asynchronous transfer, so a burst of runs due at the same time is worked off at the
+ * workers' pace. No more runs are enqueued while {@code max-queued} transfers are pending; due
+ * runs wait in their table instead.
+ */
+@Service
+public class ScheduledTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduledTransferService.class);
+
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final TransferCommandRepository transferCommandRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long maxQueued;
+
+    public ScheduledTransferService(ScheduledTransferRepository scheduledTransferRepository,
+                                    TransferCommandRepository transferCommandRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${wallet-service.scheduled-transfer.max-queued:1000}") long maxQueued) {
+        if (maxQueued < 1) {
+            throw new IllegalArgumentException("Scheduled transfer max-queued must be positive");
+        }
+        this.scheduledTransferRepository = scheduledTransferRepository;
+        this.transferCommandRepository = transferCommandRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * Schedules a transfer for the authenticated user. Balance and limits are checked on each run.
+     */
+    public ScheduledTransferResponseDTO schedule(ScheduledTransferRequestDTO request) {
+        if (Objects.equals(request.fromWalletId(), request.toWalletId()))
+            throw new IllegalArgumentException("Cannot transfer to same wallet.");
+        if (request.amount() == null || request.amount() <= 0)
+            throw new IllegalArgumentException("Amount must be positive.");
+        if (request.endsAt() != null && request.endsAt().isBefore(request.startsAt()))
+            throw new IllegalArgumentException("endsAt must not be before startsAt.");
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        ScheduledTransferEntity schedule = scheduledTransferRepository.save(new ScheduledTransferEntity(
+                UUID.randomUUID().toString(), request.fromWalletId(), request.toWalletId(), request.amount(),
+                (Long) auth.getPrincipal(), AsyncTransferService.roleOf(auth),
+                request.recurrence(), request.startsAt(), request.endsAt()));
+
+        log.info("🗓️ Scheduled {} transfer {}: {} → {} | amount={} | first run {}", request.recurrence(),
+                schedule.getId(), request.fromWalletId(), request.toWalletId(), request.amount(), request.startsAt());
+        return toDTO(schedule);
+    }
+
+    public List<ScheduledTransferResponseDTO> listSchedules(Long userId) {
+        return scheduledTransferRepository.findByRequestedByOrderByCreatedAtDesc(userId).stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    /**
+     * Cancels a schedule. A run already enqueued is still applied.
+     */
+    public ScheduledTransferResponseDTO cancel(String scheduleId, Long userId, boolean admin) {
+        return transactionTemplate.execute(status -> {
+            ScheduledTransferEntity schedule = scheduledTransferRepository.findByIdForUpdate(scheduleId)
+                    .filter(s -> admin || s.getRequestedBy().equals(userId))
+                    .orElseThrow(() -> new TransferNotFoundException("Scheduled transfer not found with id: " + scheduleId));
+            if (schedule.getStatus() != ScheduledTransferStatus.ACTIVE) {
+                throw new IllegalStateException("Scheduled transfer is already " + schedule.getStatus() + ".");
+            }
+            schedule.cancel();
+            log.info("🗓️ Cancelled scheduled transfer {}", scheduleId);
+            return toDTO(schedule);
+        });
+    }
+
+    /**
+     * Enqueues the due runs of up to {@code batchSize} schedules in one transaction and moves each
+     * schedule on to its next run. Schedules locked by other schedulers are skipped.
+     *
+     * @return the number of runs enqueued
+     */
+    public int enqueueDue(int batchSize) {
+        Integer enqueued = transactionTemplate.execute(status -> {
+            long room = maxQueued - transferCommandRepository.countByStatus(TransferStatus.PENDING);
+            if (room <= 0) {
+                return 0;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            List<ScheduledTransferEntity> due = scheduledTransferRepository.findDue(
+                    ScheduledTransferStatus.ACTIVE, now, PageRequest.of(0, (int) Math.min(batchSize, room)));
+
+            List<TransferCommandEntity> commands = new ArrayList<>(due.size());
+            for (ScheduledTransferEntity schedule : due) {
+                TransferCommandEntity command = new TransferCommandEntity(UUID.randomUUID().toString(),
+                        schedule.getFromWalletId(), schedule.getToWalletId(), schedule.getAmount(),
+                        schedule.getRequestedBy(), schedule.getRequesterRole());
+                schedule.advance(command.getId(), now);
+                commands.add(command);
+            }
+            transferCommandRepository.saveAll(commands);
+            return commands.size();
+        });
+        return enqueued == null ? 0 : enqueued;
+    }
+
+    private ScheduledTransferResponseDTO toDTO(ScheduledTransferEntity schedule) {
+        return new ScheduledTransferResponseDTO(
+                schedule.getId(),
+                schedule.getFromWalletId(),
+                schedule.getToWalletId(),
+                schedule.getAmount(),
+                schedule.getRecurrence().name(),
+                schedule.getStatus().name(),
+                schedule.getNextRunAt(),
+                schedule.getEndsAt(),
+                schedule.getRuns(),
+                schedule.getLastTransferId(),
+                schedule.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,99 @@
+package org.walletservice.wallet_service.service.transfer;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.walletservice.wallet_service.entity.transfer.TransferCommandEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pool of threads draining {@code transfer_commands}. Each worker claims a batch,
+ * applies it command by command and sleeps for the poll interval when nothing is pending.
+ */
+@Component
+public class TransferCommandWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferCommandWorker.class);
+
+    private final AsyncTransferService asyncTransferService;
+    private final boolean enabled;
+    private final int workerCount;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public TransferCommandWorker(AsyncTransferService asyncTransferService,
+                                 @Value("${wallet-service.async-transfer.enabled:true}") boolean enabled,
+                                 @Value("${wallet-service.async-transfer.workers:2}") int workerCount,
+                                 @Value("${wallet-service.async-transfer.batch-size:20}") int batchSize,
+                                 @Value("${wallet-service.async-transfer.poll-interval-ms:200}") long pollIntervalMs) {
+        if (workerCount < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Async transfer workers and batch size must be positive");
+        }
+        this.asyncTransferService = asyncTransferService;
+        this.enabled = enabled;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::drain, "transfer-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("Started {} async transfer workers, batch size {}", workerCount, batchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Claims and applies one batch on the calling thread.
+     *
+     * @return the number of commands processed
+     */
+    public int drainOnce() {
+        List<TransferCommandEntity> batch = asyncTransferService.claimBatch(batchSize);
+        batch.forEach(asyncTransferService::process);
+        return batch.size();
+    }
+
+    private void drain() {
+        while (running) {
+            try {
+                if (drainOnce() == 0) {
+                    Thread.sleep(pollIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Async transfer worker failed to drain batch: {}", e.getMessage(), e);
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.walletservice.wallet_service.service.transfer;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Thread enqueueing the due runs of scheduled transfers, a batch at a time, for the
+ * {@link TransferCommandWorker}s to apply. It keeps claiming while batches come back full and
+ * sleeps for the poll interval otherwise.
+ */
+@Component
+public class TransferScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferScheduler.class);
+
+    private final ScheduledTransferService scheduledTransferService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private volatile boolean running;
+    private Thread scheduler;
+
+    public TransferScheduler(ScheduledTransferService scheduledTransferService,
+                             @Value("${wallet-service.scheduled-transfer.enabled:true}") boolean enabled,
+                             @Value("${wallet-service.scheduled-transfer.batch-size:100}") int batchSize,
+                             @Value("${wallet-service.scheduled-transfer.poll-interval-ms:1000}") long pollIntervalMs) {
+        if (batchSize < 1 || pollIntervalMs < 1) {
+            throw new IllegalArgumentException("Scheduled transfer batch size and poll interval must be positive");
+        }
+        this.scheduledTransferService = scheduledTransferService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        scheduler = new Thread(this::poll, "transfer-scheduler");
+        scheduler.setDaemon(true);
+        scheduler.start();
+        log.info("Started transfer scheduler, batch size {}", batchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.interrupt();
+        }
+    }
+
+    /**
+     * Enqueues one batch of due runs on the calling thread.
+     *
+     * @return the number of runs enqueued
+     */
+    public int pollOnce() {
+        return scheduledTransferService.enqueueDue(batchSize);
+    }
+
+    private void poll() {
+        while (running) {
+            try {
+                if (pollOnce() < batchSize) {
+                    Thread.sleep(pollIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Transfer scheduler failed to enqueue due runs: {}", e.getMessage(), e);
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -29,4 +29,20 @@ public class InternalWalletService {
             throw new IllegalStateException("Wallet inactive");
         }
     }
+
+    /**
+     * Reads the active and frozen flags of a wallet.
+     *
+     * @param walletId the ID of the wallet
+     * @throws IllegalArgumentException if wallet not found
+     */
+    public WalletStatusCache.WalletStatus getWalletStatus(Long walletId) {
+        WalletEntity wallet = walletRepository.findById(walletId)
+                .orElseThrow(() -> new IllegalArgumentException("Wallet not found"));
+
+        return new WalletStatusCache.WalletStatus(
+                !Boolean.FALSE.equals(wallet.getActive()),
+                Boolean.TRUE.equals(wallet.getFrozen())
+        );
+    }
 }
@@ -0,0 +1,89 @@
+package org.walletservice.wallet_service.service.wallet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Map from primitive long keys to non-null values, sized once for the keys it will hold.
+ *
+ * Open addressing with linear probing over parallel arrays, so lookups by wallet id neither box
+ * the id nor chase entry objects. It does not grow: it is built per page of results, for a number
+ * of keys known up front. Not thread-safe.
+ */
+final class LongObjectMap<V> {
+
+    private final long[] keys;
+    private final Object[] values;
+    private final int mask;
+    private final int shift;
+    private int size;
+
+    /** @param expectedKeys the most keys that will be put; the table stays at most half full */
+    LongObjectMap(int expectedKeys) {
+        if (expectedKeys < 0) {
+            throw new IllegalArgumentException("Expected key count must not be negative");
+        }
+        int capacity = Integer.highestOneBit(Math.max(2, expectedKeys) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        shift = Long.numberOfLeadingZeros(capacity) + 1;
+    }
+
+    /** @return the value previously mapped to the key, or null */
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Values must not be null");
+        }
+        int slot = slotOf(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == values.length / 2) {
+            throw new IllegalStateException("Map is full: it was sized for " + size + " keys");
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int slot = slotOf(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** @return the values, in no particular order */
+    @SuppressWarnings("unchecked")
+    List<V> values() {
+        List<V> present = new ArrayList<>(size);
+        for (Object value : values) {
+            if (value != null) {
+                present.add((V) value);
+            }
+        }
+        return present;
+    }
+
+    // Ids are sequential; taking the top bits of the product spreads neighbours over the table
+    private int slotOf(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+}
@@ -0,0 +1,147 @@
+package org.walletservice.wallet_service.service.wallet;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides how a transfer protects its two wallets against concurrent writers.
+ *
+ * {@code optimistic} (default) applies the conditional debit and blind credit without reading
+ * locks first and relies on the retry path when they conflict. {@code pessimistic} locks both
+ * wallet rows with {@code SELECT ... FOR UPDATE} in ascending id order before writing, so two
+ * transfers between the same wallets in opposite directions queue up instead of deadlocking.
+ * {@code adaptive} starts optimistic and switches a wallet to pessimistic locking for a while
+ * when the share of its optimistic transfers that hit a conflict crosses a threshold.
+ */
+@Component
+public class TransferConcurrencyPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferConcurrencyPolicy.class);
+
+    private static final int MAX_TRACKED_WALLETS = 10_000;
+
+    public enum Mode { OPTIMISTIC, PESSIMISTIC, ADAPTIVE }
+
+    private final Mode mode;
+    private final double conflictThreshold;
+    private final double minSamples;
+    private final long halfLifeNanos;
+    private final long holdNanos;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, ConflictRate> rates = new ConcurrentHashMap<>();
+
+    public TransferConcurrencyPolicy(MeterRegistry meterRegistry,
+                                     @Value("${wallet-service.transfer.locking:optimistic}") String mode,
+                                     @Value("${wallet-service.transfer.adaptive.conflict-threshold:0.1}") double conflictThreshold,
+                                     @Value("${wallet-service.transfer.adaptive.min-samples:20}") double minSamples,
+                                     @Value("${wallet-service.transfer.adaptive.half-life-ms:10000}") long halfLifeMs,
+                                     @Value("${wallet-service.transfer.adaptive.hold-ms:5000}") long holdMs) {
+        try {
+            this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown transfer locking mode: " + mode);
+        }
+        this.meterRegistry = meterRegistry;
+        this.conflictThreshold = conflictThreshold;
+        this.minSamples = minSamples;
+        this.halfLifeNanos = TimeUnit.MILLISECONDS.toNanos(halfLifeMs);
+        this.holdNanos = TimeUnit.MILLISECONDS.toNanos(holdMs);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return true if the transfer between the two wallets should lock both rows before writing
+     */
+    public boolean lockPessimistically(Long fromWalletId, Long toWalletId) {
+        boolean pessimistic = switch (mode) {
+            case OPTIMISTIC -> false;
+            case PESSIMISTIC -> true;
+            case ADAPTIVE -> {
+                long now = System.nanoTime();
+                yield isHot(fromWalletId, now) || isHot(toWalletId, now);
+            }
+        };
+        meterRegistry.counter("wallet.transfer.locking", "strategy", pessimistic ? "pessimistic" : "optimistic")
+                .increment();
+        return pessimistic;
+    }
+
+    /**
+     * Records how an optimistic transfer attempt ended; pessimistic attempts are not sampled.
+     *
+     * @param conflicted true if the attempt failed because a concurrent writer got in the way
+     */
+    public void recordOptimisticAttempt(Long fromWalletId, Long toWalletId, boolean conflicted) {
+        if (mode != Mode.ADAPTIVE) {
+            return;
+        }
+        long now = System.nanoTime();
+        record(fromWalletId, conflicted, now);
+        record(toWalletId, conflicted, now);
+    }
+
+    private boolean isHot(Long walletId, long now) {
+        ConflictRate rate = rates.get(walletId);
+        return rate != null && rate.isPessimistic(now);
+    }
+
+    private void record(Long walletId, boolean conflicted, long now) {
+        if (rates.size() >= MAX_TRACKED_WALLETS) {
+            rates.values().removeIf(rate -> rate.isIdle(now));
+        }
+        ConflictRate rate = rates.computeIfAbsent(walletId, id -> new ConflictRate());
+        if (rate.record(conflicted, now, halfLifeNanos, minSamples, conflictThreshold, holdNanos)) {
+            log.info("🔒 Wallet {} switched to pessimistic transfers for {} ms after repeated conflicts",
+                    walletId, TimeUnit.NANOSECONDS.toMillis(holdNanos));
+        }
+    }
+
+    /** Exponentially decaying conflict ratio of one wallet's optimistic transfers. */
+    static final class ConflictRate {
+
+        private double attempts;
+        private double conflicts;
+        private long updatedAt;
+        private long pessimisticUntil;
+        private boolean pessimistic;
+
+        /** @return true if this sample switched the wallet to pessimistic locking */
+        synchronized boolean record(boolean conflicted, long now, long halfLifeNanos, double minSamples,
+                                    double threshold, long holdNanos) {
+            double decay = updatedAt == 0 ? 1.0 : Math.pow(0.5, (double) (now - updatedAt) / halfLifeNanos);
+            attempts = attempts * decay + 1;
+            conflicts = conflicts * decay + (conflicted ? 1 : 0);
+            updatedAt = now;
+
+            if (attempts >= minSamples && conflicts / attempts > threshold) {
+                // Start over once the hold ends, so the wallet is judged on fresh optimistic samples
+                attempts = 0;
+                conflicts = 0;
+                pessimisticUntil = now + holdNanos;
+                pessimistic = true;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized boolean isPessimistic(long now) {
+            return pessimistic && now - pessimisticUntil < 0;
+        }
+
+        synchronized boolean isIdle(long now) {
+            return !isPessimistic(now) && conflicts < 1;
+        }
+    }
+}
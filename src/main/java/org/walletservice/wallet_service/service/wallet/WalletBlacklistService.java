@@ -4,8 +4,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventType;
 import org.walletservice.wallet_service.entity.wallet.WalletEntity;
 import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.outbox.OutboxService;
 
 import java.util.List;
 
@@ -19,9 +21,14 @@ public class WalletBlacklistService {
     private static final Logger log = LoggerFactory.getLogger(WalletBlacklistService.class);
 
     private final WalletRepository walletRepository;
+    private final WalletStatusCache walletStatusCache;
+    private final OutboxService outboxService;
 
-    public WalletBlacklistService(WalletRepository walletRepository) {
+    public WalletBlacklistService(WalletRepository walletRepository, WalletStatusCache walletStatusCache,
+                                  OutboxService outboxService) {
         this.walletRepository = walletRepository;
+        this.walletStatusCache = walletStatusCache;
+        this.outboxService = outboxService;
     }
 
     /**
@@ -32,6 +39,9 @@ public class WalletBlacklistService {
     public void blacklistUserWallets(Long userId) {
         List<WalletEntity> wallets = walletRepository.findByUserId(userId);
         wallets.forEach(w -> w.setActive(false));
+        List<Long> walletIds = wallets.stream().map(WalletEntity::getId).toList();
+        walletStatusCache.evict(walletIds);
+        outboxService.recordStatus(walletIds, OutboxEventType.BLACKLISTED);
         log.info("Blacklisted {} wallets for userId={}", wallets.size(), userId);
     }
 
@@ -43,6 +53,9 @@ public class WalletBlacklistService {
     public void unblockUserWallets(Long userId) {
         List<WalletEntity> wallets = walletRepository.findByUserId(userId);
         wallets.forEach(w -> w.setActive(true));
+        List<Long> walletIds = wallets.stream().map(WalletEntity::getId).toList();
+        walletStatusCache.evict(walletIds);
+        outboxService.recordStatus(walletIds, OutboxEventType.UNBLACKLISTED);
         log.info("Unblocked {} wallets for userId={}", wallets.size(), userId);
     }
 
@@ -55,6 +68,8 @@ public class WalletBlacklistService {
         walletRepository.findById(walletId).ifPresentOrElse(
                 w -> {
                     w.setActive(false);
+                    walletStatusCache.evict(walletId);
+                    outboxService.recordStatus(walletId, OutboxEventType.BLACKLISTED);
                     log.info("Blacklisted walletId={}", walletId);
                 },
                 () -> log.warn("Attempted to blacklist non-existent walletId={}", walletId)
@@ -70,6 +85,8 @@ public class WalletBlacklistService {
         walletRepository.findById(walletId).ifPresentOrElse(
                 w -> {
                     w.setActive(true);
+                    walletStatusCache.evict(walletId);
+                    outboxService.recordStatus(walletId, OutboxEventType.UNBLACKLISTED);
                     log.info("Unblocked walletId={}", walletId);
                 },
                 () -> log.warn("Attempted to unblock non-existent walletId={}", walletId)
@@ -2,77 +2,65 @@ package org.walletservice.wallet_service.service.wallet;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventType;
 import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.exception.WalletNotFoundException;
 import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.freeze.FreezeScheduler;
+import org.walletservice.wallet_service.service.limit.LimitWindow;
+import org.walletservice.wallet_service.service.limit.SpendingLimitEngine;
+import org.walletservice.wallet_service.service.outbox.OutboxService;
 
 import java.time.LocalDateTime;
 
+/**
+ * Admin freezes and unfreezes. Each is a single UPDATE in the caller's transaction; the end of a
+ * freeze is scheduled on the {@link FreezeScheduler}, which lifts it without a request having to.
+ */
 @Service
 public class WalletFreezeService {
 
     private static final Logger log = LoggerFactory.getLogger(WalletFreezeService.class);
     private final WalletRepository walletRepository;
+    private final SpendingLimitEngine spendingLimits;
+    private final FreezeScheduler freezeScheduler;
+    private final OutboxService outboxService;
 
-    public WalletFreezeService(WalletRepository walletRepository) {
+    public WalletFreezeService(WalletRepository walletRepository,
+                               SpendingLimitEngine spendingLimits,
+                               FreezeScheduler freezeScheduler,
+                               OutboxService outboxService) {
         this.walletRepository = walletRepository;
+        this.spendingLimits = spendingLimits;
+        this.freezeScheduler = freezeScheduler;
+        this.outboxService = outboxService;
     }
 
-    // 🔒 Freeze wallet immediately in a new transaction
-    @Transactional(propagation = Propagation.REQUIRES_NEW, noRollbackFor = Exception.class)
+    // 🔒 Freeze wallet immediately
+    @Transactional
     public void freezeWallet(WalletEntity wallet) {
-        try {
-            WalletEntity fresh = walletRepository.findById(wallet.getId())
-                    .orElseThrow(() -> new IllegalArgumentException("Wallet not found"));
-
-            fresh.setFrozen(true);
-            fresh.setFrozenAt(LocalDateTime.now());
-            walletRepository.saveAndFlush(fresh);
-
-            log.warn("🚨 Wallet {} frozen at {}", fresh.getId(), fresh.getFrozenAt());
+        LocalDateTime now = LocalDateTime.now();
+        if (walletRepository.freeze(wallet.getId(), now) == 0) {
+            throw new WalletNotFoundException("Wallet not found with id: " + wallet.getId());
         }
-        catch (OptimisticLockingFailureException e) {
-            log.warn("⚠️ Optimistic lock detected while freezing wallet {}. Retrying once...", wallet.getId());
+        outboxService.recordStatus(wallet.getId(), OutboxEventType.FROZEN);
+        freezeScheduler.schedule(wallet.getId(), now);
 
-            try {
-                // Retry once safely
-                WalletEntity retry = walletRepository.findById(wallet.getId())
-                        .orElseThrow(() -> new IllegalArgumentException("Wallet not found"));
-                retry.setFrozen(true);
-                retry.setFrozenAt(LocalDateTime.now());
-                walletRepository.saveAndFlush(retry);
-                log.info("✅ Wallet {} frozen successfully after retry.", wallet.getId());
-            } catch (Exception ex) {
-                log.error("❌ Could not freeze wallet {} even after retry: {}", wallet.getId(), ex.getMessage());
-            }
-        }
-        catch (Exception ex) {
-            log.error("❌ Unexpected error freezing wallet {}: {}", wallet.getId(), ex.getMessage());
-        }
+        log.warn("🚨 Wallet {} frozen at {}", wallet.getId(), now);
     }
 
-    // 🧊 Unfreeze wallet in a new transaction
-    @Transactional(propagation = Propagation.REQUIRES_NEW, noRollbackFor = Exception.class)
+    // 🧊 Unfreeze wallet and clear its daily spend
+    @Transactional
     public void unfreezeWallet(WalletEntity wallet) {
-        try {
-            WalletEntity fresh = walletRepository.findById(wallet.getId())
-                    .orElseThrow(() -> new IllegalArgumentException("Wallet not found"));
-
-            fresh.setFrozen(false);
-            fresh.setFrozenAt(null);
-            fresh.setDailySpent(0.0);
-            walletRepository.saveAndFlush(fresh);
-
-            log.info("🧊 Wallet {} unfrozen successfully.", wallet.getId());
-        }
-        catch (OptimisticLockingFailureException e) {
-            log.warn("⚠️ Optimistic lock conflict while unfreezing wallet {} — ignoring.", wallet.getId());
-        }
-        catch (Exception e) {
-            log.error("❌ Unexpected error unfreezing wallet {}: {}", wallet.getId(), e.getMessage());
+        if (walletRepository.unfreeze(wallet.getId()) == 0) {
+            throw new WalletNotFoundException("Wallet not found with id: " + wallet.getId());
         }
+        outboxService.recordStatus(wallet.getId(), OutboxEventType.UNFROZEN);
+        freezeScheduler.cancel(wallet.getId());
+        spendingLimits.reset(wallet.getId(), LimitWindow.DAILY);
+
+        log.info("🧊 Wallet {} unfrozen successfully.", wallet.getId());
     }
 }
@@ -7,12 +7,20 @@ import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.walletservice.wallet_service.dto.request.WalletRequestDTO;
+import org.walletservice.wallet_service.dto.response.WalletLimitsResponseDTO;
 import org.walletservice.wallet_service.dto.response.WalletResponseDTO;
+import org.walletservice.wallet_service.entity.money.Money;
 import org.walletservice.wallet_service.entity.wallet.WalletEntity;
 import org.walletservice.wallet_service.exception.WalletNotFoundException;
 import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.limit.LimitWindow;
+import org.walletservice.wallet_service.service.limit.SpendingLimitEngine;
+import org.walletservice.wallet_service.service.limit.TierLimits;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,9 +28,14 @@ public class WalletService {
 
     private static final Logger log = LoggerFactory.getLogger(WalletService.class);
     private final WalletRepository walletRepository;
+    private final WalletStripingService walletStripingService;
+    private final SpendingLimitEngine spendingLimits;
 
-    public WalletService(WalletRepository walletRepository) {
+    public WalletService(WalletRepository walletRepository, WalletStripingService walletStripingService,
+                         SpendingLimitEngine spendingLimits) {
         this.walletRepository = walletRepository;
+        this.walletStripingService = walletStripingService;
+        this.spendingLimits = spendingLimits;
     }
 
     // Create wallet with ownership/admin check
@@ -48,7 +61,10 @@ public class WalletService {
             throw new IllegalArgumentException("You cannot access this wallet");
         }
 
-        return new WalletResponseDTO(wallet.getId(), wallet.getUserId(), wallet.getBalance());
+        WalletResponseDTO response = new WalletResponseDTO(wallet.getId(), wallet.getUserId(), balanceOf(wallet));
+        // Striped wallets cannot hold funds
+        response.setAvailableBalance(wallet.isStriped() ? response.getBalance() : Money.toMajor(wallet.getAvailableMinor()));
+        return response;
     }
 
     // Get balance with ownership/admin check
@@ -61,7 +77,7 @@ public class WalletService {
             throw new IllegalArgumentException("You do not have access to this wallet");
         }
 
-        return wallet.getBalance();
+        return balanceOf(wallet);
     }
 
     // Update balance with ownership/admin check
@@ -74,6 +90,10 @@ public class WalletService {
             throw new IllegalArgumentException("You cannot update this wallet");
         }
 
+        if (wallet.isStriped()) {
+            throw new IllegalStateException("Disable striping before setting the balance of wallet " + walletId);
+        }
+
         wallet.setBalance(newBalance);
         WalletEntity saved = walletRepository.save(wallet);
 
@@ -81,20 +101,63 @@ public class WalletService {
         return new WalletResponseDTO(saved.getId(), saved.getUserId(), saved.getBalance());
     }
 
+    // Spending limit tier and window usage (admin only)
+    @Transactional(readOnly = true)
+    public WalletLimitsResponseDTO getLimits(Long walletId) {
+        return toLimits(getWalletById(walletId));
+    }
+
+    // Move a wallet to another spending limit tier (admin only)
+    @Transactional
+    public WalletLimitsResponseDTO updateTier(Long walletId, String tier) {
+        if (!spendingLimits.hasTier(tier)) {
+            throw new IllegalArgumentException("Unknown limit tier: " + tier);
+        }
+        WalletEntity wallet = getWalletById(walletId);
+        wallet.setTier(tier.trim().toLowerCase(Locale.ROOT));
+        WalletEntity saved = walletRepository.save(wallet);
+
+        log.info("📊 Wallet {} moved to limit tier {}", walletId, saved.getTier());
+        return toLimits(saved);
+    }
+
+    private WalletLimitsResponseDTO toLimits(WalletEntity wallet) {
+        TierLimits limits = spendingLimits.limitsOf(wallet);
+        List<WalletLimitsResponseDTO.Window> windows = new ArrayList<>();
+        for (LimitWindow window : LimitWindow.values()) {
+            long limit = limits.limitMinor(window);
+            long spent = spendingLimits.spent(wallet.getId(), window);
+            boolean limited = limit != Long.MAX_VALUE;
+            windows.add(new WalletLimitsResponseDTO.Window(window.name(),
+                    limited ? Money.toMajor(limit) : null,
+                    Money.toMajor(spent),
+                    limited ? Money.toMajor(Math.max(0, limit - spent)) : null));
+        }
+        return new WalletLimitsResponseDTO(wallet.getId(), spendingLimits.tierOf(wallet), windows);
+    }
+
     // Get all wallets (admin only)
     @Transactional(readOnly = true)
     public List<WalletResponseDTO> getAllWallets() {
-        return walletRepository.findAll().stream()
-                .map(w -> new WalletResponseDTO(w.getId(), w.getUserId(), w.getBalance()))
-                .collect(Collectors.toList());
+        return toResponses(walletRepository.findAll());
     }
 
     @Transactional(readOnly = true)
     public List<WalletResponseDTO> getWalletsByUser(Long userId) {
-        return walletRepository.findByUserId(userId).stream()
-                .map(w -> new WalletResponseDTO(w.getId(), w.getUserId(), w.getBalance()))
+        return toResponses(walletRepository.findByUserId(userId));
+    }
+
+    private List<WalletResponseDTO> toResponses(List<WalletEntity> wallets) {
+        Map<Long, Long> balances = walletStripingService.totalBalances(wallets);
+        return wallets.stream()
+                .map(w -> new WalletResponseDTO(w.getId(), w.getUserId(),
+                        Money.toMajor(balances.getOrDefault(w.getId(), w.getBalanceMinor()))))
                 .collect(Collectors.toList());
     }
+
+    private double balanceOf(WalletEntity wallet) {
+        return wallet.isStriped() ? Money.toMajor(walletStripingService.totalBalance(wallet)) : wallet.getBalance();
+    }
     public WalletEntity getWalletById(Long walletId) {
         return walletRepository.findById(walletId)
                 .orElseThrow(() -> {
@@ -115,6 +178,7 @@ public class WalletService {
             return;
         }
 
+        walletStripingService.deleteSlots(wallets.stream().filter(WalletEntity::isStriped).map(WalletEntity::getId).toList());
         walletRepository.deleteAll(wallets);
 
         log.warn("Deleted {} wallets for userId={}", wallets.size(), userId);
@@ -0,0 +1,79 @@
+package org.walletservice.wallet_service.service.wallet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of the active/frozen flags of wallets, used when validating
+ * transfer receivers. Entries expire after {@code wallet-service.receiver-validation.cache-ttl-ms};
+ * blacklisting or unblocking a wallet evicts its entry once the change is committed.
+ */
+@Component
+public class WalletStatusCache {
+
+    public record WalletStatus(boolean active, boolean frozen) {}
+
+    private record Entry(WalletStatus status, long expiresAtNanos) {}
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    public WalletStatusCache(@Value("${wallet-service.receiver-validation.cache-ttl-ms:2000}") long ttlMs,
+                             @Value("${wallet-service.receiver-validation.cache-max-entries:10000}") int maxEntries) {
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the cached status of the wallet, loading it when missing or expired.
+     * Exceptions thrown by the loader are propagated and nothing is cached.
+     */
+    public WalletStatus get(Long walletId, Function<Long, WalletStatus> loader) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(walletId);
+        if (entry != null && now - entry.expiresAtNanos < 0) {
+            return entry.status;
+        }
+
+        WalletStatus status = loader.apply(walletId);
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(e -> now - e.expiresAtNanos >= 0);
+            if (entries.size() >= maxEntries) {
+                entries.clear();
+            }
+        }
+        entries.put(walletId, new Entry(status, now + ttlNanos));
+        return status;
+    }
+
+    public void evict(Long walletId) {
+        evict(List.of(walletId));
+    }
+
+    /**
+     * Evicts the wallets now and again after the surrounding transaction commits,
+     * so a reader cannot re-cache the state that is about to change.
+     */
+    public void evict(Collection<Long> walletIds) {
+        walletIds.forEach(entries::remove);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> ids = List.copyOf(walletIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ids.forEach(entries::remove);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package org.walletservice.wallet_service.service.wallet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.walletservice.wallet_service.dto.response.WalletStripingResponseDTO;
+import org.walletservice.wallet_service.entity.money.Money;
+import org.walletservice.wallet_service.entity.wallet.WalletBalanceSlotEntity;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.exception.WalletNotFoundException;
+import org.walletservice.wallet_service.repository.wallet.WalletBalanceSlotRepository;
+import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Opt-in balance striping for hot wallets.
+ *
+ * A striped wallet keeps its balance in N rows of {@code wallet_balance_slots}. Credits go to a
+ * random slot and never touch the wallet row; debits take the whole amount from one random slot
+ * when it is large enough and otherwise sweep the slots in order. The wallet row still tracks the
+ * daily limit and freeze state, and may hold a residual balance credited while striping was being
+ * enabled; the wallet's balance is that residual plus the sum of its slots, and a rebalance folds
+ * the residual back into the slots.
+ */
+@Service
+public class WalletStripingService {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletStripingService.class);
+
+    private static final int MIN_STRIPES = 2;
+
+    private final WalletRepository walletRepository;
+    private final WalletBalanceSlotRepository slotRepository;
+    private final int maxStripes;
+
+    public WalletStripingService(WalletRepository walletRepository,
+                                 WalletBalanceSlotRepository slotRepository,
+                                 @Value("${wallet-service.striping.max-stripes:64}") int maxStripes) {
+        this.walletRepository = walletRepository;
+        this.slotRepository = slotRepository;
+        this.maxStripes = maxStripes;
+    }
+
+    /**
+     * Credits a random slot of the wallet.
+     *
+     * @return false if the wallet has no slots (striping was disabled meanwhile)
+     */
+    public boolean credit(WalletEntity wallet, long amount) {
+        int slot = ThreadLocalRandom.current().nextInt(wallet.getStripeCount());
+        return slotRepository.credit(wallet.getId(), slot, amount) == 1;
+    }
+
+    /**
+     * Debits the wallet's slots, and the residual on the wallet row once they are used up. Must
+     * run in the transaction that recorded the debit on the wallet row, so the row lock keeps
+     * striping from being changed underneath.
+     *
+     * @throws IllegalArgumentException if the slots and the residual together do not cover the amount
+     */
+    public void debit(WalletEntity wallet, long amount) {
+        int slot = ThreadLocalRandom.current().nextInt(wallet.getStripeCount());
+        if (slotRepository.debitIfCovered(wallet.getId(), slot, amount) == 1) {
+            return;
+        }
+
+        // The caller's locked row, with any residual it has credited but not yet written
+        WalletEntity row = walletRepository.findById(wallet.getId())
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found with id: " + wallet.getId()));
+        List<WalletBalanceSlotEntity> slots = slotRepository.findByWalletIdForUpdate(wallet.getId());
+        long available = row.getBalanceMinor() + sumOf(slots);
+        if (available < amount) {
+            log.warn("❌ Striped wallet {} insufficient balance: required {}, available {}",
+                    wallet.getId(), Money.toMajor(amount), Money.toMajor(available));
+            throw new IllegalArgumentException("Insufficient balance.");
+        }
+
+        // Drain the fullest slots first so the fewest rows change, then the residual
+        long remaining = amount;
+        List<WalletBalanceSlotEntity> byBalance = new ArrayList<>(slots);
+        byBalance.sort(Comparator.comparingLong(WalletBalanceSlotEntity::getBalanceMinor).reversed());
+        for (WalletBalanceSlotEntity s : byBalance) {
+            if (remaining <= 0) break;
+            long taken = Math.min(s.getBalanceMinor(), remaining);
+            s.setBalanceMinor(s.getBalanceMinor() - taken);
+            remaining -= taken;
+        }
+        if (remaining > 0) {
+            row.setBalanceMinor(row.getBalanceMinor() - remaining);
+        }
+        log.info("🧹 Swept {} slots of wallet {} for debit of ₹{}", slots.size(), wallet.getId(), Money.toMajor(amount));
+    }
+
+    /** Total balance in paise, slots included. */
+    public long totalBalance(WalletEntity wallet) {
+        if (!wallet.isStriped()) {
+            return wallet.getBalanceMinor();
+        }
+        return wallet.getBalanceMinor() + slotRepository.sumBalance(wallet.getId());
+    }
+
+    /**
+     * Total balance in paise read back from the database, so it includes the blind updates the
+     * calling transaction has made, which the entity's balance predates.
+     */
+    public long currentBalance(WalletEntity wallet) {
+        long balance = walletRepository.findBalanceById(wallet.getId());
+        return wallet.isStriped() ? balance + slotRepository.sumBalance(wallet.getId()) : balance;
+    }
+
+    /** Total balance in paise per wallet, with one query for all striped wallets among them. */
+    public Map<Long, Long> totalBalances(Collection<WalletEntity> wallets) {
+        Map<Long, Long> balances = new HashMap<>();
+        List<Long> striped = new ArrayList<>();
+        for (WalletEntity wallet : wallets) {
+            balances.put(wallet.getId(), wallet.getBalanceMinor());
+            if (wallet.isStriped()) {
+                striped.add(wallet.getId());
+            }
+        }
+        if (!striped.isEmpty()) {
+            for (Object[] row : slotRepository.sumBalanceByWalletIds(striped)) {
+                balances.merge((Long) row[0], ((Number) row[1]).longValue(), Long::sum);
+            }
+        }
+        return balances;
+    }
+
+    @Transactional
+    public WalletStripingResponseDTO enable(Long walletId, int stripes) {
+        if (stripes < MIN_STRIPES || stripes > maxStripes) {
+            throw new IllegalArgumentException("Stripe count must be between " + MIN_STRIPES + " and " + maxStripes);
+        }
+
+        WalletEntity wallet = lockWallet(walletId);
+        if (wallet.isStriped()) {
+            throw new IllegalStateException("Wallet " + walletId + " is already striped");
+        }
+        if (wallet.getHeldMinor() > 0) {
+            throw new IllegalStateException("Wallet " + walletId + " has authorized holds");
+        }
+
+        List<WalletBalanceSlotEntity> slots = new ArrayList<>(stripes);
+        long[] shares = split(wallet.getBalanceMinor(), stripes);
+        for (int i = 0; i < stripes; i++) {
+            slots.add(new WalletBalanceSlotEntity(walletId, i, shares[i]));
+        }
+        slotRepository.saveAll(slots);
+
+        wallet.setBalanceMinor(0L);
+        wallet.setStripeCount(stripes);
+
+        log.info("🔀 Striping enabled for wallet {} with {} slots", walletId, stripes);
+        return toDTO(wallet, slots);
+    }
+
+    @Transactional
+    public WalletStripingResponseDTO disable(Long walletId) {
+        WalletEntity wallet = lockWallet(walletId);
+        if (!wallet.isStriped()) {
+            throw new IllegalStateException("Wallet " + walletId + " is not striped");
+        }
+
+        List<WalletBalanceSlotEntity> slots = slotRepository.findByWalletIdForUpdate(walletId);
+        long total = wallet.getBalanceMinor() + sumOf(slots);
+        slotRepository.deleteAll(slots);
+
+        wallet.setBalanceMinor(total);
+        wallet.setStripeCount(0);
+
+        log.info("🔀 Striping disabled for wallet {}, ₹{} moved back to the wallet row", walletId, Money.toMajor(total));
+        return toDTO(wallet, List.of());
+    }
+
+    /** Spreads the wallet's total balance, including any residual on the wallet row, evenly over its slots. */
+    @Transactional
+    public WalletStripingResponseDTO rebalance(Long walletId) {
+        WalletEntity wallet = lockWallet(walletId);
+        if (!wallet.isStriped()) {
+            throw new IllegalStateException("Wallet " + walletId + " is not striped");
+        }
+
+        List<WalletBalanceSlotEntity> slots = slotRepository.findByWalletIdForUpdate(walletId);
+        long total = wallet.getBalanceMinor() + sumOf(slots);
+        long[] shares = split(total, slots.size());
+        for (int i = 0; i < slots.size(); i++) {
+            slots.get(i).setBalanceMinor(shares[i]);
+        }
+        wallet.setBalanceMinor(0L);
+
+        log.info("⚖️ Rebalanced ₹{} across {} slots of wallet {}", Money.toMajor(total), slots.size(), walletId);
+        return toDTO(wallet, slots);
+    }
+
+    public void deleteSlots(Collection<Long> walletIds) {
+        if (!walletIds.isEmpty()) {
+            slotRepository.deleteByWalletIds(walletIds);
+        }
+    }
+
+    private WalletEntity lockWallet(Long walletId) {
+        return walletRepository.findByIdForUpdate(walletId)
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found with id: " + walletId));
+    }
+
+    // Even split; the first slots take the leftover paise
+    private static long[] split(long total, int parts) {
+        long[] shares = new long[parts];
+        for (int i = 0; i < parts; i++) {
+            shares[i] = total / parts + (i < total % parts ? 1 : 0);
+        }
+        return shares;
+    }
+
+    private static long sumOf(List<WalletBalanceSlotEntity> slots) {
+        long sum = 0;
+        for (WalletBalanceSlotEntity slot : slots) {
+            sum += slot.getBalanceMinor();
+        }
+        return sum;
+    }
+
+    private WalletStripingResponseDTO toDTO(WalletEntity wallet, List<WalletBalanceSlotEntity> slots) {
+        List<Double> slotBalances = slots.stream().map(WalletBalanceSlotEntity::getBalance).toList();
+        long total = wallet.getBalanceMinor() + sumOf(slots);
+        return new WalletStripingResponseDTO(wallet.getId(), wallet.getStripeCount(), Money.toMajor(total), slotBalances);
+    }
+}
@@ -2,34 +2,61 @@ package org.walletservice.wallet_service.service.wallet;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.walletservice.wallet_service.dto.request.BatchTransactionItemDTO;
 import org.walletservice.wallet_service.dto.request.WalletTransactionRequestDTO;
+import org.walletservice.wallet_service.dto.response.BatchTransactionResultDTO;
+import org.walletservice.wallet_service.dto.response.TransactionSliceResponseDTO;
 import org.walletservice.wallet_service.dto.response.WalletTransactionResponseDTO;
+import org.walletservice.wallet_service.entity.journal.JournalEntryEntity;
+import org.walletservice.wallet_service.entity.money.Money;
 import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
 import org.walletservice.wallet_service.entity.transaction.TransactionType;
 import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.exception.WalletFrozenException;
+import org.walletservice.wallet_service.exception.WalletNotFoundException;
 import org.walletservice.wallet_service.mapper.WalletTransactionMapper;
+import org.walletservice.wallet_service.repository.journal.JournalEntryRepository;
 import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.engine.RetryExecutor;
+import org.walletservice.wallet_service.service.engine.ShardedTransactionEngine;
+import org.walletservice.wallet_service.service.ledger.LedgerEntry;
+import org.walletservice.wallet_service.service.ledger.WriteBehindLedger;
+import org.walletservice.wallet_service.service.outbox.OutboxService;
+import org.walletservice.wallet_service.service.transaction.TransactionCursor;
 import org.walletservice.wallet_service.service.transaction.TransactionService;
+import org.walletservice.wallet_service.service.transaction.TransactionUserBackfill;
 import org.walletservice.wallet_service.validation.validator.WalletInternalValidationService;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import org.springframework.data.domain.Pageable;
+import java.util.Map;
+import java.util.Set;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class WalletTransactionService {
 
     private static final Logger log = LoggerFactory.getLogger(WalletTransactionService.class);
-    private static final int MAX_RETRY = 3;
+
+    // Largest page of a transaction history
+    static final int MAX_PAGE_SIZE = 100;
 
     private final WalletRepository walletRepository;
     private final WalletValidationService walletValidationService;
@@ -37,19 +64,46 @@ public class WalletTransactionService {
     private final TransactionService transactionService;
     private final WalletTransactionMapper mapper;
     private final WalletService walletService;
+    private final ShardedTransactionEngine transactionEngine;
+    private final WalletStripingService walletStripingService;
+    private final RetryExecutor retryExecutor;
+    private final TransferConcurrencyPolicy transferConcurrencyPolicy;
+    private final JournalEntryRepository journalEntryRepository;
+    private final WriteBehindLedger writeBehindLedger;
+    private final OutboxService outboxService;
+    private final TransactionUserBackfill userBackfill;
+    private final TransactionTemplate transactionTemplate;
 
     public WalletTransactionService(WalletRepository walletRepository,
                                     TransactionService transactionService,
                                     WalletValidationService walletValidationService,
                                     WalletInternalValidationService walletInternalValidationService,
                                     WalletTransactionMapper mapper,
-                                    WalletService walletService) {
+                                    WalletService walletService,
+                                    ShardedTransactionEngine transactionEngine,
+                                    WalletStripingService walletStripingService,
+                                    RetryExecutor retryExecutor,
+                                    TransferConcurrencyPolicy transferConcurrencyPolicy,
+                                    JournalEntryRepository journalEntryRepository,
+                                    WriteBehindLedger writeBehindLedger,
+                                    OutboxService outboxService,
+                                    TransactionUserBackfill userBackfill,
+                                    PlatformTransactionManager transactionManager) {
         this.walletRepository = walletRepository;
         this.transactionService = transactionService;
         this.walletValidationService = walletValidationService;
         this.walletInternalValidationService = walletInternalValidationService;
         this.mapper = mapper;
         this.walletService = walletService;
+        this.transactionEngine = transactionEngine;
+        this.walletStripingService = walletStripingService;
+        this.retryExecutor = retryExecutor;
+        this.transferConcurrencyPolicy = transferConcurrencyPolicy;
+        this.journalEntryRepository = journalEntryRepository;
+        this.writeBehindLedger = writeBehindLedger;
+        this.outboxService = outboxService;
+        this.userBackfill = userBackfill;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     private Long getAuthenticatedUserId() {
@@ -69,47 +123,301 @@ public class WalletTransactionService {
 
         Optional<TransactionEntity> existing = transactionService.findByTransactionId(request.transactionId());
         if (existing.isPresent()) {
-            TransactionEntity txn = existing.get();
-            log.info("Idempotent request detected for transactionId={}", request.transactionId());
-
-            WalletEntity wallet = walletService.getWalletById(walletId);
-
-            double availableDailyLimit = walletValidationService.getRemainingDailyLimit(wallet);
-
-            return mapper.toDTO(
-                    txn,
-                    wallet.getBalance(),
-                    availableDailyLimit
-            );
+            return idempotentResponse(walletId, existing.get());
+        }
 
+        if (writeBehindLedger.isEnabled()) {
+            Optional<LedgerEntry> pending = writeBehindLedger.findPending(request.transactionId());
+            if (pending.isPresent()) {
+                return idempotentResponse(walletId, pending.get().toTransaction());
+            }
+            if (writeBehindLedger.handles(walletService.getWalletById(walletId))) {
+                // No unique index stands behind the journal, so a negative from the filter is confirmed
+                if (request.transactionId() != null) {
+                    existing = transactionService.findStoredByTransactionId(request.transactionId());
+                    if (existing.isPresent()) {
+                        return idempotentResponse(walletId, existing.get());
+                    }
+                }
+                return processTransactionWriteBehind(validateTransaction(walletId, request), request);
+            }
         }
 
-        int attempts = 0;
-        while (attempts < MAX_RETRY) {
-            try {
+        try {
+            return runOnWallet("transaction", walletId, () -> {
                 WalletEntity wallet = validateTransaction(walletId, request);
                 return processTransactionTransactional(wallet, request);
-            } catch (Exception ex) {
-                attempts++;
-                if (attempts >= MAX_RETRY) throw ex;
+            });
+        } catch (DataIntegrityViolationException ex) {
+            // Saved concurrently, or too old for the idempotency filter: the unique index caught it
+            if (request.transactionId() != null) {
+                existing = transactionService.findStoredByTransactionId(request.transactionId());
+                if (existing.isPresent()) {
+                    return idempotentResponse(walletId, existing.get());
+                }
             }
+            throw ex;
+        }
+    }
+
+    /**
+     * Applies the transaction to the wallet's in-memory balance; it is acknowledged once journaled
+     * and written to the database later. The balance in the response is the in-memory one.
+     */
+    private WalletTransactionResponseDTO processTransactionWriteBehind(WalletEntity wallet,
+                                                                       WalletTransactionRequestDTO request) {
+        TransactionType type = TransactionType.valueOf(request.type().toUpperCase());
+        WriteBehindLedger.Applied applied = writeBehindLedger.apply(wallet, type, Money.ofMajor(request.amount()),
+                request.transactionId(), request.description());
+        if (applied.duplicate()) {
+            log.info("Idempotent request detected for transactionId={}", applied.entry().transactionId());
         }
-        throw new IllegalStateException("Unexpected error processing transaction");
+        return mapper.toDTO(
+                applied.entry().toTransaction(),
+                Money.toMajor(applied.balance()),
+                walletValidationService.getRemainingDailyLimit(wallet)
+        );
+    }
+
+    private WalletTransactionResponseDTO idempotentResponse(Long walletId, TransactionEntity txn) {
+        log.info("Idempotent request detected for transactionId={}", txn.getTransactionId());
+
+        WalletEntity wallet = walletService.getWalletById(walletId);
+
+        double availableDailyLimit = walletValidationService.getRemainingDailyLimit(wallet);
+
+        return mapper.toDTO(
+                txn,
+                balanceOf(wallet),
+                availableDailyLimit
+        );
     }
 
     public WalletTransactionResponseDTO transferMoney(Long fromWalletId, Long toWalletId, Double amount) {
-        int attempts = 0;
+        return transferMoney(fromWalletId, toWalletId, amount, result -> {});
+    }
 
-        while (attempts < MAX_RETRY) {
+    /**
+     * Same as {@link #transferMoney(Long, Long, Double)}, with {@code beforeCommit} run on the result
+     * inside the transfer's transaction: whatever it writes commits or rolls back with the transfer,
+     * and an exception it throws undoes the transfer.
+     */
+    public WalletTransactionResponseDTO transferMoney(Long fromWalletId, Long toWalletId, Double amount,
+                                                      Consumer<WalletTransactionResponseDTO> beforeCommit) {
+        return runOnWallet("transfer", fromWalletId, () -> {
+            WalletEntity[] wallets = validateTransfer(fromWalletId, toWalletId, amount);
+            if (transferConcurrencyPolicy.lockPessimistically(fromWalletId, toWalletId)) {
+                return transferMoneyTransactional(wallets[0], wallets[1], amount, true, beforeCommit);
+            }
             try {
-                WalletEntity[] wallets = validateTransfer(fromWalletId, toWalletId, amount);
-                return transferMoneyTransactional(wallets[0], wallets[1], amount);
-            } catch (Exception ex) {
-                attempts++;
-                if (attempts >= MAX_RETRY) throw ex;
+                WalletTransactionResponseDTO response =
+                        transferMoneyTransactional(wallets[0], wallets[1], amount, false, beforeCommit);
+                transferConcurrencyPolicy.recordOptimisticAttempt(fromWalletId, toWalletId, false);
+                return response;
+            } catch (RuntimeException ex) {
+                transferConcurrencyPolicy.recordOptimisticAttempt(fromWalletId, toWalletId,
+                        RetryExecutor.isRetryable(ex));
+                throw ex;
+            }
+        });
+    }
+
+    /**
+     * Applies many CREDIT/DEBIT transactions, possibly across wallets, in one call.
+     *
+     * Already processed transaction ids are found with one IN query and the addressed wallets
+     * with one {@code findAllById}. Items are then grouped by wallet; each group locks its wallet
+     * row once, applies its items in request order and writes the wallet and all its transaction
+     * rows in a single transaction. A business rule rejects only its own item; an item of a group
+     * whose transaction could not commit is reported as FAILED and can be resubmitted as is.
+     * Ids the idempotency filter has not seen are only caught by the unique index: the group's ids
+     * are then looked up in the database, and the group is applied again without the stored ones.
+     */
+    public List<BatchTransactionResultDTO> processBatch(List<BatchTransactionItemDTO> items) {
+        Long userId = getAuthenticatedUserId();
+        boolean admin = isAdmin();
+
+        List<String> transactionIds = items.stream()
+                .map(item -> item.transaction().transactionId() != null
+                        ? item.transaction().transactionId()
+                        : UUID.randomUUID().toString())
+                .toList();
+
+        Map<String, TransactionEntity> processed = transactionService.findByTransactionIds(
+                        transactionIds.stream().distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(TransactionEntity::getTransactionId, Function.identity()));
+
+        Map<Long, WalletEntity> wallets = walletRepository.findAllById(
+                        items.stream().map(BatchTransactionItemDTO::walletId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(WalletEntity::getId, Function.identity()));
+
+        BatchTransactionResultDTO[] results = new BatchTransactionResultDTO[items.size()];
+        Map<Long, List<Integer>> groups = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            BatchTransactionItemDTO item = items.get(i);
+            String txnId = transactionIds.get(i);
+            WalletEntity wallet = wallets.get(item.walletId());
+
+            String rejection = null;
+            if (!seen.add(txnId)) {
+                rejection = "Duplicate transactionId in batch: " + txnId;
+            } else if (wallet == null) {
+                rejection = "Wallet not found with id: " + item.walletId();
+            } else if (!wallet.getUserId().equals(userId) && !admin) {
+                rejection = "Forbidden: Wallet does not belong to you";
+            } else if (!Boolean.TRUE.equals(wallet.getActive())) {
+                rejection = "Wallet is inactive or blacklisted.";
+            } else if (writeBehindLedger.handles(wallet)) {
+                rejection = "Wallet is in journal durability mode; submit its transactions one by one.";
+            }
+
+            if (rejection != null) {
+                results[i] = BatchTransactionResultDTO.error(i, item.walletId(), txnId,
+                        BatchTransactionResultDTO.REJECTED, rejection);
+                continue;
+            }
+
+            TransactionEntity existing = processed.get(txnId);
+            if (existing != null) {
+                log.info("Idempotent batch item detected for transactionId={}", txnId);
+                results[i] = BatchTransactionResultDTO.success(i, item.walletId(), BatchTransactionResultDTO.DUPLICATE,
+                        mapper.toDTO(existing, balanceOf(wallet), walletValidationService.getRemainingDailyLimit(wallet)));
+                continue;
+            }
+
+            groups.computeIfAbsent(item.walletId(), id -> new ArrayList<>()).add(i);
+        }
+
+        for (Map.Entry<Long, List<Integer>> group : groups.entrySet()) {
+            Long walletId = group.getKey();
+            List<Integer> indexes = group.getValue();
+            try {
+                List<BatchTransactionResultDTO> groupResults;
+                try {
+                    groupResults = runOnWallet("batch", walletId,
+                            () -> applyBatchGroup(walletId, indexes, items, transactionIds));
+                } catch (DataIntegrityViolationException ex) {
+                    groupResults = reapplyBatchGroup(wallets.get(walletId), indexes, items, transactionIds, ex);
+                }
+                groupResults.forEach(result -> results[result.index()] = result);
+            } catch (RuntimeException ex) {
+                log.warn("⚠️ Batch group for wallet {} failed: {}", walletId, ex.getMessage());
+                for (int i : indexes) {
+                    results[i] = BatchTransactionResultDTO.error(i, walletId, transactionIds.get(i),
+                            BatchTransactionResultDTO.FAILED, ex.getMessage());
+                }
+            }
+        }
+
+        log.info("Processed batch of {} transactions across {} wallets", items.size(), groups.size());
+        return List.of(results);
+    }
+
+    // One lock, one wallet write and one batched insert per wallet of a batch
+    private List<BatchTransactionResultDTO> applyBatchGroup(Long walletId, List<Integer> indexes,
+                                                            List<BatchTransactionItemDTO> items,
+                                                            List<String> transactionIds) {
+        return transactionTemplate.execute(status -> {
+            WalletEntity wallet = walletRepository.findByIdForUpdate(walletId)
+                    .orElseThrow(() -> new WalletNotFoundException("Wallet not found with id: " + walletId));
+
+            List<BatchTransactionResultDTO> groupResults = new ArrayList<>(indexes.size());
+            List<TransactionEntity> txns = new ArrayList<>(indexes.size());
+
+            for (int i : indexes) {
+                WalletTransactionRequestDTO request = items.get(i).transaction();
+                String txnId = transactionIds.get(i);
+                try {
+                    TransactionType type = parseBatchType(request.type());
+                    if (request.amount() == null || request.amount() <= 0) {
+                        throw new IllegalArgumentException("Amount must be positive.");
+                    }
+                    long amount = Money.ofMajor(request.amount());
+
+                    walletValidationService.validateWalletState(wallet);
+                    if (type == TransactionType.DEBIT) {
+                        walletValidationService.applyDebit(wallet, amount);
+                    } else {
+                        // On a striped wallet this lands on the residual, folded into the slots on rebalance
+                        wallet.setBalanceMinor(Money.add(wallet.getBalanceMinor(), amount));
+                    }
+
+                    TransactionEntity txn = new TransactionEntity(walletId, type, request.amount(), request.description());
+                    txn.setTransactionId(txnId);
+                    txn.setUserId(wallet.getUserId());
+                    txns.add(txn);
+                    outboxService.recordTransaction(walletId, type, txnId, amount, balanceOfMinor(wallet));
+
+                    groupResults.add(BatchTransactionResultDTO.success(i, walletId, BatchTransactionResultDTO.APPLIED,
+                            mapper.toDTO(txn, balanceOf(wallet), walletValidationService.getRemainingDailyLimit(wallet))));
+                } catch (IllegalArgumentException | IllegalStateException | WalletFrozenException ex) {
+                    groupResults.add(BatchTransactionResultDTO.error(i, walletId, txnId,
+                            BatchTransactionResultDTO.REJECTED, ex.getMessage()));
+                }
+            }
+
+            if (!txns.isEmpty()) {
+                walletRepository.save(wallet);
+                transactionService.saveAll(txns);
+            }
+            return groupResults;
+        });
+    }
+
+    // Stored by another instance, or too old for the idempotency filter: the unique index caught it
+    private List<BatchTransactionResultDTO> reapplyBatchGroup(WalletEntity wallet, List<Integer> indexes,
+                                                              List<BatchTransactionItemDTO> items,
+                                                              List<String> transactionIds,
+                                                              DataIntegrityViolationException cause) {
+        Map<String, TransactionEntity> stored = transactionService.findStoredByTransactionIds(
+                        indexes.stream().map(transactionIds::get).toList())
+                .stream()
+                .collect(Collectors.toMap(TransactionEntity::getTransactionId, Function.identity()));
+        if (stored.isEmpty()) {
+            throw cause;
+        }
+
+        List<BatchTransactionResultDTO> groupResults = new ArrayList<>(indexes.size());
+        List<Integer> remaining = new ArrayList<>(indexes.size());
+        for (int i : indexes) {
+            TransactionEntity existing = stored.get(transactionIds.get(i));
+            if (existing == null) {
+                remaining.add(i);
+                continue;
             }
+            log.info("Idempotent batch item detected for transactionId={}", existing.getTransactionId());
+            groupResults.add(BatchTransactionResultDTO.success(i, wallet.getId(), BatchTransactionResultDTO.DUPLICATE,
+                    mapper.toDTO(existing, balanceOf(wallet), walletValidationService.getRemainingDailyLimit(wallet))));
         }
-        throw new IllegalStateException("Unexpected error during transfer");
+        if (!remaining.isEmpty()) {
+            groupResults.addAll(runOnWallet("batch", wallet.getId(),
+                    () -> applyBatchGroup(wallet.getId(), remaining, items, transactionIds)));
+        }
+        return groupResults;
+    }
+
+    private TransactionType parseBatchType(String type) {
+        if ("CREDIT".equalsIgnoreCase(type)) return TransactionType.CREDIT;
+        if ("DEBIT".equalsIgnoreCase(type)) return TransactionType.DEBIT;
+        throw new IllegalArgumentException("Transaction type must be CREDIT or DEBIT.");
+    }
+
+    /**
+     * Runs a wallet mutation directly, or on the wallet's shard when the sharded engine is enabled,
+     * retrying it when it loses a race for the wallet. Transfers are routed by the debited wallet.
+     * Retries wait outside the shard so that its other wallets are not held up.
+     */
+    private <T> T runOnWallet(String operation, Long walletId, Supplier<T> mutation) {
+        return retryExecutor.execute(operation, walletId, () -> {
+            if (transactionEngine.isEnabled()) {
+                return transactionEngine.execute(walletId, mutation::get);
+            }
+            return mutation.get();
+        });
     }
 
     private WalletEntity validateTransaction(Long walletId, WalletTransactionRequestDTO request) {
@@ -126,8 +434,10 @@ public class WalletTransactionService {
         double amount = request.amount();
         if (amount <= 0) throw new IllegalArgumentException("Amount must be positive.");
 
-        if (TransactionType.valueOf(request.type().toUpperCase()) == TransactionType.DEBIT) {
-            walletValidationService.validateBalance(wallet, amount);
+        // The balance of a journal-mode wallet is checked against its in-memory balance instead
+        if (TransactionType.valueOf(request.type().toUpperCase()) == TransactionType.DEBIT
+                && !writeBehindLedger.handles(wallet)) {
+            walletValidationService.validateBalance(wallet, Money.ofMajor(amount));
         }
 
         return wallet;
@@ -147,8 +457,12 @@ public class WalletTransactionService {
             throw new SecurityException("Forbidden: Cannot transfer from wallet you do not own");
         }
 
+        if (writeBehindLedger.handles(from)) {
+            throw new IllegalStateException("Transfers from a wallet in journal durability mode are not supported.");
+        }
+
         walletValidationService.validateWalletState(from);
-        walletValidationService.validateBalance(from, amount);
+        walletValidationService.validateBalance(from, Money.ofMajor(amount));
 
         WalletEntity to = walletService.getWalletById(toWalletId);
 
@@ -157,65 +471,109 @@ public class WalletTransactionService {
         return new WalletEntity[]{from, to};
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    // Called from within this class, so the transaction is opened explicitly rather than via @Transactional.
+    // PROPAGATION_REQUIRED lets a shard batch of the sharded engine share one transaction.
     protected WalletTransactionResponseDTO processTransactionTransactional(WalletEntity wallet, WalletTransactionRequestDTO request) {
+        return transactionTemplate.execute(status -> {
 
-        double amount = request.amount();
-        TransactionType type = TransactionType.valueOf(request.type().toUpperCase());
-
-        if (type == TransactionType.DEBIT) {
-            walletValidationService.updateDailySpentAndFreeze(wallet, amount);
-            wallet.setBalance(wallet.getBalance() - amount);
-        } else {
-            wallet.setBalance(wallet.getBalance() + amount);
-        }
-
-        walletRepository.save(wallet);
+            long amount = Money.ofMajor(request.amount());
+            TransactionType type = TransactionType.valueOf(request.type().toUpperCase());
 
-        TransactionEntity txn = new TransactionEntity(wallet.getId(), type, amount, request.description());
-        txn.setTransactionId(request.transactionId() != null ? request.transactionId() : UUID.randomUUID().toString());
+            if (type == TransactionType.DEBIT) {
+                walletValidationService.debit(wallet, amount);
+            } else {
+                creditWallet(wallet, amount);
+            }
+            // The updates were blind, so the entity's balance is stale; read back what they left
+            long balance = walletStripingService.currentBalance(wallet);
 
-        transactionService.save(txn);
+            TransactionEntity txn = new TransactionEntity(wallet.getId(), type, request.amount(), request.description());
+            txn.setTransactionId(request.transactionId() != null ? request.transactionId() : UUID.randomUUID().toString());
+            txn.setUserId(wallet.getUserId());
 
-        double availableDailyLimit = walletValidationService.getRemainingDailyLimit(wallet);
+            transactionService.save(txn);
+            outboxService.recordTransaction(wallet.getId(), type, txn.getTransactionId(), amount, balance);
 
-        return mapper.toDTO(
-                txn,
-                wallet.getBalance(),
-                availableDailyLimit
-        );
+            return mapper.toDTO(
+                    txn,
+                    Money.toMajor(balance),
+                    walletValidationService.getRemainingDailyLimit(wallet)
+            );
+        });
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    protected WalletTransactionResponseDTO transferMoneyTransactional(WalletEntity from, WalletEntity to, Double amount) {
-
-        walletValidationService.updateDailySpentAndFreeze(from, amount);
-
-        from.setBalance(from.getBalance() - amount);
-        to.setBalance(to.getBalance() + amount);
+    /**
+     * Debits {@code from} and credits {@code to} in one transaction. With {@code lockWallets} both rows
+     * are locked first, lower id first, and the locked rows replace the snapshots read during validation.
+     */
+    protected WalletTransactionResponseDTO transferMoneyTransactional(WalletEntity snapshotFrom, WalletEntity snapshotTo,
+                                                                      Double amount, boolean lockWallets,
+                                                                      Consumer<WalletTransactionResponseDTO> beforeCommit) {
+        long amountMinor = Money.ofMajor(amount);
+        return transactionTemplate.execute(status -> {
+
+            WalletEntity from = snapshotFrom;
+            WalletEntity to = snapshotTo;
+            if (lockWallets) {
+                WalletEntity[] locked = lockInIdOrder(snapshotFrom.getId(), snapshotTo.getId());
+                from = locked[0];
+                to = locked[1];
+            }
 
-        walletRepository.save(from);
-        walletRepository.save(to);
+            walletValidationService.debit(from, amountMinor);
+            creditWallet(to, amountMinor);
+
+            // One header per transfer; the two legs only carry wallet, direction and amount
+            JournalEntryEntity journal = journalEntryRepository.save(new JournalEntryEntity(TransactionType.TRANSFER,
+                    "Transfer from wallet " + from.getId() + " to wallet " + to.getId()));
+
+            TransactionEntity debit = TransactionEntity.leg(journal, from.getId(), TransactionType.DEBIT, amountMinor);
+            TransactionEntity credit = TransactionEntity.leg(journal, to.getId(), TransactionType.CREDIT, amountMinor);
+            debit.setUserId(from.getUserId());
+            credit.setUserId(to.getUserId());
+            transactionService.saveAll(List.of(debit, credit));
+            long fromBalance = walletStripingService.currentBalance(from);
+            outboxService.recordTransfer(from.getId(), to.getId(), journal.getReference(), amountMinor, fromBalance);
+
+            WalletTransactionResponseDTO response = mapper.toDTO(
+                    debit,
+                    Money.toMajor(fromBalance),
+                    walletValidationService.getRemainingDailyLimit(from)
+            );
+            beforeCommit.accept(response);
+            return response;
+        });
+    }
 
-        String txnId = UUID.randomUUID().toString();
+    // Every transfer takes its row locks in the same global order, so two transfers cannot deadlock
+    private WalletEntity[] lockInIdOrder(Long fromWalletId, Long toWalletId) {
+        boolean fromFirst = fromWalletId < toWalletId;
+        WalletEntity first = lockWallet(fromFirst ? fromWalletId : toWalletId);
+        WalletEntity second = lockWallet(fromFirst ? toWalletId : fromWalletId);
+        return fromFirst ? new WalletEntity[]{first, second} : new WalletEntity[]{second, first};
+    }
 
-        TransactionEntity debit = new TransactionEntity(from.getId(), TransactionType.DEBIT, amount,
-                "Transfer to wallet " + to.getId());
-        debit.setTransactionId(txnId + "-D");
-        transactionService.save(debit);
+    private WalletEntity lockWallet(Long walletId) {
+        return walletRepository.findByIdForUpdate(walletId)
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found with id: " + walletId));
+    }
 
-        TransactionEntity credit = new TransactionEntity(to.getId(), TransactionType.CREDIT, amount,
-                "Transfer from wallet " + from.getId());
-        credit.setTransactionId(txnId + "-C");
-        transactionService.save(credit);
+    // Striped wallets are credited on a slot; falls back to the wallet row if striping was just disabled
+    private void creditWallet(WalletEntity wallet, long amount) {
+        if (wallet.isStriped() && walletStripingService.credit(wallet, amount)) {
+            return;
+        }
+        if (walletRepository.credit(wallet.getId(), amount) == 0) {
+            throw new WalletNotFoundException("Wallet not found with id: " + wallet.getId());
+        }
+    }
 
-        double availableDailyLimit = walletValidationService.getRemainingDailyLimit(from);
+    private long balanceOfMinor(WalletEntity wallet) {
+        return wallet.isStriped() ? walletStripingService.totalBalance(wallet) : wallet.getBalanceMinor();
+    }
 
-        return mapper.toDTO(
-                debit,
-                from.getBalance(),
-                availableDailyLimit
-        );
+    private double balanceOf(WalletEntity wallet) {
+        return Money.toMajor(balanceOfMinor(wallet));
     }
 
     @Transactional(readOnly = true)
@@ -235,77 +593,137 @@ public class WalletTransactionService {
                 .stream()
                 .map(tx -> mapper.toDTO(
                         tx,
-                        wallet.getBalance(),
+                        balanceOf(wallet),
                         availableDailyLimit
                 ))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * A page of all transactions, newest first, continuing after the cursor. Admin only.
+     *
+     * Two statements per page: the transactions with their journal headers, and the page's wallets
+     * by id. Balance and daily limit are worked out once per wallet and looked up per row. Striped
+     * wallets on the page add one statement for their slot totals.
+     */
     @Transactional(readOnly = true)
-    public List<WalletTransactionResponseDTO> getAllTransactions() {
+    public TransactionSliceResponseDTO getAllTransactions(String cursor, int size) {
         if (!isAdmin()) {
             throw new SecurityException("Forbidden: Only admin can view all transactions");
         }
+        validatePageSize(size);
+        Slice<TransactionEntity> transactions = transactionService.findAllBefore(TransactionCursor.decode(cursor), size);
 
-        return transactionService.findByWalletIdIn(
-                walletRepository.findAll().stream().map(WalletEntity::getId).toList(),
-                org.springframework.data.domain.PageRequest.of(0, Integer.MAX_VALUE)
-        ).stream().map(tx -> {
-
-            WalletEntity wallet = walletService.getWalletById(tx.getWalletId());
-
-            double availableDailyLimit = walletValidationService.getRemainingDailyLimit(wallet);
-
-            return mapper.toDTO(
-                    tx,
-                    wallet.getBalance(),
-                    availableDailyLimit
-            );
-
-        }).collect(Collectors.toList());
+        Set<Long> walletIds = new HashSet<>();
+        transactions.forEach(txn -> walletIds.add(txn.getWalletId()));
+        return toSlice(transactions, size, walletStates(walletRepository.findAllById(walletIds)));
     }
 
-    // Get filtered transactions for a wallet
+    // Get a page of a wallet's filtered history, newest first, continuing after the cursor
     @Transactional(readOnly = true)
-    public Page<WalletTransactionResponseDTO> getFilteredTransactions(Long walletId,
-                                                                      TransactionType type,
-                                                                      LocalDateTime startDate,
-                                                                      LocalDateTime endDate,
-                                                                      Pageable pageable) {
+    public TransactionSliceResponseDTO getFilteredTransactions(Long walletId,
+                                                               TransactionType type,
+                                                               LocalDateTime startDate,
+                                                               LocalDateTime endDate,
+                                                               String cursor,
+                                                               int size) {
+        validatePageSize(size);
+        TransactionCursor position = TransactionCursor.decode(cursor);
         WalletEntity wallet = walletService.getWalletById(walletId);
 
-        Page<TransactionEntity> transactions = transactionService.findFilteredTransactions(walletId, type, startDate, endDate, pageable);
+        Slice<TransactionEntity> transactions = transactionService.findFilteredTransactions(
+                walletId, type, startDate, endDate, position, size);
 
-        double balance = wallet.getBalance();
+        double balance = balanceOf(wallet);
         double availableDailyLimit = walletValidationService.getRemainingDailyLimit(wallet);
 
-        return transactions.map(txn -> mapper.toDTO(txn, balance, availableDailyLimit));
+        return toSlice(transactions, size, txn -> mapper.toDTO(txn, balance, availableDailyLimit));
     }
 
-    // Get all transactions for a user
+    /**
+     * A page of all transactions of a user's wallets, newest first, continuing after the cursor.
+     *
+     * Once every row carries its user id the page is one range of idx_user_date, and only the
+     * wallets on the page are loaded. Until then each wallet's history is read as its own range
+     * and the ranges are merged, so the page still costs the same however long the histories are.
+     */
     @Transactional(readOnly = true)
-    public Page<WalletTransactionResponseDTO> getAllUserTransactions(Long userId, Pageable pageable) {
+    public TransactionSliceResponseDTO getAllUserTransactions(Long userId, String cursor, int size) {
+        validatePageSize(size);
+        TransactionCursor position = TransactionCursor.decode(cursor);
+
+        if (userBackfill.isComplete()) {
+            Slice<TransactionEntity> transactions = transactionService.findByUserIdBefore(userId, position, size);
+            Set<Long> walletIds = new HashSet<>();
+            transactions.forEach(txn -> walletIds.add(txn.getWalletId()));
+            return toSlice(transactions, size, walletStates(walletRepository.findAllById(walletIds)));
+        }
+
         List<WalletEntity> wallets = walletRepository.findByUserId(userId);
-        List<Long> walletIds = wallets.stream().map(WalletEntity::getId).toList();
 
-        if (walletIds.isEmpty()) {
-            return Page.empty(pageable);
+        if (wallets.isEmpty()) {
+            return new TransactionSliceResponseDTO(List.of(), size, false, null);
         }
 
-        Page<TransactionEntity> transactions = transactionService.findByWalletIdIn(walletIds, pageable);
+        LongObjectMap<WalletEntity> walletsById = new LongObjectMap<>(wallets.size());
+        List<Long> walletIds = new ArrayList<>(wallets.size());
+        for (WalletEntity wallet : wallets) {
+            walletsById.put(wallet.getId(), wallet);
+            walletIds.add(wallet.getId());
+        }
 
-        return transactions.map(txn -> {
-            WalletEntity wallet = wallets.stream()
-                    .filter(w -> w.getId().equals(txn.getWalletId()))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalArgumentException("Wallet not found"));
+        Slice<TransactionEntity> transactions = transactionService.findByWalletIdsBefore(walletIds, position, size);
 
-            double balance = wallet.getBalance();
-            double availableDailyLimit = walletValidationService.getRemainingDailyLimit(wallet);
+        // Balance and limit only for the wallets on the page
+        LongObjectMap<WalletEntity> onPage = new LongObjectMap<>(transactions.getNumberOfElements());
+        for (TransactionEntity txn : transactions) {
+            onPage.put(txn.getWalletId(), walletsById.get(txn.getWalletId()));
+        }
+        return toSlice(transactions, size, walletStates(onPage.values()));
+    }
 
-            return mapper.toDTO(txn, balance, availableDailyLimit);
-        });
+    private static void validatePageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+    }
+
+    private record WalletState(double balance, double availableDailyLimit) {}
+
+    // Balance and remaining daily limit per wallet, worked out once for all rows of a page
+    private LongObjectMap<WalletState> walletStates(Collection<WalletEntity> wallets) {
+        Map<Long, Long> balances = walletStripingService.totalBalances(wallets);
+        LongObjectMap<WalletState> states = new LongObjectMap<>(wallets.size());
+        for (WalletEntity wallet : wallets) {
+            states.put(wallet.getId(), new WalletState(Money.toMajor(balances.get(wallet.getId())),
+                    walletValidationService.getRemainingDailyLimit(wallet)));
+        }
+        return states;
     }
 
+    private TransactionSliceResponseDTO toSlice(Slice<TransactionEntity> transactions, int size,
+                                                LongObjectMap<WalletState> states) {
+        List<WalletTransactionResponseDTO> content = new ArrayList<>(transactions.getNumberOfElements());
+        for (TransactionEntity txn : transactions) {
+            WalletState state = states.get(txn.getWalletId());
+            // Deleting a wallet keeps its transactions; without the wallet there is no state to show
+            if (state != null) {
+                content.add(mapper.toDTO(txn, state.balance(), state.availableDailyLimit()));
+            }
+        }
+        return new TransactionSliceResponseDTO(content, size, transactions.hasNext(), nextCursor(transactions));
+    }
+
+    private static TransactionSliceResponseDTO toSlice(Slice<TransactionEntity> transactions, int size,
+                                                       Function<TransactionEntity, WalletTransactionResponseDTO> toDTO) {
+        return new TransactionSliceResponseDTO(transactions.getContent().stream().map(toDTO).toList(), size,
+                transactions.hasNext(), nextCursor(transactions));
+    }
+
+    // The cursor follows the last row read, shown or not
+    private static String nextCursor(Slice<TransactionEntity> transactions) {
+        List<TransactionEntity> content = transactions.getContent();
+        return transactions.hasNext() ? TransactionCursor.after(content.get(content.size() - 1)).encode() : null;
+    }
 
 }
@@ -2,108 +2,213 @@ package org.walletservice.wallet_service.service.wallet;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.support.TransactionSynchronization;
-import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.walletservice.wallet_service.entity.money.Money;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventType;
 import org.walletservice.wallet_service.entity.wallet.WalletEntity;
 import org.walletservice.wallet_service.exception.WalletFrozenException;
+import org.walletservice.wallet_service.exception.WalletNotFoundException;
+import org.walletservice.wallet_service.repository.wallet.DebitResult;
 import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.freeze.FreezeScheduler;
+import org.walletservice.wallet_service.service.limit.LimitWindow;
+import org.walletservice.wallet_service.service.limit.SpendingLimitEngine;
+import org.walletservice.wallet_service.service.outbox.OutboxService;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.function.Function;
 
 /**
- * Service to validate wallet state, balance, daily limits, and handle freezing/unfreezing logic.
+ * Service to validate wallet state, balance and spending limits, and freeze wallets that reach their daily limit.
+ * Spending limits are per wallet tier and tracked by {@link SpendingLimitEngine}.
  */
 @Service
 public class WalletValidationService {
 
     private static final Logger log = LoggerFactory.getLogger(WalletValidationService.class);
 
-    private static final double DAILY_LIMIT = 50000.0; // Daily transaction limit
-    private static final long FREEZE_DURATION_MINUTES = 2; // Freeze duration after wallet reaches limit
-
     private final WalletRepository walletRepository;
-    private final WalletFreezeService walletFreezeService;
+    private final WalletStripingService walletStripingService;
+    private final SpendingLimitEngine spendingLimits;
+    private final FreezeScheduler freezeScheduler;
+    private final OutboxService outboxService;
 
     public WalletValidationService(WalletRepository walletRepository,
-                                   WalletFreezeService walletFreezeService) {
+                                   WalletStripingService walletStripingService,
+                                   SpendingLimitEngine spendingLimits,
+                                   FreezeScheduler freezeScheduler,
+                                   OutboxService outboxService) {
         this.walletRepository = walletRepository;
-        this.walletFreezeService = walletFreezeService;
+        this.walletStripingService = walletStripingService;
+        this.spendingLimits = spendingLimits;
+        this.freezeScheduler = freezeScheduler;
+        this.outboxService = outboxService;
     }
 
     /**
-     * Validates the wallet state (frozen or active) and automatically unfreezes
-     * it if the freeze duration has elapsed.
+     * Rejects a frozen wallet. Only the flag is read: expired freezes are lifted by the
+     * {@link FreezeScheduler}, so this also holds for a wallet row the caller has locked.
      */
     public void validateWalletState(WalletEntity wallet) {
-        // Reset daily spent if it's a new day
-        wallet.resetDailyIfNewDay();
-
-        if (Boolean.TRUE.equals(wallet.getFrozen()) && wallet.getFrozenAt() != null) {
-            long elapsed = Duration.between(wallet.getFrozenAt(), LocalDateTime.now()).toMinutes();
-            if (elapsed >= FREEZE_DURATION_MINUTES) {
-                walletFreezeService.unfreezeWallet(wallet);
-                log.info("🧊 Wallet {} automatically unfrozen after {} minutes", wallet.getId(), FREEZE_DURATION_MINUTES);
+        if (Boolean.TRUE.equals(wallet.getFrozen())) {
+            long secondsLeft = freezeScheduler.secondsLeft(wallet);
+            log.warn("🚫 Wallet {} is currently frozen. {} seconds remaining", wallet.getId(), secondsLeft);
+            throw new WalletFrozenException(
+                    "Wallet is frozen. Try again in " + secondsLeft + " seconds.",
+                    secondsLeft
+            );
+        }
+    }
+
+    /**
+     * Applies a debit to a wallet row the caller holds a write lock on: checks balance and
+     * spending limits, updates the balance, and freezes the wallet in place when the daily limit
+     * is reached. Nothing is written; the caller saves the wallet once.
+     *
+     * @param amount amount in paise
+     */
+    public void applyDebit(WalletEntity wallet, long amount) {
+        validateBalance(wallet, amount);
+
+        SpendingLimitEngine.Reservation reservation = spendingLimits.reserve(wallet, amount);
+        try {
+            if (wallet.isStriped()) {
+                walletStripingService.debit(wallet, amount);
             } else {
-                long secondsLeft = FREEZE_DURATION_MINUTES * 60 -
-                        Duration.between(wallet.getFrozenAt(), LocalDateTime.now()).toSeconds();
-                log.warn("🚫 Wallet {} is currently frozen. {} seconds remaining", wallet.getId(), secondsLeft);
-                throw new WalletFrozenException(
-                        "Wallet is frozen. Try again in " + secondsLeft + " seconds.",
-                        secondsLeft
-                );
+                wallet.setBalanceMinor(wallet.getBalanceMinor() - amount);
             }
+        } catch (RuntimeException ex) {
+            spendingLimits.release(reservation);
+            throw ex;
+        }
+        spendingLimits.releaseOnRollback(reservation);
+
+        if (reservation.dailyLimitReached()) {
+            wallet.setFrozen(true);
+            wallet.setFrozenAt(LocalDateTime.now());
+            freezeScheduler.schedule(wallet.getId(), wallet.getFrozenAt());
+            outboxService.recordStatus(wallet.getId(), OutboxEventType.FROZEN);
+            log.warn("🚨 Wallet {} frozen after reaching daily limit", wallet.getId());
         }
     }
 
     /**
-     * Validates that the wallet has sufficient balance for a debit transaction.
+     * Validates that the wallet has sufficient available balance, i.e. balance not reserved by
+     * holds, for a debit transaction. Striped wallets are checked when their slots are debited.
+     *
+     * @param amount amount in paise
      */
-    public void validateBalance(WalletEntity wallet, double amount) {
-        if (wallet.getBalance() < amount) {
-            log.warn("❌ Wallet {} insufficient balance: required {}, available {}", wallet.getId(), amount, wallet.getBalance());
+    public void validateBalance(WalletEntity wallet, long amount) {
+        if (!wallet.isStriped() && wallet.getAvailableMinor() < amount) {
+            log.warn("❌ Wallet {} insufficient balance: required {}, available {}",
+                    wallet.getId(), Money.toMajor(amount), Money.toMajor(wallet.getAvailableMinor()));
             throw new IllegalArgumentException("Insufficient balance.");
         }
     }
 
     /**
-     * Updates the daily spent amount and freezes the wallet if daily limit is reached.
+     * Debits the wallet with a single conditional UPDATE, once the amount fits the wallet's
+     * spending limits. Balance, frozen and active rules are enforced by the statement itself;
+     * the wallet is frozen in the same statement when the debit reaches the daily limit. For a
+     * striped wallet the statement only checks the wallet and the amount is then taken from its
+     * balance slots. The amount stops counting towards the limits if the debit is rejected or
+     * its transaction rolls back.
+     *
+     * @param amount amount in paise
+     * @throws IllegalArgumentException if the balance is insufficient
+     * @throws IllegalStateException    if a spending limit would be exceeded or the wallet is inactive
+     * @throws WalletFrozenException    if the wallet is frozen
+     * @throws WalletNotFoundException  if the wallet does not exist
      */
-    public void updateDailySpentAndFreeze(WalletEntity wallet, double amount) {
-        wallet.resetDailyIfNewDay();
-        double newTotal = wallet.getDailySpent() + amount;
-
-        if (newTotal > DAILY_LIMIT) {
-            double available = DAILY_LIMIT - wallet.getDailySpent();
-            log.warn("🚫 Wallet {} daily limit exceeded. Available amount ₹{}", wallet.getId(), available);
-            throw new IllegalStateException("Daily limit exceeded. Available ₹" + available);
+    public void debit(WalletEntity wallet, long amount) {
+        SpendingLimitEngine.Reservation reservation = spendingLimits.reserve(wallet, amount);
+        DebitResult result;
+        try {
+            result = walletRepository.debit(wallet.getId(), amount, wallet.isStriped(), reservation.dailyLimitReached());
+        } catch (RuntimeException ex) {
+            spendingLimits.release(reservation);
+            throw ex;
+        }
+        if (result != DebitResult.APPLIED) {
+            spendingLimits.release(reservation);
+            throw rejection(wallet, amount, result);
         }
+        spendingLimits.releaseOnRollback(reservation);
 
-        wallet.setDailySpent(newTotal);
-        walletRepository.saveAndFlush(wallet); // persist daily spent immediately
-        log.info("💵 Wallet {} daily spent updated: ₹{} / ₹{}", wallet.getId(), newTotal, DAILY_LIMIT);
-
-        // Freeze wallet if daily limit is reached
-        if (wallet.getDailySpent() >= DAILY_LIMIT) {
-            if (TransactionSynchronizationManager.isSynchronizationActive()) {
-                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-                    @Override
-                    public void afterCommit() {
-                        walletFreezeService.freezeWallet(wallet);
-                        log.info("🧊 Wallet {} frozen after reaching daily limit", wallet.getId());
-                    }
-                });
-            } else {
-                log.warn("Transaction synchronization not active. Freezing wallet {} immediately.", wallet.getId());
-                walletFreezeService.freezeWallet(wallet);
-            }
+        if (reservation.dailyLimitReached()) {
+            freezeOnDailyLimit(wallet);
         }
+        if (wallet.isStriped()) {
+            walletStripingService.debit(wallet, amount);
+        }
+        log.info("💵 Wallet {} debited ₹{}", wallet.getId(), Money.toMajor(amount));
+    }
+
+    /**
+     * Reserves part of the wallet's available balance for a hold, with a single conditional
+     * UPDATE under the rules of {@link #debit}. The amount counts towards the spending limits
+     * from now on, and the wallet is frozen by the same statement if that reaches its daily
+     * limit. Striped wallets cannot hold funds.
+     *
+     * @param amount     amount in paise
+     * @param beforeHold runs once the amount fits the spending limits and before the wallet row is
+     *                   locked, e.g. to insert the hold; its writes are undone if the hold is rejected
+     * @return what {@code beforeHold} returned
+     */
+    public <T> T hold(WalletEntity wallet, long amount, Function<SpendingLimitEngine.Reservation, T> beforeHold) {
+        if (wallet.isStriped()) {
+            throw new IllegalStateException("Holds are not supported for striped wallets.");
+        }
+        SpendingLimitEngine.Reservation reservation = spendingLimits.reserve(wallet, amount);
+        T held;
+        DebitResult result;
+        try {
+            held = beforeHold.apply(reservation);
+            result = walletRepository.hold(wallet.getId(), amount, reservation.dailyLimitReached());
+        } catch (RuntimeException ex) {
+            spendingLimits.release(reservation);
+            throw ex;
+        }
+        if (result != DebitResult.APPLIED) {
+            spendingLimits.release(reservation);
+            throw rejection(wallet, amount, result);
+        }
+        spendingLimits.releaseOnRollback(reservation);
+
+        if (reservation.dailyLimitReached()) {
+            freezeOnDailyLimit(wallet);
+        }
+        log.info("🔒 Wallet {} holding ₹{}", wallet.getId(), Money.toMajor(amount));
+        return held;
+    }
+
+    private void freezeOnDailyLimit(WalletEntity wallet) {
+        freezeScheduler.schedule(wallet.getId(), LocalDateTime.now());
+        outboxService.recordStatus(wallet.getId(), OutboxEventType.FROZEN);
+        log.warn("🚨 Wallet {} frozen after reaching daily limit", wallet.getId());
+    }
+
+    private RuntimeException rejection(WalletEntity wallet, long amount, DebitResult result) {
+        return switch (result) {
+            case INSUFFICIENT_BALANCE -> {
+                log.warn("❌ Wallet {} insufficient balance for debit of {}", wallet.getId(), Money.toMajor(amount));
+                yield new IllegalArgumentException("Insufficient balance.");
+            }
+            case WALLET_FROZEN -> {
+                log.warn("🚫 Wallet {} is frozen, debit rejected", wallet.getId());
+                yield new WalletFrozenException("Wallet is frozen.", freezeScheduler.freezeDuration().toSeconds());
+            }
+            case WALLET_INACTIVE -> new IllegalStateException("Wallet inactive");
+            case WALLET_NOT_FOUND -> new WalletNotFoundException("Wallet not found with id: " + wallet.getId());
+            case CONCURRENT_UPDATE, APPLIED -> new OptimisticLockingFailureException(
+                    "Wallet " + wallet.getId() + " changed during debit");
+        };
     }
 
+    /** Remaining daily limit of the wallet's tier, in rupees. */
     public double getRemainingDailyLimit(WalletEntity wallet) {
-        wallet.resetDailyIfNewDay(); // ensure dailySpent is up-to-date
-        return DAILY_LIMIT - wallet.getDailySpent();
+        return Money.toMajor(spendingLimits.remaining(wallet, LimitWindow.DAILY));
     }
 
 }
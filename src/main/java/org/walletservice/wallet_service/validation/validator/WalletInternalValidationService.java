@@ -1,29 +1,94 @@
 package org.walletservice.wallet_service.validation.validator;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.walletservice.wallet_service.service.wallet.InternalWalletService;
+import org.walletservice.wallet_service.service.wallet.WalletStatusCache;
 
+import java.time.Duration;
+
+/**
+ * Validates the receiving wallet of a transfer.
+ *
+ * In {@code local} mode (default) the wallet is checked in-process through
+ * {@link InternalWalletService}, backed by {@link WalletStatusCache}. The {@code remote}
+ * mode calls {@code /internal/wallet/{id}/validate} over HTTP and is only meant for
+ * deployments where receiver wallets are owned by another instance: a loopback call
+ * holds the caller's thread and DB connection while it waits for a second request.
+ */
 @Service
 public class WalletInternalValidationService {
 
+    private static final Logger log = LoggerFactory.getLogger(WalletInternalValidationService.class);
+
+    public static final String MODE_REMOTE = "remote";
+
+    private final InternalWalletService internalWalletService;
+    private final WalletStatusCache walletStatusCache;
     private final WebClient webClient;
     private final String internalAuthToken;
+    private final boolean remote;
+    private final Duration timeout;
 
     public WalletInternalValidationService(
+            InternalWalletService internalWalletService,
+            WalletStatusCache walletStatusCache,
             WebClient.Builder webClientBuilder,
             @Value("${wallet-service.base-url}") String walletServiceBaseUrl,
-            @Value("${internal.auth.token}") String internalAuthToken) {
+            @Value("${internal.auth.token}") String internalAuthToken,
+            @Value("${wallet-service.receiver-validation.mode:local}") String mode,
+            @Value("${wallet-service.receiver-validation.timeout-ms:2000}") long timeoutMs) {
+        this.internalWalletService = internalWalletService;
+        this.walletStatusCache = walletStatusCache;
         this.webClient = webClientBuilder.baseUrl(walletServiceBaseUrl).build();
         this.internalAuthToken = internalAuthToken;
+        this.remote = MODE_REMOTE.equalsIgnoreCase(mode);
+        this.timeout = Duration.ofMillis(timeoutMs);
     }
 
+    /**
+     * @throws IllegalArgumentException if the wallet does not exist
+     * @throws IllegalStateException    if the wallet is inactive or the remote check fails
+     */
     public void validateReceiverWallet(Long toWalletId) {
-        webClient.get()
-                .uri("/internal/wallet/{walletId}/validate", toWalletId)
-                .header("Internal-Token", internalAuthToken)
-                .retrieve()
-                .bodyToMono(String.class)
-                .block(); // consider using timeout or exception handling here
+        if (remote) {
+            validateRemotely(toWalletId);
+        } else {
+            validateLocally(toWalletId);
+        }
+    }
+
+    private void validateLocally(Long toWalletId) {
+        WalletStatusCache.WalletStatus status =
+                walletStatusCache.get(toWalletId, internalWalletService::getWalletStatus);
+        if (!status.active()) {
+            throw new IllegalStateException("Wallet inactive");
+        }
+    }
+
+    private void validateRemotely(Long toWalletId) {
+        try {
+            webClient.get()
+                    .uri("/internal/wallet/{walletId}/validate", toWalletId)
+                    .header("Internal-Token", internalAuthToken)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .block(timeout);
+        } catch (WebClientResponseException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                throw new IllegalArgumentException("Wallet not found");
+            }
+            throw new IllegalStateException(e.getResponseBodyAsString().isBlank()
+                    ? "Receiver wallet validation failed" : e.getResponseBodyAsString());
+        } catch (IllegalStateException e) {
+            // block(timeout) signals a timeout with IllegalStateException
+            log.warn("⏱️ Receiver validation for wallet {} did not complete: {}", toWalletId, e.getMessage());
+            throw new IllegalStateException("Receiver wallet validation timed out");
+        }
     }
 }
@@ -0,0 +1,87 @@
+package org.walletservice.wallet_service.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+import org.walletservice.wallet_service.repository.transaction.TransactionRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ledger insert throughput with one INSERT round trip per row (JDBC batch size 1, what
+ * IDENTITY ids forced) versus the configured batch size, which pooled-lo ids allow.
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@ActiveProfiles("h2")
+@SpringBootTest
+class InsertBatchingBenchmark {
+
+    private static final int ROWS = 20_000;
+    private static final int ROWS_PER_TRANSACTION = 200;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int configuredBatchSize;
+
+    @Test
+    void compareRowByRowAndBatchedInserts() {
+        run("warm-up", configuredBatchSize);
+
+        Result rowByRow = run("batch=1", 1);
+        Result batched = run("batch=" + configuredBatchSize, configuredBatchSize);
+
+        System.out.printf("%n%-10s %14s%n", "mode", "inserts/sec");
+        for (Result r : List.of(rowByRow, batched)) {
+            System.out.printf("%-10s %14.0f%n", r.mode, r.insertsPerSecond());
+        }
+    }
+
+    private Result run(String mode, int batchSize) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long before = transactionRepository.count();
+
+        long began = System.nanoTime();
+        for (int written = 0; written < ROWS; written += ROWS_PER_TRANSACTION) {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                for (int i = 0; i < ROWS_PER_TRANSACTION; i++) {
+                    TransactionEntity txn = new TransactionEntity(1L, TransactionType.CREDIT, 1.0, "benchmark");
+                    txn.setTransactionId(UUID.randomUUID().toString());
+                    entityManager.persist(txn);
+                }
+            });
+        }
+        long elapsed = System.nanoTime() - began;
+
+        assertEquals(before + ROWS, transactionRepository.count(), mode + ": every row must be inserted");
+        return new Result(mode, elapsed);
+    }
+
+    private record Result(String mode, long elapsedNanos) {
+        double insertsPerSecond() {
+            return ROWS / (elapsedNanos / 1_000_000_000.0);
+        }
+    }
+}
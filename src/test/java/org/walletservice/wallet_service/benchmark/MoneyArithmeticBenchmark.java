@@ -0,0 +1,145 @@
+package org.walletservice.wallet_service.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.walletservice.wallet_service.entity.money.Money;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The in-memory part of the debit and transfer path — balance check, daily limit check, debit
+ * and credit — on boxed {@code Double} rupees, as the entities held them before, versus primitive
+ * {@code long} paise. Prints nanoseconds and bytes allocated per transfer (median of the measured
+ * rounds, after warm-up) and whether the money was conserved exactly.
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class MoneyArithmeticBenchmark {
+
+    private static final int WALLETS = 1024;
+    private static final int TRANSFERS = 2_000_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    private static final Double BOXED_LIMIT = 50_000.0;
+    private static final long LIMIT = Money.ofMajor(50_000.0);
+
+    // The request amounts, already parsed: 0.01 to 10.00 rupees
+    private static final double[] AMOUNTS = new double[TRANSFERS];
+
+    static {
+        for (int i = 0; i < TRANSFERS; i++) {
+            AMOUNTS[i] = (i % 1000 + 1) / 100.0;
+        }
+    }
+
+    @Test
+    void compareBoxedDoubleAndLongPaise() {
+        Result boxed = measure("Double (before)", this::boxedRound);
+        Result primitive = measure("long paise (after)", this::primitiveRound);
+
+        System.out.printf("%n%-20s %12s %14s %10s%n", "representation", "ns/transfer", "bytes/transfer", "exact");
+        for (Result r : List.of(boxed, primitive)) {
+            System.out.printf("%-20s %12.2f %14.2f %10s%n", r.name, r.nanosPerTransfer, r.bytesPerTransfer, r.exact);
+        }
+
+        assertTrue(primitive.exact, "long paise must conserve money exactly");
+    }
+
+    private Result measure(String name, Round round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.run();
+        }
+        double[] nanos = new double[ROUNDS];
+        double[] bytes = new double[ROUNDS];
+        boolean exact = true;
+        for (int i = 0; i < ROUNDS; i++) {
+            long allocatedBefore = allocatedBytes();
+            long began = System.nanoTime();
+            exact &= round.run();
+            nanos[i] = (double) (System.nanoTime() - began) / TRANSFERS;
+            bytes[i] = (double) (allocatedBytes() - allocatedBefore) / TRANSFERS;
+        }
+        return new Result(name, median(nanos), median(bytes), exact);
+    }
+
+    /** @return true if the wallets still hold exactly what they started with */
+    private boolean boxedRound() {
+        Double[] balances = new Double[WALLETS];
+        Double[] dailySpent = new Double[WALLETS];
+        Arrays.fill(balances, 1_000_000.0);
+        Arrays.fill(dailySpent, 0.0);
+
+        for (int i = 0; i < TRANSFERS; i++) {
+            int from = i & (WALLETS - 1);
+            int to = (from + 1) & (WALLETS - 1);
+            Double amount = AMOUNTS[i];
+
+            if (balances[from] < amount) continue;
+            Double newTotal = dailySpent[from] + amount;
+            if (newTotal > BOXED_LIMIT) {
+                dailySpent[from] = 0.0;
+                continue;
+            }
+            balances[from] = balances[from] - amount;
+            dailySpent[from] = newTotal;
+            balances[to] = balances[to] + amount;
+        }
+
+        Double total = 0.0;
+        for (Double balance : balances) {
+            total += balance;
+        }
+        return total.equals(WALLETS * 1_000_000.0);
+    }
+
+    private boolean primitiveRound() {
+        long[] balances = new long[WALLETS];
+        long[] dailySpent = new long[WALLETS];
+        Arrays.fill(balances, Money.ofMajor(1_000_000.0));
+
+        for (int i = 0; i < TRANSFERS; i++) {
+            int from = i & (WALLETS - 1);
+            int to = (from + 1) & (WALLETS - 1);
+            long amount = Money.ofMajor(AMOUNTS[i]);
+
+            if (balances[from] < amount) continue;
+            long newTotal = Money.add(dailySpent[from], amount);
+            if (newTotal > LIMIT) {
+                dailySpent[from] = 0;
+                continue;
+            }
+            balances[from] -= amount;
+            dailySpent[from] = newTotal;
+            balances[to] = Money.add(balances[to], amount);
+        }
+
+        long total = 0;
+        for (long balance : balances) {
+            total = Money.add(total, balance);
+        }
+        return total == WALLETS * Money.ofMajor(1_000_000.0);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    @FunctionalInterface
+    private interface Round {
+        boolean run();
+    }
+
+    private record Result(String name, double nanosPerTransfer, double bytesPerTransfer, boolean exact) {}
+}
@@ -0,0 +1,118 @@
+package org.walletservice.wallet_service.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.walletservice.wallet_service.dto.request.WalletTransactionRequestDTO;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.engine.ShardedTransactionEngine;
+import org.walletservice.wallet_service.service.wallet.WalletTransactionService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Throughput of the optimistic retry path versus the sharded single-writer engine
+ * when many clients credit a handful of hot wallets. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@ActiveProfiles("h2")
+@SpringBootTest(properties = "wallet-service.engine.mode=sharded")
+class TransactionEngineBenchmark {
+
+    private static final int CLIENTS = 32;
+    private static final int OPS_PER_CLIENT = 200;
+    private static final int HOT_WALLETS = 4;
+
+    @Autowired
+    private WalletTransactionService walletTransactionService;
+
+    @Autowired
+    private ShardedTransactionEngine transactionEngine;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Test
+    void compareRetryAndShardedEngine() throws Exception {
+        run("warm-up", true);
+
+        Result retry = run("retry", false);
+        Result sharded = run("sharded", true);
+
+        System.out.printf("%n%-10s %12s %10s %10s%n", "mode", "ops/sec", "ok", "failed");
+        for (Result r : List.of(retry, sharded)) {
+            System.out.printf("%-10s %12.0f %10d %10d%n", r.mode, r.opsPerSecond(), r.succeeded, r.failed);
+        }
+
+        assertEquals(0, sharded.failed, "single-writer engine should not lose updates to version conflicts");
+    }
+
+    private Result run(String mode, boolean sharded) throws Exception {
+        ReflectionTestUtils.setField(transactionEngine, "enabled", sharded);
+
+        List<Long> walletIds = new ArrayList<>();
+        for (int i = 0; i < HOT_WALLETS; i++) {
+            walletIds.add(walletRepository.save(new WalletEntity(1L, 0.0)).getId());
+        }
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+
+        for (int c = 0; c < CLIENTS; c++) {
+            clients.submit(() -> {
+                SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                        1L, null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+                start.await();
+                for (int i = 0; i < OPS_PER_CLIENT; i++) {
+                    Long walletId = walletIds.get(ThreadLocalRandom.current().nextInt(HOT_WALLETS));
+                    try {
+                        walletTransactionService.processTransaction(walletId, new WalletTransactionRequestDTO(
+                                UUID.randomUUID().toString(), 1.0, "CREDIT", "benchmark"));
+                        succeeded.incrementAndGet();
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        clients.shutdown();
+        assertTrue(clients.awaitTermination(5, TimeUnit.MINUTES));
+        long elapsed = System.nanoTime() - began;
+
+        double credited = walletRepository.findAllById(walletIds).stream()
+                .mapToDouble(WalletEntity::getBalance)
+                .sum();
+        assertEquals(succeeded.get(), credited, 0.001, mode + ": every acknowledged credit must be persisted");
+
+        return new Result(mode, succeeded.get(), failed.get(), elapsed);
+    }
+
+    private record Result(String mode, int succeeded, int failed, long elapsedNanos) {
+        double opsPerSecond() {
+            return succeeded / (elapsedNanos / 1_000_000_000.0);
+        }
+    }
+}
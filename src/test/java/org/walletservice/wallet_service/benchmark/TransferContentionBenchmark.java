@@ -0,0 +1,129 @@
+package org.walletservice.wallet_service.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.wallet.TransferConcurrencyPolicy;
+import org.walletservice.wallet_service.service.wallet.TransferConcurrencyPolicy.Mode;
+import org.walletservice.wallet_service.service.wallet.WalletTransactionService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Transfer throughput of the optimistic, pessimistic and adaptive locking strategies when clients
+ * move money back and forth between a handful of hot wallets, at increasing client counts.
+ * Prints which strategy wins at each level. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@ActiveProfiles("h2")
+@SpringBootTest
+class TransferContentionBenchmark {
+
+    private static final int[] CLIENT_COUNTS = {1, 4, 16, 32};
+    private static final int TRANSFERS_PER_CLIENT = 100;
+    private static final int HOT_WALLETS = 4;
+    private static final double OPENING_BALANCE = 1_000_000.0;
+
+    @Autowired
+    private WalletTransactionService walletTransactionService;
+
+    @Autowired
+    private TransferConcurrencyPolicy transferConcurrencyPolicy;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Test
+    void compareTransferLockingStrategies() throws Exception {
+        run(Mode.OPTIMISTIC, 4);
+
+        List<Result> results = new ArrayList<>();
+        for (int clients : CLIENT_COUNTS) {
+            for (Mode mode : Mode.values()) {
+                results.add(run(mode, clients));
+            }
+        }
+
+        System.out.printf("%n%-8s %-12s %12s %8s %8s%n", "clients", "strategy", "ops/sec", "ok", "failed");
+        for (int clients : CLIENT_COUNTS) {
+            Result best = null;
+            for (Result r : results) {
+                if (r.clients != clients) continue;
+                System.out.printf("%-8d %-12s %12.0f %8d %8d%n",
+                        r.clients, r.mode, r.opsPerSecond(), r.succeeded, r.failed);
+                if (best == null || r.opsPerSecond() > best.opsPerSecond()) best = r;
+            }
+            System.out.printf("%-8d winner: %s%n", clients, best.mode);
+        }
+    }
+
+    private Result run(Mode mode, int clientCount) throws Exception {
+        ReflectionTestUtils.setField(transferConcurrencyPolicy, "mode", mode);
+
+        List<Long> walletIds = new ArrayList<>();
+        for (int i = 0; i < HOT_WALLETS; i++) {
+            walletIds.add(walletRepository.save(new WalletEntity(1L, OPENING_BALANCE)).getId());
+        }
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(clientCount);
+
+        for (int c = 0; c < clientCount; c++) {
+            clients.submit(() -> {
+                SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                        1L, null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_CLIENT; i++) {
+                    int from = random.nextInt(HOT_WALLETS);
+                    int to = (from + 1 + random.nextInt(HOT_WALLETS - 1)) % HOT_WALLETS;
+                    try {
+                        walletTransactionService.transferMoney(walletIds.get(from), walletIds.get(to), 1.0);
+                        succeeded.incrementAndGet();
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        clients.shutdown();
+        assertTrue(clients.awaitTermination(5, TimeUnit.MINUTES));
+        long elapsed = System.nanoTime() - began;
+
+        double total = walletRepository.findAllById(walletIds).stream()
+                .mapToDouble(WalletEntity::getBalance)
+                .sum();
+        assertEquals(HOT_WALLETS * OPENING_BALANCE, total, 0.001, mode + ": transfers must not create or lose money");
+
+        return new Result(mode, clientCount, succeeded.get(), failed.get(), elapsed);
+    }
+
+    private record Result(Mode mode, int clients, int succeeded, int failed, long elapsedNanos) {
+        double opsPerSecond() {
+            return succeeded / (elapsedNanos / 1_000_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package org.walletservice.wallet_service.benchmark;
+
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.wallet.WalletTransactionService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Transfer throughput and latency with requests on a fixed pool of platform threads, sized like
+ * Tomcat's default, against a virtual thread per request, from 1k to 10k concurrent clients.
+ *
+ * Each request first waits on a blocking call outside the database, like a remote receiver
+ * validation, then makes a transfer. The connection pool is kept small so that it, and not the
+ * request threads, is what virtual threads run into. Latency counts the time a request queues for
+ * a thread. Virtual threads that park while pinned to their carrier are recorded with JFR and
+ * printed by frame. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@ActiveProfiles("h2")
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=" + VirtualThreadBenchmark.POOL_SIZE,
+        "spring.datasource.hikari.connection-timeout=120000"
+})
+class VirtualThreadBenchmark {
+
+    static final int POOL_SIZE = 10;
+
+    private static final int[] CLIENT_COUNTS = {1_000, 2_500, 5_000, 10_000};
+    private static final int PLATFORM_THREADS = 200;
+    private static final int REQUESTS_PER_CLIENT = 2;
+    private static final long REMOTE_CALL_MS = 20;
+    private static final int WALLETS = 1_000;
+    private static final double OPENING_BALANCE = 1_000_000.0;
+
+    @Autowired
+    private WalletTransactionService walletTransactionService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        List<Long> walletIds = new ArrayList<>();
+        for (int i = 0; i < WALLETS; i++) {
+            walletIds.add(walletRepository.save(new WalletEntity(1L, OPENING_BALANCE)).getId());
+        }
+        run(false, 200, walletIds);
+
+        Map<String, AtomicInteger> pinnedAt = new ConcurrentHashMap<>();
+        List<Result> results = new ArrayList<>();
+        try (RecordingStream pinning = new RecordingStream()) {
+            pinning.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            pinning.onEvent("jdk.VirtualThreadPinned", event -> pinnedAt
+                    .computeIfAbsent(firstOwnFrame(event.getStackTrace() == null
+                            ? List.of() : event.getStackTrace().getFrames()), frame -> new AtomicInteger())
+                    .incrementAndGet());
+            pinning.startAsync();
+            for (int clients : CLIENT_COUNTS) {
+                results.add(run(false, clients, walletIds));
+                results.add(run(true, clients, walletIds));
+            }
+            pinning.stop();
+        }
+
+        double total = walletRepository.findAllById(walletIds).stream()
+                .mapToDouble(WalletEntity::getBalance)
+                .sum();
+        assertEquals(WALLETS * OPENING_BALANCE, total, 0.001, "transfers must not create or lose money");
+
+        System.out.printf("%n%-8s %-9s %12s %10s %10s %8s%n", "clients", "threads", "ops/sec", "p50 ms", "p99 ms", "failed");
+        for (Result r : results) {
+            System.out.printf("%-8d %-9s %12.0f %10d %10d %8d%n", r.clients, r.virtual ? "virtual" : "platform",
+                    r.opsPerSecond(), r.percentileMs(0.50), r.percentileMs(0.99), r.failed);
+        }
+        System.out.printf("%nPinned virtual threads: %d%n", pinnedAt.values().stream().mapToInt(AtomicInteger::get).sum());
+        pinnedAt.forEach((frame, count) -> System.out.printf("%8d  %s%n", count.get(), frame));
+    }
+
+    private Result run(boolean virtual, int clientCount, List<Long> walletIds) throws Exception {
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long[] latencies = new long[clientCount * REQUESTS_PER_CLIENT];
+        ExecutorService requests = virtual
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+
+        long began = System.nanoTime();
+        for (int c = 0; c < clientCount; c++) {
+            int client = c;
+            long from = walletIds.get(client % WALLETS);
+            long to = walletIds.get((client + 1) % WALLETS);
+            // Requests of a client go one after the other; its next one queues once the previous answered
+            requests.submit(() -> send(requests, client, 0, began, from, to, latencies, succeeded, failed));
+        }
+        while (succeeded.get() + failed.get() < latencies.length) {
+            Thread.sleep(10);
+        }
+        long elapsed = System.nanoTime() - began;
+        requests.shutdown();
+        assertTrue(requests.awaitTermination(1, TimeUnit.MINUTES));
+
+        return new Result(virtual, clientCount, succeeded.get(), failed.get(), elapsed, latencies);
+    }
+
+    private void send(ExecutorService requests, int client, int request, long queuedAt, long from, long to,
+                      long[] latencies, AtomicLong succeeded, AtomicLong failed) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                1L, null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+        boolean ok = false;
+        try {
+            Thread.sleep(REMOTE_CALL_MS);
+            walletTransactionService.transferMoney(from, to, 1.0);
+            ok = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Counted as failed below
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        long answered = System.nanoTime();
+        // Latency first: the counters tell the benchmark thread that it is written
+        latencies[client * REQUESTS_PER_CLIENT + request] = answered - queuedAt;
+        (ok ? succeeded : failed).incrementAndGet();
+        if (request + 1 < REQUESTS_PER_CLIENT) {
+            requests.submit(() -> send(requests, client, request + 1, answered, from, to, latencies, succeeded, failed));
+        }
+    }
+
+    // The frame that explains a pin is the first one in this code base, or the top one otherwise
+    private static String firstOwnFrame(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("org.walletservice.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return frames.isEmpty() ? "<no stack trace>"
+                : frames.get(0).getMethod().getType().getName() + "." + frames.get(0).getMethod().getName();
+    }
+
+    private record Result(boolean virtual, int clients, long succeeded, long failed, long elapsedNanos, long[] latencies) {
+        double opsPerSecond() {
+            return succeeded / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        long percentileMs(double percentile) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            return sorted[(int) Math.min(sorted.length - 1, Math.round(percentile * sorted.length))] / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.walletservice.wallet_service.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(IdSequenceInitializer.class)
+class IdSequenceInitializerTest {
+
+    @Autowired
+    private IdSequenceInitializer initializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Test
+    @DisplayName("Should hand out ids above rows inserted before the sequence existed")
+    void testAlignSequences_SkipsExistingIds() {
+        jdbcTemplate.update("INSERT INTO wallets (id, user_id, balance, version, daily_spent, frozen, active, created_at) " +
+                "VALUES (1000, 10, 0, 0, 0, false, true, CURRENT_TIMESTAMP)");
+
+        initializer.alignSequences();
+
+        WalletEntity wallet = walletRepository.saveAndFlush(new WalletEntity(10L, 50.0));
+        assertTrue(wallet.getId() > 1000, "new id " + wallet.getId() + " must not collide with existing rows");
+    }
+}
@@ -6,12 +6,16 @@ import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.http.ResponseEntity;
 import org.walletservice.wallet_service.dto.request.UserIdRequestDTO;
+import org.walletservice.wallet_service.dto.response.TransactionSliceResponseDTO;
+import org.walletservice.wallet_service.dto.response.WalletLimitsResponseDTO;
 import org.walletservice.wallet_service.dto.response.WalletResponseDTO;
+import org.walletservice.wallet_service.dto.response.WalletStripingResponseDTO;
 import org.walletservice.wallet_service.dto.response.WalletTransactionResponseDTO;
 import org.walletservice.wallet_service.entity.wallet.WalletEntity;
 import org.walletservice.wallet_service.exception.UnauthorizedAccessException;
 import org.walletservice.wallet_service.security.AuthContext;
 import org.walletservice.wallet_service.service.wallet.WalletFreezeService;
+import org.walletservice.wallet_service.service.wallet.WalletStripingService;
 import org.walletservice.wallet_service.service.wallet.WalletTransactionService;
 import org.walletservice.wallet_service.service.wallet.WalletService;
 import org.walletservice.wallet_service.validation.validator.AuthValidator;
@@ -36,6 +40,9 @@ class AdminWalletControllerTest {
     @Mock
     private WalletTransactionService walletTransactionService;
 
+    @Mock
+    private WalletStripingService walletStripingService;
+
     @Mock
     private HttpServletRequest request;
 
@@ -158,6 +165,23 @@ class AdminWalletControllerTest {
                 () -> adminWalletController.getWalletTransactions(walletId, request));
     }
 
+    // ---------------- 9. getAllTransactions ----------------
+    @Test
+    void testGetAllTransactions() {
+        when(authValidator.getAuthContext(request)).thenReturn(new AuthContext("TOKEN", 1L, true));
+        TransactionSliceResponseDTO page = new TransactionSliceResponseDTO(List.of(
+                new WalletTransactionResponseDTO("txn1", 100.0, "CREDIT", null, "desc", 1000.0, 5000.0)), 50, false, null);
+        when(walletTransactionService.getAllTransactions("abc", 50)).thenReturn(page);
+
+        ResponseEntity<TransactionSliceResponseDTO> response = adminWalletController.getAllTransactions("abc", 50, request);
+        assertEquals(200, response.getStatusCodeValue());
+        assertSame(page, response.getBody());
+
+        when(authValidator.getAuthContext(request)).thenReturn(new AuthContext("TOKEN", 1L, false));
+        assertThrows(UnauthorizedAccessException.class,
+                () -> adminWalletController.getAllTransactions(null, 50, request));
+    }
+
     // ---------------- 10. freezeWallet - verify logging call ----------------
     @Test
     void testFreezeWalletLogging() {
@@ -173,4 +197,54 @@ class AdminWalletControllerTest {
         assertEquals("Wallet 10 frozen successfully", response.getBody());
         verify(walletFreezeService).freezeWallet(wallet);
     }
+
+    // ---------------- 11. enableStriping - success ----------------
+    @Test
+    void testEnableStripingSuccess() {
+        AuthContext auth = new AuthContext("TOKEN", 1L, true);
+        WalletStripingResponseDTO striped = new WalletStripingResponseDTO(10L, 2, 100.0, List.of(50.0, 50.0));
+        when(authValidator.getAuthContext(request)).thenReturn(auth);
+        when(walletStripingService.enable(10L, 2)).thenReturn(striped);
+
+        ResponseEntity<WalletStripingResponseDTO> response = adminWalletController.enableStriping(10L, 2, request);
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(striped, response.getBody());
+    }
+
+    // ---------------- 12. striping endpoints - unauthorized ----------------
+    @Test
+    void testStripingUnauthorized() {
+        AuthContext auth = new AuthContext("TOKEN", 1L, false);
+        when(authValidator.getAuthContext(request)).thenReturn(auth);
+
+        assertThrows(UnauthorizedAccessException.class, () -> adminWalletController.enableStriping(10L, 4, request));
+        assertThrows(UnauthorizedAccessException.class, () -> adminWalletController.disableStriping(10L, request));
+        assertThrows(UnauthorizedAccessException.class, () -> adminWalletController.rebalanceStriping(10L, request));
+        verifyNoInteractions(walletStripingService);
+    }
+
+    // ---------------- 13. limit endpoints - success ----------------
+    @Test
+    void testLimitEndpointsSuccess() {
+        AuthContext auth = new AuthContext("TOKEN", 1L, true);
+        WalletLimitsResponseDTO limits = new WalletLimitsResponseDTO(10L, "premium",
+                List.of(new WalletLimitsResponseDTO.Window("DAILY", 200000.0, 0.0, 200000.0)));
+        when(authValidator.getAuthContext(request)).thenReturn(auth);
+        when(walletService.getLimits(10L)).thenReturn(limits);
+        when(walletService.updateTier(10L, "premium")).thenReturn(limits);
+
+        assertEquals(limits, adminWalletController.getLimits(10L, request).getBody());
+        assertEquals(limits, adminWalletController.updateTier(10L, "premium", request).getBody());
+    }
+
+    // ---------------- 14. limit endpoints - unauthorized ----------------
+    @Test
+    void testLimitEndpointsUnauthorized() {
+        AuthContext auth = new AuthContext("TOKEN", 1L, false);
+        when(authValidator.getAuthContext(request)).thenReturn(auth);
+
+        assertThrows(UnauthorizedAccessException.class, () -> adminWalletController.getLimits(10L, request));
+        assertThrows(UnauthorizedAccessException.class, () -> adminWalletController.updateTier(10L, "premium", request));
+        verifyNoInteractions(walletService);
+    }
 }
@@ -5,16 +5,39 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.data.domain.*;
+import org.springframework.http.HttpHeaders;
+import org.walletservice.wallet_service.dto.request.BatchTransactionItemDTO;
+import org.walletservice.wallet_service.dto.request.HoldCaptureRequestDTO;
+import org.walletservice.wallet_service.dto.request.HoldRequestDTO;
+import org.walletservice.wallet_service.dto.request.ScheduledTransferRequestDTO;
+import org.walletservice.wallet_service.dto.request.WalletBatchTransactionRequestDTO;
 import org.walletservice.wallet_service.dto.request.WalletTransactionRequestDTO;
 import org.walletservice.wallet_service.dto.request.WalletTransferRequestDTO;
+import org.walletservice.wallet_service.dto.response.BatchTransactionResultDTO;
+import org.walletservice.wallet_service.dto.response.HoldResponseDTO;
+import org.walletservice.wallet_service.dto.response.ScheduledTransferResponseDTO;
+import org.walletservice.wallet_service.dto.response.TransactionSliceResponseDTO;
+import org.walletservice.wallet_service.dto.response.TransferStatusResponseDTO;
 import org.walletservice.wallet_service.dto.response.WalletTransactionResponseDTO;
+import org.walletservice.wallet_service.entity.transfer.TransferRecurrence;
+import org.walletservice.wallet_service.exception.UnauthorizedAccessException;
 import org.walletservice.wallet_service.security.AuthContext;
+import org.walletservice.wallet_service.service.export.ExportFormat;
+import org.walletservice.wallet_service.service.export.TransactionExportService;
+import org.walletservice.wallet_service.service.hold.HoldService;
+import org.walletservice.wallet_service.service.idempotency.IdempotencyService;
+import org.walletservice.wallet_service.service.transfer.AsyncTransferService;
+import org.walletservice.wallet_service.service.transfer.ScheduledTransferService;
 import org.walletservice.wallet_service.service.wallet.WalletTransactionService;
 import org.walletservice.wallet_service.validation.validator.AuthValidator;
 
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class TransactionControllerTest {
@@ -22,6 +45,21 @@ class TransactionControllerTest {
     @Mock
     private WalletTransactionService walletTransactionService;
 
+    @Mock
+    private AsyncTransferService asyncTransferService;
+
+    @Mock
+    private ScheduledTransferService scheduledTransferService;
+
+    @Mock
+    private HoldService holdService;
+
+    @Mock
+    private TransactionExportService transactionExportService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
     @Mock
     private AuthValidator authValidator;
 
@@ -34,6 +72,9 @@ class TransactionControllerTest {
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        // Run the wrapped request as the service does for a first-time key
+        when(idempotencyService.execute(any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(5)).get());
     }
 
     @Test
@@ -50,7 +91,7 @@ class TransactionControllerTest {
         );
         when(walletTransactionService.processTransaction(walletId, dto)).thenReturn(response);
 
-        var result = transactionController.processTransaction(walletId, dto, request);
+        var result = transactionController.processTransaction(walletId, dto, null, request);
 
         assertEquals(201, result.getStatusCodeValue());
         assertEquals("txn1", result.getBody().transactionId());
@@ -69,12 +110,131 @@ class TransactionControllerTest {
         );
         when(walletTransactionService.transferMoney(1L, 2L, 200.0)).thenReturn(response);
 
-        var result = transactionController.transferMoney(dto, request);
+        var result = transactionController.transferMoney(dto, null, request);
 
         assertEquals(201, result.getStatusCodeValue());
         assertEquals("txn2", result.getBody().transactionId());
     }
 
+    @Test
+    void testSubmitTransfer() {
+        WalletTransferRequestDTO dto = new WalletTransferRequestDTO(1L, 2L, 200.0);
+
+        AuthContext auth = new AuthContext("TOKEN", 1L, false);
+        when(authValidator.getAuthContext(request)).thenReturn(auth);
+        when(authValidator.isAuthorizedForWallet(auth, 1L)).thenReturn(true);
+
+        TransferStatusResponseDTO accepted = new TransferStatusResponseDTO(
+                "t-1", 1L, 2L, 200.0, "PENDING", null, null, null, null);
+        when(asyncTransferService.submit(1L, 2L, 200.0)).thenReturn(accepted);
+
+        var result = transactionController.submitTransfer(dto, null, request);
+
+        assertEquals(202, result.getStatusCodeValue());
+        assertEquals("/transactions/transfer/t-1", result.getHeaders().getLocation().toString());
+        verify(walletTransactionService, never()).transferMoney(any(), any(), any());
+    }
+
+    @Test
+    void testGetTransferStatus() {
+        AuthContext auth = new AuthContext("TOKEN", 1L, false);
+        when(authValidator.getAuthContext(request)).thenReturn(auth);
+
+        TransferStatusResponseDTO status = new TransferStatusResponseDTO(
+                "t-1", 1L, 2L, 200.0, "COMPLETED", "txn-D", null, null, null);
+        when(asyncTransferService.getStatus("t-1", 1L, false)).thenReturn(status);
+
+        var result = transactionController.getTransferStatus("t-1", request);
+
+        assertEquals(200, result.getStatusCodeValue());
+        assertEquals("COMPLETED", result.getBody().status());
+    }
+
+    @Test
+    void testScheduleTransfer() {
+        ScheduledTransferRequestDTO dto = new ScheduledTransferRequestDTO(
+                1L, 2L, 200.0, TransferRecurrence.WEEKLY, LocalDateTime.now().plusDays(1), null);
+
+        AuthContext auth = new AuthContext("TOKEN", 1L, false);
+        when(authValidator.getAuthContext(request)).thenReturn(auth);
+        when(authValidator.isAuthorizedForWallet(auth, 1L)).thenReturn(true);
+
+        ScheduledTransferResponseDTO scheduled = new ScheduledTransferResponseDTO(
+                "s-1", 1L, 2L, 200.0, "WEEKLY", "ACTIVE", dto.startsAt(), null, 0, null, null);
+        when(scheduledTransferService.schedule(dto)).thenReturn(scheduled);
+
+        var result = transactionController.scheduleTransfer(dto, null, request);
+
+        assertEquals(201, result.getStatusCodeValue());
+        assertEquals("s-1", result.getBody().scheduleId());
+    }
+
+    @Test
+    void testScheduleTransfer_Unauthorized() {
+        ScheduledTransferRequestDTO dto = new ScheduledTransferRequestDTO(
+                3L, 2L, 200.0, TransferRecurrence.DAILY, LocalDateTime.now(), null);
+
+        AuthContext auth = new AuthContext("TOKEN", 1L, false);
+        when(authValidator.getAuthContext(request)).thenReturn(auth);
+        when(authValidator.isAuthorizedForWallet(auth, 3L)).thenReturn(false);
+
+        assertThrows(UnauthorizedAccessException.class, () -> transactionController.scheduleTransfer(dto, null, request));
+        verifyNoInteractions(scheduledTransferService);
+    }
+
+    @Test
+    void testAuthorizeHold() {
+        HoldRequestDTO dto = new HoldRequestDTO(250.0, null, "Hotel");
+
+        AuthContext auth = new AuthContext("TOKEN", 1L, false);
+        when(authValidator.getAuthContext(request)).thenReturn(auth);
+        when(authValidator.isAuthorizedForWallet(auth, 1L)).thenReturn(true);
+
+        HoldResponseDTO hold = new HoldResponseDTO("h-1", 1L, 250.0, 0.0, "AUTHORIZED", "Hotel", null, null, null);
+        when(holdService.authorize(1L, dto, 1L)).thenReturn(hold);
+
+        var result = transactionController.authorizeHold(1L, dto, null, request);
+
+        assertEquals(201, result.getStatusCodeValue());
+        assertEquals("h-1", result.getBody().holdId());
+    }
+
+    @Test
+    void testCaptureHold() {
+        AuthContext auth = new AuthContext("TOKEN", 1L, false);
+        when(authValidator.getAuthContext(request)).thenReturn(auth);
+
+        HoldResponseDTO captured = new HoldResponseDTO("h-1", 1L, 250.0, 200.0, "CAPTURED", null, "h-1", null, null);
+        when(holdService.capture("h-1", 200.0, 1L, false)).thenReturn(captured);
+        when(holdService.capture("h-1", null, 1L, false)).thenReturn(captured);
+
+        assertEquals("CAPTURED", transactionController.captureHold("h-1", new HoldCaptureRequestDTO(200.0), null, request)
+                .getBody().status());
+        assertEquals(200, transactionController.captureHold("h-1", null, null, request).getStatusCodeValue());
+        verify(holdService).capture("h-1", null, 1L, false);
+    }
+
+    @Test
+    void testProcessBatch() {
+        WalletBatchTransactionRequestDTO dto = new WalletBatchTransactionRequestDTO(List.of(
+                new BatchTransactionItemDTO(1L, new WalletTransactionRequestDTO("txn1", 100.0, "CREDIT", "Deposit"))
+        ));
+
+        AuthContext auth = new AuthContext("TOKEN", 1L, false);
+        when(authValidator.getAuthContext(request)).thenReturn(auth);
+
+        List<BatchTransactionResultDTO> results = List.of(BatchTransactionResultDTO.success(0, 1L,
+                BatchTransactionResultDTO.APPLIED,
+                new WalletTransactionResponseDTO("txn1", 100.0, "CREDIT", null, "Deposit", 1100.0, 5000.0)));
+        when(walletTransactionService.processBatch(dto.items())).thenReturn(results);
+
+        var result = transactionController.processBatch(dto, null, request);
+
+        assertEquals(200, result.getStatusCodeValue());
+        assertEquals(1, result.getBody().size());
+        assertEquals("txn1", result.getBody().get(0).transactionId());
+    }
+
     @Test
     void testListTransactions() {
         Long walletId = 1L;
@@ -101,17 +261,18 @@ class TransactionControllerTest {
         when(authValidator.getAuthContext(request)).thenReturn(auth);
         when(authValidator.isAuthorizedForWallet(auth, walletId)).thenReturn(true);
 
-        Page<WalletTransactionResponseDTO> page = new PageImpl<>(List.of(
+        TransactionSliceResponseDTO slice = new TransactionSliceResponseDTO(List.of(
                 new WalletTransactionResponseDTO("txn1", 100.0, "CREDIT", null, "desc", 1000.0, 5000.0)
-        ));
+        ), 10, true, "next");
 
-        when(walletTransactionService.getFilteredTransactions(eq(walletId), eq(null), any(), any(), any(Pageable.class)))
-                .thenReturn(page);
+        when(walletTransactionService.getFilteredTransactions(walletId, null, null, null, null, 10))
+                .thenReturn(slice);
 
-        var result = transactionController.getTransactionHistory(walletId, null, null, null, 0, 10, request);
+        var result = transactionController.getTransactionHistory(walletId, null, null, null, null, 10, request);
 
         assertEquals(200, result.getStatusCodeValue());
-        assertEquals(1, result.getBody().getContent().size());
+        assertEquals(1, result.getBody().content().size());
+        assertEquals("next", result.getBody().nextCursor());
     }
 
     @Test
@@ -119,15 +280,58 @@ class TransactionControllerTest {
         when(authValidator.extractToken(request)).thenReturn("TOKEN");
         when(authValidator.extractUserId("TOKEN")).thenReturn(1L);
 
-        Page<WalletTransactionResponseDTO> page = new PageImpl<>(List.of(
+        TransactionSliceResponseDTO slice = new TransactionSliceResponseDTO(List.of(
                 new WalletTransactionResponseDTO("txn1", 50.0, "CREDIT", null, "desc", 500.0, 1000.0)
-        ));
+        ), 10, false, null);
 
-        when(walletTransactionService.getAllUserTransactions(1L, PageRequest.of(0, 10))).thenReturn(page);
+        when(walletTransactionService.getAllUserTransactions(1L, "cursor", 10)).thenReturn(slice);
 
-        var result = transactionController.getAllUserTransactions(PageRequest.of(0,10), request);
+        var result = transactionController.getAllUserTransactions("cursor", 10, request);
 
         assertEquals(200, result.getStatusCodeValue());
-        assertEquals(1, result.getBody().getContent().size());
+        assertEquals(1, result.getBody().content().size());
+    }
+
+    @Test
+    void testExportTransactions_LimitsUserToOwnWallets() throws Exception {
+        AuthContext auth = new AuthContext("TOKEN", 1L, false);
+        when(authValidator.getAuthContext(request)).thenReturn(auth);
+
+        var result = transactionController.exportTransactions(ExportFormat.CSV, null, null, null, null, true, request);
+
+        assertEquals("application/gzip", result.getHeaders().getContentType().toString());
+        assertEquals("attachment; filename=\"transactions.csv.gz\"",
+                result.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        verifyNoInteractions(transactionExportService);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        result.getBody().writeTo(out);
+        verify(transactionExportService).export(new TransactionExportService.ExportFilter(null, 1L, null, null),
+                ExportFormat.CSV, true, out);
+    }
+
+    @Test
+    void testExportTransactions_Unauthorized() {
+        AuthContext auth = new AuthContext("TOKEN", 1L, false);
+        when(authValidator.getAuthContext(request)).thenReturn(auth);
+
+        assertThrows(UnauthorizedAccessException.class, () -> transactionController.exportTransactions(
+                ExportFormat.NDJSON, null, 2L, null, null, false, request));
+        assertThrows(IllegalArgumentException.class, () -> transactionController.exportTransactions(
+                ExportFormat.NDJSON, null, null, LocalDateTime.now(), LocalDateTime.now().minusDays(1), false, request));
+        verifyNoInteractions(transactionExportService);
+    }
+
+    @Test
+    void testTransferPassesIdempotencyKey() {
+        WalletTransferRequestDTO dto = new WalletTransferRequestDTO(1L, 2L, 200.0);
+
+        AuthContext auth = new AuthContext("TOKEN", 7L, false);
+        when(authValidator.getAuthContext(request)).thenReturn(auth);
+        when(authValidator.isAuthorizedForWallet(auth, 1L)).thenReturn(true);
+
+        transactionController.transferMoney(dto, "key-1", request);
+
+        verify(idempotencyService).execute(eq(7L), eq("key-1"), eq("POST /transactions/transfer"), eq(dto), any(), any());
     }
 }
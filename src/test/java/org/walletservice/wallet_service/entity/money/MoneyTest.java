@@ -0,0 +1,68 @@
+package org.walletservice.wallet_service.entity.money;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    @DisplayName("Should convert rupees to paise, rounding to the nearest paisa")
+    void testOfMajor() {
+        assertEquals(10_001L, Money.ofMajor(100.01));
+        assertEquals(30L, Money.ofMajor(0.1 + 0.2));
+        assertEquals(1L, Money.ofMajor(0.005));
+        assertEquals(-250L, Money.ofMajor(-2.5));
+        assertEquals(-1L, Money.ofMajor(-0.005));
+        assertEquals(0L, Money.ofMajor(0.0049));
+        assertEquals(0L, Money.ofMajor(0.0));
+    }
+
+    @Test
+    @DisplayName("Should round the amount as written, not its nearest double")
+    void testOfMajor_DecimalHalves() {
+        // Each of these is stored as a double just below the written half paisa
+        assertEquals(101L, Money.ofMajor(1.005));
+        assertEquals(29L, Money.ofMajor(0.285));
+        assertEquals(-58L, Money.ofMajor(-0.575));
+    }
+
+    @Test
+    @DisplayName("Should reject amounts that cannot be represented exactly")
+    void testOfMajor_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMajor(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMajor(Double.POSITIVE_INFINITY));
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMajor(1e17));
+    }
+
+    @Test
+    @DisplayName("Should convert paise back to rupees")
+    void testToMajor() {
+        assertEquals(100.01, Money.toMajor(10_001L));
+        assertEquals(-0.5, Money.toMajor(-50L));
+    }
+
+    @Test
+    @DisplayName("Should add many small amounts without drift")
+    void testAdd_NoDrift() {
+        long total = 0;
+        double doubleTotal = 0;
+        for (int i = 0; i < 1000; i++) {
+            total = Money.add(total, Money.ofMajor(0.1));
+            doubleTotal += 0.1;
+        }
+
+        assertEquals(10_000L, total);
+        assertEquals(100.0, Money.toMajor(total));
+        assertNotEquals(100.0, doubleTotal);
+    }
+
+    @Test
+    @DisplayName("Should fail instead of overflowing")
+    void testArithmetic_Overflow() {
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1L));
+        assertThrows(ArithmeticException.class, () -> Money.subtract(Long.MIN_VALUE, 1L));
+        assertEquals(50L, Money.subtract(150L, 100L));
+    }
+}
@@ -0,0 +1,51 @@
+package org.walletservice.wallet_service.repository.hold;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.walletservice.wallet_service.entity.hold.HoldEntity;
+import org.walletservice.wallet_service.entity.hold.HoldStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class HoldRepositoryTest {
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    private HoldEntity hold(String id, LocalDateTime expiresAt) {
+        return new HoldEntity(id, 1L, 10L, 5000L, null, 0L, expiresAt);
+    }
+
+    @Test
+    @DisplayName("Should find authorized holds past their expiry, oldest first, and expire them in bulk")
+    void testFindExpiredAndUpdateStatus() {
+        LocalDateTime now = LocalDateTime.now();
+        holdRepository.save(hold("later", now.minusMinutes(1)));
+        holdRepository.save(hold("earlier", now.minusHours(1)));
+        holdRepository.save(hold("live", now.plusMinutes(1)));
+        HoldEntity voided = hold("voided", now.minusHours(2));
+        voided.release(HoldStatus.VOIDED);
+        holdRepository.save(voided);
+        holdRepository.flush();
+
+        List<String> expired = holdRepository.findExpired(HoldStatus.AUTHORIZED, now, PageRequest.of(0, 10))
+                .stream().map(HoldEntity::getId).toList();
+        assertEquals(List.of("earlier", "later"), expired);
+
+        assertEquals(2, holdRepository.updateStatus(expired, HoldStatus.EXPIRED, now));
+        assertEquals(HoldStatus.EXPIRED, holdRepository.findById("earlier").orElseThrow().getStatus());
+        assertEquals(HoldStatus.AUTHORIZED, holdRepository.findById("live").orElseThrow().getStatus());
+        assertTrue(holdRepository.findExpired(HoldStatus.AUTHORIZED, now, PageRequest.of(0, 10)).isEmpty());
+    }
+}
@@ -0,0 +1,64 @@
+package org.walletservice.wallet_service.repository.idempotency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.walletservice.wallet_service.entity.idempotency.IdempotencyKeyEntity;
+import org.walletservice.wallet_service.entity.idempotency.IdempotencyKeyStatus;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class IdempotencyKeyRepositoryTest {
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private IdempotencyKeyEntity saveKey(Long userId, String key, LocalDateTime expiresAt) {
+        IdempotencyKeyEntity row = new IdempotencyKeyEntity(userId, key);
+        row.lock("POST /transactions/transfer", "f".repeat(64), "token", LocalDateTime.now(), expiresAt);
+        return idempotencyKeyRepository.saveAndFlush(row);
+    }
+
+    @Test
+    @DisplayName("Should store and read back a completed response")
+    void testCompleteAndFind() {
+        IdempotencyKeyEntity row = saveKey(1L, "key-1", LocalDateTime.now().plusHours(1));
+        row.complete(201, "{\"transactionId\":\"txn-1\"}", "/transactions/txn-1");
+        idempotencyKeyRepository.saveAndFlush(row);
+
+        IdempotencyKeyEntity found = idempotencyKeyRepository.findForUpdate(1L, "key-1").orElseThrow();
+        assertEquals(IdempotencyKeyStatus.COMPLETED, found.getStatus());
+        assertEquals(201, found.getResponseStatus());
+        assertEquals("{\"transactionId\":\"txn-1\"}", found.getResponseBody());
+        assertTrue(idempotencyKeyRepository.findForUpdate(2L, "key-1").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should allow a key only once per user")
+    void testUniquePerUser() {
+        saveKey(1L, "key-1", LocalDateTime.now().plusHours(1));
+        saveKey(2L, "key-1", LocalDateTime.now().plusHours(1));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> saveKey(1L, "key-1", LocalDateTime.now().plusHours(1)));
+    }
+
+    @Test
+    @DisplayName("Should purge expired keys only")
+    void testDeleteExpired() {
+        saveKey(1L, "old", LocalDateTime.now().minusMinutes(1));
+        saveKey(1L, "fresh", LocalDateTime.now().plusHours(1));
+
+        assertEquals(1, idempotencyKeyRepository.deleteExpired(LocalDateTime.now()));
+        assertTrue(idempotencyKeyRepository.findForUpdate(1L, "fresh").isPresent());
+    }
+}
@@ -0,0 +1,160 @@
+package org.walletservice.wallet_service.repository.journal;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.walletservice.wallet_service.entity.journal.JournalEntryEntity;
+import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.repository.transaction.TransactionExportRow;
+import org.walletservice.wallet_service.repository.transaction.TransactionRepository;
+import org.walletservice.wallet_service.service.transaction.TransactionCursor;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stores transfer journals with their legs and reads wallet history through the header.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class JournalEntryRepositoryTest {
+
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private JournalEntryEntity saveTransfer(Long from, Long to, long amount) {
+        JournalEntryEntity journal = journalEntryRepository.save(
+                new JournalEntryEntity(TransactionType.TRANSFER, "Transfer from wallet " + from + " to wallet " + to));
+        transactionRepository.saveAll(List.of(
+                TransactionEntity.leg(journal, from, TransactionType.DEBIT, amount),
+                TransactionEntity.leg(journal, to, TransactionType.CREDIT, amount)));
+        entityManager.flush();
+        entityManager.clear();
+        return journal;
+    }
+
+    @Test
+    @DisplayName("Should store legs without transaction id or description")
+    void testSaveTransfer_LegsAreNarrow() {
+        JournalEntryEntity journal = saveTransfer(1L, 2L, 25000L);
+
+        List<Object[]> rows = entityManager.createNativeQuery(
+                        "SELECT wallet_id, type, amount, transaction_id, description, journal_id FROM transactions ORDER BY type")
+                .getResultList();
+
+        assertEquals(2, rows.size());
+        for (Object[] row : rows) {
+            assertEquals(25000L, ((Number) row[2]).longValue());
+            assertNull(row[3]);
+            assertNull(row[4]);
+            assertEquals(journal.getId(), ((Number) row[5]).longValue());
+        }
+        assertTrue(journalEntryRepository.findByReference(journal.getReference()).isPresent());
+    }
+
+    @Test
+    @DisplayName("Should read wallet history with the journal header fetched in the same query")
+    void testFindByWalletId_FetchesJournal() {
+        JournalEntryEntity journal = saveTransfer(1L, 2L, 25000L);
+        transactionRepository.saveAndFlush(deposit(1L, "dep-1"));
+        entityManager.clear();
+
+        List<TransactionEntity> history = transactionRepository.findByWalletId(1L);
+
+        assertEquals(2, history.size());
+        TransactionEntity leg = history.stream().filter(t -> t.getJournal() != null).findFirst().orElseThrow();
+        assertTrue(Hibernate.isInitialized(leg.getJournal()));
+        assertEquals(TransactionType.DEBIT, leg.getType());
+        assertEquals(journal.getReference(), leg.getReference());
+        assertEquals("Transfer from wallet 1 to wallet 2", leg.getDescription());
+
+        TransactionEntity standalone = history.stream().filter(t -> t.getJournal() == null).findFirst().orElseThrow();
+        assertEquals("dep-1", standalone.getReference());
+        assertEquals("Deposit", standalone.getDescription());
+    }
+
+    @Test
+    @DisplayName("Should fetch the journal header on filtered history pages")
+    void testFindFilteredTransactions_FetchesJournal() {
+        saveTransfer(3L, 4L, 1000L);
+
+        List<TransactionEntity> page = transactionRepository.findFilteredTransactions(
+                4L, TransactionType.CREDIT, null, null, TransactionCursor.START.transactionDate(),
+                TransactionCursor.START.id(), PageRequest.of(0, 10)).getContent();
+
+        assertEquals(1, page.size());
+        assertTrue(Hibernate.isInitialized(page.get(0).getJournal()));
+        assertEquals("Transfer from wallet 3 to wallet 4", page.get(0).getDescription());
+    }
+
+    @Test
+    @DisplayName("Should export legs with their journal's reference and description, filtered by user")
+    void testStreamForExport() {
+        Long mine = entityManager.merge(new WalletEntity(7L, 0.0)).getId();
+        Long theirs = entityManager.merge(new WalletEntity(8L, 0.0)).getId();
+        transactionRepository.save(deposit(mine, "dep-1"));
+        JournalEntryEntity journal = saveTransfer(mine, theirs, 2500L);
+
+        List<TransactionExportRow> rows;
+        try (Stream<TransactionExportRow> stream = transactionRepository.streamForExport(null, 7L, null, null)) {
+            rows = stream.toList();
+        }
+
+        assertEquals(2, rows.size());
+        assertEquals("dep-1", rows.get(0).reference());
+        assertEquals("Deposit", rows.get(0).description());
+        assertEquals(TransactionType.DEBIT, rows.get(1).type());
+        assertEquals(2500L, rows.get(1).amount());
+        assertEquals(journal.getReference(), rows.get(1).reference());
+        assertEquals("Transfer from wallet " + mine + " to wallet " + theirs, rows.get(1).description());
+
+        try (Stream<TransactionExportRow> stream = transactionRepository.streamForExport(theirs, null, null, null)) {
+            assertEquals(List.of(TransactionType.CREDIT), stream.map(TransactionExportRow::type).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should export a user's rows by their user id, with the journal's reference")
+    void testStreamForUserExport() {
+        JournalEntryEntity journal = saveTransfer(1L, 2L, 2500L);
+        entityManager.createQuery("UPDATE TransactionEntity t SET t.userId = 7 WHERE t.walletId = 1").executeUpdate();
+        TransactionEntity mine = deposit(1L, "dep-1");
+        mine.setUserId(7L);
+        TransactionEntity theirs = deposit(2L, "dep-2");
+        theirs.setUserId(8L);
+        transactionRepository.saveAll(List.of(mine, theirs, deposit(1L, "dep-3")));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<TransactionExportRow> rows;
+        try (Stream<TransactionExportRow> stream = transactionRepository.streamForUserExport(7L, null, null)) {
+            rows = stream.toList();
+        }
+
+        assertEquals(List.of(journal.getReference(), "dep-1"), rows.stream().map(TransactionExportRow::reference).toList());
+        assertEquals("Transfer from wallet 1 to wallet 2", rows.get(0).description());
+    }
+
+    private TransactionEntity deposit(Long walletId, String transactionId) {
+        TransactionEntity txn = new TransactionEntity(walletId, TransactionType.CREDIT, 100.0, "Deposit");
+        txn.setTransactionId(transactionId);
+        return txn;
+    }
+}
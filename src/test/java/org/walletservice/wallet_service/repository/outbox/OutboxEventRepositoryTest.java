@@ -0,0 +1,50 @@
+package org.walletservice.wallet_service.repository.outbox;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventEntity;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the relay's claim and delete against an embedded database.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OutboxEventRepositoryTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    @DisplayName("Should number events in insert order and hand out the oldest first")
+    void testFindOldestForUpdate() {
+        outboxEventRepository.saveAll(List.of(
+                new OutboxEventEntity(2L, OutboxEventType.CREDITED, "{}"),
+                new OutboxEventEntity(1L, OutboxEventType.FROZEN, "{}"),
+                new OutboxEventEntity(2L, OutboxEventType.DEBITED, "{\"amount\":1.5}")));
+        outboxEventRepository.flush();
+
+        List<OutboxEventEntity> batch = outboxEventRepository.findOldestForUpdate(PageRequest.of(0, 2));
+
+        assertEquals(2, batch.size());
+        assertTrue(batch.get(0).getId() < batch.get(1).getId());
+        assertEquals(OutboxEventType.CREDITED, batch.get(0).getEventType());
+        assertEquals(OutboxEventType.FROZEN, batch.get(1).getEventType());
+
+        outboxEventRepository.deleteAllInBatch(batch);
+
+        List<OutboxEventEntity> rest = outboxEventRepository.findOldestForUpdate(PageRequest.of(0, 2));
+        assertEquals(1, rest.size());
+        assertEquals("{\"amount\":1.5}", rest.get(0).getPayload());
+    }
+}
@@ -0,0 +1,111 @@
+package org.walletservice.wallet_service.repository.transaction;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+import org.walletservice.wallet_service.service.transaction.TransactionCursor;
+import org.walletservice.wallet_service.service.transaction.TransactionService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keyset pages of wallet history: newest first, ties on the date broken by id, no row twice, for
+ * one wallet and merged over several.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TransactionHistoryRepositoryTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private TransactionEntity save(Long walletId, TransactionType type, LocalDateTime at, String transactionId) {
+        TransactionEntity txn = new TransactionEntity(walletId, type, 10.0, null);
+        txn.setTransactionId(transactionId);
+        txn.setTransactionDate(at);
+        return transactionRepository.save(txn);
+    }
+
+    @Test
+    @DisplayName("Should page a wallet's history newest first across equal dates without gaps or repeats")
+    void testFindFilteredTransactions_Keyset() {
+        save(1L, TransactionType.CREDIT, NOON.minusHours(1), "a");
+        save(1L, TransactionType.CREDIT, NOON, "b");
+        save(1L, TransactionType.DEBIT, NOON, "c");
+        save(1L, TransactionType.CREDIT, NOON, "d");
+        save(1L, TransactionType.CREDIT, NOON.plusHours(1), "e");
+        save(2L, TransactionType.CREDIT, NOON, "other wallet");
+        transactionRepository.flush();
+
+        List<String> seen = new ArrayList<>();
+        TransactionCursor cursor = TransactionCursor.START;
+        Slice<TransactionEntity> slice;
+        do {
+            slice = transactionRepository.findFilteredTransactions(1L, null, null, null,
+                    cursor.transactionDate(), cursor.id(), PageRequest.of(0, 2));
+            assertFalse(slice instanceof Page, "a slice must not count the rows");
+            slice.forEach(txn -> seen.add(txn.getTransactionId()));
+            if (slice.hasNext()) {
+                cursor = TransactionCursor.after(slice.getContent().get(slice.getNumberOfElements() - 1));
+            }
+        } while (slice.hasNext());
+
+        assertEquals(List.of("e", "d", "c", "b", "a"), seen);
+    }
+
+    @Test
+    @DisplayName("Should keep the type and date filters on keyset pages")
+    void testFindFilteredTransactions_Filters() {
+        save(1L, TransactionType.CREDIT, NOON.minusDays(2), "old");
+        save(1L, TransactionType.CREDIT, NOON, "b");
+        save(1L, TransactionType.DEBIT, NOON, "c");
+        TransactionEntity d = save(1L, TransactionType.CREDIT, NOON, "d");
+        transactionRepository.flush();
+
+        Slice<TransactionEntity> credits = transactionRepository.findFilteredTransactions(1L, TransactionType.CREDIT,
+                NOON.minusDays(1), null, TransactionCursor.START.transactionDate(), TransactionCursor.START.id(),
+                PageRequest.of(0, 10));
+        assertEquals(List.of("d", "b"), credits.map(TransactionEntity::getTransactionId).getContent());
+        assertFalse(credits.hasNext());
+
+        Slice<TransactionEntity> afterD = transactionRepository.findFilteredTransactions(1L, TransactionType.CREDIT,
+                NOON.minusDays(1), null, d.getTransactionDate(), d.getId(), PageRequest.of(0, 10));
+        assertEquals(List.of("b"), afterD.map(TransactionEntity::getTransactionId).getContent());
+    }
+
+    @Test
+    @DisplayName("Should page the transactions of several wallets as one newest-first history")
+    void testMergedWalletHistory() {
+        save(1L, TransactionType.CREDIT, NOON.minusHours(2), "w1-old");
+        save(2L, TransactionType.CREDIT, NOON.minusHours(1), "w2");
+        save(1L, TransactionType.DEBIT, NOON, "w1-new");
+        save(2L, TransactionType.DEBIT, NOON, "w2-new");
+        save(3L, TransactionType.CREDIT, NOON, "not mine");
+        transactionRepository.flush();
+        TransactionService transactionService = new TransactionService(transactionRepository, null);
+
+        Slice<TransactionEntity> first = transactionService.findByWalletIdsBefore(List.of(1L, 2L), TransactionCursor.START, 3);
+        assertEquals(List.of("w2-new", "w1-new", "w2"), first.map(TransactionEntity::getTransactionId).getContent());
+        assertTrue(first.hasNext());
+
+        TransactionCursor next = TransactionCursor.after(first.getContent().get(2));
+        Slice<TransactionEntity> second = transactionService.findByWalletIdsBefore(List.of(1L, 2L), next, 3);
+        assertEquals(List.of("w1-old"), second.map(TransactionEntity::getTransactionId).getContent());
+        assertFalse(second.hasNext());
+    }
+}
@@ -58,10 +58,10 @@ class TransactionRepositoryTest {
     @Test
     @DisplayName("Should find transactions greater than given amount")
     void testFindTransactionsGreaterThan() {
-        when(transactionRepository.findTransactionsGreaterThan(800.0))
+        when(transactionRepository.findTransactionsGreaterThan(80000L))
                 .thenReturn(List.of(txn1));
 
-        List<TransactionEntity> result = transactionRepository.findTransactionsGreaterThan(800.0);
+        List<TransactionEntity> result = transactionRepository.findTransactionsGreaterThan(80000L);
 
         assertEquals(1, result.size());
         assertEquals(1000.0, result.get(0).getAmount());
@@ -82,13 +82,13 @@ class TransactionRepositoryTest {
     @Test
     @DisplayName("Should find transactions between amounts")
     void testFindByAmountBetween() {
-        when(transactionRepository.findByAmountBetween(400.0, 1200.0))
+        when(transactionRepository.findByAmountBetween(40000L, 120000L))
                 .thenReturn(List.of(txn1, txn2));
 
-        List<TransactionEntity> result = transactionRepository.findByAmountBetween(400.0, 1200.0);
+        List<TransactionEntity> result = transactionRepository.findByAmountBetween(40000L, 120000L);
 
         assertEquals(2, result.size());
-        verify(transactionRepository).findByAmountBetween(400.0, 1200.0);
+        verify(transactionRepository).findByAmountBetween(40000L, 120000L);
     }
 
     @Test
@@ -0,0 +1,54 @@
+package org.walletservice.wallet_service.repository.transfer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.walletservice.wallet_service.entity.transfer.ScheduledTransferEntity;
+import org.walletservice.wallet_service.entity.transfer.ScheduledTransferStatus;
+import org.walletservice.wallet_service.entity.transfer.TransferRecurrence;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ScheduledTransferRepositoryTest {
+
+    @Autowired
+    private ScheduledTransferRepository scheduledTransferRepository;
+
+    private ScheduledTransferEntity schedule(String id, LocalDateTime startsAt) {
+        return new ScheduledTransferEntity(id, 1L, 2L, 10.0, 1L, "ROLE_USER",
+                TransferRecurrence.DAILY, startsAt, null);
+    }
+
+    @Test
+    @DisplayName("Should find active schedules that are due, earliest first")
+    void testFindDue() {
+        LocalDateTime now = LocalDateTime.now();
+
+        scheduledTransferRepository.save(schedule("later", now.minusMinutes(1)));
+        scheduledTransferRepository.save(schedule("earlier", now.minusHours(1)));
+        scheduledTransferRepository.save(schedule("future", now.plusMinutes(1)));
+
+        ScheduledTransferEntity cancelled = schedule("cancelled", now.minusHours(2));
+        cancelled.cancel();
+        scheduledTransferRepository.save(cancelled);
+        scheduledTransferRepository.flush();
+
+        List<String> due = scheduledTransferRepository.findDue(ScheduledTransferStatus.ACTIVE, now, PageRequest.of(0, 10))
+                .stream().map(ScheduledTransferEntity::getId).toList();
+
+        assertEquals(List.of("earlier", "later"), due);
+        assertEquals(List.of("earlier"), scheduledTransferRepository
+                .findDue(ScheduledTransferStatus.ACTIVE, now, PageRequest.of(0, 1))
+                .stream().map(ScheduledTransferEntity::getId).toList());
+    }
+}
@@ -0,0 +1,57 @@
+package org.walletservice.wallet_service.repository.transfer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.walletservice.wallet_service.entity.transfer.TransferCommandEntity;
+import org.walletservice.wallet_service.entity.transfer.TransferStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TransferCommandRepositoryTest {
+
+    @Autowired
+    private TransferCommandRepository transferCommandRepository;
+
+    private TransferCommandEntity command(String id) {
+        return new TransferCommandEntity(id, 1L, 2L, 10.0, 1L, "ROLE_USER");
+    }
+
+    @Test
+    @DisplayName("Should claim pending commands and commands with an expired lease only")
+    void testFindClaimable() {
+        LocalDateTime now = LocalDateTime.now();
+
+        transferCommandRepository.save(command("pending"));
+
+        TransferCommandEntity stale = command("stale");
+        stale.claim("dead-worker", now.minusMinutes(5));
+        transferCommandRepository.save(stale);
+
+        TransferCommandEntity leased = command("leased");
+        leased.claim("live-worker", now);
+        transferCommandRepository.save(leased);
+
+        TransferCommandEntity done = command("done");
+        done.complete("txn-D");
+        transferCommandRepository.save(done);
+        transferCommandRepository.flush();
+
+        List<String> claimable = transferCommandRepository.findClaimable(TransferStatus.PENDING,
+                        TransferStatus.PROCESSING, now.minusMinutes(1), PageRequest.of(0, 10))
+                .stream().map(TransferCommandEntity::getId).toList();
+
+        assertEquals(2, claimable.size());
+        assertTrue(claimable.containsAll(List.of("pending", "stale")));
+    }
+}
@@ -0,0 +1,117 @@
+package org.walletservice.wallet_service.repository.wallet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.walletservice.wallet_service.entity.money.Money;
+import org.walletservice.wallet_service.entity.wallet.WalletBalanceSlotEntity;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.service.wallet.WalletStripingService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the slot statements and the striped debit against an embedded database.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class WalletBalanceSlotRepositoryTest {
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private WalletBalanceSlotRepository slotRepository;
+
+    private WalletEntity saveStripedWallet(double... slotBalances) {
+        WalletEntity wallet = new WalletEntity(10L, 0.0);
+        wallet.setStripeCount(slotBalances.length);
+        wallet = walletRepository.saveAndFlush(wallet);
+        for (int i = 0; i < slotBalances.length; i++) {
+            slotRepository.save(new WalletBalanceSlotEntity(wallet.getId(), i, Money.ofMajor(slotBalances[i])));
+        }
+        slotRepository.flush();
+        return wallet;
+    }
+
+    @Test
+    @DisplayName("Should credit and conditionally debit a single slot")
+    void testCreditAndDebitIfCovered() {
+        WalletEntity wallet = saveStripedWallet(10.0, 20.0);
+
+        assertEquals(1, slotRepository.credit(wallet.getId(), 0, 500L));
+        assertEquals(0, slotRepository.debitIfCovered(wallet.getId(), 0, 1600L));
+        assertEquals(1, slotRepository.debitIfCovered(wallet.getId(), 1, 1600L));
+        assertEquals(0, slotRepository.credit(wallet.getId(), 5, 500L));
+
+        assertEquals(1900L, slotRepository.sumBalance(wallet.getId()));
+    }
+
+    @Test
+    @DisplayName("Should sum slot balances per wallet")
+    void testSumBalanceByWalletIds() {
+        WalletEntity first = saveStripedWallet(1.0, 2.0);
+        WalletEntity second = saveStripedWallet(5.0, 5.0, 5.0);
+
+        List<Object[]> rows = slotRepository.sumBalanceByWalletIds(List.of(first.getId(), second.getId()));
+
+        assertEquals(2, rows.size());
+        for (Object[] row : rows) {
+            long expected = row[0].equals(first.getId()) ? 300L : 1500L;
+            assertEquals(expected, ((Number) row[1]).longValue());
+        }
+    }
+
+    @Test
+    @DisplayName("Should accept a striped debit without touching the row balance")
+    void testStripedDebit_LeavesRowBalance() {
+        WalletEntity wallet = saveStripedWallet(100.0, 100.0);
+        long version = wallet.getVersion();
+
+        assertEquals(DebitResult.APPLIED, walletRepository.debit(wallet.getId(), 15000L, true, false));
+
+        WalletEntity updated = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertEquals(0.0, updated.getBalance());
+        assertEquals(version + 1, updated.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should sweep into the row residual after the blind striped debit")
+    void testStripedDebit_SweepsResidual() {
+        WalletEntity wallet = saveStripedWallet(10.0, 20.0);
+        walletRepository.credit(wallet.getId(), 10000L);
+
+        assertEquals(DebitResult.APPLIED, walletRepository.debit(wallet.getId(), 5000L, true, false));
+        new WalletStripingService(walletRepository, slotRepository, 64).debit(wallet, 5000L);
+        walletRepository.flush();
+
+        assertEquals(0L, slotRepository.sumBalance(wallet.getId()));
+        assertEquals(8000L, walletRepository.findBalanceById(wallet.getId()));
+    }
+
+    @Test
+    @DisplayName("Should report a concurrent update when the striping state changed")
+    void testDebit_StripingMismatch() {
+        WalletEntity striped = saveStripedWallet(100.0, 100.0);
+        WalletEntity plain = walletRepository.saveAndFlush(new WalletEntity(10L, 500.0));
+
+        assertEquals(DebitResult.CONCURRENT_UPDATE, walletRepository.debit(striped.getId(), 1000L, false, false));
+        assertEquals(DebitResult.CONCURRENT_UPDATE, walletRepository.debit(plain.getId(), 1000L, true, false));
+        assertEquals(500.0, walletRepository.findById(plain.getId()).orElseThrow().getBalance());
+    }
+
+    @Test
+    @DisplayName("Should delete all slots of the given wallets")
+    void testDeleteByWalletIds() {
+        WalletEntity wallet = saveStripedWallet(1.0, 2.0);
+
+        assertEquals(2, slotRepository.deleteByWalletIds(List.of(wallet.getId())));
+        assertTrue(slotRepository.findByWalletIdOrderBySlotIndex(wallet.getId()).isEmpty());
+    }
+}
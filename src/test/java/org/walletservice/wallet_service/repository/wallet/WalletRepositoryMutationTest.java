@@ -0,0 +1,215 @@
+package org.walletservice.wallet_service.repository.wallet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the atomic debit/credit/freeze statements and the daily spend snapshot against an embedded database.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class WalletRepositoryMutationTest {
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    private WalletEntity saveWallet(double balance, double dailySpent) {
+        WalletEntity wallet = new WalletEntity(10L, balance);
+        wallet.setDailySpent(dailySpent);
+        return walletRepository.saveAndFlush(wallet);
+    }
+
+    @Test
+    @DisplayName("Should debit the balance in one statement")
+    void testDebit_Applied() {
+        WalletEntity wallet = saveWallet(1000.0, 100.0);
+        long version = wallet.getVersion();
+
+        assertEquals(DebitResult.APPLIED, walletRepository.debit(wallet.getId(), 30000L));
+
+        WalletEntity updated = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertEquals(700.0, updated.getBalance());
+        assertEquals(100.0, updated.getDailySpent());
+        assertEquals(version + 1, updated.getVersion());
+        assertFalse(updated.getFrozen());
+    }
+
+    @Test
+    @DisplayName("Should reject debit when balance is insufficient")
+    void testDebit_InsufficientBalance() {
+        WalletEntity wallet = saveWallet(100.0, 0.0);
+
+        assertEquals(DebitResult.INSUFFICIENT_BALANCE, walletRepository.debit(wallet.getId(), 30000L));
+        assertEquals(100.0, walletRepository.findById(wallet.getId()).orElseThrow().getBalance());
+    }
+
+    @Test
+    @DisplayName("Should freeze the wallet in the same statement when asked to")
+    void testDebit_FreezesWhenAsked() {
+        WalletEntity wallet = saveWallet(5000.0, 0.0);
+
+        assertEquals(DebitResult.APPLIED, walletRepository.debit(wallet.getId(), 20000L, false, true));
+
+        WalletEntity updated = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertEquals(4800.0, updated.getBalance());
+        assertTrue(updated.getFrozen());
+        assertNotNull(updated.getFrozenAt());
+        assertEquals(DebitResult.WALLET_FROZEN, walletRepository.debit(wallet.getId(), 100L));
+    }
+
+    @Test
+    @DisplayName("Should record the flushed daily spend without bumping the version")
+    void testRecordDailySpent() {
+        WalletEntity wallet = saveWallet(1000.0, 0.0);
+        long version = wallet.getVersion();
+        LocalDateTime at = LocalDateTime.now().withNano(0);
+
+        assertEquals(1, walletRepository.recordDailySpent(wallet.getId(), 42050L, at));
+
+        WalletEntity updated = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertEquals(420.5, updated.getDailySpent());
+        assertEquals(at, updated.getLastTransactionDate());
+        assertEquals(version, updated.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should reject debit on an inactive wallet")
+    void testDebit_Inactive() {
+        WalletEntity wallet = saveWallet(1000.0, 0.0);
+        wallet.setActive(false);
+        walletRepository.saveAndFlush(wallet);
+
+        assertEquals(DebitResult.WALLET_INACTIVE, walletRepository.debit(wallet.getId(), 1000L));
+    }
+
+    @Test
+    @DisplayName("Should report missing wallet")
+    void testDebit_NotFound() {
+        assertEquals(DebitResult.WALLET_NOT_FOUND, walletRepository.debit(999_999L, 1000L));
+    }
+
+    @Test
+    @DisplayName("Should credit with a blind increment")
+    void testCredit() {
+        WalletEntity wallet = saveWallet(100.0, 0.0);
+
+        assertEquals(1, walletRepository.credit(wallet.getId(), 5000L));
+        assertEquals(150.0, walletRepository.findById(wallet.getId()).orElseThrow().getBalance());
+        assertEquals(0, walletRepository.credit(999_999L, 5000L));
+    }
+
+    @Test
+    @DisplayName("Should read back the balance a blind update left, not the loaded one")
+    void testFindBalanceById_AfterBlindUpdate() {
+        WalletEntity wallet = saveWallet(100.0, 0.0);
+
+        walletRepository.credit(wallet.getId(), 5000L);
+        walletRepository.debit(wallet.getId(), 2000L);
+
+        assertEquals(10000L, wallet.getBalanceMinor());
+        assertEquals(13000L, walletRepository.findBalanceById(wallet.getId()));
+    }
+
+    @Test
+    @DisplayName("Should freeze and unfreeze without reading the row")
+    void testFreezeAndUnfreeze() {
+        WalletEntity wallet = saveWallet(1000.0, 300.0);
+        LocalDateTime at = LocalDateTime.now().withNano(0);
+
+        assertEquals(1, walletRepository.freeze(wallet.getId(), at));
+        WalletEntity frozen = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertTrue(frozen.getFrozen());
+        assertEquals(at, frozen.getFrozenAt());
+
+        assertEquals(1, walletRepository.unfreeze(wallet.getId()));
+        WalletEntity unfrozen = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertFalse(unfrozen.getFrozen());
+        assertNull(unfrozen.getFrozenAt());
+        assertEquals(0.0, unfrozen.getDailySpent());
+        assertEquals(0, walletRepository.freeze(999_999L, at));
+    }
+
+    @Test
+    @DisplayName("Should lift only the freezes that expired")
+    void testUnfreezeExpired() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        WalletEntity expired = saveWallet(1000.0, 500.0);
+        WalletEntity recent = saveWallet(1000.0, 500.0);
+        WalletEntity active = saveWallet(1000.0, 0.0);
+        walletRepository.freeze(expired.getId(), now.minusMinutes(5));
+        walletRepository.freeze(recent.getId(), now.minusSeconds(30));
+        LocalDateTime frozenBefore = now.minusMinutes(2);
+
+        assertEquals(List.of(expired.getId()), walletRepository.findExpiredFreezes(frozenBefore));
+        assertEquals(2, walletRepository.findFreezes().size());
+
+        assertEquals(1, walletRepository.unfreezeExpired(
+                List.of(expired.getId(), recent.getId(), active.getId()), frozenBefore));
+
+        assertFalse(walletRepository.findById(expired.getId()).orElseThrow().getFrozen());
+        assertEquals(0.0, walletRepository.findById(expired.getId()).orElseThrow().getDailySpent());
+        assertTrue(walletRepository.findById(recent.getId()).orElseThrow().getFrozen());
+    }
+
+    @Test
+    @DisplayName("Should hold funds, keep them from debits and settle them on capture")
+    void testHoldAndCapture() {
+        WalletEntity wallet = saveWallet(1000.0, 0.0);
+
+        assertEquals(DebitResult.APPLIED, walletRepository.hold(wallet.getId(), 80000L, false));
+        assertEquals(DebitResult.INSUFFICIENT_BALANCE, walletRepository.hold(wallet.getId(), 30000L, false));
+        assertEquals(DebitResult.INSUFFICIENT_BALANCE, walletRepository.debit(wallet.getId(), 30000L));
+        assertEquals(DebitResult.APPLIED, walletRepository.debit(wallet.getId(), 20000L));
+
+        WalletEntity held = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertEquals(800.0, held.getBalance());
+        assertEquals(800.0, held.getHeld());
+        assertEquals(0L, held.getAvailableMinor());
+
+        // Capturing 500 of the 800 held releases the other 300
+        assertEquals(1, walletRepository.captureHeld(wallet.getId(), 80000L, 50000L));
+        WalletEntity captured = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertEquals(300.0, captured.getBalance());
+        assertEquals(0L, captured.getHeldMinor());
+        assertEquals(0, walletRepository.captureHeld(wallet.getId(), 1L, 1L));
+    }
+
+    @Test
+    @DisplayName("Should release held funds and refuse to release more than held")
+    void testReleaseHeld() {
+        WalletEntity wallet = saveWallet(1000.0, 0.0);
+        walletRepository.hold(wallet.getId(), 40000L, false);
+
+        assertEquals(0, walletRepository.releaseHeld(wallet.getId(), 40001L));
+        assertEquals(1, walletRepository.releaseHeld(wallet.getId(), 40000L));
+
+        WalletEntity released = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertEquals(1000.0, released.getBalance());
+        assertEquals(0L, released.getHeldMinor());
+    }
+
+    @Test
+    @DisplayName("Should refuse holds on frozen and striped wallets")
+    void testHold_Rejected() {
+        WalletEntity frozen = saveWallet(1000.0, 0.0);
+        walletRepository.freeze(frozen.getId(), LocalDateTime.now());
+        WalletEntity striped = saveWallet(0.0, 0.0);
+        striped.setStripeCount(4);
+        walletRepository.saveAndFlush(striped);
+
+        assertEquals(DebitResult.WALLET_FROZEN, walletRepository.hold(frozen.getId(), 100L, false));
+        assertEquals(0, walletRepository.holdIfAllowed(striped.getId(), 0L, false, LocalDateTime.now()));
+        assertEquals(DebitResult.WALLET_NOT_FOUND, walletRepository.hold(999_999L, 100L, false));
+    }
+}
@@ -0,0 +1,165 @@
+package org.walletservice.wallet_service.service.engine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.walletservice.wallet_service.exception.WalletContentionException;
+import org.walletservice.wallet_service.exception.WalletFrozenException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RetryExecutor retryExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        retryExecutor = new RetryExecutor(meterRegistry, 4, 0, 0, 0.2, 20, 3, 50);
+    }
+
+    @Test
+    @DisplayName("Should retry a version conflict until the action succeeds")
+    void testExecute_RetriesOptimisticLockFailure() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = retryExecutor.execute("transaction", 1L, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("Concurrent update");
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, calls.get());
+        assertEquals(2.0, meterRegistry.counter("wallet.retry.attempts", "operation", "transaction").count());
+    }
+
+    @Test
+    @DisplayName("Should retry a deadlock wrapped in another exception")
+    void testExecute_RetriesWrappedDeadlock() {
+        AtomicInteger calls = new AtomicInteger();
+
+        retryExecutor.execute("transfer", 1L, () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("Transfer failed",
+                        new CannotAcquireLockException("Deadlock found when trying to get lock"));
+            }
+            return null;
+        });
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should not retry business rejections")
+    void testExecute_DoesNotRetryBusinessFailures() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> retryExecutor.execute("transaction", 1L, () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("Insufficient balance");
+        }));
+        assertThrows(WalletFrozenException.class, () -> retryExecutor.execute("transaction", 1L, () -> {
+            calls.incrementAndGet();
+            throw new WalletFrozenException("Wallet is frozen", 60);
+        }));
+        assertThrows(DataIntegrityViolationException.class, () -> retryExecutor.execute("transaction", 1L, () -> {
+            calls.incrementAndGet();
+            throw new DataIntegrityViolationException("Duplicate entry");
+        }));
+
+        assertEquals(3, calls.get());
+        assertEquals(0.0, meterRegistry.counter("wallet.retry.attempts", "operation", "transaction").count());
+    }
+
+    @Test
+    @DisplayName("Should give up after the maximum number of attempts")
+    void testExecute_GivesUpAfterMaxAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(PessimisticLockingFailureException.class, () -> retryExecutor.execute("transaction", 1L, () -> {
+            calls.incrementAndGet();
+            throw new PessimisticLockingFailureException("Lock wait timeout");
+        }));
+
+        assertEquals(4, calls.get());
+        assertEquals(1.0, meterRegistry.counter("wallet.retry.exhausted",
+                "operation", "transaction", "reason", "attempts").count());
+    }
+
+    @Test
+    @DisplayName("Should stop retrying once the wallet's retry budget is spent")
+    void testExecute_StopsWhenBudgetIsSpent() {
+        retryExecutor = new RetryExecutor(meterRegistry, 10, 0, 0, 0.0, 2, 100, 50);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> retryExecutor.execute("transaction", 1L, () -> {
+            calls.incrementAndGet();
+            throw new OptimisticLockingFailureException("Concurrent update");
+        }));
+
+        // The first attempt plus the two retries the budget allowed
+        assertEquals(3, calls.get());
+        assertEquals(1.0, meterRegistry.counter("wallet.retry.exhausted",
+                "operation", "transaction", "reason", "budget").count());
+
+        // Another wallet has its own budget
+        AtomicInteger otherCalls = new AtomicInteger();
+        assertThrows(OptimisticLockingFailureException.class, () -> retryExecutor.execute("transaction", 2L, () -> {
+            otherCalls.incrementAndGet();
+            throw new OptimisticLockingFailureException("Concurrent update");
+        }));
+        assertEquals(3, otherCalls.get());
+    }
+
+    @Test
+    @DisplayName("Should open the breaker after repeated give-ups and close it after a successful trial")
+    void testExecute_BreakerOpensAndRecovers() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(OptimisticLockingFailureException.class, () -> retryExecutor.execute("transaction", 1L, () -> {
+                throw new OptimisticLockingFailureException("Concurrent update");
+            }));
+        }
+        assertEquals(1.0, meterRegistry.get("wallet.retry.breakers.open").gauge().value());
+
+        AtomicInteger calls = new AtomicInteger();
+        WalletContentionException ex = assertThrows(WalletContentionException.class,
+                () -> retryExecutor.execute("transaction", 1L, calls::incrementAndGet));
+        assertEquals(0, calls.get());
+        assertTrue(ex.getRetryAfterSeconds() >= 1);
+        assertEquals(1.0, meterRegistry.counter("wallet.retry.rejected", "operation", "transaction").count());
+
+        // Other wallets are unaffected
+        assertEquals(1, retryExecutor.execute("transaction", 2L, calls::incrementAndGet));
+
+        Thread.sleep(60);
+        assertEquals("ok", retryExecutor.execute("transaction", 1L, () -> "ok"));
+        assertEquals(0.0, meterRegistry.get("wallet.retry.breakers.open").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should reopen the breaker when the trial call fails")
+    void testExecute_FailedTrialReopensBreaker() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(OptimisticLockingFailureException.class, () -> retryExecutor.execute("transaction", 1L, () -> {
+                throw new OptimisticLockingFailureException("Concurrent update");
+            }));
+        }
+        Thread.sleep(60);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> retryExecutor.execute("transaction", 1L, () -> {
+            throw new OptimisticLockingFailureException("Concurrent update");
+        }));
+
+        assertThrows(WalletContentionException.class, () -> retryExecutor.execute("transaction", 1L, () -> "ok"));
+    }
+}
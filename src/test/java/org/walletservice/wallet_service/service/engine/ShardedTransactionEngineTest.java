@@ -0,0 +1,157 @@
+package org.walletservice.wallet_service.service.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ShardedTransactionEngineTest {
+
+    private PlatformTransactionManager transactionManager;
+    private ShardedTransactionEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        engine = new ShardedTransactionEngine(transactionManager, "sharded", 4, 16, 1000, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should run command on shard thread and return its result")
+    void testExecute_ReturnsResult() {
+        String result = engine.execute(7L, () -> Thread.currentThread().getName());
+
+        assertTrue(result.startsWith("wallet-shard-"));
+        assertEquals("wallet-shard-" + engine.shardIndex(7L), result);
+    }
+
+    @Test
+    @DisplayName("Should apply commands of one wallet in submission order")
+    void testExecute_PreservesOrderPerWallet() throws Exception {
+        List<Integer> applied = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                int seq = i;
+                futures.add(callers.submit(() -> engine.execute(42L, () -> {
+                    applied.add(seq);
+                    return seq;
+                })));
+            }
+            for (Future<Integer> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        for (int i = 0; i < applied.size(); i++) {
+            assertEquals(i, applied.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should isolate a failing command and still complete the rest of its batch")
+    void testExecute_FailingCommandDoesNotFailBatch() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        AtomicInteger okRuns = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        try {
+            // Park the shard so the next commands are queued and drained as one batch
+            Future<Object> parked = callers.submit(() -> engine.execute(1L, () -> blocker.await(5, TimeUnit.SECONDS)));
+            Thread.sleep(50);
+
+            Future<Integer> failing = callers.submit(() -> engine.execute(1L, () -> {
+                throw new IllegalArgumentException("Insufficient balance.");
+            }));
+            Future<Integer> ok = callers.submit(() -> engine.execute(1L, okRuns::incrementAndGet));
+            Thread.sleep(50);
+            blocker.countDown();
+
+            parked.get(5, TimeUnit.SECONDS);
+            Exception ex = assertThrows(Exception.class, () -> failing.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, ex.getCause());
+            assertTrue(ok.get(5, TimeUnit.SECONDS) >= 1);
+        } finally {
+            callers.shutdownNow();
+        }
+
+        // Batch rolled back and commands were replayed in their own transactions
+        verify(transactionManager, atLeastOnce()).rollback(any(TransactionStatus.class));
+    }
+
+    @Test
+    @DisplayName("Should propagate runtime exceptions to the caller unchanged")
+    void testExecute_PropagatesException() {
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> engine.execute(3L, () -> {
+                    throw new IllegalStateException("Daily limit exceeded");
+                }));
+
+        assertEquals("Daily limit exceeded", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should reject commands when engine is disabled")
+    void testExecute_Disabled() {
+        ShardedTransactionEngine disabled =
+                new ShardedTransactionEngine(transactionManager, "retry", 4, 16, 1000, 5000);
+
+        assertFalse(disabled.isEnabled());
+        assertThrows(IllegalStateException.class, () -> disabled.execute(1L, () -> 1));
+    }
+
+    @Test
+    @DisplayName("Should never apply a command whose caller timed out while it was queued")
+    void testExecute_TimedOutCommandIsNotApplied() throws Exception {
+        ShardedTransactionEngine slow = new ShardedTransactionEngine(transactionManager, "sharded", 1, 16, 1000, 100);
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        CountDownLatch blocking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger applied = new AtomicInteger();
+        try {
+            // Keeps the only shard busy past the timeout of the command queued behind it
+            Future<Integer> first = callers.submit(() -> slow.execute(1L, () -> {
+                blocking.countDown();
+                release.await();
+                return 1;
+            }));
+            assertTrue(blocking.await(5, TimeUnit.SECONDS));
+
+            assertThrows(IllegalStateException.class, () -> slow.execute(1L, applied::incrementAndGet));
+            release.countDown();
+
+            // A command started before the timeout is waited for rather than reported as failed
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            assertEquals(2, slow.execute(1L, () -> 2));
+            assertEquals(0, applied.get());
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+            slow.shutdown();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.walletservice.wallet_service.service.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+import org.walletservice.wallet_service.repository.transaction.TransactionExportRow;
+import org.walletservice.wallet_service.repository.transaction.TransactionRepository;
+import org.walletservice.wallet_service.service.export.TransactionExportService.ExportFilter;
+import org.walletservice.wallet_service.service.transaction.TransactionUserBackfill;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TransactionExportServiceTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2025, 3, 1, 9, 30);
+
+    private TransactionRepository transactionRepository;
+    private TransactionUserBackfill userBackfill;
+    private TransactionExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        userBackfill = mock(TransactionUserBackfill.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        exportService = new TransactionExportService(transactionRepository, userBackfill, transactionManager,
+                new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    private static TransactionExportRow row(long id, long amount, String description) {
+        return new TransactionExportRow(id, 7L, TransactionType.DEBIT, amount, "ref-" + id, description, AT);
+    }
+
+    @Test
+    @DisplayName("Should write one JSON object per line with exact amounts")
+    void testNdjson() throws IOException {
+        when(transactionRepository.streamForExport(7L, null, null, null))
+                .thenReturn(Stream.of(row(1L, 12_345L, "Coffee"), row(2L, 1_000_000_000_00L, null)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(2, exportService.export(new ExportFilter(7L, null, null, null), ExportFormat.NDJSON, false, out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertTrue(lines[0].contains("\"amount\":123.45,"));
+        assertEquals("ref-1", first.get("reference").asText());
+        assertEquals("2025-03-01T09:30", first.get("transactionDate").asText());
+        assertTrue(new ObjectMapper().readTree(lines[1]).get("description").isNull());
+        assertTrue(lines[1].contains("\"amount\":1000000000.00,"));
+    }
+
+    @Test
+    @DisplayName("Should quote CSV fields and defuse spreadsheet formulas")
+    void testCsv() throws IOException {
+        when(transactionRepository.streamForExport(null, 3L, AT, null))
+                .thenReturn(Stream.of(row(1L, 5L, "Rent, \"March\""), row(2L, 100L, "=HYPERLINK(\"x\")")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(new ExportFilter(null, 3L, AT, null), ExportFormat.CSV, false, out);
+
+        assertEquals(String.join("\r\n",
+                "id,walletId,type,amount,reference,description,transactionDate",
+                "1,7,DEBIT,0.05,ref-1,\"Rent, \"\"March\"\"\",2025-03-01T09:30",
+                "2,7,DEBIT,1.00,ref-2,\"'=HYPERLINK(\"\"x\"\")\",2025-03-01T09:30",
+                ""), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should read a user's export by user id once the backfill is complete")
+    void testUserExport_BackfillComplete() throws IOException {
+        when(userBackfill.isComplete()).thenReturn(true);
+        when(transactionRepository.streamForUserExport(3L, AT, null)).thenReturn(Stream.of(row(1L, 5L, null)));
+
+        assertEquals(1, exportService.export(new ExportFilter(null, 3L, AT, null), ExportFormat.NDJSON, false,
+                new ByteArrayOutputStream()));
+        verify(transactionRepository, never()).streamForExport(any(), any(), any(), any());
+
+        when(transactionRepository.streamForExport(7L, 3L, null, null)).thenReturn(Stream.of(row(2L, 5L, null)));
+        assertEquals(1, exportService.export(new ExportFilter(7L, 3L, null, null), ExportFormat.NDJSON, false,
+                new ByteArrayOutputStream()));
+    }
+
+    @Test
+    @DisplayName("Should gzip the export and leave the response stream open")
+    void testGzip() throws IOException {
+        when(transactionRepository.streamForExport(null, null, null, null)).thenReturn(Stream.of(row(1L, 5L, null)));
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) {
+                bytes.write(b);
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        exportService.export(new ExportFilter(null, null, null, null), ExportFormat.CSV, true, out);
+
+        assertFalse(closed.get());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).endsWith("1,7,DEBIT,0.05,ref-1,,2025-03-01T09:30\r\n"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should write rows as they are read, without collecting them")
+    void testStreamsLazily() throws IOException {
+        int rows = 200_000;
+        when(transactionRepository.streamForExport(null, null, null, null))
+                .thenReturn(LongStream.rangeClosed(1, rows).mapToObj(id -> row(id, id, "Row " + id)));
+        long[] written = new long[1];
+        OutputStream counting = new OutputStream() {
+            @Override
+            public void write(int b) {
+                written[0]++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                written[0] += len;
+            }
+        };
+
+        assertEquals(rows, exportService.export(new ExportFilter(null, null, null, null), ExportFormat.NDJSON, false, counting));
+        assertTrue(written[0] > rows * 100L);
+    }
+
+    @Test
+    void testCsvField() {
+        assertEquals("", TransactionExportService.csvField(null));
+        assertEquals("plain", TransactionExportService.csvField("plain"));
+        assertEquals("\"a\nb\"", TransactionExportService.csvField("a\nb"));
+        assertEquals("'-1", TransactionExportService.csvField("-1"));
+    }
+}
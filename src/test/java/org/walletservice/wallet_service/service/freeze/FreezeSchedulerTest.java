@@ -0,0 +1,161 @@
+package org.walletservice.wallet_service.service.freeze;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventType;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.limit.LimitWindow;
+import org.walletservice.wallet_service.service.limit.SpendingLimitEngine;
+import org.walletservice.wallet_service.service.outbox.OutboxService;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FreezeSchedulerTest {
+
+    private static final long DURATION_MS = 120_000;
+
+    private WalletRepository walletRepository;
+    private SpendingLimitEngine spendingLimits;
+    private OutboxService outboxService;
+    private SimpleMeterRegistry meterRegistry;
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private FreezeScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        walletRepository = mock(WalletRepository.class);
+        spendingLimits = mock(SpendingLimitEngine.class);
+        outboxService = mock(OutboxService.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new FreezeScheduler(walletRepository, spendingLimits, outboxService, transactionManager, meterRegistry,
+                DURATION_MS, 100, 30_000, now::get);
+    }
+
+    @Test
+    @DisplayName("Should not touch the database while nothing is due")
+    void testTick_NothingDue() {
+        scheduler.schedule(1L, toDateTime(now.get() - 100_000));
+        now.addAndGet(10_000); // before both the freeze expiry and the first sweep
+
+        assertEquals(0, scheduler.tick());
+        verifyNoInteractions(walletRepository);
+    }
+
+    @Test
+    @DisplayName("Should unfreeze the due wallets with one statement and reset their daily spend")
+    void testTick_UnfreezesDueWallets() {
+        scheduler.schedule(1L, toDateTime(now.get()));
+        scheduler.schedule(2L, toDateTime(now.get() + 50));
+        scheduler.schedule(3L, toDateTime(now.get() + 60_000));
+        when(walletRepository.findExpiredFreezes(anyCollection(), any())).thenReturn(List.of(1L, 2L));
+        when(walletRepository.unfreezeExpired(anyCollection(), any())).thenReturn(2);
+        now.addAndGet(DURATION_MS + 100);
+
+        assertEquals(2, scheduler.tick());
+
+        LocalDateTime frozenBefore = toDateTime(now.get() - DURATION_MS);
+        verify(walletRepository).unfreezeExpired(Set.of(1L, 2L), frozenBefore);
+        verify(spendingLimits).reset(1L, LimitWindow.DAILY);
+        verify(spendingLimits).reset(2L, LimitWindow.DAILY);
+        verify(spendingLimits, never()).reset(eq(3L), any());
+        verify(outboxService).recordStatus(List.of(1L, 2L), OutboxEventType.UNFROZEN);
+        assertEquals(2.0, meterRegistry.counter("wallet.freeze.unfrozen").count());
+        assertEquals(1.0, meterRegistry.get("wallet.freeze.scheduled").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should not fire a cancelled freeze")
+    void testCancel() {
+        scheduler.schedule(1L, toDateTime(now.get()));
+        scheduler.cancel(1L);
+        now.addAndGet(DURATION_MS + 100);
+
+        assertEquals(0, scheduler.tick());
+        verify(walletRepository, never()).unfreezeExpired(anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("Should retry due wallets on the next tick when the statement fails")
+    void testTick_RetriesAfterFailure() {
+        scheduler.schedule(1L, toDateTime(now.get()));
+        when(walletRepository.unfreezeExpired(anyCollection(), any()))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(1);
+        now.addAndGet(DURATION_MS + 100);
+
+        assertThrows(RuntimeException.class, () -> scheduler.tick());
+        verify(spendingLimits, never()).reset(any(), any());
+
+        now.addAndGet(100);
+        assertEquals(1, scheduler.tick());
+        verify(spendingLimits).reset(1L, LimitWindow.DAILY);
+    }
+
+    @Test
+    @DisplayName("Should rebuild from the frozen wallets and lift expired freezes on the next tick")
+    void testRebuild() {
+        when(walletRepository.findFreezes()).thenReturn(List.of(
+                new Object[]{1L, toDateTime(now.get() - DURATION_MS - 5_000)},
+                new Object[]{2L, toDateTime(now.get() - 10_000)}));
+        when(walletRepository.unfreezeExpired(anyCollection(), any())).thenReturn(1);
+
+        assertEquals(2, scheduler.rebuild());
+        now.addAndGet(100);
+        scheduler.tick();
+
+        verify(walletRepository).unfreezeExpired(eq(Set.of(1L)), any());
+        now.addAndGet(DURATION_MS);
+        scheduler.tick();
+        verify(walletRepository).unfreezeExpired(eq(Set.of(2L)), any());
+    }
+
+    @Test
+    @DisplayName("Should sweep the database for expired freezes every sweep interval")
+    void testTick_Sweep() {
+        when(walletRepository.findExpiredFreezes(any())).thenReturn(List.of(7L));
+        when(walletRepository.unfreezeExpired(anyCollection(), any())).thenReturn(1);
+
+        now.addAndGet(10_000);
+        assertEquals(0, scheduler.tick());
+        verify(walletRepository, never()).findExpiredFreezes(any());
+
+        now.addAndGet(20_000);
+        assertEquals(1, scheduler.tick());
+        verify(walletRepository).unfreezeExpired(Set.of(7L), toDateTime(now.get() - DURATION_MS));
+    }
+
+    @Test
+    @DisplayName("Should report the seconds left of a freeze, at least one")
+    void testSecondsLeft() {
+        WalletEntity wallet = new WalletEntity(10L, 0.0);
+        wallet.setFrozen(true);
+        wallet.setFrozenAt(toDateTime(now.get() - 30_500));
+        assertEquals(90, scheduler.secondsLeft(wallet));
+
+        wallet.setFrozenAt(toDateTime(now.get() - DURATION_MS - 5_000));
+        assertEquals(1, scheduler.secondsLeft(wallet));
+
+        wallet.setFrozenAt(null);
+        assertEquals(120, scheduler.secondsLeft(wallet));
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
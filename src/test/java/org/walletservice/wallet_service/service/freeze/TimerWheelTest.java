@@ -0,0 +1,101 @@
+package org.walletservice.wallet_service.service.freeze;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+    private static final long TICK = 100;
+
+    @Test
+    @DisplayName("Should fire a timer at its deadline and not before")
+    void testFiresAtDeadline() {
+        TimerWheel wheel = new TimerWheel(TICK, 3, START);
+        wheel.schedule(1L, START + 550);
+
+        assertTrue(wheel.advance(START + 500).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(START + 600));
+        assertTrue(wheel.advance(START + 10_000).isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Should fire a deadline already passed on the next advance")
+    void testPastDeadline() {
+        TimerWheel wheel = new TimerWheel(TICK, 3, START);
+        wheel.schedule(1L, START - 5_000);
+
+        assertEquals(List.of(1L), wheel.advance(START));
+    }
+
+    @Test
+    @DisplayName("Should cascade timers from the upper levels on time")
+    void testCascades() {
+        TimerWheel wheel = new TimerWheel(TICK, 3, START);
+        long twoMinutes = 120_000; // level 1 at 100 ms ticks
+        long fiveHours = 5 * 3_600_000L; // level 2
+        wheel.schedule(1L, START + twoMinutes);
+        wheel.schedule(2L, START + fiveHours);
+
+        assertTrue(wheel.advance(START + twoMinutes - TICK).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(START + twoMinutes));
+        assertTrue(wheel.advance(START + fiveHours - TICK).isEmpty());
+        assertEquals(List.of(2L), wheel.advance(START + fiveHours));
+    }
+
+    @Test
+    @DisplayName("Should park deadlines beyond the top level until they come in range")
+    void testBeyondTopLevel() {
+        TimerWheel wheel = new TimerWheel(TICK, 2, START); // covers 409.6 s
+        long deadline = START + 3_600_000;
+        wheel.schedule(1L, deadline);
+
+        assertTrue(wheel.advance(deadline - TICK).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(deadline));
+    }
+
+    @Test
+    @DisplayName("Should honour cancel and reschedule")
+    void testCancelAndReschedule() {
+        TimerWheel wheel = new TimerWheel(TICK, 3, START);
+        wheel.schedule(1L, START + 1_000);
+        wheel.schedule(2L, START + 1_000);
+        wheel.cancel(1L);
+        wheel.schedule(2L, START + 90_000);
+
+        assertTrue(wheel.advance(START + 60_000).isEmpty());
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(2L), wheel.advance(START + 90_000));
+    }
+
+    @Test
+    @DisplayName("Should fire every timer exactly once, in the tick of its deadline")
+    void testRandomDeadlines() {
+        TimerWheel wheel = new TimerWheel(TICK, 3, START);
+        Random random = new Random(42);
+        long[] deadlines = new long[2_000];
+        for (int i = 0; i < deadlines.length; i++) {
+            deadlines[i] = START + random.nextLong(8 * 3_600_000L);
+            wheel.schedule(i, deadlines[i]);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = START; now <= START + 8 * 3_600_000L + TICK; now += 7 * TICK) {
+            for (Long walletId : wheel.advance(now)) {
+                long deadline = deadlines[walletId.intValue()];
+                assertTrue(deadline <= now, "fired early");
+                assertTrue(deadline > now - 7 * TICK - TICK, "fired late");
+                fired.add(walletId);
+            }
+        }
+        assertEquals(deadlines.length, fired.size());
+        assertEquals(deadlines.length, fired.stream().distinct().count());
+    }
+}
@@ -0,0 +1,187 @@
+package org.walletservice.wallet_service.service.hold;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.walletservice.wallet_service.dto.request.HoldRequestDTO;
+import org.walletservice.wallet_service.dto.response.HoldResponseDTO;
+import org.walletservice.wallet_service.entity.hold.HoldEntity;
+import org.walletservice.wallet_service.entity.hold.HoldStatus;
+import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.exception.HoldNotFoundException;
+import org.walletservice.wallet_service.repository.hold.HoldRepository;
+import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.ledger.WriteBehindLedger;
+import org.walletservice.wallet_service.service.limit.SpendingLimitEngine;
+import org.walletservice.wallet_service.service.limit.SpendingLimitEngine.Reservation;
+import org.walletservice.wallet_service.service.outbox.OutboxService;
+import org.walletservice.wallet_service.service.transaction.TransactionService;
+import org.walletservice.wallet_service.service.wallet.WalletService;
+import org.walletservice.wallet_service.service.wallet.WalletValidationService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HoldServiceTest {
+
+    @Mock
+    private HoldRepository holdRepository;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private WalletService walletService;
+
+    @Mock
+    private WalletValidationService walletValidationService;
+
+    @Mock
+    private SpendingLimitEngine spendingLimits;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private WriteBehindLedger writeBehindLedger;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private HoldService holdService;
+
+    private WalletEntity wallet;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        holdService = new HoldService(holdRepository, walletRepository, walletService, walletValidationService,
+                spendingLimits, transactionService, outboxService, writeBehindLedger, transactionManager,
+                3_600_000L, 86_400_000L);
+
+        wallet = new WalletEntity(10L, 1000.0);
+        wallet.setId(1L);
+        when(walletService.getWalletById(1L)).thenReturn(wallet);
+    }
+
+    private HoldEntity authorizedHold(String id, long amount) {
+        return new HoldEntity(id, 1L, 10L, amount, "Hotel", 42L, LocalDateTime.now().plusHours(1));
+    }
+
+    @Test
+    @DisplayName("Should insert the hold with its limit reservation through the wallet's hold statement")
+    @SuppressWarnings("unchecked")
+    void testAuthorize() {
+        when(holdRepository.save(any(HoldEntity.class))).thenAnswer(i -> i.getArgument(0));
+        when(walletValidationService.hold(eq(wallet), eq(25_000L), any())).thenAnswer(invocation ->
+                ((Function<Reservation, ?>) invocation.getArgument(2)).apply(new Reservation(1L, 25_000L, 42L, false)));
+
+        HoldResponseDTO response = holdService.authorize(1L, new HoldRequestDTO(250.0, 600L, "Hotel"), 10L);
+
+        ArgumentCaptor<HoldEntity> saved = ArgumentCaptor.forClass(HoldEntity.class);
+        verify(holdRepository).save(saved.capture());
+        assertEquals(42L, saved.getValue().getLimitReservedAt());
+        assertEquals(10L, saved.getValue().getRequestedBy());
+        assertEquals("AUTHORIZED", response.status());
+        assertEquals(250.0, response.amount());
+        assertTrue(response.expiresAt().isBefore(LocalDateTime.now().plusSeconds(601)));
+        verify(walletValidationService).validateBalance(wallet, 25_000L);
+    }
+
+    @Test
+    @DisplayName("Should refuse expiries over the maximum and wallets in journal durability mode")
+    void testAuthorize_Rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> holdService.authorize(1L, new HoldRequestDTO(250.0, 86_401L, null), 10L));
+
+        when(writeBehindLedger.handles(wallet)).thenReturn(true);
+        assertThrows(IllegalStateException.class,
+                () -> holdService.authorize(1L, new HoldRequestDTO(250.0, null, null), 10L));
+        verify(walletValidationService, never()).hold(any(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should debit the captured part and stop counting the rest towards the limits")
+    void testCapture_Partial() {
+        HoldEntity hold = authorizedHold("h-1", 25_000L);
+        when(holdRepository.findByIdForUpdate("h-1")).thenReturn(Optional.of(hold));
+        when(walletRepository.captureHeld(1L, 25_000L, 20_000L)).thenReturn(1);
+
+        HoldResponseDTO response = holdService.capture("h-1", 200.0, 10L, false);
+
+        ArgumentCaptor<TransactionEntity> txn = ArgumentCaptor.forClass(TransactionEntity.class);
+        verify(transactionService).save(txn.capture());
+        assertEquals("h-1", txn.getValue().getTransactionId());
+        assertEquals(20_000L, txn.getValue().getAmountMinor());
+        assertEquals(TransactionType.DEBIT, txn.getValue().getType());
+        assertEquals("CAPTURED", response.status());
+        assertEquals(200.0, response.capturedAmount());
+        assertEquals(10L, txn.getValue().getUserId());
+        verify(outboxService).recordTransaction(1L, TransactionType.DEBIT, "h-1", 20_000L, null);
+        verify(spendingLimits).releaseOnCommit(new Reservation(1L, 5_000L, 42L, false));
+    }
+
+    @Test
+    @DisplayName("Should refuse to capture more than held, an expired hold or a hold of another user")
+    void testCapture_Rejected() {
+        HoldEntity hold = authorizedHold("h-1", 25_000L);
+        when(holdRepository.findByIdForUpdate("h-1")).thenReturn(Optional.of(hold));
+        HoldEntity expired = new HoldEntity("h-2", 1L, 10L, 100L, null, 0L, LocalDateTime.now().minusSeconds(1));
+        when(holdRepository.findByIdForUpdate("h-2")).thenReturn(Optional.of(expired));
+
+        assertThrows(IllegalArgumentException.class, () -> holdService.capture("h-1", 250.01, 10L, false));
+        assertThrows(HoldNotFoundException.class, () -> holdService.capture("h-1", null, 99L, false));
+        assertThrows(IllegalStateException.class, () -> holdService.capture("h-2", null, 10L, false));
+        verify(walletRepository, never()).captureHeld(anyLong(), anyLong(), anyLong());
+        assertEquals(HoldStatus.AUTHORIZED, hold.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should void an authorized hold only once")
+    void testVoid() {
+        HoldEntity hold = authorizedHold("h-1", 25_000L);
+        when(holdRepository.findByIdForUpdate("h-1")).thenReturn(Optional.of(hold));
+        when(walletRepository.releaseHeld(1L, 25_000L)).thenReturn(1);
+
+        assertEquals("VOIDED", holdService.voidHold("h-1", 99L, true).status());
+        verify(spendingLimits).releaseOnCommit(new Reservation(1L, 25_000L, 42L, false));
+
+        assertThrows(IllegalStateException.class, () -> holdService.voidHold("h-1", 10L, false));
+        verify(walletRepository, times(1)).releaseHeld(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should release expired holds with one status update and one statement per wallet")
+    void testReleaseExpired() {
+        HoldEntity a = new HoldEntity("h-a", 2L, 10L, 300L, null, 7L, LocalDateTime.now().minusMinutes(2));
+        HoldEntity b = new HoldEntity("h-b", 1L, 10L, 200L, null, 7L, LocalDateTime.now().minusMinutes(1));
+        HoldEntity c = new HoldEntity("h-c", 2L, 10L, 100L, null, 7L, LocalDateTime.now().minusMinutes(1));
+        when(holdRepository.findExpired(eq(HoldStatus.AUTHORIZED), any(), any())).thenReturn(List.of(a, b, c));
+        when(walletRepository.releaseHeld(anyLong(), anyLong())).thenReturn(1);
+
+        assertEquals(3, holdService.releaseExpired(100));
+
+        verify(holdRepository).updateStatus(eq(List.of("h-a", "h-b", "h-c")), eq(HoldStatus.EXPIRED), any());
+        var order = inOrder(walletRepository);
+        order.verify(walletRepository).releaseHeld(1L, 200L);
+        order.verify(walletRepository).releaseHeld(2L, 400L);
+        verify(spendingLimits, times(3)).releaseOnCommit(any());
+    }
+}
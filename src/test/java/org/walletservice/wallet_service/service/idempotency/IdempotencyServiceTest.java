@@ -0,0 +1,210 @@
+package org.walletservice.wallet_service.service.idempotency;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.walletservice.wallet_service.dto.request.WalletTransferRequestDTO;
+import org.walletservice.wallet_service.dto.response.WalletTransactionResponseDTO;
+import org.walletservice.wallet_service.entity.idempotency.IdempotencyKeyEntity;
+import org.walletservice.wallet_service.exception.IdempotencyKeyReuseException;
+import org.walletservice.wallet_service.repository.idempotency.IdempotencyKeyRepository;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    private static final TypeReference<WalletTransactionResponseDTO> RESPONSE = new TypeReference<>() {};
+    private static final String ENDPOINT = "POST /transactions/transfer";
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyService idempotencyService;
+
+    // Rows of idempotency_keys, keyed by "userId:key"
+    private final Map<String, IdempotencyKeyEntity> rows = new ConcurrentHashMap<>();
+
+    private final WalletTransferRequestDTO transfer = new WalletTransferRequestDTO(1L, 2L, 100.0);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        idempotencyService = new IdempotencyService(idempotencyKeyRepository, objectMapper, transactionManager,
+                24, 60_000, 5_000);
+
+        when(idempotencyKeyRepository.findForUpdate(anyLong(), anyString()))
+                .thenAnswer(inv -> Optional.ofNullable(rows.get(inv.getArgument(0) + ":" + inv.getArgument(1))));
+        when(idempotencyKeyRepository.saveAndFlush(any())).thenAnswer(inv -> {
+            IdempotencyKeyEntity row = inv.getArgument(0);
+            rows.put(row.getUserId() + ":" + row.getIdempotencyKey(), row);
+            return row;
+        });
+        doAnswer(inv -> {
+            IdempotencyKeyEntity row = inv.getArgument(0);
+            rows.remove(row.getUserId() + ":" + row.getIdempotencyKey());
+            return null;
+        }).when(idempotencyKeyRepository).delete(any());
+    }
+
+    private Supplier<ResponseEntity<WalletTransactionResponseDTO>> transferAction() {
+        return () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.status(201)
+                    .location(URI.create("/transactions/txn-1"))
+                    .body(new WalletTransactionResponseDTO("txn-1", 100.0, "DEBIT",
+                            LocalDateTime.of(2025, 1, 1, 10, 0), "Transfer to wallet 2", 900.0, 4900.0));
+        };
+    }
+
+    @Test
+    @DisplayName("Should run the request directly when no key is sent")
+    void testExecute_NoKey() {
+        ResponseEntity<WalletTransactionResponseDTO> response =
+                idempotencyService.execute(1L, null, ENDPOINT, transfer, RESPONSE, transferAction());
+
+        assertEquals(201, response.getStatusCode().value());
+        assertEquals(1, executions.get());
+        verifyNoInteractions(idempotencyKeyRepository);
+    }
+
+    @Test
+    @DisplayName("Should replay the stored response for a repeated key")
+    void testExecute_Replay() {
+        ResponseEntity<WalletTransactionResponseDTO> first =
+                idempotencyService.execute(1L, "key-1", ENDPOINT, transfer, RESPONSE, transferAction());
+        ResponseEntity<WalletTransactionResponseDTO> second =
+                idempotencyService.execute(1L, "key-1", ENDPOINT, transfer, RESPONSE, transferAction());
+
+        assertEquals(1, executions.get());
+        assertEquals(first.getBody(), second.getBody());
+        assertEquals(201, second.getStatusCode().value());
+        assertEquals("/transactions/txn-1", second.getHeaders().getLocation().toString());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should scope keys to the user")
+    void testExecute_KeyScopedToUser() {
+        idempotencyService.execute(1L, "key-1", ENDPOINT, transfer, RESPONSE, transferAction());
+        idempotencyService.execute(2L, "key-1", ENDPOINT, transfer, RESPONSE, transferAction());
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused for a different request")
+    void testExecute_DifferentRequest() {
+        idempotencyService.execute(1L, "key-1", ENDPOINT, transfer, RESPONSE, transferAction());
+
+        WalletTransferRequestDTO other = new WalletTransferRequestDTO(1L, 2L, 999.0);
+        assertThrows(IdempotencyKeyReuseException.class,
+                () -> idempotencyService.execute(1L, "key-1", ENDPOINT, other, RESPONSE, transferAction()));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Should report a key locked by a request elsewhere as in progress, and take it over once abandoned")
+    void testExecute_LockedElsewhere() {
+        idempotencyService.execute(1L, "key-1", ENDPOINT, transfer, RESPONSE, transferAction());
+        IdempotencyKeyEntity row = rows.get("1:key-1");
+        row.lock(row.getEndpoint(), row.getFingerprint(), "other-instance", LocalDateTime.now(),
+                LocalDateTime.now().plusHours(1));
+
+        assertThrows(IllegalStateException.class,
+                () -> idempotencyService.execute(1L, "key-1", ENDPOINT, transfer, RESPONSE, transferAction()));
+
+        row.lock(row.getEndpoint(), row.getFingerprint(), "other-instance", LocalDateTime.now().minusMinutes(5),
+                LocalDateTime.now().plusHours(1));
+        idempotencyService.execute(1L, "key-1", ENDPOINT, transfer, RESPONSE, transferAction());
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    @DisplayName("Should release the key when the request fails so it can be retried")
+    void testExecute_FailureReleasesKey() {
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute(1L, "key-1", ENDPOINT,
+                transfer, RESPONSE, () -> {
+                    throw new IllegalArgumentException("Insufficient balance.");
+                }));
+        assertFalse(rows.containsKey("1:key-1"));
+
+        idempotencyService.execute(1L, "key-1", ENDPOINT, transfer, RESPONSE, transferAction());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Should make concurrent duplicates wait for the first request instead of running again")
+    void testExecute_CoalescesInFlightDuplicates() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<ResponseEntity<WalletTransactionResponseDTO>> slow = () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return transferAction().get();
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<ResponseEntity<WalletTransactionResponseDTO>> first =
+                    pool.submit(() -> idempotencyService.execute(1L, "key-1", ENDPOINT, transfer, RESPONSE, slow));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<ResponseEntity<WalletTransactionResponseDTO>> second =
+                    pool.submit(() -> idempotencyService.execute(1L, "key-1", ENDPOINT, transfer, RESPONSE, slow));
+            Future<ResponseEntity<WalletTransactionResponseDTO>> third =
+                    pool.submit(() -> idempotencyService.execute(1L, "key-1", ENDPOINT, transfer, RESPONSE, slow));
+            // Both duplicates are parked on the first request
+            Thread.sleep(100);
+            assertFalse(second.isDone());
+            release.countDown();
+
+            assertEquals(first.get(5, TimeUnit.SECONDS).getBody(), second.get(5, TimeUnit.SECONDS).getBody());
+            assertEquals(first.get().getBody(), third.get(5, TimeUnit.SECONDS).getBody());
+            assertEquals(1, executions.get());
+            assertEquals(0, ((Map<?, ?>) ReflectionTestUtils.getField(idempotencyService, "inFlight")).size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject blank or oversized keys")
+    void testExecute_InvalidKey() {
+        assertThrows(IllegalArgumentException.class,
+                () -> idempotencyService.execute(1L, " ", ENDPOINT, transfer, RESPONSE, transferAction()));
+        assertThrows(IllegalArgumentException.class,
+                () -> idempotencyService.execute(1L, "k".repeat(256), ENDPOINT, transfer, RESPONSE, transferAction()));
+    }
+}
@@ -0,0 +1,41 @@
+package org.walletservice.wallet_service.service.ledger;
+
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Child process of {@link LedgerJournalTest#testCrashRecovery()}: appends and syncs on several
+ * threads until it is killed, printing {@code ACK <sequence>} once an entry is durable.
+ */
+public final class LedgerJournalCrashWriter {
+
+    private static final int THREADS = 4;
+
+    private LedgerJournalCrashWriter() {}
+
+    public static void main(String[] args) throws Exception {
+        // Small segments, so that the writer is killed across roll-overs too
+        LedgerJournal journal = new LedgerJournal(Path.of(args[0]), 16384);
+        for (int t = 0; t < THREADS; t++) {
+            int writer = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    for (long i = 0; ; i++) {
+                        LedgerEntry entry = journal.append(new LedgerEntry(0, writer, TransactionType.CREDIT, 100,
+                                "w" + writer + "-" + i + "-" + System.nanoTime(), "Crash test", System.currentTimeMillis()));
+                        journal.sync(entry.sequence());
+                        synchronized (System.out) {
+                            System.out.println("ACK " + entry.sequence());
+                            System.out.flush();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            thread.start();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package org.walletservice.wallet_service.service.ledger;
+
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerJournalTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should read back every synced entry after reopening")
+    void testRoundTrip() throws IOException {
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            journal.append(entry(1L, TransactionType.CREDIT, 50_000L, "t1", "Salary"));
+            journal.append(entry(1L, TransactionType.DEBIT, 1_250L, "t2", null));
+            LedgerEntry last = journal.append(entry(2L, TransactionType.CREDIT, 1L, "t3", "Réfund ✓"));
+            journal.sync(last.sequence());
+            assertEquals(3, journal.durableSequence());
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            List<LedgerEntry> recovered = journal.recovered();
+            assertEquals(3, recovered.size());
+            assertEquals(entry(1L, TransactionType.CREDIT, 50_000L, "t1", "Salary").withSequence(1), recovered.get(0));
+            assertNull(recovered.get(1).description());
+            assertEquals(-1_250L, recovered.get(1).delta());
+            assertEquals("Réfund ✓", recovered.get(2).description());
+            assertEquals(4, journal.append(entry(2L, TransactionType.CREDIT, 1L, "t4", null)).sequence());
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop a torn record and everything after it, and append in its place")
+    void testTornTail() throws IOException {
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            journal.append(entry(1L, TransactionType.CREDIT, 100L, "t1", null));
+            journal.append(entry(1L, TransactionType.CREDIT, 200L, "t2", null));
+            journal.sync(journal.append(entry(1L, TransactionType.CREDIT, 300L, "t3", null)).sequence());
+        }
+        // Flip a payload byte of the second record, as if it were half written when the process died
+        Path segment = onlySegment();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            int firstLength = file.readInt();
+            long secondPayload = 8L + firstLength + 8;
+            file.seek(secondPayload + 10);
+            int b = file.read();
+            file.seek(secondPayload + 10);
+            file.write(b ^ 0xFF);
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            assertEquals(List.of(1L), sequences(journal.recovered()));
+            assertEquals(2, journal.append(entry(1L, TransactionType.CREDIT, 400L, "t4", null)).sequence());
+            journal.sync(2);
+        }
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            List<LedgerEntry> recovered = journal.recovered();
+            assertEquals(List.of(1L, 2L), sequences(recovered));
+            assertEquals("t4", recovered.get(1).transactionId());
+        }
+    }
+
+    @Test
+    @DisplayName("Should roll over to new segments and delete those behind the checkpoint")
+    void testSegmentsAndCheckpoint() throws IOException {
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            for (int i = 1; i <= 300; i++) {
+                journal.append(entry(i % 7, TransactionType.CREDIT, i, "t" + i, "Top-up " + i));
+            }
+            journal.sync(300);
+            int segments = journal.segmentCount();
+            assertTrue(segments > 3, "expected several segments, got " + segments);
+
+            journal.checkpoint(250);
+            assertTrue(journal.segmentCount() < segments);
+            assertEquals(250, journal.checkpoint());
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            List<LedgerEntry> recovered = journal.recovered();
+            assertEquals(50, recovered.size());
+            assertEquals(251, recovered.get(0).sequence());
+            assertEquals(300, journal.lastSequence());
+            assertEquals(301, journal.append(entry(1L, TransactionType.DEBIT, 1L, "t301", null)).sequence());
+        }
+    }
+
+    @Test
+    @DisplayName("Should let concurrent writers share syncs without losing an entry")
+    void testConcurrentSync() throws Exception {
+        int threads = 8;
+        int perThread = 200;
+        try (LedgerJournal journal = new LedgerJournal(directory, 1 << 20)) {
+            Thread[] writers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                int writer = t;
+                writers[t] = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < perThread; i++) {
+                            LedgerEntry appended = journal.append(
+                                    entry(writer, TransactionType.CREDIT, 1L, writer + "-" + i, null));
+                            journal.sync(appended.sequence());
+                            assertTrue(journal.durableSequence() >= appended.sequence());
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                writers[t].start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+        try (LedgerJournal journal = new LedgerJournal(directory, 1 << 20)) {
+            assertEquals(threads * perThread, journal.recovered().size());
+        }
+    }
+
+    /**
+     * Many virtual threads append across segment rolls and wait for shared syncs. None of them may
+     * park while holding a monitor, which on JDK 21 would pin its carrier thread.
+     */
+    @Test
+    @DisplayName("Should serve virtual-thread writers without pinning their carrier threads")
+    void testVirtualThreadWriters() throws Exception {
+        int writers = 1_000;
+        int perWriter = 5;
+        List<String> pinned = new CopyOnWriteArrayList<>();
+        try (RecordingStream pinning = new RecordingStream();
+             LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            pinning.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            pinning.onEvent("jdk.VirtualThreadPinned", event -> pinned.add(String.valueOf(event.getStackTrace())));
+            pinning.startAsync();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int w = 0; w < writers; w++) {
+                    int writer = w;
+                    executor.submit(() -> {
+                        for (int i = 0; i < perWriter; i++) {
+                            journal.sync(journal.append(
+                                    entry(writer, TransactionType.CREDIT, 1L, writer + "-" + i, null)).sequence());
+                        }
+                        return null;
+                    });
+                }
+            }
+            pinning.stop();
+        }
+
+        assertEquals(List.of(), pinned);
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            assertEquals(writers * perWriter, journal.recovered().size());
+        }
+    }
+
+    /**
+     * Kills a writer process while it is appending and syncing, several times over, and checks that
+     * every entry it acknowledged is still there, without gaps, and that appending carries on.
+     */
+    @Test
+    @DisplayName("Should keep every acknowledged entry when the writer process is killed mid-batch")
+    void testCrashRecovery() throws Exception {
+        Set<Long> acknowledged = new TreeSet<>();
+        for (int round = 0; round < 3; round++) {
+            Process writer = new ProcessBuilder(
+                    ProcessHandle.current().info().command().orElse("java"),
+                    "-cp", System.getProperty("java.class.path"),
+                    LedgerJournalCrashWriter.class.getName(),
+                    directory.toString())
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+
+            int acksThisRound = 0;
+            try (BufferedReader out = new BufferedReader(
+                    new InputStreamReader(writer.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while (acksThisRound < 500 && (line = out.readLine()) != null) {
+                    if (line.startsWith("ACK ")) {
+                        acknowledged.add(Long.parseLong(line.substring(4)));
+                        acksThisRound++;
+                    }
+                }
+                // Still appending and syncing on several threads when it dies
+                writer.destroyForcibly();
+                assertTrue(writer.waitFor(30, TimeUnit.SECONDS));
+            }
+            assertEquals(500, acksThisRound, "writer stopped before it was killed");
+
+            try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES * 4)) {
+                List<Long> recovered = sequences(journal.recovered());
+                assertEquals(1L, recovered.get(0));
+                for (int i = 1; i < recovered.size(); i++) {
+                    assertEquals(recovered.get(i - 1) + 1, recovered.get(i), "gap after " + recovered.get(i - 1));
+                }
+                assertTrue(recovered.containsAll(acknowledged), "an acknowledged entry was lost");
+            }
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.filter(p -> p.getFileName().toString().endsWith(".journal")).toList();
+            assertEquals(1, segments.size());
+            return segments.get(0);
+        }
+    }
+
+    private static List<Long> sequences(List<LedgerEntry> entries) {
+        return entries.stream().map(LedgerEntry::sequence).toList();
+    }
+
+    static LedgerEntry entry(long walletId, TransactionType type, long amount, String transactionId, String description) {
+        return new LedgerEntry(0, walletId, type, amount, transactionId, description, 1_700_000_000_000L);
+    }
+}
@@ -0,0 +1,220 @@
+package org.walletservice.wallet_service.service.ledger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.limit.SpendingLimitEngine;
+import org.walletservice.wallet_service.service.outbox.OutboxService;
+import org.walletservice.wallet_service.service.transaction.TransactionService;
+import org.walletservice.wallet_service.service.wallet.WalletFreezeService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WriteBehindLedgerTest {
+
+    @TempDir
+    Path directory;
+
+    private WalletRepository walletRepository;
+    private TransactionService transactionService;
+    private SpendingLimitEngine spendingLimits;
+    private WalletFreezeService walletFreezeService;
+    private OutboxService outboxService;
+    private PlatformTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+    private final List<TransactionEntity> saved = new ArrayList<>();
+    private WriteBehindLedger ledger;
+
+    private WalletEntity wallet;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        walletRepository = mock(WalletRepository.class);
+        transactionService = mock(TransactionService.class);
+        spendingLimits = mock(SpendingLimitEngine.class);
+        walletFreezeService = mock(WalletFreezeService.class);
+        outboxService = mock(OutboxService.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(transactionService.saveAll(anyList())).thenAnswer(invocation -> {
+            saved.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(spendingLimits.reserve(any(), anyLong())).thenAnswer(invocation -> new SpendingLimitEngine.Reservation(
+                invocation.<WalletEntity>getArgument(0).getId(), invocation.getArgument(1), 0L, false));
+        meterRegistry = new SimpleMeterRegistry();
+
+        wallet = new WalletEntity(10L, 100.0);
+        wallet.setId(1L);
+
+        ledger = newLedger(Set.of());
+        ledger.recover();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledger.stop();
+    }
+
+    @Test
+    @DisplayName("Should only handle unstriped wallets of the configured users")
+    void testHandles() {
+        WriteBehindLedger someUsers = newLedger(Set.of(10L));
+        WalletEntity other = new WalletEntity(11L, 0.0);
+        WalletEntity striped = new WalletEntity(10L, 0.0);
+        striped.setStripeCount(4);
+
+        assertTrue(someUsers.handles(wallet));
+        assertFalse(someUsers.handles(other));
+        assertFalse(someUsers.handles(striped));
+        assertFalse(new WriteBehindLedger(walletRepository, transactionService, spendingLimits, walletFreezeService,
+                outboxService, transactionManager, meterRegistry, false, Set.of(), directory, 4096, 200, 500, () -> 0L)
+                .handles(wallet));
+    }
+
+    @Test
+    @DisplayName("Should apply in memory and write the net change behind in one batch")
+    void testApplyAndFlush() {
+        when(walletRepository.findAllById(Set.of(1L))).thenReturn(List.of(wallet));
+        assertEquals(15_000L, ledger.apply(wallet, TransactionType.CREDIT, 5_000L, "c1", "Top-up").balance());
+        assertEquals(12_000L, ledger.apply(wallet, TransactionType.DEBIT, 3_000L, "d1", null).balance());
+        verifyNoInteractions(walletRepository);
+        assertTrue(ledger.findPending("d1").isPresent());
+
+        assertEquals(2, ledger.flush());
+
+        assertEquals(List.of("c1", "d1"), saved.stream().map(TransactionEntity::getTransactionId).toList());
+        assertEquals(3_000L, saved.get(1).getAmountMinor());
+        verify(walletRepository).adjustBalance(1L, 2_000L);
+        assertEquals(10L, saved.get(0).getUserId());
+        assertEquals(10L, saved.get(1).getUserId());
+        assertTrue(ledger.findPending("d1").isEmpty());
+        assertEquals(0, ledger.flush());
+    }
+
+    @Test
+    @DisplayName("Should reject a debit over the in-memory balance without journaling it")
+    void testInsufficientBalance() {
+        ledger.apply(wallet, TransactionType.DEBIT, 9_000L, "d1", null);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ledger.apply(wallet, TransactionType.DEBIT, 2_000L, "d2", null));
+        assertTrue(ledger.findPending("d2").isEmpty());
+        verify(spendingLimits, times(1)).reserve(any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should answer a retried transaction id with the journaled entry")
+    void testDuplicate() {
+        ledger.apply(wallet, TransactionType.DEBIT, 1_000L, "d1", null);
+
+        WriteBehindLedger.Applied retried = ledger.apply(wallet, TransactionType.DEBIT, 1_000L, "d1", null);
+
+        assertTrue(retried.duplicate());
+        assertEquals(9_000L, retried.balance());
+        assertEquals(1, ledger.flush());
+    }
+
+    @Test
+    @DisplayName("Should leave nothing behind when a debit is over a spending limit")
+    void testLimitRejection() {
+        doThrow(new IllegalStateException("Per-minute limit exceeded")).when(spendingLimits).reserve(any(), eq(4_000L));
+
+        assertThrows(IllegalStateException.class, () -> ledger.apply(wallet, TransactionType.DEBIT, 4_000L, "d1", null));
+        assertEquals(10_001L, ledger.apply(wallet, TransactionType.CREDIT, 1L, "c1", null).balance());
+        assertTrue(ledger.findPending("d1").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should freeze the wallet once a debit reaches its daily limit")
+    void testDailyLimitFreeze() {
+        doReturn(new SpendingLimitEngine.Reservation(1L, 1_000L, 0L, true)).when(spendingLimits).reserve(any(), anyLong());
+
+        ledger.apply(wallet, TransactionType.DEBIT, 1_000L, "d1", null);
+
+        verify(walletFreezeService).freezeWallet(wallet);
+    }
+
+    @Test
+    @DisplayName("Should pick up a transfer credited to the row once nothing is in flight")
+    void testRebaseFromRow() {
+        ledger.apply(wallet, TransactionType.CREDIT, 1_000L, "c1", null);
+        WalletEntity row = new WalletEntity(10L, 0.0);
+        row.setId(1L);
+        row.setBalanceMinor(16_000L); // 11_000 flushed plus a 5_000 transfer credit
+        row.setVersion(3L);
+        when(walletRepository.findAllById(any())).thenReturn(List.of(row));
+        ledger.flush();
+
+        WalletEntity snapshot = new WalletEntity(10L, 0.0);
+        snapshot.setId(1L);
+        snapshot.setBalanceMinor(16_000L);
+        snapshot.setVersion(3L);
+        assertEquals(15_000L, ledger.apply(snapshot, TransactionType.DEBIT, 1_000L, "d1", null).balance());
+    }
+
+    /**
+     * The process died after a batch committed but before the checkpoint moved past it: the replay
+     * on the next start must not write that batch again.
+     */
+    @Test
+    @DisplayName("Should replay the journal after a crash mid-batch without applying anything twice")
+    void testReplayAfterCrashMidBatch() throws IOException {
+        ledger.stop();
+        try (LedgerJournal journal = new LedgerJournal(directory, 4096)) {
+            journal.checkpoint(journal.lastSequence());
+            journal.append(LedgerJournalTest.entry(1L, TransactionType.CREDIT, 500L, "r1", null));
+            journal.append(LedgerJournalTest.entry(1L, TransactionType.DEBIT, 200L, "r2", null));
+            journal.append(LedgerJournalTest.entry(2L, TransactionType.CREDIT, 700L, "r3", null));
+            journal.append(LedgerJournalTest.entry(1L, TransactionType.CREDIT, 50L, "r4", null));
+            journal.sync(journal.lastSequence());
+        }
+        // r1 and r2 made it into the database in the batch that was interrupted
+        TransactionEntity r1 = new TransactionEntity(1L, TransactionType.CREDIT, 5.0, null);
+        r1.setTransactionId("r1");
+        TransactionEntity r2 = new TransactionEntity(1L, TransactionType.DEBIT, 2.0, null);
+        r2.setTransactionId("r2");
+        when(transactionService.findStoredByTransactionIds(anyCollection())).thenReturn(List.of(r1, r2));
+
+        ledger = newLedger(Set.of());
+        assertEquals(4, ledger.recover());
+
+        assertEquals(List.of("r3", "r4"), saved.stream().map(TransactionEntity::getTransactionId).toList());
+        verify(walletRepository).adjustBalance(1L, 50L);
+        verify(walletRepository).adjustBalance(2L, 700L);
+        verify(walletRepository, times(2)).adjustBalance(anyLong(), anyLong());
+        verify(outboxService).recordTransaction(2L, TransactionType.CREDIT, "r3", 700L, null);
+        verify(outboxService).recordTransaction(1L, TransactionType.CREDIT, "r4", 50L, null);
+        verify(outboxService, times(2)).recordTransaction(any(), any(), any(), anyLong(), any());
+
+        ledger.stop();
+        try (LedgerJournal journal = new LedgerJournal(directory, 4096)) {
+            assertTrue(journal.recovered().isEmpty());
+        }
+        ledger = newLedger(Set.of());
+        assertEquals(0, ledger.recover());
+    }
+
+    private WriteBehindLedger newLedger(Set<Long> userIds) {
+        return new WriteBehindLedger(walletRepository, transactionService, spendingLimits, walletFreezeService,
+                outboxService, transactionManager, meterRegistry, true, userIds, directory, 4096, 200, 500,
+                () -> 1_700_000_000_000L);
+    }
+}
@@ -0,0 +1,214 @@
+package org.walletservice.wallet_service.service.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.repository.transaction.TransactionRepository;
+import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.limit.SpendingLimitEngine.Reservation;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SpendingLimitEngineTest {
+
+    private static final Map<String, TierLimits> TIERS = Map.of(
+            "standard", new TierLimits(300.0, 500.0, 1000.0),
+            "premium", new TierLimits(1000.0, 2000.0, null));
+
+    private TransactionRepository transactionRepository;
+    private WalletRepository walletRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private SpendingLimitEngine engine;
+
+    private WalletEntity wallet;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        walletRepository = mock(WalletRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        engine = newEngine(TIERS, "standard");
+
+        wallet = new WalletEntity(10L, 5000.0);
+        wallet.setId(1L);
+    }
+
+    private SpendingLimitEngine newEngine(Map<String, TierLimits> tiers, String defaultTier) {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        return new SpendingLimitEngine(transactionRepository, walletRepository, transactionManager,
+                meterRegistry, tiers, defaultTier, 8, 1000, now::get);
+    }
+
+    @Test
+    @DisplayName("Should count a debit against every window")
+    void testReserve_CountsAllWindows() {
+        Reservation reservation = engine.reserve(wallet, 10000L);
+
+        assertEquals(1L, reservation.walletId());
+        assertFalse(reservation.dailyLimitReached());
+        for (LimitWindow window : LimitWindow.values()) {
+            assertEquals(10000L, engine.spent(1L, window));
+        }
+        assertEquals(40000L, engine.remaining(wallet, LimitWindow.DAILY));
+    }
+
+    @Test
+    @DisplayName("Should reject a debit over the per-minute limit and count nothing")
+    void testReserve_PerMinuteExceeded() {
+        engine.reserve(wallet, 20000L);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> engine.reserve(wallet, 15000L));
+
+        assertEquals("Per-minute limit exceeded. Available ₹100.0", ex.getMessage());
+        assertEquals(20000L, engine.spent(1L, LimitWindow.DAILY));
+        assertEquals(1.0, meterRegistry.counter("wallet.limits.rejected", "window", "per_minute").count());
+    }
+
+    @Test
+    @DisplayName("Should let the per-minute window slide while the daily one still counts")
+    void testReserve_WindowsSlide() {
+        engine.reserve(wallet, 25000L);
+        now.addAndGet(LimitWindow.PER_MINUTE.lengthMillis() + 1000);
+        engine.reserve(wallet, 25000L);
+
+        assertEquals(25000L, engine.spent(1L, LimitWindow.PER_MINUTE));
+        assertEquals(50000L, engine.spent(1L, LimitWindow.DAILY));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> engine.reserve(wallet, 100L));
+        assertEquals("Daily limit exceeded. Available ₹0.0", ex.getMessage());
+        assertEquals(1.0, meterRegistry.counter("wallet.limits.rejected", "window", "daily").count());
+
+        now.addAndGet(LimitWindow.DAILY.lengthMillis());
+        assertEquals(0L, engine.spent(1L, LimitWindow.DAILY));
+        assertEquals(50000L, engine.spent(1L, LimitWindow.MONTHLY));
+    }
+
+    @Test
+    @DisplayName("Should report when a debit uses up the daily limit")
+    void testReserve_DailyLimitReached() {
+        assertFalse(engine.reserve(wallet, 30000L).dailyLimitReached());
+        now.addAndGet(LimitWindow.PER_MINUTE.lengthMillis() + 1000);
+
+        assertTrue(engine.reserve(wallet, 20000L).dailyLimitReached());
+    }
+
+    @Test
+    @DisplayName("Should apply the limits of the wallet's tier")
+    void testReserve_Tier() {
+        wallet.setTier("Premium");
+
+        engine.reserve(wallet, 90000L);
+
+        assertEquals("premium", engine.tierOf(wallet));
+        assertEquals(Long.MAX_VALUE, engine.remaining(wallet, LimitWindow.MONTHLY));
+        assertEquals(110000L, engine.remaining(wallet, LimitWindow.DAILY));
+    }
+
+    @Test
+    @DisplayName("Should fall back to a daily-only limit when the default tier is not configured")
+    void testFallbackLimits() {
+        SpendingLimitEngine unconfigured = newEngine(Map.of(), "standard");
+
+        assertTrue(unconfigured.hasTier("STANDARD"));
+        assertFalse(unconfigured.hasTier("premium"));
+        assertEquals(SpendingLimitEngine.FALLBACK_LIMITS, unconfigured.limitsOf(wallet));
+        assertEquals(5_000_000L, unconfigured.remaining(wallet, LimitWindow.DAILY));
+        assertEquals(Long.MAX_VALUE, unconfigured.remaining(wallet, LimitWindow.PER_MINUTE));
+    }
+
+    @Test
+    @DisplayName("Should take a released reservation back")
+    void testRelease() {
+        engine.reserve(wallet, 10000L);
+        Reservation reservation = engine.reserve(wallet, 5000L);
+
+        engine.release(reservation);
+
+        assertEquals(10000L, engine.spent(1L, LimitWindow.DAILY));
+        assertEquals(10000L, engine.spent(1L, LimitWindow.MONTHLY));
+    }
+
+    @Test
+    @DisplayName("Should reset one window only")
+    void testReset() {
+        engine.reserve(wallet, 10000L);
+
+        engine.reset(1L, LimitWindow.DAILY);
+
+        assertEquals(0L, engine.spent(1L, LimitWindow.DAILY));
+        assertEquals(10000L, engine.spent(1L, LimitWindow.MONTHLY));
+    }
+
+    @Test
+    @DisplayName("Should flush the daily total of changed wallets only")
+    void testFlush() {
+        engine.reserve(wallet, 12345L);
+
+        assertEquals(1, engine.flush());
+        verify(walletRepository).recordDailySpent(eq(1L), eq(12345L), any(LocalDateTime.class));
+
+        assertEquals(0, engine.flush());
+        verifyNoMoreInteractions(walletRepository);
+        assertEquals(1.0, meterRegistry.counter("wallet.limits.flushed").count());
+    }
+
+    @Test
+    @DisplayName("Should keep wallets dirty when a flush fails")
+    void testFlush_FailureRetried() {
+        engine.reserve(wallet, 100L);
+        doThrow(new RuntimeException("db down")).doReturn(1)
+                .when(walletRepository).recordDailySpent(anyLong(), anyLong(), any());
+
+        assertThrows(RuntimeException.class, () -> engine.flush());
+        assertEquals(1, engine.flush());
+    }
+
+    @Test
+    @DisplayName("Should rebuild the counters from committed debits")
+    void testRecover() {
+        LocalDateTime recent = toDateTime(now.get() - LimitWindow.PER_MINUTE.lengthMillis() - 5000);
+        LocalDateTime older = toDateTime(now.get() - LimitWindow.DAILY.lengthMillis() - 5000);
+        when(transactionRepository.streamDebitsSince(any())).thenReturn(Stream.of(
+                new Object[]{1L, 20000L, recent},
+                new Object[]{1L, 30000L, older},
+                new Object[]{2L, 1000L, recent}));
+
+        assertEquals(3, engine.recover());
+
+        assertEquals(0L, engine.spent(1L, LimitWindow.PER_MINUTE));
+        assertEquals(20000L, engine.spent(1L, LimitWindow.DAILY));
+        assertEquals(50000L, engine.spent(1L, LimitWindow.MONTHLY));
+        assertEquals(1000L, engine.spent(2L, LimitWindow.MONTHLY));
+        assertEquals(30000L, engine.remaining(wallet, LimitWindow.DAILY));
+    }
+
+    @Test
+    @DisplayName("Should drop wallets with nothing left in any window")
+    void testEvictIdle() {
+        engine.reserve(wallet, 100L);
+        engine.evictIdle();
+        assertEquals(1.0, meterRegistry.get("wallet.limits.wallets").gauge().value());
+
+        now.addAndGet(LimitWindow.MONTHLY.lengthMillis() + 1);
+        engine.evictIdle();
+        assertEquals(0.0, meterRegistry.get("wallet.limits.wallets").gauge().value());
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
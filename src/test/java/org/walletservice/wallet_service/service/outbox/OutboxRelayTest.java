@@ -0,0 +1,126 @@
+package org.walletservice.wallet_service.service.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventEntity;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventType;
+import org.walletservice.wallet_service.repository.outbox.OutboxEventRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    @TempDir
+    Path directory;
+
+    private OutboxEventRepository outboxEventRepository;
+    private PlatformTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+    // Stands in for the table: the relay takes from the head and deletes what it delivered
+    private final List<OutboxEventEntity> table = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(outboxEventRepository.findOldestForUpdate(any())).thenAnswer(invocation -> {
+            int size = invocation.<Pageable>getArgument(0).getPageSize();
+            return List.copyOf(table.subList(0, Math.min(size, table.size())));
+        });
+        doAnswer(invocation -> table.removeAll(invocation.<Collection<OutboxEventEntity>>getArgument(0)))
+                .when(outboxEventRepository).deleteAllInBatch(anyIterable());
+        meterRegistry = new SimpleMeterRegistry();
+
+        for (long id = 1; id <= 5; id++) {
+            table.add(event(id, id % 2 == 0 ? 2L : 1L, OutboxEventType.CREDITED));
+        }
+    }
+
+    @Test
+    @DisplayName("Should deliver the outbox in ordered batches and delete what was delivered")
+    void testRelayInOrder() {
+        InMemoryOutboxSink sink = new InMemoryOutboxSink();
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, sink, transactionManager, meterRegistry, true, 2, 100);
+
+        assertEquals(2, relay.relayOnce());
+        assertEquals(2, relay.relayOnce());
+        assertEquals(1, relay.relayOnce());
+        assertEquals(0, relay.relayOnce());
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), sink.events().stream().map(OutboxEventEntity::getId).toList());
+        assertTrue(table.isEmpty());
+        assertEquals(5.0, meterRegistry.counter("wallet.outbox.published").count());
+        assertEquals(3, meterRegistry.get("wallet.outbox.publish").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should keep a batch the sink rejected and deliver it again, in the same order")
+    void testRedeliveryAfterFailure() {
+        InMemoryOutboxSink delivered = new InMemoryOutboxSink();
+        int[] calls = {0};
+        OutboxSink flaky = events -> {
+            if (calls[0]++ == 1) {
+                throw new IOException("sink unavailable");
+            }
+            delivered.publish(events);
+        };
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, flaky, transactionManager, meterRegistry, true, 2, 100);
+
+        assertEquals(2, relay.relayOnce());
+        assertThrows(RuntimeException.class, relay::relayOnce);
+        verify(transactionManager).rollback(any());
+        assertEquals(3, table.size());
+
+        while (relay.relayOnce() > 0) {
+            // drain
+        }
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), delivered.events().stream().map(OutboxEventEntity::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Should append each event to the file sink as a line of JSON")
+    void testFileSink() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Path file = directory.resolve("out/events.jsonl");
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, new FileOutboxSink(file, objectMapper),
+                transactionManager, meterRegistry, true, 3, 100);
+
+        relay.relayOnce();
+        relay.relayOnce();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(5, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals(1, first.get("id").asLong());
+        assertEquals(1, first.get("walletId").asLong());
+        assertEquals("CREDITED", first.get("type").asText());
+        assertEquals("t1", first.get("payload").get("transactionId").asText());
+        assertEquals(5, objectMapper.readTree(lines.get(4)).get("id").asLong());
+    }
+
+    private static OutboxEventEntity event(long id, long walletId, OutboxEventType type) {
+        OutboxEventEntity event = new OutboxEventEntity(walletId, type, "{\"transactionId\":\"t" + id + "\"}");
+        ReflectionTestUtils.setField(event, "id", id);
+        return event;
+    }
+}
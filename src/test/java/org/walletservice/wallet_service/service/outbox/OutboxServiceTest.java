@@ -0,0 +1,95 @@
+package org.walletservice.wallet_service.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventEntity;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventType;
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+import org.walletservice.wallet_service.repository.outbox.OutboxEventRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxServiceTest {
+
+    private OutboxEventRepository outboxEventRepository;
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        outboxService = new OutboxService(outboxEventRepository, new ObjectMapper(), true);
+    }
+
+    @Test
+    @DisplayName("Should record a debit with its amount and the balance after it in rupees")
+    void testRecordTransaction() {
+        outboxService.recordTransaction(1L, TransactionType.DEBIT, "t1", 12_550L, 100_000L);
+
+        ArgumentCaptor<OutboxEventEntity> event = ArgumentCaptor.forClass(OutboxEventEntity.class);
+        verify(outboxEventRepository).save(event.capture());
+        assertEquals(1L, event.getValue().getWalletId());
+        assertEquals(OutboxEventType.DEBITED, event.getValue().getEventType());
+        assertEquals("{\"transactionId\":\"t1\",\"amount\":125.5,\"balance\":1000.0}", event.getValue().getPayload());
+    }
+
+    @Test
+    @DisplayName("Should leave the balance out where it is not known")
+    void testRecordTransaction_WithoutBalance() {
+        outboxService.recordTransaction(1L, TransactionType.CREDIT, "t1", 100L, null);
+
+        ArgumentCaptor<OutboxEventEntity> event = ArgumentCaptor.forClass(OutboxEventEntity.class);
+        verify(outboxEventRepository).save(event.capture());
+        assertEquals(OutboxEventType.CREDITED, event.getValue().getEventType());
+        assertEquals("{\"transactionId\":\"t1\",\"amount\":1.0}", event.getValue().getPayload());
+    }
+
+    @Test
+    @DisplayName("Should record a transfer as one event per wallet, debit first")
+    @SuppressWarnings("unchecked")
+    void testRecordTransfer() {
+        outboxService.recordTransfer(1L, 2L, "ref", 5_000L, 20_000L);
+
+        ArgumentCaptor<List<OutboxEventEntity>> events = ArgumentCaptor.forClass(List.class);
+        verify(outboxEventRepository).saveAll(events.capture());
+        OutboxEventEntity debit = events.getValue().get(0);
+        OutboxEventEntity credit = events.getValue().get(1);
+        assertEquals(1L, debit.getWalletId());
+        assertEquals(OutboxEventType.DEBITED, debit.getEventType());
+        assertEquals("{\"reference\":\"ref\",\"amount\":50.0,\"balance\":200.0,\"toWalletId\":2}", debit.getPayload());
+        assertEquals(2L, credit.getWalletId());
+        assertEquals(OutboxEventType.CREDITED, credit.getEventType());
+        assertEquals("{\"reference\":\"ref\",\"amount\":50.0,\"fromWalletId\":1}", credit.getPayload());
+    }
+
+    @Test
+    @DisplayName("Should record a status change of several wallets in one batch")
+    @SuppressWarnings("unchecked")
+    void testRecordStatus() {
+        outboxService.recordStatus(List.of(3L, 4L), OutboxEventType.BLACKLISTED);
+        outboxService.recordStatus(List.of(), OutboxEventType.BLACKLISTED);
+
+        ArgumentCaptor<List<OutboxEventEntity>> events = ArgumentCaptor.forClass(List.class);
+        verify(outboxEventRepository).saveAll(events.capture());
+        assertEquals(List.of(3L, 4L), events.getValue().stream().map(OutboxEventEntity::getWalletId).toList());
+        assertEquals("{}", events.getValue().get(0).getPayload());
+    }
+
+    @Test
+    @DisplayName("Should write nothing when the outbox is disabled")
+    void testDisabled() {
+        OutboxService disabled = new OutboxService(outboxEventRepository, new ObjectMapper(), false);
+
+        disabled.recordTransaction(1L, TransactionType.CREDIT, "t1", 100L, null);
+        disabled.recordTransfer(1L, 2L, "ref", 100L, 0L);
+        disabled.recordStatus(1L, OutboxEventType.FROZEN);
+
+        verifyNoInteractions(outboxEventRepository);
+    }
+}
@@ -0,0 +1,156 @@
+package org.walletservice.wallet_service.service.transaction;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
+import org.walletservice.wallet_service.repository.transaction.TransactionRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyGuardTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private IdempotencyGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        guard = new IdempotencyGuard(transactionRepository, transactionManager, meterRegistry,
+                true, 1000, 0.01, 2, 24);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static TransactionEntity txn(String id) {
+        TransactionEntity txn = new TransactionEntity();
+        txn.setTransactionId(id);
+        return txn;
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.counter("wallet.idempotency.lookups", "result", result).count();
+    }
+
+    @Test
+    @DisplayName("Should query the database until the filter has been loaded")
+    void testFind_NotReady() {
+        when(transactionRepository.findByTransactionId("new")).thenReturn(Optional.empty());
+
+        assertTrue(guard.find("new").isEmpty());
+
+        verify(transactionRepository).findByTransactionId("new");
+        assertEquals(1, lookups("db_miss"));
+    }
+
+    @Test
+    @DisplayName("Should skip the database for ids the loaded filter has never seen")
+    void testFind_FilterNegative() {
+        when(transactionRepository.streamTransactionIdsSince(any())).thenReturn(Stream.of("old-1", "old-2"));
+        guard.rebuild();
+
+        assertTrue(guard.isReady());
+        assertTrue(guard.find("new").isEmpty());
+
+        verify(transactionRepository, never()).findByTransactionId(anyString());
+        assertEquals(1, lookups("filter_negative"));
+        assertEquals(1.0, meterRegistry.get("wallet.idempotency.memory.hit.ratio").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should probe the database for ids loaded by the warm-up and cache the result")
+    void testFind_WarmedIdHitsDatabaseOnce() {
+        when(transactionRepository.streamTransactionIdsSince(any())).thenReturn(Stream.of("old-1"));
+        when(transactionRepository.findByTransactionId("old-1")).thenReturn(Optional.of(txn("old-1")));
+        guard.rebuild();
+
+        assertTrue(guard.find("old-1").isPresent());
+        assertTrue(guard.find("old-1").isPresent());
+
+        verify(transactionRepository, times(1)).findByTransactionId("old-1");
+        assertEquals(1, lookups("db_hit"));
+        assertEquals(1, lookups("cache_hit"));
+    }
+
+    @Test
+    @DisplayName("Should only record transactions once they are committed")
+    void testRecordAfterCommit() {
+        when(transactionRepository.streamTransactionIdsSince(any())).thenReturn(Stream.empty());
+        guard.rebuild();
+        TransactionSynchronizationManager.initSynchronization();
+
+        guard.recordAfterCommit(List.of(txn("t1")));
+        assertTrue(guard.find("t1").isEmpty(), "not visible before commit");
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(guard.find("t1").isPresent());
+        verify(transactionRepository, never()).findByTransactionId(anyString());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used transaction beyond the cache size")
+    void testCacheEviction() {
+        when(transactionRepository.streamTransactionIdsSince(any())).thenReturn(Stream.empty());
+        guard.rebuild();
+        guard.recordAfterCommit(List.of(txn("t1"), txn("t2"), txn("t3")));
+        when(transactionRepository.findByTransactionId("t1")).thenReturn(Optional.of(txn("t1")));
+
+        assertTrue(guard.find("t1").isPresent());
+
+        // t1 fell out of the cache but is still in the filter, so it is read back from the database
+        verify(transactionRepository).findByTransactionId("t1");
+    }
+
+    @Test
+    @DisplayName("Should query only the ids that may exist in a batch lookup")
+    void testFindAll() {
+        when(transactionRepository.streamTransactionIdsSince(any())).thenReturn(Stream.of("old-1"));
+        guard.rebuild();
+        guard.recordAfterCommit(List.of(txn("cached")));
+        when(transactionRepository.findByTransactionIdIn(List.of("old-1"))).thenReturn(List.of(txn("old-1")));
+
+        List<TransactionEntity> found = guard.findAll(List.of("cached", "old-1", "new"));
+
+        assertEquals(2, found.size());
+        verify(transactionRepository).findByTransactionIdIn(List.of("old-1"));
+    }
+
+    @Test
+    @DisplayName("Should keep querying the database when the warm-up fails")
+    void testRebuild_Failure() {
+        when(transactionRepository.streamTransactionIdsSince(any())).thenThrow(new IllegalStateException("db down"));
+
+        guard.rebuild();
+
+        assertFalse(guard.isReady());
+        when(transactionRepository.findByTransactionId("new")).thenReturn(Optional.empty());
+        guard.find("new");
+        verify(transactionRepository).findByTransactionId("new");
+    }
+}
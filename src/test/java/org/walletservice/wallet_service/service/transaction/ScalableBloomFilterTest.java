@@ -0,0 +1,67 @@
+package org.walletservice.wallet_service.service.transaction;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    @DisplayName("Should never report an added key as absent")
+    void testNoFalseNegatives() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01);
+
+        for (int i = 0; i < 5000; i++) {
+            filter.put("txn-" + i);
+        }
+
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(filter.mightContain("txn-" + i), "txn-" + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Should add stages beyond the initial capacity")
+    void testGrows() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+
+        for (int i = 0; i < 100; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+        assertEquals(1, filter.stageCount());
+
+        for (int i = 0; i < 1000; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+        assertTrue(filter.stageCount() > 1);
+        assertTrue(filter.approximateSize() > 1000);
+    }
+
+    @Test
+    @DisplayName("Should keep the false-positive rate under the configured bound after growing")
+    void testFalsePositiveRate() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(2000, 0.01);
+        for (int i = 0; i < 20_000; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < probes * 0.015, "false positives: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid sizing")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter(100, 1.0));
+    }
+}
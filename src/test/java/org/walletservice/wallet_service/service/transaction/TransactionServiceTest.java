@@ -1,9 +1,11 @@
 package org.walletservice.wallet_service.service.transaction;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.data.domain.*;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
 import org.walletservice.wallet_service.entity.transaction.TransactionType;
 import org.walletservice.wallet_service.repository.transaction.TransactionRepository;
@@ -24,12 +26,18 @@ class TransactionServiceTest {
     @Mock
     private WalletRepository walletRepository;
 
-    @InjectMocks
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private TransactionService transactionService;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        // Not warmed up, so every lookup still reaches the repository
+        IdempotencyGuard idempotencyGuard = new IdempotencyGuard(transactionRepository, transactionManager,
+                new SimpleMeterRegistry(), true, 1000, 0.01, 100, 24);
+        transactionService = new TransactionService(transactionRepository, idempotencyGuard);
     }
 
     // ---------------- 1. save transaction ----------------
@@ -60,6 +68,20 @@ class TransactionServiceTest {
         assertEquals("txn1", result.get().getTransactionId());
     }
 
+    // ---------------- 2b. saved transactions answer retries from memory ----------------
+    @Test
+    void testSavedTransactionServedFromMemory() {
+        TransactionEntity txn = new TransactionEntity();
+        txn.setTransactionId("txn2");
+        when(transactionRepository.save(txn)).thenReturn(txn);
+
+        transactionService.save(txn);
+        Optional<TransactionEntity> result = transactionService.findByTransactionId("txn2");
+
+        assertTrue(result.isPresent());
+        verify(transactionRepository, never()).findByTransactionId("txn2");
+    }
+
     // ---------------- 3. find by walletId ----------------
     @Test
     void testFindByWalletId() {
@@ -73,19 +95,18 @@ class TransactionServiceTest {
         assertEquals(1L, result.get(0).getWalletId());
     }
 
-    // ---------------- 4. find by walletId in (pagination) ----------------
+    // ---------------- 4. find all transactions (keyset) ----------------
     @Test
-    void testFindByWalletIdIn() {
+    void testFindAllBefore() {
         TransactionEntity txn = new TransactionEntity();
         txn.setWalletId(1L);
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2025, 1, 1, 12, 0), 42L);
 
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<TransactionEntity> page = new PageImpl<>(List.of(txn));
-
-        when(transactionRepository.findByWalletIdIn(List.of(1L), pageable)).thenReturn(page);
+        when(transactionRepository.findAllBefore(cursor.transactionDate(), 42L, PageRequest.of(0, 10)))
+                .thenReturn(new SliceImpl<>(List.of(txn), PageRequest.of(0, 10), false));
 
-        Page<TransactionEntity> result = transactionService.findByWalletIdIn(List.of(1L), pageable);
-        assertEquals(1, result.getTotalElements());
+        Slice<TransactionEntity> result = transactionService.findAllBefore(cursor, 10);
+        assertEquals(1, result.getNumberOfElements());
         assertEquals(1L, result.getContent().get(0).getWalletId());
     }
 
@@ -97,17 +118,16 @@ class TransactionServiceTest {
         txn.setType(TransactionType.CREDIT);
         txn.setTransactionDate(LocalDateTime.now());
 
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<TransactionEntity> page = new PageImpl<>(List.of(txn));
-
-        when(transactionRepository.findFilteredTransactions(1L, TransactionType.CREDIT, null, null, pageable))
-                .thenReturn(page);
+        LocalDateTime before = LocalDateTime.of(2025, 1, 1, 12, 0);
+        when(transactionRepository.findFilteredTransactions(1L, TransactionType.CREDIT, null, null,
+                before, 42L, PageRequest.of(0, 10)))
+                .thenReturn(new SliceImpl<>(List.of(txn), PageRequest.of(0, 10), true));
 
-        Page<TransactionEntity> result = transactionService.findFilteredTransactions(
-                1L, TransactionType.CREDIT, null, null, pageable
+        Slice<TransactionEntity> result = transactionService.findFilteredTransactions(
+                1L, TransactionType.CREDIT, null, null, new TransactionCursor(before, 42L), 10
         );
 
-        assertEquals(1, result.getTotalElements());
+        assertTrue(result.hasNext());
         assertEquals(TransactionType.CREDIT, result.getContent().get(0).getType());
     }
 }
@@ -0,0 +1,120 @@
+package org.walletservice.wallet_service.service.transaction;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.repository.transaction.TransactionRepository;
+import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fills in user_id on rows written before it existed, then reads a user's history by it.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TransactionUserBackfillTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionEntity save(Long walletId, LocalDateTime at, String transactionId) {
+        TransactionEntity txn = new TransactionEntity(walletId, TransactionType.CREDIT, 10.0, null);
+        txn.setTransactionId(transactionId);
+        txn.setTransactionDate(at);
+        return transactionRepository.save(txn);
+    }
+
+    @Test
+    @DisplayName("Should backfill user ids in batches and then page a user's history by them")
+    void testBackfillThenReadByUser() {
+        Long mine = walletRepository.save(new WalletEntity(7L, 0.0)).getId();
+        Long mineToo = walletRepository.save(new WalletEntity(7L, 0.0)).getId();
+        Long theirs = walletRepository.save(new WalletEntity(8L, 0.0)).getId();
+        save(mine, NOON.minusHours(2), "a");
+        save(theirs, NOON.minusHours(1), "b");
+        save(mineToo, NOON, "c");
+        save(mine, NOON.plusHours(1), "d");
+        save(999L, NOON, "no wallet");
+        entityManager.flush();
+        entityManager.clear();
+
+        TransactionUserBackfill backfill = new TransactionUserBackfill(transactionRepository, transactionManager,
+                new SimpleMeterRegistry(), false, 2, 0, 1000);
+        assertFalse(backfill.isComplete());
+        assertEquals(2, backfill.backfillOnce());
+        assertEquals(2, backfill.backfillOnce());
+        assertFalse(backfill.isComplete());
+        // The end of the first sweep, then a second sweep from the start that finds nothing
+        assertEquals(0, backfill.backfillOnce());
+        assertFalse(backfill.isComplete());
+        assertEquals(0, backfill.backfillOnce());
+        assertTrue(backfill.isComplete());
+        entityManager.clear();
+
+        // The row of a missing wallet stays without a user and does not hold the backfill up
+        assertNull(transactionRepository.findByTransactionId("no wallet").orElseThrow().getUserId());
+        assertEquals(List.of(), transactionRepository.findIdsWithoutUser(0L, PageRequest.of(0, 10)));
+
+        List<String> mineNewestFirst = transactionRepository.findByUserIdBefore(7L,
+                        TransactionCursor.START.transactionDate(), TransactionCursor.START.id(), PageRequest.of(0, 10))
+                .map(TransactionEntity::getTransactionId).getContent();
+        assertEquals(List.of("d", "c", "a"), mineNewestFirst);
+
+        TransactionEntity c = transactionRepository.findByTransactionId("c").orElseThrow();
+        assertEquals(List.of("a"), transactionRepository.findByUserIdBefore(7L, c.getTransactionDate(), c.getId(),
+                PageRequest.of(0, 10)).map(TransactionEntity::getTransactionId).getContent());
+    }
+
+    @Test
+    @DisplayName("Should fall back until rows written without a user after completion are backfilled")
+    void testRowsWithoutUserAfterCompletion() {
+        Long mine = walletRepository.save(new WalletEntity(7L, 0.0)).getId();
+        save(mine, NOON, "a");
+        entityManager.flush();
+
+        TransactionUserBackfill backfill = new TransactionUserBackfill(transactionRepository, transactionManager,
+                new SimpleMeterRegistry(), false, 10, 0, 1000);
+        assertEquals(1, backfill.backfillOnce());
+        assertEquals(0, backfill.backfillOnce());
+        assertEquals(0, backfill.backfillOnce());
+        assertTrue(backfill.isComplete());
+
+        // As an instance still on the old code would write it
+        save(mine, NOON.plusHours(1), "b");
+        entityManager.flush();
+
+        assertEquals(1, backfill.backfillOnce());
+        assertFalse(backfill.isComplete());
+        assertEquals(0, backfill.backfillOnce());
+        assertEquals(0, backfill.backfillOnce());
+        assertTrue(backfill.isComplete());
+        entityManager.clear();
+        assertEquals(7L, transactionRepository.findByTransactionId("b").orElseThrow().getUserId());
+    }
+}
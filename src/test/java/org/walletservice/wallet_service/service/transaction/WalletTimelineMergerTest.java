@@ -0,0 +1,158 @@
+package org.walletservice.wallet_service.service.transaction;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalletTimelineMergerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final Comparator<TransactionEntity> NEWEST_FIRST = Comparator
+            .comparing(TransactionEntity::getTransactionDate, Comparator.reverseOrder())
+            .thenComparing(TransactionEntity::getId, Comparator.reverseOrder());
+
+    private final Map<Long, List<TransactionEntity>> histories = new HashMap<>();
+    private final List<TransactionEntity> all = new ArrayList<>();
+    private final AtomicInteger reads = new AtomicInteger();
+    private final AtomicInteger rowsRead = new AtomicInteger();
+    private long nextId = 1;
+
+    private void add(long walletId, LocalDateTime at) {
+        TransactionEntity txn = new TransactionEntity(walletId, TransactionType.CREDIT, 1.0, null);
+        ReflectionTestUtils.setField(txn, "id", nextId++);
+        txn.setTransactionDate(at);
+        histories.computeIfAbsent(walletId, id -> new ArrayList<>()).add(txn);
+        all.add(txn);
+    }
+
+    // Reads a wallet's history the way the keyset query on idx_wallet_date does
+    private Slice<TransactionEntity> read(Long walletId, TransactionCursor before, int limit) {
+        reads.incrementAndGet();
+        List<TransactionEntity> older = histories.getOrDefault(walletId, List.of()).stream()
+                .filter(t -> NEWEST_FIRST.compare(t, stub(before)) > 0)
+                .sorted(NEWEST_FIRST)
+                .limit(limit + 1L)
+                .toList();
+        boolean hasNext = older.size() > limit;
+        List<TransactionEntity> content = hasNext ? older.subList(0, limit) : older;
+        rowsRead.addAndGet(content.size());
+        return new SliceImpl<>(content, PageRequest.of(0, limit), hasNext);
+    }
+
+    private static TransactionEntity stub(TransactionCursor cursor) {
+        TransactionEntity txn = new TransactionEntity();
+        ReflectionTestUtils.setField(txn, "id", cursor.id());
+        txn.setTransactionDate(cursor.transactionDate());
+        return txn;
+    }
+
+    private List<TransactionEntity> readAllPages(List<Long> walletIds, int size) {
+        List<TransactionEntity> seen = new ArrayList<>();
+        TransactionCursor cursor = TransactionCursor.START;
+        Slice<TransactionEntity> page;
+        do {
+            page = WalletTimelineMerger.page(walletIds, cursor, size, this::read);
+            assertTrue(page.getNumberOfElements() <= size);
+            seen.addAll(page.getContent());
+            if (page.hasNext()) {
+                assertEquals(size, page.getNumberOfElements());
+                cursor = TransactionCursor.after(page.getContent().get(size - 1));
+            }
+        } while (page.hasNext());
+        return seen;
+    }
+
+    @Test
+    void testMergesInGlobalOrderWithoutGapsOrRepeats() {
+        Random random = new Random(7);
+        List<Long> walletIds = new ArrayList<>();
+        for (long walletId = 1; walletId <= 40; walletId++) {
+            walletIds.add(walletId);
+            // Some wallets are empty, some busy; many rows share a minute
+            int rows = walletId % 5 == 0 ? 0 : random.nextInt(30);
+            for (int i = 0; i < rows; i++) {
+                add(walletId, START.plusMinutes(random.nextInt(60)));
+            }
+        }
+        add(99L, START.plusMinutes(30));
+
+        List<TransactionEntity> expected = all.stream()
+                .filter(t -> t.getWalletId() != 99L)
+                .sorted(NEWEST_FIRST)
+                .toList();
+        assertEquals(expected, readAllPages(walletIds, 17));
+    }
+
+    @Test
+    void testReadsAboutAPageOfRowsWhateverTheHistoryLength() {
+        List<Long> walletIds = new ArrayList<>();
+        for (long walletId = 1; walletId <= 200; walletId++) {
+            walletIds.add(walletId);
+            for (int i = 0; i < 500; i++) {
+                add(walletId, START.plusMinutes(i * 200L + walletId));
+            }
+        }
+
+        Slice<TransactionEntity> page = WalletTimelineMerger.page(walletIds, TransactionCursor.START, 20, this::read);
+
+        assertEquals(all.stream().sorted(NEWEST_FIRST).limit(20).toList(), page.getContent());
+        assertTrue(page.hasNext());
+        // Two rows from each wallet to start with, far from the 100,000 an IN-list sort would touch
+        assertEquals(200, reads.get());
+        assertEquals(400, rowsRead.get());
+    }
+
+    @Test
+    void testSingleWalletIsOneRead() {
+        for (int i = 0; i < 50; i++) {
+            add(1L, START.plusMinutes(i));
+        }
+
+        Slice<TransactionEntity> page = WalletTimelineMerger.page(List.of(1L), TransactionCursor.START, 10, this::read);
+
+        assertEquals(10, page.getNumberOfElements());
+        assertTrue(page.hasNext());
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    void testBusyWalletRefillsInGrowingChunks() {
+        for (int i = 0; i < 100; i++) {
+            add(1L, START.plusMinutes(1000 + i));
+        }
+        for (long walletId = 2; walletId <= 10; walletId++) {
+            add(walletId, START.plusMinutes(walletId));
+        }
+        List<Long> walletIds = new ArrayList<>(histories.keySet());
+
+        Slice<TransactionEntity> page = WalletTimelineMerger.page(walletIds, TransactionCursor.START, 50, this::read);
+
+        assertEquals(all.stream().sorted(NEWEST_FIRST).limit(50).toList(), page.getContent());
+        // The busy wallet starts at 6 rows and doubles: 6 + 12 + 24 + 48 covers the page
+        assertEquals(10 + 3, reads.get());
+    }
+
+    @Test
+    void testNoWallets() {
+        Slice<TransactionEntity> page = WalletTimelineMerger.page(List.of(), TransactionCursor.START, 10, this::read);
+
+        assertTrue(page.getContent().isEmpty());
+        assertFalse(page.hasNext());
+        assertEquals(0, reads.get());
+    }
+}
@@ -0,0 +1,150 @@
+package org.walletservice.wallet_service.service.transfer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.walletservice.wallet_service.dto.response.TransferStatusResponseDTO;
+import org.walletservice.wallet_service.dto.response.WalletTransactionResponseDTO;
+import org.walletservice.wallet_service.entity.transfer.TransferCommandEntity;
+import org.walletservice.wallet_service.entity.transfer.TransferStatus;
+import org.walletservice.wallet_service.exception.TransferNotFoundException;
+import org.walletservice.wallet_service.repository.transfer.TransferCommandRepository;
+import org.walletservice.wallet_service.service.wallet.WalletTransactionService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AsyncTransferServiceTest {
+
+    @Mock
+    private TransferCommandRepository transferCommandRepository;
+
+    @Mock
+    private WalletTransactionService walletTransactionService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AsyncTransferService asyncTransferService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        asyncTransferService = new AsyncTransferService(
+                transferCommandRepository, walletTransactionService, transactionManager, 60000);
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                1L, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private TransferCommandEntity claimedCommand() {
+        TransferCommandEntity command = new TransferCommandEntity("t-1", 1L, 2L, 200.0, 1L, "ROLE_USER");
+        command.claim("token-1", LocalDateTime.now());
+        return command;
+    }
+
+    @Test
+    @DisplayName("Should enqueue a pending transfer for the authenticated user")
+    void testSubmit() {
+        when(transferCommandRepository.save(any(TransferCommandEntity.class))).thenAnswer(i -> i.getArgument(0));
+
+        TransferStatusResponseDTO response = asyncTransferService.submit(1L, 2L, 200.0);
+
+        ArgumentCaptor<TransferCommandEntity> saved = ArgumentCaptor.forClass(TransferCommandEntity.class);
+        verify(transferCommandRepository).save(saved.capture());
+        assertEquals(1L, saved.getValue().getRequestedBy());
+        assertEquals("ROLE_USER", saved.getValue().getRequesterRole());
+        assertEquals("PENDING", response.status());
+        assertNotNull(response.transferId());
+        verifyNoInteractions(walletTransactionService);
+    }
+
+    @Test
+    @DisplayName("Should reject a transfer to the same wallet before enqueueing")
+    void testSubmit_SameWallet() {
+        assertThrows(IllegalArgumentException.class, () -> asyncTransferService.submit(1L, 1L, 200.0));
+        verify(transferCommandRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should hide transfers of other users")
+    void testGetStatus_OtherUser() {
+        when(transferCommandRepository.findById("t-1")).thenReturn(Optional.of(claimedCommand()));
+
+        assertThrows(TransferNotFoundException.class, () -> asyncTransferService.getStatus("t-1", 99L, false));
+        assertEquals("PROCESSING", asyncTransferService.getStatus("t-1", 99L, true).status());
+    }
+
+    @Test
+    @DisplayName("Should complete the command inside the transfer transaction")
+    @SuppressWarnings("unchecked")
+    void testProcess_Completed() {
+        TransferCommandEntity command = claimedCommand();
+        when(transferCommandRepository.findByIdForUpdate("t-1")).thenReturn(Optional.of(command));
+        when(walletTransactionService.transferMoney(eq(1L), eq(2L), eq(200.0), any())).thenAnswer(invocation -> {
+            assertEquals(1L, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+            WalletTransactionResponseDTO result = new WalletTransactionResponseDTO(
+                    "txn-D", 200.0, "DEBIT", null, "Transfer to wallet 2", 800.0, 49800.0);
+            ((Consumer<WalletTransactionResponseDTO>) invocation.getArgument(3)).accept(result);
+            return result;
+        });
+
+        asyncTransferService.process(command);
+
+        assertEquals(TransferStatus.COMPLETED, command.getStatus());
+        assertEquals("txn-D", command.getTransactionId());
+    }
+
+    @Test
+    @DisplayName("Should record the failure reason when the transfer is rejected")
+    void testProcess_Failed() {
+        TransferCommandEntity command = claimedCommand();
+        when(transferCommandRepository.findByIdForUpdate("t-1")).thenReturn(Optional.of(command));
+        when(walletTransactionService.transferMoney(eq(1L), eq(2L), eq(200.0), any()))
+                .thenThrow(new IllegalArgumentException("Insufficient balance."));
+
+        asyncTransferService.process(command);
+
+        assertEquals(TransferStatus.FAILED, command.getStatus());
+        assertEquals("Insufficient balance.", command.getError());
+    }
+
+    @Test
+    @DisplayName("Should undo the transfer when another worker has reclaimed the command")
+    @SuppressWarnings("unchecked")
+    void testProcess_Reclaimed() {
+        TransferCommandEntity mine = claimedCommand();
+        TransferCommandEntity current = new TransferCommandEntity("t-1", 1L, 2L, 200.0, 1L, "ROLE_USER");
+        current.claim("token-2", LocalDateTime.now());
+        when(transferCommandRepository.findByIdForUpdate("t-1")).thenReturn(Optional.of(current));
+        when(walletTransactionService.transferMoney(eq(1L), eq(2L), eq(200.0), any())).thenAnswer(invocation -> {
+            ((Consumer<WalletTransactionResponseDTO>) invocation.getArgument(3)).accept(
+                    new WalletTransactionResponseDTO("txn-D", 200.0, "DEBIT", null, "Transfer", 800.0, 0.0));
+            return null;
+        });
+
+        asyncTransferService.process(mine);
+
+        assertEquals(TransferStatus.PROCESSING, current.getStatus());
+        assertEquals("token-2", current.getClaimToken());
+    }
+}
@@ -0,0 +1,176 @@
+package org.walletservice.wallet_service.service.transfer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.walletservice.wallet_service.dto.request.ScheduledTransferRequestDTO;
+import org.walletservice.wallet_service.dto.response.ScheduledTransferResponseDTO;
+import org.walletservice.wallet_service.entity.transfer.ScheduledTransferEntity;
+import org.walletservice.wallet_service.entity.transfer.ScheduledTransferStatus;
+import org.walletservice.wallet_service.entity.transfer.TransferCommandEntity;
+import org.walletservice.wallet_service.entity.transfer.TransferRecurrence;
+import org.walletservice.wallet_service.entity.transfer.TransferStatus;
+import org.walletservice.wallet_service.exception.TransferNotFoundException;
+import org.walletservice.wallet_service.repository.transfer.ScheduledTransferRepository;
+import org.walletservice.wallet_service.repository.transfer.TransferCommandRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ScheduledTransferServiceTest {
+
+    @Mock
+    private ScheduledTransferRepository scheduledTransferRepository;
+
+    @Mock
+    private TransferCommandRepository transferCommandRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ScheduledTransferService scheduledTransferService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        scheduledTransferService = new ScheduledTransferService(
+                scheduledTransferRepository, transferCommandRepository, transactionManager, 10);
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                1L, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private ScheduledTransferEntity schedule(String id, TransferRecurrence recurrence, LocalDateTime startsAt,
+                                             LocalDateTime endsAt) {
+        return new ScheduledTransferEntity(id, 1L, 2L, 250.0, 1L, "ROLE_USER", recurrence, startsAt, endsAt);
+    }
+
+    @Test
+    @DisplayName("Should store a schedule for the authenticated user")
+    void testSchedule() {
+        when(scheduledTransferRepository.save(any(ScheduledTransferEntity.class))).thenAnswer(i -> i.getArgument(0));
+        LocalDateTime startsAt = LocalDateTime.now().plusDays(1);
+
+        ScheduledTransferResponseDTO response = scheduledTransferService.schedule(new ScheduledTransferRequestDTO(
+                1L, 2L, 250.0, TransferRecurrence.MONTHLY, startsAt, null));
+
+        ArgumentCaptor<ScheduledTransferEntity> saved = ArgumentCaptor.forClass(ScheduledTransferEntity.class);
+        verify(scheduledTransferRepository).save(saved.capture());
+        assertEquals(1L, saved.getValue().getRequestedBy());
+        assertEquals(25_000L, saved.getValue().getAmountMinor());
+        assertEquals("ACTIVE", response.status());
+        assertEquals(startsAt, response.nextRunAt());
+    }
+
+    @Test
+    @DisplayName("Should reject a schedule ending before it starts")
+    void testSchedule_EndsBeforeStart() {
+        LocalDateTime startsAt = LocalDateTime.now().plusDays(1);
+
+        assertThrows(IllegalArgumentException.class, () -> scheduledTransferService.schedule(
+                new ScheduledTransferRequestDTO(1L, 2L, 250.0, TransferRecurrence.DAILY, startsAt, startsAt.minusDays(1))));
+        assertThrows(IllegalArgumentException.class, () -> scheduledTransferService.schedule(
+                new ScheduledTransferRequestDTO(1L, 1L, 250.0, TransferRecurrence.DAILY, startsAt, null)));
+        verify(scheduledTransferRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should enqueue due runs as async transfers and move each schedule on")
+    @SuppressWarnings("unchecked")
+    void testEnqueueDue() {
+        LocalDateTime now = LocalDateTime.now();
+        ScheduledTransferEntity daily = schedule("s-1", TransferRecurrence.DAILY, now.minusMinutes(5), null);
+        ScheduledTransferEntity once = schedule("s-2", TransferRecurrence.ONCE, now.minusMinutes(1), null);
+        when(transferCommandRepository.countByStatus(TransferStatus.PENDING)).thenReturn(0L);
+        when(scheduledTransferRepository.findDue(eq(ScheduledTransferStatus.ACTIVE), any(), eq(PageRequest.of(0, 5))))
+                .thenReturn(List.of(daily, once));
+
+        assertEquals(2, scheduledTransferService.enqueueDue(5));
+
+        ArgumentCaptor<List<TransferCommandEntity>> commands = ArgumentCaptor.forClass(List.class);
+        verify(transferCommandRepository).saveAll(commands.capture());
+        assertEquals(2, commands.getValue().size());
+        TransferCommandEntity first = commands.getValue().get(0);
+        assertEquals(TransferStatus.PENDING, first.getStatus());
+        assertEquals(25_000L, first.getAmountMinor());
+        assertEquals("ROLE_USER", first.getRequesterRole());
+
+        assertEquals(first.getId(), daily.getLastTransferId());
+        assertEquals(now.minusMinutes(5).plusDays(1), daily.getNextRunAt());
+        assertEquals(ScheduledTransferStatus.ACTIVE, daily.getStatus());
+        assertEquals(ScheduledTransferStatus.COMPLETED, once.getStatus());
+        assertNull(once.getNextRunAt());
+    }
+
+    @Test
+    @DisplayName("Should leave due runs waiting while the async transfer queue is full")
+    void testEnqueueDue_QueueFull() {
+        when(transferCommandRepository.countByStatus(TransferStatus.PENDING)).thenReturn(7L);
+        when(scheduledTransferRepository.findDue(any(), any(), any())).thenReturn(List.of());
+
+        scheduledTransferService.enqueueDue(5);
+        verify(scheduledTransferRepository).findDue(any(), any(), eq(PageRequest.of(0, 3)));
+
+        when(transferCommandRepository.countByStatus(TransferStatus.PENDING)).thenReturn(10L);
+        assertEquals(0, scheduledTransferService.enqueueDue(5));
+        verify(scheduledTransferRepository, times(1)).findDue(any(), any(), any());
+        verify(transferCommandRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should skip runs missed while down and keep monthly runs on the starting day")
+    void testAdvance() {
+        LocalDateTime startsAt = LocalDateTime.of(2025, 1, 31, 9, 0);
+        ScheduledTransferEntity monthly = schedule("s-1", TransferRecurrence.MONTHLY, startsAt, null);
+
+        monthly.advance("t-1", startsAt.plusSeconds(1));
+        assertEquals(LocalDateTime.of(2025, 2, 28, 9, 0), monthly.getNextRunAt());
+        monthly.advance("t-2", monthly.getNextRunAt());
+        assertEquals(LocalDateTime.of(2025, 3, 31, 9, 0), monthly.getNextRunAt());
+
+        // Down from April to mid-July: one run now, the next one in August
+        monthly.advance("t-3", LocalDateTime.of(2025, 7, 15, 0, 0));
+        assertEquals(LocalDateTime.of(2025, 7, 31, 9, 0), monthly.getNextRunAt());
+        assertEquals(3, monthly.getRuns());
+
+        ScheduledTransferEntity hourly = schedule("s-2", TransferRecurrence.HOURLY, startsAt, startsAt.plusHours(2));
+        hourly.advance("t-1", startsAt);
+        hourly.advance("t-2", startsAt.plusHours(1));
+        hourly.advance("t-3", startsAt.plusHours(2));
+        assertEquals(ScheduledTransferStatus.COMPLETED, hourly.getStatus());
+        assertEquals(3, hourly.getRuns());
+    }
+
+    @Test
+    @DisplayName("Should cancel only schedules of the user, unless admin")
+    void testCancel() {
+        ScheduledTransferEntity schedule = schedule("s-1", TransferRecurrence.DAILY, LocalDateTime.now(), null);
+        when(scheduledTransferRepository.findByIdForUpdate("s-1")).thenReturn(Optional.of(schedule));
+
+        assertThrows(TransferNotFoundException.class, () -> scheduledTransferService.cancel("s-1", 99L, false));
+        assertEquals("CANCELLED", scheduledTransferService.cancel("s-1", 99L, true).status());
+        assertNull(schedule.getNextRunAt());
+        assertThrows(IllegalStateException.class, () -> scheduledTransferService.cancel("s-1", 1L, false));
+    }
+}
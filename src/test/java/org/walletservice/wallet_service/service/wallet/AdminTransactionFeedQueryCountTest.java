@@ -0,0 +1,190 @@
+package org.walletservice.wallet_service.service.wallet;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.walletservice.wallet_service.dto.response.TransactionSliceResponseDTO;
+import org.walletservice.wallet_service.dto.response.WalletTransactionResponseDTO;
+import org.walletservice.wallet_service.entity.journal.JournalEntryEntity;
+import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
+import org.walletservice.wallet_service.entity.transaction.TransactionType;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.mapper.WalletTransactionMapperImpl;
+import org.walletservice.wallet_service.repository.journal.JournalEntryRepository;
+import org.walletservice.wallet_service.repository.transaction.TransactionRepository;
+import org.walletservice.wallet_service.repository.wallet.WalletBalanceSlotRepository;
+import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.transaction.IdempotencyGuard;
+import org.walletservice.wallet_service.service.transaction.TransactionService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Locks the admin feed at two SQL statements per page, however many wallets the page spans.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class AdminTransactionFeedQueryCountTest {
+
+    private static final int WALLETS = 30;
+    private static final int PAGE_SIZE = 25;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private WalletBalanceSlotRepository slotRepository;
+
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private WalletTransactionService walletTransactionService;
+
+    @BeforeEach
+    void setup() {
+        WalletValidationService walletValidationService = mock(WalletValidationService.class);
+        when(walletValidationService.getRemainingDailyLimit(any())).thenAnswer(invocation ->
+                invocation.<WalletEntity>getArgument(0).getId() * 10.0);
+        walletTransactionService = new WalletTransactionService(
+                walletRepository,
+                new TransactionService(transactionRepository, mock(IdempotencyGuard.class)),
+                walletValidationService,
+                null,
+                new WalletTransactionMapperImpl(),
+                mock(WalletService.class),
+                null,
+                new WalletStripingService(walletRepository, slotRepository, 64),
+                null,
+                null,
+                journalEntryRepository,
+                null,
+                null,
+                null,
+                transactionManager);
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                1L, null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should read each page of the admin feed with two statements")
+    void testGetAllTransactions_TwoStatementsPerPage() {
+        List<WalletEntity> wallets = new ArrayList<>();
+        for (int i = 0; i < WALLETS; i++) {
+            wallets.add(walletRepository.save(new WalletEntity((long) i, 100.0 + i)));
+        }
+        for (WalletEntity wallet : wallets) {
+            transactionRepository.save(new TransactionEntity(wallet.getId(), TransactionType.CREDIT, 10.0, "Deposit"));
+        }
+        JournalEntryEntity journal = journalEntryRepository.save(new JournalEntryEntity(TransactionType.TRANSFER, "Transfer"));
+        transactionRepository.saveAll(List.of(
+                TransactionEntity.leg(journal, wallets.get(0).getId(), TransactionType.DEBIT, 500L),
+                TransactionEntity.leg(journal, wallets.get(1).getId(), TransactionType.CREDIT, 500L)));
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<WalletTransactionResponseDTO> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            TransactionSliceResponseDTO page = walletTransactionService.getAllTransactions(cursor, PAGE_SIZE);
+
+            assertEquals(2, statistics.getPrepareStatementCount(), "statements for page " + pages);
+            seen.addAll(page.content());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(2, pages);
+        assertEquals(WALLETS + 2, seen.size());
+        assertEquals("Transfer", seen.get(0).description());
+        assertEquals(journal.getReference(), seen.get(0).transactionId());
+        // Balance and limit come from each row's own wallet
+        WalletEntity second = wallets.get(1);
+        assertEquals(101.0, seen.get(0).balance());
+        assertEquals(second.getId() * 10.0, seen.get(0).availableDailyLimit());
+    }
+
+    @Test
+    @DisplayName("Should page past the transactions of deleted wallets, still with two statements")
+    void testGetAllTransactions_DeletedWallet() {
+        WalletEntity kept = walletRepository.save(new WalletEntity(1L, 100.0));
+        WalletEntity deleted = walletRepository.save(new WalletEntity(2L, 50.0));
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            transactionRepository.save(new TransactionEntity(kept.getId(), TransactionType.CREDIT, 1.0, "Kept " + i));
+            transactionRepository.save(new TransactionEntity(deleted.getId(), TransactionType.CREDIT, 1.0, "Gone " + i));
+        }
+        entityManager.flush();
+        walletRepository.delete(deleted);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<WalletTransactionResponseDTO> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            TransactionSliceResponseDTO page = walletTransactionService.getAllTransactions(cursor, PAGE_SIZE);
+
+            assertEquals(2, statistics.getPrepareStatementCount(), "statements for page " + pages);
+            seen.addAll(page.content());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(2, pages);
+        assertEquals(PAGE_SIZE, seen.size());
+        assertTrue(seen.stream().allMatch(dto -> dto.description().startsWith("Kept")));
+    }
+
+    @Test
+    @DisplayName("Should reject non-admins before reading anything")
+    void testGetAllTransactions_AdminOnly() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(1L, null, List.of()));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThrows(SecurityException.class, () -> walletTransactionService.getAllTransactions(null, PAGE_SIZE));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+}
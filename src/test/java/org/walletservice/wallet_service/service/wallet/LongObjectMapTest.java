@@ -0,0 +1,46 @@
+package org.walletservice.wallet_service.service.wallet;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectMapTest {
+
+    @Test
+    void testPutAndGet() {
+        LongObjectMap<String> map = new LongObjectMap<>(100);
+        for (long id = 1; id <= 100; id++) {
+            assertNull(map.put(id, "wallet " + id));
+        }
+
+        assertEquals(100, map.size());
+        for (long id = 1; id <= 100; id++) {
+            assertEquals("wallet " + id, map.get(id));
+        }
+        assertNull(map.get(0));
+        assertNull(map.get(101));
+        assertEquals("wallet 7", map.put(7, "replaced"));
+        assertEquals("replaced", map.get(7));
+        assertEquals(100, map.size());
+        assertEquals(100, map.values().size());
+        assertTrue(map.values().contains("replaced"));
+    }
+
+    @Test
+    void testRejectsMoreKeysThanSizedFor() {
+        LongObjectMap<String> map = new LongObjectMap<>(2);
+        map.put(Long.MIN_VALUE, "a");
+        map.put(Long.MAX_VALUE, "b");
+
+        assertThrows(IllegalStateException.class, () -> map.put(3, "c"));
+        assertThrows(IllegalArgumentException.class, () -> map.put(4, null));
+        assertEquals("a", map.get(Long.MIN_VALUE));
+    }
+
+    @Test
+    void testEmpty() {
+        LongObjectMap<String> map = new LongObjectMap<>(0);
+        assertNull(map.get(1));
+        assertEquals(0, map.size());
+    }
+}
@@ -0,0 +1,79 @@
+package org.walletservice.wallet_service.service.wallet;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferConcurrencyPolicyTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TransferConcurrencyPolicy policy(String mode, long holdMs) {
+        return new TransferConcurrencyPolicy(meterRegistry, mode, 0.1, 20, 10_000, holdMs);
+    }
+
+    @Test
+    @DisplayName("Fixed modes should always pick the same strategy")
+    void testFixedModes() {
+        TransferConcurrencyPolicy optimistic = policy("optimistic", 5000);
+        TransferConcurrencyPolicy pessimistic = policy("PESSIMISTIC", 5000);
+
+        for (int i = 0; i < 50; i++) {
+            optimistic.recordOptimisticAttempt(1L, 2L, true);
+        }
+
+        assertFalse(optimistic.lockPessimistically(1L, 2L));
+        assertTrue(pessimistic.lockPessimistically(1L, 2L));
+        assertEquals(1.0, meterRegistry.counter("wallet.transfer.locking", "strategy", "pessimistic").count());
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown mode")
+    void testUnknownMode() {
+        assertThrows(IllegalArgumentException.class, () -> policy("sometimes", 5000));
+    }
+
+    @Test
+    @DisplayName("Adaptive mode should stay optimistic while conflicts are rare")
+    void testAdaptive_StaysOptimisticWhenConflictsAreRare() {
+        TransferConcurrencyPolicy policy = policy("adaptive", 5000);
+
+        for (int i = 0; i < 100; i++) {
+            policy.recordOptimisticAttempt(1L, 2L, i % 20 == 0);
+        }
+
+        assertFalse(policy.lockPessimistically(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Adaptive mode should wait for enough samples before switching")
+    void testAdaptive_NeedsMinimumSamples() {
+        TransferConcurrencyPolicy policy = policy("adaptive", 5000);
+
+        for (int i = 0; i < 5; i++) {
+            policy.recordOptimisticAttempt(1L, 2L, true);
+        }
+
+        assertFalse(policy.lockPessimistically(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Adaptive mode should lock transfers touching a hot wallet, then go back to optimistic")
+    void testAdaptive_SwitchesHotWalletAndRecovers() throws InterruptedException {
+        TransferConcurrencyPolicy policy = policy("adaptive", 50);
+
+        for (int i = 0; i < 30; i++) {
+            policy.recordOptimisticAttempt(1L, 2L, i % 2 == 0);
+        }
+
+        assertTrue(policy.lockPessimistically(1L, 2L));
+        // Either side being hot is enough
+        assertTrue(policy.lockPessimistically(3L, 2L));
+        assertFalse(policy.lockPessimistically(3L, 4L));
+
+        Thread.sleep(60);
+        assertFalse(policy.lockPessimistically(1L, 2L));
+    }
+}
@@ -4,8 +4,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventType;
 import org.walletservice.wallet_service.entity.wallet.WalletEntity;
 import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.outbox.OutboxService;
 
 import java.util.*;
 
@@ -17,6 +19,12 @@ class WalletBlacklistServiceTest {
     @Mock
     private WalletRepository walletRepository;
 
+    @Mock
+    private WalletStatusCache walletStatusCache;
+
+    @Mock
+    private OutboxService outboxService;
+
     @InjectMocks
     private WalletBlacklistService walletBlacklistService;
 
@@ -52,6 +60,8 @@ class WalletBlacklistServiceTest {
         assertFalse(activeWallet.getActive());
         assertFalse(inactiveWallet.getActive());
         verify(walletRepository).findByUserId(100L);
+        verify(walletStatusCache).evict(List.of(1L, 2L));
+        verify(outboxService).recordStatus(List.of(1L, 2L), OutboxEventType.BLACKLISTED);
     }
 
     // ---------------------------------------------------
@@ -71,6 +81,7 @@ class WalletBlacklistServiceTest {
         assertTrue(activeWallet.getActive());
         assertTrue(inactiveWallet.getActive());
         verify(walletRepository).findByUserId(100L);
+        verify(outboxService).recordStatus(List.of(1L, 2L), OutboxEventType.UNBLACKLISTED);
     }
 
     // ---------------------------------------------------
@@ -85,6 +96,8 @@ class WalletBlacklistServiceTest {
 
         assertFalse(activeWallet.getActive());
         verify(walletRepository).findById(1L);
+        verify(walletStatusCache).evict(1L);
+        verify(outboxService).recordStatus(1L, OutboxEventType.BLACKLISTED);
     }
 
     // ---------------------------------------------------
@@ -100,6 +113,7 @@ class WalletBlacklistServiceTest {
         // No exception, no interaction beyond findById
         verify(walletRepository).findById(999L);
         verifyNoMoreInteractions(walletRepository);
+        verifyNoInteractions(outboxService);
     }
 
     // ---------------------------------------------------
@@ -1,20 +1,27 @@
 package org.walletservice.wallet_service.service.wallet;
 
 import org.junit.jupiter.api.*;
-import org.mockito.InOrder;
-import org.springframework.dao.OptimisticLockingFailureException;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventType;
 import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.exception.WalletNotFoundException;
 import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.freeze.FreezeScheduler;
+import org.walletservice.wallet_service.service.limit.LimitWindow;
+import org.walletservice.wallet_service.service.limit.SpendingLimitEngine;
+import org.walletservice.wallet_service.service.outbox.OutboxService;
 
 import java.time.LocalDateTime;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class WalletFreezeServiceTest {
 
     private WalletRepository walletRepository;
+    private SpendingLimitEngine spendingLimits;
+    private FreezeScheduler freezeScheduler;
+    private OutboxService outboxService;
     private WalletFreezeService walletFreezeService;
 
     private WalletEntity wallet;
@@ -22,7 +29,10 @@ class WalletFreezeServiceTest {
     @BeforeEach
     void setUp() {
         walletRepository = mock(WalletRepository.class);
-        walletFreezeService = new WalletFreezeService(walletRepository);
+        spendingLimits = mock(SpendingLimitEngine.class);
+        freezeScheduler = mock(FreezeScheduler.class);
+        outboxService = mock(OutboxService.class);
+        walletFreezeService = new WalletFreezeService(walletRepository, spendingLimits, freezeScheduler, outboxService);
 
         wallet = new WalletEntity(10L, 100.0);
         wallet.setId(1L);
@@ -33,75 +43,39 @@ class WalletFreezeServiceTest {
     // ------------------------------------------------------------------
 
     @Test
-    @DisplayName("Should freeze wallet successfully")
+    @DisplayName("Should freeze wallet with one statement and schedule its expiry")
     void testFreezeWallet_Success() {
-        when(walletRepository.findById(wallet.getId())).thenReturn(Optional.of(wallet));
-        when(walletRepository.saveAndFlush(any(WalletEntity.class))).thenReturn(wallet);
+        when(walletRepository.freeze(eq(1L), any(LocalDateTime.class))).thenReturn(1);
 
         walletFreezeService.freezeWallet(wallet);
 
-        assertTrue(wallet.getFrozen());
-        assertNotNull(wallet.getFrozenAt());
-        verify(walletRepository).saveAndFlush(wallet);
+        verify(walletRepository).freeze(eq(1L), any(LocalDateTime.class));
+        verify(freezeScheduler).schedule(eq(1L), any(LocalDateTime.class));
+        verify(outboxService).recordStatus(1L, OutboxEventType.FROZEN);
+        verify(walletRepository, never()).findById(any());
+        verify(walletRepository, never()).saveAndFlush(any());
     }
 
     @Test
-    @DisplayName("Should retry once on OptimisticLockingFailureException and succeed")
-    void testFreezeWallet_RetryOnOptimisticLock() {
-        // Arrange
-        WalletEntity freshWallet = new WalletEntity();
-        freshWallet.setId(1L);
-
-        when(walletRepository.findById(wallet.getId()))
-                .thenReturn(Optional.of(wallet))
-                .thenReturn(Optional.of(freshWallet));
-
-        // First save fails, second succeeds
-        doThrow(new OptimisticLockingFailureException("First attempt failed"))
-                .doReturn(wallet)
-                .when(walletRepository)
-                .saveAndFlush(any(WalletEntity.class));
-
-        // Act
-        walletFreezeService.freezeWallet(wallet);
-
-        // Assert - verify retry sequence
-        InOrder inOrder = inOrder(walletRepository);
-        inOrder.verify(walletRepository).findById(wallet.getId());   // first attempt
-        inOrder.verify(walletRepository).saveAndFlush(any(WalletEntity.class)); // failed save
-        inOrder.verify(walletRepository).findById(wallet.getId());   // retry
-        inOrder.verify(walletRepository).saveAndFlush(any(WalletEntity.class)); // retry success
-
-        verify(walletRepository, times(2)).findById(wallet.getId());
-        verify(walletRepository, times(2)).saveAndFlush(any(WalletEntity.class));
-
-        // Ensure the saved wallet had frozen=true at least once
-        verify(walletRepository, atLeastOnce())
-                .saveAndFlush(argThat(w -> Boolean.TRUE.equals(w.getFrozen())));
-    }
-
-@Test
-    @DisplayName("Should handle exception gracefully after retry fails")
-    void testFreezeWallet_FailsEvenAfterRetry() {
-        when(walletRepository.findById(wallet.getId())).thenReturn(Optional.of(wallet));
+    @DisplayName("Should schedule the expiry from the same instant the row was frozen at")
+    void testFreezeWallet_SchedulesFromFrozenAt() {
+        when(walletRepository.freeze(eq(1L), any(LocalDateTime.class))).thenReturn(1);
 
-        // Both attempts throw OptimisticLockingFailureException
-        doThrow(new OptimisticLockingFailureException("fail1"))
-                .when(walletRepository).saveAndFlush(any(WalletEntity.class));
-
-        // Should not throw anything out
-        assertDoesNotThrow(() -> walletFreezeService.freezeWallet(wallet));
+        walletFreezeService.freezeWallet(wallet);
 
-        verify(walletRepository, atLeastOnce()).saveAndFlush(any(WalletEntity.class));
+        verify(freezeScheduler).schedule(eq(1L), argThat(at ->
+                at.equals(mockingDetails(walletRepository).getInvocations().stream()
+                        .filter(i -> i.getMethod().getName().equals("freeze"))
+                        .findFirst().orElseThrow().getArgument(1))));
     }
 
     @Test
-    @DisplayName("Should handle unexpected exception gracefully")
-    void testFreezeWallet_UnexpectedException() {
-        when(walletRepository.findById(wallet.getId()))
-                .thenThrow(new RuntimeException("DB error"));
+    @DisplayName("Should report a missing wallet and schedule nothing")
+    void testFreezeWallet_NotFound() {
+        when(walletRepository.freeze(eq(1L), any(LocalDateTime.class))).thenReturn(0);
 
-        assertDoesNotThrow(() -> walletFreezeService.freezeWallet(wallet));
+        assertThrows(WalletNotFoundException.class, () -> walletFreezeService.freezeWallet(wallet));
+        verifyNoInteractions(freezeScheduler, outboxService);
     }
 
     // ------------------------------------------------------------------
@@ -109,40 +83,24 @@ class WalletFreezeServiceTest {
     // ------------------------------------------------------------------
 
     @Test
-    @DisplayName("Should unfreeze wallet successfully")
+    @DisplayName("Should unfreeze wallet, cancel its expiry and clear its daily spend")
     void testUnfreezeWallet_Success() {
-        wallet.setFrozen(true);
-        wallet.setFrozenAt(LocalDateTime.now());
-        wallet.setDailySpent(50000.0);
-
-        when(walletRepository.findById(wallet.getId())).thenReturn(Optional.of(wallet));
-        when(walletRepository.saveAndFlush(any(WalletEntity.class))).thenReturn(wallet);
+        when(walletRepository.unfreeze(1L)).thenReturn(1);
 
         walletFreezeService.unfreezeWallet(wallet);
 
-        assertFalse(wallet.getFrozen());
-        assertNull(wallet.getFrozenAt());
-        assertEquals(0.0, wallet.getDailySpent());
-        verify(walletRepository).saveAndFlush(wallet);
-    }
-
-    @Test
-    @DisplayName("Should handle OptimisticLockingFailureException gracefully on unfreeze")
-    void testUnfreezeWallet_OptimisticLockIgnored() {
-        when(walletRepository.findById(wallet.getId())).thenReturn(Optional.of(wallet));
-        doThrow(new OptimisticLockingFailureException("fail"))
-                .when(walletRepository).saveAndFlush(any(WalletEntity.class));
-
-        assertDoesNotThrow(() -> walletFreezeService.unfreezeWallet(wallet));
-        verify(walletRepository).saveAndFlush(wallet);
+        verify(walletRepository).unfreeze(1L);
+        verify(freezeScheduler).cancel(1L);
+        verify(spendingLimits).reset(1L, LimitWindow.DAILY);
+        verify(outboxService).recordStatus(1L, OutboxEventType.UNFROZEN);
     }
 
     @Test
-    @DisplayName("Should handle unexpected exception during unfreeze")
-    void testUnfreezeWallet_UnexpectedError() {
-        when(walletRepository.findById(wallet.getId()))
-                .thenThrow(new RuntimeException("DB failure"));
+    @DisplayName("Should report a missing wallet on unfreeze")
+    void testUnfreezeWallet_NotFound() {
+        when(walletRepository.unfreeze(1L)).thenReturn(0);
 
-        assertDoesNotThrow(() -> walletFreezeService.unfreezeWallet(wallet));
+        assertThrows(WalletNotFoundException.class, () -> walletFreezeService.unfreezeWallet(wallet));
+        verifyNoInteractions(freezeScheduler, spendingLimits, outboxService);
     }
 }
@@ -4,10 +4,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.walletservice.wallet_service.dto.request.WalletRequestDTO;
+import org.walletservice.wallet_service.dto.response.WalletLimitsResponseDTO;
 import org.walletservice.wallet_service.dto.response.WalletResponseDTO;
 import org.walletservice.wallet_service.entity.wallet.WalletEntity;
 import org.walletservice.wallet_service.exception.WalletNotFoundException;
 import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.limit.LimitWindow;
+import org.walletservice.wallet_service.service.limit.SpendingLimitEngine;
+import org.walletservice.wallet_service.service.limit.TierLimits;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,6 +24,12 @@ class WalletServiceTest {
     @Mock
     private WalletRepository walletRepository;
 
+    @Mock
+    private WalletStripingService walletStripingService;
+
+    @Mock
+    private SpendingLimitEngine spendingLimits;
+
     @InjectMocks
     private WalletService walletService;
 
@@ -176,4 +186,54 @@ class WalletServiceTest {
         when(walletRepository.findById(99L)).thenReturn(Optional.empty());
         assertThrows(WalletNotFoundException.class, () -> walletService.getWalletById(99L));
     }
+
+    // ---------------- 13. getLimits ----------------
+    @Test
+    void testGetLimits() {
+        WalletEntity wallet = new WalletEntity(1L, 1000.0);
+        wallet.setId(10L);
+
+        when(walletRepository.findById(10L)).thenReturn(Optional.of(wallet));
+        when(spendingLimits.limitsOf(wallet)).thenReturn(new TierLimits(null, 50000.0, 500000.0));
+        when(spendingLimits.tierOf(wallet)).thenReturn("standard");
+        when(spendingLimits.spent(10L, LimitWindow.DAILY)).thenReturn(1250000L);
+
+        WalletLimitsResponseDTO limits = walletService.getLimits(10L);
+
+        assertEquals("standard", limits.tier());
+        WalletLimitsResponseDTO.Window perMinute = limits.windows().get(0);
+        assertEquals("PER_MINUTE", perMinute.window());
+        assertNull(perMinute.limit());
+        assertNull(perMinute.available());
+        WalletLimitsResponseDTO.Window daily = limits.windows().get(1);
+        assertEquals(50000.0, daily.limit());
+        assertEquals(12500.0, daily.spent());
+        assertEquals(37500.0, daily.available());
+    }
+
+    // ---------------- 14. updateTier ----------------
+    @Test
+    void testUpdateTier() {
+        WalletEntity wallet = new WalletEntity(1L, 1000.0);
+        wallet.setId(10L);
+
+        when(spendingLimits.hasTier("Premium")).thenReturn(true);
+        when(walletRepository.findById(10L)).thenReturn(Optional.of(wallet));
+        when(walletRepository.save(wallet)).thenReturn(wallet);
+        when(spendingLimits.limitsOf(wallet)).thenReturn(new TierLimits(100000.0, 200000.0, 2000000.0));
+
+        walletService.updateTier(10L, "Premium");
+
+        assertEquals("premium", wallet.getTier());
+        verify(walletRepository).save(wallet);
+    }
+
+    // ---------------- 15. updateTier - unknown tier ----------------
+    @Test
+    void testUpdateTierUnknown() {
+        when(spendingLimits.hasTier("gold")).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> walletService.updateTier(10L, "gold"));
+        verify(walletRepository, never()).save(any());
+    }
 }
@@ -0,0 +1,66 @@
+package org.walletservice.wallet_service.service.wallet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalletStatusCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<Long, WalletStatusCache.WalletStatus> loader = id -> {
+        loads.incrementAndGet();
+        return new WalletStatusCache.WalletStatus(true, false);
+    };
+
+    @Test
+    @DisplayName("Should serve cached status until it expires")
+    void testGet_CachesWithinTtl() {
+        WalletStatusCache cache = new WalletStatusCache(60_000, 100);
+
+        assertTrue(cache.get(1L, loader).active());
+        assertTrue(cache.get(1L, loader).active());
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should reload status once the TTL has passed")
+    void testGet_ReloadsAfterTtl() {
+        WalletStatusCache cache = new WalletStatusCache(0, 100);
+
+        cache.get(1L, loader);
+        cache.get(1L, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should reload status after eviction")
+    void testEvict() {
+        WalletStatusCache cache = new WalletStatusCache(60_000, 100);
+
+        cache.get(1L, loader);
+        cache.evict(1L);
+        cache.get(1L, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should not cache a failed lookup")
+    void testGet_LoaderFailure() {
+        WalletStatusCache cache = new WalletStatusCache(60_000, 100);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get(9L, id -> {
+            throw new IllegalArgumentException("Wallet not found");
+        }));
+        cache.get(9L, loader);
+
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,211 @@
+package org.walletservice.wallet_service.service.wallet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.walletservice.wallet_service.dto.response.WalletStripingResponseDTO;
+import org.walletservice.wallet_service.entity.money.Money;
+import org.walletservice.wallet_service.entity.wallet.WalletBalanceSlotEntity;
+import org.walletservice.wallet_service.entity.wallet.WalletEntity;
+import org.walletservice.wallet_service.repository.wallet.WalletBalanceSlotRepository;
+import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WalletStripingServiceTest {
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private WalletBalanceSlotRepository slotRepository;
+
+    private WalletStripingService walletStripingService;
+
+    private WalletEntity wallet;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        walletStripingService = new WalletStripingService(walletRepository, slotRepository, 16);
+        wallet = new WalletEntity(10L, 100.0);
+        wallet.setId(1L);
+    }
+
+    private List<WalletBalanceSlotEntity> slots(double... balances) {
+        List<WalletBalanceSlotEntity> slots = new ArrayList<>();
+        for (int i = 0; i < balances.length; i++) {
+            slots.add(new WalletBalanceSlotEntity(1L, i, Money.ofMajor(balances[i])));
+        }
+        return slots;
+    }
+
+    @Test
+    @DisplayName("Should split the balance evenly in paise when striping is enabled")
+    @SuppressWarnings("unchecked")
+    void testEnable_SplitsBalance() {
+        wallet.setBalance(100.01);
+        when(walletRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(wallet));
+
+        WalletStripingResponseDTO response = walletStripingService.enable(1L, 3);
+
+        ArgumentCaptor<List<WalletBalanceSlotEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(slotRepository).saveAll(captor.capture());
+        List<Double> shares = captor.getValue().stream().map(WalletBalanceSlotEntity::getBalance).toList();
+        assertEquals(List.of(33.34, 33.34, 33.33), shares);
+        assertEquals(0.0, wallet.getBalance());
+        assertEquals(3, wallet.getStripeCount());
+        assertEquals(100.01, response.balance(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Should reject stripe counts outside the configured range")
+    void testEnable_InvalidStripeCount() {
+        assertThrows(IllegalArgumentException.class, () -> walletStripingService.enable(1L, 1));
+        assertThrows(IllegalArgumentException.class, () -> walletStripingService.enable(1L, 17));
+        verifyNoInteractions(walletRepository);
+    }
+
+    @Test
+    @DisplayName("Should refuse to stripe a wallet twice")
+    void testEnable_AlreadyStriped() {
+        wallet.setStripeCount(4);
+        when(walletRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(wallet));
+
+        assertThrows(IllegalStateException.class, () -> walletStripingService.enable(1L, 4));
+    }
+
+    @Test
+    @DisplayName("Should move slots and residual back to the wallet row when disabled")
+    void testDisable() {
+        wallet.setBalance(5.0);
+        wallet.setStripeCount(2);
+        List<WalletBalanceSlotEntity> slots = slots(10.0, 20.0);
+        when(walletRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(wallet));
+        when(slotRepository.findByWalletIdForUpdate(1L)).thenReturn(slots);
+
+        WalletStripingResponseDTO response = walletStripingService.disable(1L);
+
+        verify(slotRepository).deleteAll(slots);
+        assertEquals(35.0, wallet.getBalance());
+        assertFalse(wallet.isStriped());
+        assertEquals(35.0, response.balance());
+        assertTrue(response.slotBalances().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should fold the residual into the slots when rebalancing")
+    void testRebalance() {
+        wallet.setBalance(6.0);
+        wallet.setStripeCount(3);
+        List<WalletBalanceSlotEntity> slots = slots(0.0, 9.0, 0.0);
+        when(walletRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(wallet));
+        when(slotRepository.findByWalletIdForUpdate(1L)).thenReturn(slots);
+
+        WalletStripingResponseDTO response = walletStripingService.rebalance(1L);
+
+        assertEquals(List.of(5.0, 5.0, 5.0), response.slotBalances());
+        assertEquals(0.0, wallet.getBalance());
+        assertEquals(15.0, response.balance());
+    }
+
+    @Test
+    @DisplayName("Should debit a single slot when it covers the amount")
+    void testDebit_SingleSlot() {
+        wallet.setStripeCount(4);
+        when(slotRepository.debitIfCovered(eq(1L), anyInt(), eq(5000L))).thenReturn(1);
+
+        walletStripingService.debit(wallet, 5000L);
+
+        verify(slotRepository, never()).findByWalletIdForUpdate(any());
+    }
+
+    @Test
+    @DisplayName("Should sweep the fullest slots when no single slot covers the amount")
+    void testDebit_Sweep() {
+        wallet.setStripeCount(3);
+        List<WalletBalanceSlotEntity> slots = slots(10.0, 30.0, 20.0);
+        when(slotRepository.debitIfCovered(eq(1L), anyInt(), eq(4500L))).thenReturn(0);
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet));
+        when(slotRepository.findByWalletIdForUpdate(1L)).thenReturn(slots);
+
+        walletStripingService.debit(wallet, 4500L);
+
+        assertEquals(10.0, slots.get(0).getBalance());
+        assertEquals(0.0, slots.get(1).getBalance());
+        assertEquals(5.0, slots.get(2).getBalance());
+        assertEquals(100.0, wallet.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should take what the slots lack from the residual on the wallet row")
+    void testDebit_SweepIntoResidual() {
+        wallet.setStripeCount(2);
+        List<WalletBalanceSlotEntity> slots = slots(10.0, 20.0);
+        when(slotRepository.debitIfCovered(eq(1L), anyInt(), eq(5000L))).thenReturn(0);
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet));
+        when(slotRepository.findByWalletIdForUpdate(1L)).thenReturn(slots);
+
+        walletStripingService.debit(wallet, 5000L);
+
+        assertEquals(0.0, slots.get(0).getBalance());
+        assertEquals(0.0, slots.get(1).getBalance());
+        assertEquals(80.0, wallet.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should reject a debit the slots and the residual cannot cover")
+    void testDebit_InsufficientBalance() {
+        wallet.setStripeCount(2);
+        wallet.setBalance(10.0);
+        List<WalletBalanceSlotEntity> slots = slots(10.0, 20.0);
+        when(slotRepository.debitIfCovered(eq(1L), anyInt(), eq(5000L))).thenReturn(0);
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet));
+        when(slotRepository.findByWalletIdForUpdate(1L)).thenReturn(slots);
+
+        Exception ex = assertThrows(IllegalArgumentException.class, () -> walletStripingService.debit(wallet, 5000L));
+        assertEquals("Insufficient balance.", ex.getMessage());
+        assertEquals(10.0, slots.get(0).getBalance());
+        assertEquals(20.0, slots.get(1).getBalance());
+        assertEquals(10.0, wallet.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should read back the row balance, plus the slots when striped")
+    void testCurrentBalance() {
+        when(walletRepository.findBalanceById(1L)).thenReturn(100L);
+        when(slotRepository.sumBalance(1L)).thenReturn(9900L);
+
+        assertEquals(100L, walletStripingService.currentBalance(wallet));
+        verify(slotRepository, never()).sumBalance(any());
+
+        wallet.setStripeCount(2);
+        assertEquals(10000L, walletStripingService.currentBalance(wallet));
+    }
+
+    @Test
+    @DisplayName("Should add slot sums for striped wallets only")
+    void testTotalBalances() {
+        wallet.setBalance(1.0);
+        wallet.setStripeCount(2);
+        WalletEntity plain = new WalletEntity(10L, 40.0);
+        plain.setId(2L);
+        when(slotRepository.sumBalanceByWalletIds(List.of(1L)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 9900L}));
+
+        Map<Long, Long> balances = walletStripingService.totalBalances(List.of(wallet, plain));
+
+        assertEquals(10000L, balances.get(1L));
+        assertEquals(4000L, balances.get(2L));
+    }
+}
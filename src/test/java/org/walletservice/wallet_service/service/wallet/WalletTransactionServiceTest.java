@@ -3,21 +3,42 @@ package org.walletservice.wallet_service.service.wallet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.*;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.walletservice.wallet_service.dto.request.BatchTransactionItemDTO;
 import org.walletservice.wallet_service.dto.request.WalletTransactionRequestDTO;
+import org.walletservice.wallet_service.dto.response.BatchTransactionResultDTO;
+import org.walletservice.wallet_service.dto.response.TransactionSliceResponseDTO;
 import org.walletservice.wallet_service.dto.response.WalletTransactionResponseDTO;
+import org.walletservice.wallet_service.entity.journal.JournalEntryEntity;
+import org.walletservice.wallet_service.entity.money.Money;
 import org.walletservice.wallet_service.entity.transaction.TransactionEntity;
 import org.walletservice.wallet_service.entity.transaction.TransactionType;
 import org.walletservice.wallet_service.entity.wallet.WalletEntity;
 import org.walletservice.wallet_service.mapper.WalletTransactionMapper;
+import org.walletservice.wallet_service.repository.journal.JournalEntryRepository;
 import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.engine.RetryExecutor;
+import org.walletservice.wallet_service.service.engine.ShardedTransactionEngine;
+import org.walletservice.wallet_service.service.ledger.LedgerEntry;
+import org.walletservice.wallet_service.service.ledger.WriteBehindLedger;
+import org.walletservice.wallet_service.service.outbox.OutboxService;
+import org.walletservice.wallet_service.service.transaction.TransactionCursor;
 import org.walletservice.wallet_service.service.transaction.TransactionService;
+import org.walletservice.wallet_service.service.transaction.TransactionUserBackfill;
 import org.walletservice.wallet_service.validation.validator.WalletInternalValidationService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -42,12 +63,42 @@ class WalletTransactionServiceTest {
     @Mock
     private TransactionService transactionService;
 
+    @Mock
+    private ShardedTransactionEngine transactionEngine;
+
+    @Mock
+    private RetryExecutor retryExecutor;
+
+    @Mock
+    private TransferConcurrencyPolicy transferConcurrencyPolicy;
+
+    @Mock
+    private WalletStripingService walletStripingService;
+
+    @Mock
+    private TransactionUserBackfill userBackfill;
+
+    @Mock
+    private JournalEntryRepository journalEntryRepository;
+
+    @Mock
+    private WriteBehindLedger writeBehindLedger;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private WalletTransactionService walletTransactionService;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        when(retryExecutor.execute(anyString(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+        when(journalEntryRepository.save(any(JournalEntryEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Mock authentication for userId = 1
         UsernamePasswordAuthenticationToken auth =
@@ -73,17 +124,54 @@ class WalletTransactionServiceTest {
 
         when(transactionService.findByTransactionId("txn1")).thenReturn(Optional.empty());
         when(walletService.getWalletById(walletId)).thenReturn(wallet);
-        when(walletValidationService.getRemainingDailyLimit(wallet)).thenReturn(5000.0);
+        when(walletRepository.credit(walletId, 50000L)).thenReturn(1);
+        // Read back after the credit; the entity still holds the balance from before it
+        when(walletStripingService.currentBalance(wallet)).thenReturn(150000L);
+        when(walletValidationService.getRemainingDailyLimit(any())).thenReturn(50000.0);
         when(mapper.toDTO(any(TransactionEntity.class), anyDouble(), anyDouble()))
                 .thenReturn(mock(WalletTransactionResponseDTO.class));
 
         WalletTransactionResponseDTO response = walletTransactionService.processTransaction(walletId, request);
 
-        verify(transactionService).save(any(TransactionEntity.class));
-        verify(walletRepository).save(wallet);
+        ArgumentCaptor<TransactionEntity> saved = ArgumentCaptor.forClass(TransactionEntity.class);
+        verify(transactionService).save(saved.capture());
+        assertEquals(1L, saved.getValue().getUserId());
+        verify(walletRepository).credit(walletId, 50000L);
+        verify(walletRepository, never()).save(any(WalletEntity.class));
+        verify(mapper).toDTO(any(TransactionEntity.class), eq(1500.0), eq(50000.0));
+        verify(outboxService).recordTransaction(walletId, TransactionType.CREDIT, "txn1", 50000L, 150000L);
         assertNotNull(response);
     }
 
+    /**
+     * Test that transactions are routed through the sharded engine when it is enabled.
+     */
+    @Test
+    void testProcessTransaction_routedThroughShardedEngine() throws Exception {
+        Long walletId = 1L;
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(walletId);
+        wallet.setUserId(1L);
+        wallet.setBalance(1000.0);
+
+        WalletTransactionRequestDTO request = new WalletTransactionRequestDTO("txn3", 100.0, "CREDIT", "Deposit");
+
+        when(transactionEngine.isEnabled()).thenReturn(true);
+        when(transactionEngine.execute(eq(walletId), any()))
+                .thenAnswer(invocation -> ((java.util.concurrent.Callable<?>) invocation.getArgument(1)).call());
+        when(transactionService.findByTransactionId("txn3")).thenReturn(Optional.empty());
+        when(walletService.getWalletById(walletId)).thenReturn(wallet);
+        when(walletRepository.credit(walletId, 10000L)).thenReturn(1);
+        when(mapper.toDTO(any(TransactionEntity.class), anyDouble(), anyDouble()))
+                .thenReturn(mock(WalletTransactionResponseDTO.class));
+
+        WalletTransactionResponseDTO response = walletTransactionService.processTransaction(walletId, request);
+
+        assertNotNull(response);
+        verify(transactionEngine).execute(eq(walletId), any());
+        verify(transactionService).save(any(TransactionEntity.class));
+    }
+
     /**
      * Test idempotent transaction: when transactionId already exists.
      * Verifies that the transaction is not duplicated.
@@ -112,6 +200,39 @@ class WalletTransactionServiceTest {
         verify(transactionService, never()).save(any(TransactionEntity.class)); // Already exists
     }
 
+    /**
+     * Test a duplicate the idempotency filter missed: the unique index rejects the insert
+     * and the stored transaction is returned instead of an error.
+     */
+    @Test
+    void testProcessTransactionDuplicateCaughtByUniqueIndex() {
+        Long walletId = 1L;
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(walletId);
+        wallet.setUserId(1L);
+        wallet.setBalance(1000.0);
+
+        TransactionEntity txn = new TransactionEntity(walletId, TransactionType.CREDIT, 500.0, "Deposit");
+        txn.setTransactionId("txn5");
+
+        WalletTransactionRequestDTO request = new WalletTransactionRequestDTO("txn5", 500.0, "CREDIT", "Deposit");
+
+        when(transactionService.findByTransactionId("txn5")).thenReturn(Optional.empty());
+        when(walletService.getWalletById(walletId)).thenReturn(wallet);
+        when(walletRepository.credit(walletId, 50000L)).thenReturn(1);
+        when(transactionService.save(any(TransactionEntity.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry 'txn5'"));
+        when(transactionService.findStoredByTransactionId("txn5")).thenReturn(Optional.of(txn));
+        when(walletValidationService.getRemainingDailyLimit(wallet)).thenReturn(5000.0);
+        WalletTransactionResponseDTO expected = mock(WalletTransactionResponseDTO.class);
+        when(mapper.toDTO(txn, 1000.0, 5000.0)).thenReturn(expected);
+
+        WalletTransactionResponseDTO response = walletTransactionService.processTransaction(walletId, request);
+
+        assertSame(expected, response);
+        verify(transactionService, times(1)).save(any(TransactionEntity.class));
+    }
+
     /**
      * Test money transfer between wallets.
      * Verifies that both wallets are saved and transactions are recorded.
@@ -132,16 +253,146 @@ class WalletTransactionServiceTest {
         when(walletService.getWalletById(2L)).thenReturn(to);
         doNothing().when(walletInternalValidationService).validateReceiverWallet(2L);
         doNothing().when(walletValidationService).validateWalletState(from);
-        doNothing().when(walletValidationService).validateBalance(from, 200.0);
+        doNothing().when(walletValidationService).validateBalance(from, 20000L);
         when(walletValidationService.getRemainingDailyLimit(from)).thenReturn(800.0);
         when(mapper.toDTO(any(TransactionEntity.class), anyDouble(), anyDouble()))
                 .thenReturn(mock(WalletTransactionResponseDTO.class));
 
+        when(walletRepository.credit(2L, 20000L)).thenReturn(1);
+        when(walletStripingService.currentBalance(from)).thenReturn(80000L);
+
         WalletTransactionResponseDTO response = walletTransactionService.transferMoney(1L, 2L, 200.0);
 
         assertNotNull(response);
-        verify(walletRepository, times(2)).save(any(WalletEntity.class));
-        verify(transactionService, times(2)).save(any(TransactionEntity.class));
+        verify(walletValidationService).debit(from, 20000L);
+        verify(walletRepository).credit(2L, 20000L);
+        verify(walletRepository, never()).save(any(WalletEntity.class));
+        ArgumentCaptor<JournalEntryEntity> journal = ArgumentCaptor.forClass(JournalEntryEntity.class);
+        verify(journalEntryRepository).save(journal.capture());
+        assertEquals(TransactionType.TRANSFER, journal.getValue().getType());
+        assertEquals("Transfer from wallet 1 to wallet 2", journal.getValue().getDescription());
+
+        // Both legs point to the header and store no id or description of their own
+        ArgumentCaptor<List<TransactionEntity>> legs = ArgumentCaptor.forClass(List.class);
+        verify(transactionService).saveAll(legs.capture());
+        verify(transactionService, never()).save(any(TransactionEntity.class));
+        assertEquals(2, legs.getValue().size());
+        TransactionEntity debitLeg = legs.getValue().get(0);
+        TransactionEntity creditLeg = legs.getValue().get(1);
+        assertEquals(1L, debitLeg.getWalletId());
+        assertEquals(TransactionType.DEBIT, debitLeg.getType());
+        assertEquals(2L, creditLeg.getWalletId());
+        assertEquals(TransactionType.CREDIT, creditLeg.getType());
+        // Each leg carries the owner of its own wallet
+        assertEquals(1L, debitLeg.getUserId());
+        assertEquals(2L, creditLeg.getUserId());
+        for (TransactionEntity leg : legs.getValue()) {
+            assertSame(journal.getValue(), leg.getJournal());
+            assertNull(leg.getTransactionId());
+            assertEquals(journal.getValue().getReference(), leg.getReference());
+            assertEquals(journal.getValue().getDescription(), leg.getDescription());
+        }
+        verify(outboxService).recordTransfer(1L, 2L, journal.getValue().getReference(), 20000L, 80000L);
+        verify(walletRepository, never()).findByIdForUpdate(any());
+        verify(transferConcurrencyPolicy).recordOptimisticAttempt(1L, 2L, false);
+    }
+
+    /**
+     * Test pessimistic transfer locks both wallets, lower id first, and writes through the locked rows.
+     */
+    @Test
+    void testTransferMoney_pessimisticLocksInIdOrder() {
+        WalletEntity from = new WalletEntity();
+        from.setId(5L);
+        from.setUserId(1L);
+        from.setBalance(1000.0);
+
+        WalletEntity to = new WalletEntity();
+        to.setId(2L);
+        to.setUserId(2L);
+        to.setBalance(500.0);
+
+        WalletEntity lockedFrom = new WalletEntity();
+        lockedFrom.setId(5L);
+        lockedFrom.setUserId(1L);
+        lockedFrom.setBalance(900.0);
+
+        WalletEntity lockedTo = new WalletEntity();
+        lockedTo.setId(2L);
+        lockedTo.setUserId(2L);
+        lockedTo.setBalance(500.0);
+
+        when(walletService.getWalletById(5L)).thenReturn(from);
+        when(walletService.getWalletById(2L)).thenReturn(to);
+        when(transferConcurrencyPolicy.lockPessimistically(5L, 2L)).thenReturn(true);
+        when(walletRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(lockedFrom));
+        when(walletRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(lockedTo));
+        when(walletRepository.credit(2L, 20000L)).thenReturn(1);
+        when(walletStripingService.currentBalance(lockedFrom)).thenReturn(70000L);
+        when(walletValidationService.getRemainingDailyLimit(any())).thenReturn(50000.0);
+        when(mapper.toDTO(any(TransactionEntity.class), anyDouble(), anyDouble()))
+                .thenReturn(mock(WalletTransactionResponseDTO.class));
+
+        walletTransactionService.transferMoney(5L, 2L, 200.0);
+
+        InOrder locks = inOrder(walletRepository);
+        locks.verify(walletRepository).findByIdForUpdate(2L);
+        locks.verify(walletRepository).findByIdForUpdate(5L);
+        verify(walletValidationService).debit(lockedFrom, 20000L);
+        verify(mapper).toDTO(any(TransactionEntity.class), eq(700.0), anyDouble());
+        verify(transferConcurrencyPolicy, never()).recordOptimisticAttempt(any(), any(), anyBoolean());
+    }
+
+    /**
+     * Test a version conflict in an optimistic transfer is reported to the concurrency policy.
+     */
+    @Test
+    void testTransferMoney_conflictRecordedForAdaptiveLocking() {
+        WalletEntity from = new WalletEntity();
+        from.setId(1L);
+        from.setUserId(1L);
+        from.setBalance(1000.0);
+
+        WalletEntity to = new WalletEntity();
+        to.setId(2L);
+        to.setUserId(2L);
+
+        when(walletService.getWalletById(1L)).thenReturn(from);
+        when(walletService.getWalletById(2L)).thenReturn(to);
+        doThrow(new OptimisticLockingFailureException("Wallet 1 changed during debit"))
+                .when(walletValidationService).debit(from, 20000L);
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> walletTransactionService.transferMoney(1L, 2L, 200.0));
+        verify(transferConcurrencyPolicy).recordOptimisticAttempt(1L, 2L, true);
+    }
+
+    /**
+     * Test DEBIT transaction uses the conditional debit instead of read-modify-write.
+     */
+    @Test
+    void testProcessTransactionDebit() {
+        Long walletId = 1L;
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(walletId);
+        wallet.setUserId(1L);
+        wallet.setBalance(1000.0);
+        wallet.setDailySpent(100.0);
+
+        WalletTransactionRequestDTO request = new WalletTransactionRequestDTO("txn4", 300.0, "DEBIT", "Purchase");
+
+        when(transactionService.findByTransactionId("txn4")).thenReturn(Optional.empty());
+        when(walletService.getWalletById(walletId)).thenReturn(wallet);
+        when(walletValidationService.getRemainingDailyLimit(wallet)).thenReturn(49600.0);
+        when(walletStripingService.currentBalance(wallet)).thenReturn(70000L);
+        when(mapper.toDTO(any(TransactionEntity.class), anyDouble(), anyDouble()))
+                .thenReturn(mock(WalletTransactionResponseDTO.class));
+
+        walletTransactionService.processTransaction(walletId, request);
+
+        verify(walletValidationService).debit(wallet, 30000L);
+        verify(walletRepository, never()).save(any(WalletEntity.class));
+        verify(mapper).toDTO(any(TransactionEntity.class), eq(700.0), eq(49600.0));
     }
 
     /**
@@ -169,7 +420,7 @@ class WalletTransactionServiceTest {
     }
 
     /**
-     * Test filtered transactions with a Page response.
+     * Test filtered transactions return a slice with the cursor of its last row.
      */
     @Test
     void testGetFilteredTransactions() {
@@ -179,22 +430,47 @@ class WalletTransactionServiceTest {
         wallet.setBalance(1000.0);
 
         TransactionEntity txn = new TransactionEntity(wallet.getId(), TransactionType.CREDIT, 500.0, "Deposit");
+        ReflectionTestUtils.setField(txn, "id", 42L);
         txn.setTransactionId("txn1");
 
-        Pageable pageable = PageRequest.of(0, 10);
-
         when(walletService.getWalletById(1L)).thenReturn(wallet);
-        when(transactionService.findFilteredTransactions(1L, TransactionType.CREDIT, null, null, pageable))
-                .thenReturn(new PageImpl<>(List.of(txn)));
+        when(transactionService.findFilteredTransactions(1L, TransactionType.CREDIT, null, null, TransactionCursor.START, 1))
+                .thenReturn(new SliceImpl<>(List.of(txn), PageRequest.of(0, 1), true));
         when(walletValidationService.getRemainingDailyLimit(wallet)).thenReturn(2000.0);
         when(mapper.toDTO(any(TransactionEntity.class), anyDouble(), anyDouble()))
                 .thenReturn(mock(WalletTransactionResponseDTO.class));
 
-        Page<WalletTransactionResponseDTO> result = walletTransactionService.getFilteredTransactions(
-                1L, TransactionType.CREDIT, null, null, pageable
+        TransactionSliceResponseDTO result = walletTransactionService.getFilteredTransactions(
+                1L, TransactionType.CREDIT, null, null, null, 1
         );
 
-        assertEquals(1, result.getContent().size());
+        assertEquals(1, result.content().size());
+        assertTrue(result.hasNext());
+        assertEquals(TransactionCursor.after(txn), TransactionCursor.decode(result.nextCursor()));
+    }
+
+    /**
+     * Test the next page continues after the cursor it is given, and bad cursors and sizes are rejected.
+     */
+    @Test
+    void testGetFilteredTransactions_cursor() {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(1L);
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2025, 1, 1, 12, 0), 42L);
+
+        when(walletService.getWalletById(1L)).thenReturn(wallet);
+        when(transactionService.findFilteredTransactions(1L, null, null, null, cursor, 10))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+
+        TransactionSliceResponseDTO result = walletTransactionService.getFilteredTransactions(
+                1L, null, null, null, cursor.encode(), 10);
+
+        assertFalse(result.hasNext());
+        assertNull(result.nextCursor());
+        assertThrows(IllegalArgumentException.class, () -> walletTransactionService.getFilteredTransactions(
+                1L, null, null, null, "not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> walletTransactionService.getFilteredTransactions(
+                1L, null, null, null, null, WalletTransactionService.MAX_PAGE_SIZE + 1));
     }
 
     /**
@@ -210,18 +486,19 @@ class WalletTransactionServiceTest {
         TransactionEntity txn = new TransactionEntity(wallet.getId(), TransactionType.CREDIT, 500.0, "Deposit");
         txn.setTransactionId("txn1");
 
-        Pageable pageable = PageRequest.of(0, 10);
-
         when(walletRepository.findByUserId(1L)).thenReturn(List.of(wallet));
-        when(transactionService.findByWalletIdIn(List.of(1L), pageable))
-                .thenReturn(new PageImpl<>(List.of(txn)));
+        when(transactionService.findByWalletIdsBefore(List.of(1L), TransactionCursor.START, 10))
+                .thenReturn(new SliceImpl<>(List.of(txn), PageRequest.of(0, 10), false));
+        when(walletStripingService.totalBalances(List.of(wallet))).thenReturn(Map.of(1L, 100000L));
         when(walletValidationService.getRemainingDailyLimit(wallet)).thenReturn(2000.0);
         when(mapper.toDTO(any(TransactionEntity.class), anyDouble(), anyDouble()))
                 .thenReturn(mock(WalletTransactionResponseDTO.class));
 
-        Page<WalletTransactionResponseDTO> result = walletTransactionService.getAllUserTransactions(1L, pageable);
+        TransactionSliceResponseDTO result = walletTransactionService.getAllUserTransactions(1L, null, 10);
 
-        assertEquals(1, result.getContent().size());
+        assertEquals(1, result.content().size());
+        assertNull(result.nextCursor());
+        verify(mapper).toDTO(txn, 1000.0, 2000.0);
     }
 
     // ------------------ ADDITIONAL TESTS ------------------
@@ -244,11 +521,13 @@ class WalletTransactionServiceTest {
         when(walletService.getWalletById(1L)).thenReturn(from);
         when(walletService.getWalletById(2L)).thenReturn(to);
         doThrow(new IllegalStateException("Insufficient balance"))
-                .when(walletValidationService).validateBalance(from, 200.0);
+                .when(walletValidationService).validateBalance(from, 20000L);
 
         Exception ex = assertThrows(IllegalStateException.class,
                 () -> walletTransactionService.transferMoney(1L, 2L, 200.0));
         assertEquals("Insufficient balance", ex.getMessage());
+        verify(retryExecutor).execute(eq("transfer"), eq(1L), any());
+        verify(walletService, times(1)).getWalletById(1L);
     }
 
     /**
@@ -271,28 +550,27 @@ class WalletTransactionServiceTest {
     }
 
     /**
-     * Test CREDIT transaction exceeding daily limit.
+     * Test DEBIT transaction exceeding a spending limit.
      */
     @Test
     void testProcessTransaction_exceedDailyLimit() {
         WalletEntity wallet = new WalletEntity();
         wallet.setId(1L);
         wallet.setUserId(1L);
-        wallet.setBalance(1000.0);
-        wallet.setDailySpent(45000.0); // Already spent today
+        wallet.setBalance(10000.0);
 
-        WalletTransactionRequestDTO request = new WalletTransactionRequestDTO("txn2", 6000.0, "CREDIT", "Deposit");
+        WalletTransactionRequestDTO request = new WalletTransactionRequestDTO("txn2", 6000.0, "DEBIT", "Purchase");
 
         when(transactionService.findByTransactionId("txn2")).thenReturn(Optional.empty());
         when(walletService.getWalletById(1L)).thenReturn(wallet);
-
-        // Spy on walletValidationService to actually throw exception when limit exceeded
-        doCallRealMethod().when(walletValidationService).updateDailySpentAndFreeze(wallet, 6000.0);
+        doThrow(new IllegalStateException("Daily limit exceeded. Available ₹5000.0"))
+                .when(walletValidationService).debit(wallet, Money.ofMajor(request.amount()));
 
         Exception ex = assertThrows(IllegalStateException.class,
-                () -> walletValidationService.updateDailySpentAndFreeze(wallet, request.amount()));
+                () -> walletTransactionService.processTransaction(1L, request));
 
         assertTrue(ex.getMessage().contains("Daily limit exceeded"));
+        verify(transactionService, never()).save(any());
     }
 
 
@@ -313,36 +591,324 @@ class WalletTransactionServiceTest {
     }
 
     /**
-     * Test getFilteredTransactions returns empty Page.
+     * Test getFilteredTransactions returns an empty slice.
      */
     @Test
     void testGetFilteredTransactions_noResults() {
-        Pageable pageable = PageRequest.of(0, 10);
         WalletEntity wallet = new WalletEntity();
         wallet.setId(1L);
         wallet.setUserId(1L);
 
         when(walletService.getWalletById(1L)).thenReturn(wallet);
-        when(transactionService.findFilteredTransactions(1L, TransactionType.DEBIT, null, null, pageable))
-                .thenReturn(Page.empty());
+        when(transactionService.findFilteredTransactions(1L, TransactionType.DEBIT, null, null, TransactionCursor.START, 10))
+                .thenReturn(new SliceImpl<>(List.of()));
 
-        Page<WalletTransactionResponseDTO> result = walletTransactionService.getFilteredTransactions(
-                1L, TransactionType.DEBIT, null, null, pageable
+        TransactionSliceResponseDTO result = walletTransactionService.getFilteredTransactions(
+                1L, TransactionType.DEBIT, null, null, null, 10
         );
 
-        assertTrue(result.getContent().isEmpty());
+        assertTrue(result.content().isEmpty());
+    }
+
+    /**
+     * Test that once backfilled, a user's history is read by user id, without listing their wallets.
+     */
+    @Test
+    void testGetAllUserTransactions_byUserIndex() {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(1L);
+        wallet.setUserId(1L);
+        wallet.setBalance(1000.0);
+
+        TransactionEntity txn = new TransactionEntity(wallet.getId(), TransactionType.CREDIT, 500.0, "Deposit");
+        ReflectionTestUtils.setField(txn, "id", 42L);
+
+        when(userBackfill.isComplete()).thenReturn(true);
+        when(transactionService.findByUserIdBefore(1L, TransactionCursor.START, 1))
+                .thenReturn(new SliceImpl<>(List.of(txn), PageRequest.of(0, 1), true));
+        when(walletRepository.findAllById(Set.of(1L))).thenReturn(List.of(wallet));
+        when(walletStripingService.totalBalances(List.of(wallet))).thenReturn(Map.of(1L, 100000L));
+        when(walletValidationService.getRemainingDailyLimit(wallet)).thenReturn(2000.0);
+        when(mapper.toDTO(any(TransactionEntity.class), anyDouble(), anyDouble()))
+                .thenReturn(mock(WalletTransactionResponseDTO.class));
+
+        TransactionSliceResponseDTO result = walletTransactionService.getAllUserTransactions(1L, null, 1);
+
+        assertEquals(1, result.content().size());
+        assertEquals(TransactionCursor.after(txn).encode(), result.nextCursor());
+        verify(mapper).toDTO(txn, 1000.0, 2000.0);
+        verify(walletRepository, never()).findByUserId(any());
+        verify(transactionService, never()).findByWalletIdsBefore(any(), any(), anyInt());
     }
 
     /**
-     * Test getAllUserTransactions returns empty Page when user has no wallets.
+     * Test getAllUserTransactions returns an empty slice when user has no wallets.
      */
     @Test
     void testGetAllUserTransactions_noWallets() {
-        Pageable pageable = PageRequest.of(0, 10);
         when(walletRepository.findByUserId(1L)).thenReturn(List.of());
 
-        Page<WalletTransactionResponseDTO> result = walletTransactionService.getAllUserTransactions(1L, pageable);
+        TransactionSliceResponseDTO result = walletTransactionService.getAllUserTransactions(1L, null, 10);
+
+        assertTrue(result.content().isEmpty());
+        assertFalse(result.hasNext());
+    }
+
+    /**
+     * Test a batch applies all items of one wallet under a single lock and write.
+     */
+    @Test
+    void testProcessBatch_appliesItemsPerWallet() {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(1L);
+        wallet.setUserId(1L);
+        wallet.setBalance(1000.0);
+
+        List<BatchTransactionItemDTO> items = List.of(
+                new BatchTransactionItemDTO(1L, new WalletTransactionRequestDTO("b1", 500.0, "CREDIT", "Deposit")),
+                new BatchTransactionItemDTO(1L, new WalletTransactionRequestDTO("b2", 200.0, "DEBIT", "Purchase"))
+        );
+
+        when(transactionService.findByTransactionIds(List.of("b1", "b2"))).thenReturn(List.of());
+        when(walletRepository.findAllById(List.of(1L))).thenReturn(List.of(wallet));
+        when(walletRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(wallet));
+        when(mapper.toDTO(any(TransactionEntity.class), anyDouble(), anyDouble()))
+                .thenAnswer(invocation -> responseFor(invocation.getArgument(0)));
+
+        List<BatchTransactionResultDTO> results = walletTransactionService.processBatch(items);
+
+        assertEquals(2, results.size());
+        assertEquals(BatchTransactionResultDTO.APPLIED, results.get(0).status());
+        assertEquals(BatchTransactionResultDTO.APPLIED, results.get(1).status());
+        assertEquals("b2", results.get(1).transactionId());
+        assertEquals(1500.0, wallet.getBalance());
+        verify(walletValidationService).applyDebit(wallet, 20000L);
+        verify(walletRepository, times(1)).findByIdForUpdate(1L);
+        verify(walletRepository, times(1)).save(wallet);
+        verify(transactionService).saveAll(argThat(list -> list.size() == 2));
+    }
+
+    /**
+     * Test a batch reports duplicates and rejected items without failing the others.
+     */
+    @Test
+    void testProcessBatch_duplicatesAndRejections() {
+        WalletEntity own = new WalletEntity();
+        own.setId(1L);
+        own.setUserId(1L);
+        own.setBalance(100.0);
+
+        WalletEntity other = new WalletEntity();
+        other.setId(2L);
+        other.setUserId(2L);
+        other.setBalance(100.0);
+
+        TransactionEntity processed = new TransactionEntity(1L, TransactionType.CREDIT, 10.0, "Earlier");
+        processed.setTransactionId("old");
+
+        List<BatchTransactionItemDTO> items = List.of(
+                new BatchTransactionItemDTO(1L, new WalletTransactionRequestDTO("old", 10.0, "CREDIT", "Retry")),
+                new BatchTransactionItemDTO(1L, new WalletTransactionRequestDTO("new", 10.0, "CREDIT", "Deposit")),
+                new BatchTransactionItemDTO(1L, new WalletTransactionRequestDTO("new", 10.0, "CREDIT", "Repeated")),
+                new BatchTransactionItemDTO(2L, new WalletTransactionRequestDTO("theirs", 10.0, "CREDIT", "Deposit")),
+                new BatchTransactionItemDTO(9L, new WalletTransactionRequestDTO("missing", 10.0, "CREDIT", "Deposit")),
+                new BatchTransactionItemDTO(1L, new WalletTransactionRequestDTO("big", 500.0, "DEBIT", "Purchase"))
+        );
+
+        when(transactionService.findByTransactionIds(anyList())).thenReturn(List.of(processed));
+        when(walletRepository.findAllById(anyList())).thenReturn(List.of(own, other));
+        when(walletRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(own));
+        doThrow(new IllegalArgumentException("Insufficient balance."))
+                .when(walletValidationService).applyDebit(own, 50000L);
+        when(mapper.toDTO(any(TransactionEntity.class), anyDouble(), anyDouble()))
+                .thenAnswer(invocation -> responseFor(invocation.getArgument(0)));
+
+        List<BatchTransactionResultDTO> results = walletTransactionService.processBatch(items);
+
+        assertEquals(BatchTransactionResultDTO.DUPLICATE, results.get(0).status());
+        assertEquals(BatchTransactionResultDTO.APPLIED, results.get(1).status());
+        assertEquals(BatchTransactionResultDTO.REJECTED, results.get(2).status());
+        assertEquals(BatchTransactionResultDTO.REJECTED, results.get(3).status());
+        assertEquals(BatchTransactionResultDTO.REJECTED, results.get(4).status());
+        assertEquals(BatchTransactionResultDTO.REJECTED, results.get(5).status());
+        assertEquals("Insufficient balance.", results.get(5).error());
+        assertEquals(110.0, own.getBalance());
+        verify(walletRepository, never()).findByIdForUpdate(2L);
+        verify(transactionService).saveAll(argThat(list -> list.size() == 1));
+    }
+
+    /**
+     * Test items of a wallet whose write fails are reported as FAILED.
+     */
+    @Test
+    void testProcessBatch_groupFailure() {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(1L);
+        wallet.setUserId(1L);
+        wallet.setBalance(100.0);
+
+        List<BatchTransactionItemDTO> items = List.of(
+                new BatchTransactionItemDTO(1L, new WalletTransactionRequestDTO("f1", 10.0, "CREDIT", "Deposit"))
+        );
+
+        when(transactionService.findByTransactionIds(anyList())).thenReturn(List.of());
+        when(walletRepository.findAllById(anyList())).thenReturn(List.of(wallet));
+        when(walletRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(wallet));
+        when(mapper.toDTO(any(TransactionEntity.class), anyDouble(), anyDouble()))
+                .thenAnswer(invocation -> responseFor(invocation.getArgument(0)));
+        when(transactionService.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry 'f1'"));
+
+        List<BatchTransactionResultDTO> results = walletTransactionService.processBatch(items);
+
+        assertEquals(BatchTransactionResultDTO.FAILED, results.get(0).status());
+        assertEquals("f1", results.get(0).transactionId());
+    }
+
+    /**
+     * Test an id the idempotency filter missed is found after the unique index rejects the group,
+     * and the rest of the group is applied again.
+     */
+    @Test
+    void testProcessBatch_storedIdMissedByFilter() {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(1L);
+        wallet.setUserId(1L);
+        wallet.setBalance(100.0);
+
+        TransactionEntity stored = new TransactionEntity(1L, TransactionType.CREDIT, 10.0, "Long ago");
+        stored.setTransactionId("old");
+
+        List<BatchTransactionItemDTO> items = List.of(
+                new BatchTransactionItemDTO(1L, new WalletTransactionRequestDTO("old", 10.0, "CREDIT", "Retry")),
+                new BatchTransactionItemDTO(1L, new WalletTransactionRequestDTO("new", 20.0, "CREDIT", "Deposit"))
+        );
+
+        when(transactionService.findByTransactionIds(anyList())).thenReturn(List.of());
+        when(walletRepository.findAllById(anyList())).thenReturn(List.of(wallet));
+        when(walletRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(wallet));
+        when(mapper.toDTO(any(TransactionEntity.class), anyDouble(), anyDouble()))
+                .thenAnswer(invocation -> responseFor(invocation.getArgument(0)));
+        when(transactionService.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry 'old'"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionService.findStoredByTransactionIds(List.of("old", "new"))).thenReturn(List.of(stored));
+
+        List<BatchTransactionResultDTO> results = walletTransactionService.processBatch(items);
+
+        assertEquals(BatchTransactionResultDTO.DUPLICATE, results.get(0).status());
+        assertEquals(BatchTransactionResultDTO.APPLIED, results.get(1).status());
+        assertEquals("new", results.get(1).transactionId());
+        verify(transactionService).saveAll(argThat(list -> list.size() == 1
+                && "new".equals(list.get(0).getTransactionId())));
+    }
+
+    /**
+     * A wallet in journal durability mode is debited in memory, never through the wallet row.
+     */
+    @Test
+    void testProcessTransaction_writeBehindWallet() {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(1L);
+        wallet.setUserId(1L);
+        wallet.setBalance(100.0);
+
+        WalletTransactionRequestDTO request = new WalletTransactionRequestDTO("wb1", 40.0, "DEBIT", "Coffee");
+        LedgerEntry entry = new LedgerEntry(7L, 1L, TransactionType.DEBIT, 4000L, "wb1", "Coffee", 0L);
+
+        when(transactionService.findByTransactionId("wb1")).thenReturn(Optional.empty());
+        when(walletService.getWalletById(1L)).thenReturn(wallet);
+        when(writeBehindLedger.isEnabled()).thenReturn(true);
+        when(writeBehindLedger.findPending("wb1")).thenReturn(Optional.empty());
+        when(writeBehindLedger.handles(wallet)).thenReturn(true);
+        when(writeBehindLedger.apply(wallet, TransactionType.DEBIT, 4000L, "wb1", "Coffee"))
+                .thenReturn(new WriteBehindLedger.Applied(entry, 6000L, false));
+        when(mapper.toDTO(any(TransactionEntity.class), anyDouble(), anyDouble()))
+                .thenAnswer(invocation -> responseFor(invocation.getArgument(0)));
+
+        WalletTransactionResponseDTO response = walletTransactionService.processTransaction(1L, request);
+
+        assertEquals("wb1", response.transactionId());
+        verify(mapper).toDTO(argThat(txn -> txn.getAmountMinor() == 4000L), eq(60.0), anyDouble());
+        verify(walletValidationService, never()).validateBalance(any(), anyLong());
+        verify(walletValidationService, never()).debit(any(), anyLong());
+        verify(transactionService, never()).save(any());
+    }
+
+    /**
+     * A retry of a transaction that is journaled but not yet written behind is answered from the ledger.
+     */
+    @Test
+    void testProcessTransaction_writeBehindPendingDuplicate() {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(1L);
+        wallet.setUserId(1L);
+        wallet.setBalance(100.0);
+
+        WalletTransactionRequestDTO request = new WalletTransactionRequestDTO("wb2", 40.0, "CREDIT", "Refund");
+        LedgerEntry entry = new LedgerEntry(8L, 1L, TransactionType.CREDIT, 4000L, "wb2", "Refund", 0L);
+
+        when(transactionService.findByTransactionId("wb2")).thenReturn(Optional.empty());
+        when(walletService.getWalletById(1L)).thenReturn(wallet);
+        when(writeBehindLedger.isEnabled()).thenReturn(true);
+        when(writeBehindLedger.findPending("wb2")).thenReturn(Optional.of(entry));
+        when(mapper.toDTO(any(TransactionEntity.class), anyDouble(), anyDouble()))
+                .thenAnswer(invocation -> responseFor(invocation.getArgument(0)));
+
+        WalletTransactionResponseDTO response = walletTransactionService.processTransaction(1L, request);
+
+        assertEquals("wb2", response.transactionId());
+        verify(writeBehindLedger, never()).apply(any(), any(), anyLong(), any(), any());
+    }
+
+    /**
+     * A stored id the idempotency filter has not seen is confirmed in the database before journaling.
+     */
+    @Test
+    void testProcessTransaction_writeBehindStoredIdMissedByFilter() {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(1L);
+        wallet.setUserId(1L);
+        wallet.setBalance(100.0);
+
+        WalletTransactionRequestDTO request = new WalletTransactionRequestDTO("wb3", 40.0, "DEBIT", "Coffee");
+        TransactionEntity stored = new TransactionEntity(1L, TransactionType.DEBIT, 40.0, "Coffee");
+        stored.setTransactionId("wb3");
+
+        when(transactionService.findByTransactionId("wb3")).thenReturn(Optional.empty());
+        when(transactionService.findStoredByTransactionId("wb3")).thenReturn(Optional.of(stored));
+        when(walletService.getWalletById(1L)).thenReturn(wallet);
+        when(writeBehindLedger.isEnabled()).thenReturn(true);
+        when(writeBehindLedger.findPending("wb3")).thenReturn(Optional.empty());
+        when(writeBehindLedger.handles(wallet)).thenReturn(true);
+        when(mapper.toDTO(any(TransactionEntity.class), anyDouble(), anyDouble()))
+                .thenAnswer(invocation -> responseFor(invocation.getArgument(0)));
+
+        WalletTransactionResponseDTO response = walletTransactionService.processTransaction(1L, request);
+
+        assertEquals("wb3", response.transactionId());
+        verify(writeBehindLedger, never()).apply(any(), any(), anyLong(), any(), any());
+    }
+
+    /**
+     * A transfer cannot debit a wallet whose balance is held by the write-behind ledger.
+     */
+    @Test
+    void testTransferMoney_fromWriteBehindWalletRejected() {
+        WalletEntity from = new WalletEntity();
+        from.setId(1L);
+        from.setUserId(1L);
+        from.setBalance(1000.0);
+
+        when(walletService.getWalletById(1L)).thenReturn(from);
+        when(writeBehindLedger.handles(from)).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> walletTransactionService.transferMoney(1L, 2L, 100.0));
+        verify(walletValidationService, never()).debit(any(), anyLong());
+    }
 
-        assertTrue(result.getContent().isEmpty());
+    private WalletTransactionResponseDTO responseFor(TransactionEntity txn) {
+        return new WalletTransactionResponseDTO(txn.getTransactionId(), txn.getAmount(), txn.getType().name(),
+                txn.getTransactionDate(), txn.getDescription(), 0.0, 0.0);
     }
 }
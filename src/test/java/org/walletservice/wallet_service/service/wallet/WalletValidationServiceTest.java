@@ -2,15 +2,21 @@ package org.walletservice.wallet_service.service.wallet;
 
 import org.junit.jupiter.api.*;
 import org.mockito.*;
-import org.springframework.transaction.support.TransactionSynchronization;
-import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.walletservice.wallet_service.entity.outbox.OutboxEventType;
 import org.walletservice.wallet_service.entity.wallet.WalletEntity;
 import org.walletservice.wallet_service.exception.WalletFrozenException;
+import org.walletservice.wallet_service.repository.wallet.DebitResult;
 import org.walletservice.wallet_service.repository.wallet.WalletRepository;
+import org.walletservice.wallet_service.service.freeze.FreezeScheduler;
+import org.walletservice.wallet_service.service.limit.SpendingLimitEngine;
+import org.walletservice.wallet_service.service.outbox.OutboxService;
+import org.walletservice.wallet_service.service.limit.SpendingLimitEngine.Reservation;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class WalletValidationServiceTest {
@@ -19,7 +25,16 @@ class WalletValidationServiceTest {
     private WalletRepository walletRepository;
 
     @Mock
-    private WalletFreezeService walletFreezeService;
+    private FreezeScheduler freezeScheduler;
+
+    @Mock
+    private WalletStripingService walletStripingService;
+
+    @Mock
+    private SpendingLimitEngine spendingLimits;
+
+    @Mock
+    private OutboxService outboxService;
 
     @InjectMocks
     private WalletValidationService walletValidationService;
@@ -35,6 +50,9 @@ class WalletValidationServiceTest {
         wallet.setBalance(1000.0);
         wallet.setDailySpent(0.0);
         wallet.setFrozen(false);
+
+        when(spendingLimits.reserve(any(), anyLong()))
+                .thenAnswer(inv -> new Reservation(1L, inv.getArgument(1), 0L, false));
     }
 
     // -------------------------------------------------------------------
@@ -43,7 +61,7 @@ class WalletValidationServiceTest {
     @Test
     @DisplayName("Should pass if wallet has sufficient balance")
     void testValidateBalance_Sufficient() {
-        assertDoesNotThrow(() -> walletValidationService.validateBalance(wallet, 500.0));
+        assertDoesNotThrow(() -> walletValidationService.validateBalance(wallet, 50000L));
     }
 
     @Test
@@ -51,58 +69,137 @@ class WalletValidationServiceTest {
     void testValidateBalance_Insufficient() {
         wallet.setBalance(100.0);
         Exception ex = assertThrows(IllegalArgumentException.class,
-                () -> walletValidationService.validateBalance(wallet, 200.0));
+                () -> walletValidationService.validateBalance(wallet, 20000L));
         assertEquals("Insufficient balance.", ex.getMessage());
     }
 
     // -------------------------------------------------------------------
-    // validateAndTrackDailyLimit()
+    // spending limits
     // -------------------------------------------------------------------
     @Test
-    @DisplayName("Should track daily spending below limit")
-    void testValidateAndTrackDailyLimit_Valid() {
-        wallet.setDailySpent(10000.0);
+    @DisplayName("Should reject a debit over a spending limit without touching the wallet row")
+    void testDebit_SpendingLimitExceeded() {
+        when(spendingLimits.reserve(wallet, 80000L))
+                .thenThrow(new IllegalStateException("Daily limit exceeded. Available ₹500.0"));
 
-        walletValidationService.updateDailySpentAndFreeze(wallet, 2000.0);
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> walletValidationService.debit(wallet, 80000L));
 
-        verify(walletRepository).saveAndFlush(wallet);
-        assertEquals(12000.0, wallet.getDailySpent());
+        assertTrue(ex.getMessage().contains("Daily limit exceeded"));
+        verify(walletRepository, never()).debit(anyLong(), anyLong(), anyBoolean(), anyBoolean());
     }
 
     @Test
-    @DisplayName("Should throw if daily limit exceeded")
-    void testValidateAndTrackDailyLimit_ExceedsLimit() {
-        wallet.setDailySpent(49000.0);
+    @DisplayName("Should freeze the wallet in the debit statement when the daily limit is reached")
+    void testDebit_ReachesDailyLimit() {
+        when(spendingLimits.reserve(wallet, 100000L)).thenReturn(new Reservation(1L, 100000L, 0L, true));
+        when(walletRepository.debit(1L, 100000L, false, true)).thenReturn(DebitResult.APPLIED);
 
-        IllegalStateException ex = assertThrows(IllegalStateException.class,
-                () -> walletValidationService.updateDailySpentAndFreeze(wallet, 2000.0));
+        walletValidationService.debit(wallet, 100000L);
 
-        assertTrue(ex.getMessage().contains("Daily limit exceeded"));
+        verify(walletRepository).debit(1L, 100000L, false, true);
+        verify(walletRepository, never()).saveAndFlush(any());
+        verify(freezeScheduler).schedule(eq(1L), any(LocalDateTime.class));
+        verify(outboxService).recordStatus(1L, OutboxEventType.FROZEN);
+    }
+
+    @Test
+    @DisplayName("Should release the reservation when the debit statement rejects the debit")
+    void testDebit_RejectedReleasesReservation() {
+        Reservation reservation = new Reservation(1L, 500000L, 0L, false);
+        when(spendingLimits.reserve(wallet, 500000L)).thenReturn(reservation);
+        when(walletRepository.debit(1L, 500000L, false, false)).thenReturn(DebitResult.INSUFFICIENT_BALANCE);
+
+        assertThrows(IllegalArgumentException.class, () -> walletValidationService.debit(wallet, 500000L));
+
+        verify(spendingLimits).release(reservation);
+        verify(spendingLimits, never()).releaseOnRollback(any());
+    }
+
+    @Test
+    @DisplayName("Should keep an applied debit counted unless its transaction rolls back")
+    void testDebit_AppliedReleasesOnRollbackOnly() {
+        Reservation reservation = new Reservation(1L, 50000L, 0L, false);
+        when(spendingLimits.reserve(wallet, 50000L)).thenReturn(reservation);
+        when(walletRepository.debit(1L, 50000L, false, false)).thenReturn(DebitResult.APPLIED);
+
+        walletValidationService.debit(wallet, 50000L);
+
+        verify(spendingLimits).releaseOnRollback(reservation);
+        verify(spendingLimits, never()).release(any());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    @DisplayName("Should freeze a locked wallet in place when a batch debit reaches the daily limit")
+    void testApplyDebit_ReachesDailyLimit() {
+        when(spendingLimits.reserve(wallet, 100000L)).thenReturn(new Reservation(1L, 100000L, 0L, true));
+
+        walletValidationService.applyDebit(wallet, 100000L);
+
+        assertEquals(0.0, wallet.getBalance());
+        assertTrue(wallet.getFrozen());
+        assertNotNull(wallet.getFrozenAt());
+        verify(freezeScheduler).schedule(1L, wallet.getFrozenAt());
+        verify(outboxService).recordStatus(1L, OutboxEventType.FROZEN);
+        verifyNoInteractions(walletRepository);
+    }
+
+    // -------------------------------------------------------------------
+    // debit()
+    // -------------------------------------------------------------------
+    @Test
+    @DisplayName("Should debit with a single conditional update")
+    void testDebit_Applied() {
+        when(walletRepository.debit(1L, 50000L, false, false)).thenReturn(DebitResult.APPLIED);
+
+        assertDoesNotThrow(() -> walletValidationService.debit(wallet, 50000L));
+
+        verify(walletRepository).debit(1L, 50000L, false, false);
         verify(walletRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(walletStripingService);
     }
 
     @Test
-    @DisplayName("Should freeze wallet automatically when daily limit reached")
-    void testValidateAndTrackDailyLimit_TriggersFreeze() {
-        wallet.setDailySpent(49000.0);
+    @DisplayName("Should take the amount from the balance slots of a striped wallet")
+    void testDebit_StripedWallet() {
+        wallet.setStripeCount(4);
+        when(walletRepository.debit(1L, 50000L, true, false)).thenReturn(DebitResult.APPLIED);
 
-        // Simulate a transaction context
-            TransactionSynchronizationManager.initSynchronization();
+        assertDoesNotThrow(() -> walletValidationService.debit(wallet, 50000L));
 
-        walletValidationService.updateDailySpentAndFreeze(wallet, 1000.0);
+        verify(walletStripingService).debit(wallet, 50000L);
+    }
 
-        verify(walletRepository).saveAndFlush(wallet);
+    @Test
+    @DisplayName("Should skip the row balance check for striped wallets")
+    void testValidateBalance_StripedWallet() {
+        wallet.setBalance(0.0);
+        wallet.setStripeCount(4);
 
-        // ✅ Manually trigger afterCommit to simulate transaction commit
-        TransactionSynchronizationManager.getSynchronizations()
-                .forEach(TransactionSynchronization::afterCommit);
+        assertDoesNotThrow(() -> walletValidationService.validateBalance(wallet, 50000L));
+    }
 
-        verify(walletFreezeService).freezeWallet(wallet);
+    @Test
+    @DisplayName("Should report insufficient balance rejected by the debit statement")
+    void testDebit_InsufficientBalance() {
+        when(walletRepository.debit(1L, 500000L, false, false)).thenReturn(DebitResult.INSUFFICIENT_BALANCE);
 
-        // Clear transaction synchronization context
-        TransactionSynchronizationManager.clearSynchronization();
+        Exception ex = assertThrows(IllegalArgumentException.class,
+                () -> walletValidationService.debit(wallet, 500000L));
+        assertEquals("Insufficient balance.", ex.getMessage());
     }
 
+    @Test
+    @DisplayName("Should report frozen wallet rejected by the debit statement")
+    void testDebit_Frozen() {
+        when(walletRepository.debit(1L, 10000L, false, false)).thenReturn(DebitResult.WALLET_FROZEN);
+        when(freezeScheduler.freezeDuration()).thenReturn(Duration.ofMinutes(2));
+
+        WalletFrozenException ex = assertThrows(WalletFrozenException.class,
+                () -> walletValidationService.debit(wallet, 10000L));
+        assertEquals(120L, ex.getSecondsLeft());
+    }
 
     // -------------------------------------------------------------------
     // validateWalletState()
@@ -115,14 +212,18 @@ class WalletValidationServiceTest {
     }
 
     @Test
-    @DisplayName("Should unfreeze wallet if freeze duration expired")
-    void testValidateWalletState_UnfreezeAfterTimeout() {
+    @DisplayName("Should reject a frozen wallet without writing, even once its freeze expired")
+    void testValidateWalletState_ExpiredFreezeLeftToScheduler() {
         wallet.setFrozen(true);
         wallet.setFrozenAt(LocalDateTime.now().minusMinutes(5)); // older than 2 minutes
+        when(freezeScheduler.secondsLeft(wallet)).thenReturn(1L);
 
-        walletValidationService.validateWalletState(wallet);
+        WalletFrozenException ex = assertThrows(WalletFrozenException.class,
+                () -> walletValidationService.validateWalletState(wallet));
 
-        verify(walletFreezeService).unfreezeWallet(wallet);
+        assertEquals(1L, ex.getSecondsLeft());
+        assertTrue(wallet.getFrozen());
+        verifyNoInteractions(walletRepository);
     }
 
     @Test
@@ -130,22 +231,61 @@ class WalletValidationServiceTest {
     void testValidateWalletState_FrozenTooSoon() {
         wallet.setFrozen(true);
         wallet.setFrozenAt(LocalDateTime.now().minusSeconds(30)); // less than 2 mins ago
+        when(freezeScheduler.secondsLeft(wallet)).thenReturn(90L);
 
         WalletFrozenException ex = assertThrows(WalletFrozenException.class,
                 () -> walletValidationService.validateWalletState(wallet));
 
-        assertTrue(ex.getMessage().contains("Wallet is frozen"));
-        assertTrue(ex.getSecondsLeft() > 0);
-        verify(walletFreezeService, never()).unfreezeWallet(any());
+        assertTrue(ex.getMessage().contains("Try again in 90 seconds"));
+        assertEquals(90L, ex.getSecondsLeft());
     }
 
     @Test
-    @DisplayName("Should handle null frozenAt safely (skip)")
+    @DisplayName("Should reject a frozen wallet without a freeze time")
     void testValidateWalletState_FrozenNullFrozenAt() {
         wallet.setFrozen(true);
         wallet.setFrozenAt(null);
+        when(freezeScheduler.secondsLeft(wallet)).thenReturn(120L);
 
-        assertDoesNotThrow(() -> walletValidationService.validateWalletState(wallet));
-        verify(walletFreezeService, never()).unfreezeWallet(any());
+        assertThrows(WalletFrozenException.class, () -> walletValidationService.validateWalletState(wallet));
+    }
+
+    // -------------------------------------------------------------------
+    // holds
+    // -------------------------------------------------------------------
+    @Test
+    @DisplayName("Should count funds held by holds as unavailable")
+    void testValidateBalance_Held() {
+        wallet.setHeldMinor(90000L);
+
+        assertDoesNotThrow(() -> walletValidationService.validateBalance(wallet, 10000L));
+        assertThrows(IllegalArgumentException.class, () -> walletValidationService.validateBalance(wallet, 10001L));
+    }
+
+    @Test
+    @DisplayName("Should insert the hold before locking the wallet, and undo the limits if the hold is rejected")
+    void testHold() {
+        Reservation reservation = new Reservation(1L, 30000L, 5L, false);
+        when(spendingLimits.reserve(wallet, 30000L)).thenReturn(reservation);
+        when(walletRepository.hold(1L, 30000L, false)).thenReturn(DebitResult.APPLIED, DebitResult.INSUFFICIENT_BALANCE);
+
+        assertEquals(5L, walletValidationService.hold(wallet, 30000L, Reservation::reservedAt));
+        var order = inOrder(spendingLimits, walletRepository);
+        order.verify(spendingLimits).reserve(wallet, 30000L);
+        order.verify(walletRepository).hold(1L, 30000L, false);
+        order.verify(spendingLimits).releaseOnRollback(reservation);
+
+        assertThrows(IllegalArgumentException.class, () -> walletValidationService.hold(wallet, 30000L, r -> r));
+        verify(spendingLimits).release(reservation);
+    }
+
+    @Test
+    @DisplayName("Should refuse a hold on a striped wallet")
+    void testHold_StripedWallet() {
+        wallet.setStripeCount(4);
+
+        assertThrows(IllegalStateException.class, () -> walletValidationService.hold(wallet, 100L, r -> r));
+        verifyNoInteractions(walletRepository);
+        verify(spendingLimits, never()).reserve(any(), anyLong());
     }
 }
@@ -0,0 +1,77 @@
+package org.walletservice.wallet_service.validation.validator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.walletservice.wallet_service.service.wallet.InternalWalletService;
+import org.walletservice.wallet_service.service.wallet.WalletStatusCache;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WalletInternalValidationServiceTest {
+
+    @Mock
+    private InternalWalletService internalWalletService;
+
+    private final WalletStatusCache walletStatusCache = new WalletStatusCache(60_000, 100);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private WalletInternalValidationService service(String mode, WebClient.Builder builder) {
+        return new WalletInternalValidationService(internalWalletService, walletStatusCache, builder,
+                "http://localhost:8082", "token", mode, 200);
+    }
+
+    @Test
+    @DisplayName("Should validate an active receiver in-process without HTTP")
+    void testLocal_Active() {
+        when(internalWalletService.getWalletStatus(2L)).thenReturn(new WalletStatusCache.WalletStatus(true, false));
+        WalletInternalValidationService validator = service("local", WebClient.builder().exchangeFunction(
+                request -> Mono.error(new AssertionError("no HTTP call expected"))));
+
+        assertDoesNotThrow(() -> validator.validateReceiverWallet(2L));
+        assertDoesNotThrow(() -> validator.validateReceiverWallet(2L));
+
+        verify(internalWalletService, times(1)).getWalletStatus(2L);
+    }
+
+    @Test
+    @DisplayName("Should reject an inactive receiver")
+    void testLocal_Inactive() {
+        when(internalWalletService.getWalletStatus(3L)).thenReturn(new WalletStatusCache.WalletStatus(false, false));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> service("local", WebClient.builder()).validateReceiverWallet(3L));
+        assertEquals("Wallet inactive", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should map remote 404 to wallet not found")
+    void testRemote_NotFound() {
+        WalletInternalValidationService validator = service("remote", WebClient.builder().exchangeFunction(
+                request -> Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).body("Wallet not found").build())));
+
+        assertThrows(IllegalArgumentException.class, () -> validator.validateReceiverWallet(4L));
+        verifyNoInteractions(internalWalletService);
+    }
+
+    @Test
+    @DisplayName("Should give up on a remote call that exceeds the timeout")
+    void testRemote_Timeout() {
+        WalletInternalValidationService validator = service("remote", WebClient.builder().exchangeFunction(
+                request -> Mono.never()));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> validator.validateReceiverWallet(5L));
+        assertEquals("Receiver wallet validation timed out", ex.getMessage());
+    }
+}